@@ -0,0 +1,132 @@
+package org.reservation.system.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.reservation.system.model.Bus;
+import org.reservation.system.model.Fleet;
+import org.reservation.system.model.request.ReservationRequest;
+import org.reservation.system.model.response.ApiResponse;
+import org.reservation.system.model.response.ReservationResponse;
+import org.reservation.system.persistence.WriteAheadLog;
+import org.reservation.system.service.BusReservationService;
+import org.reservation.system.validator.RequestValidator;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.reservation.system.Constant.DefaultConfig.LOCK_STRIPES;
+
+/**
+ * Time to book 1,000 one-seat reservations through a durable reservation log, posted one request at a time
+ * versus as one batch. Both include the servlet's JSON parsing, validation and response serialisation.
+ * The bookings are spread over the single-leg routes of the bookable week, so every one of them succeeds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BatchReservationBenchmark {
+
+    private static final int BOOKINGS = 1000;
+    private static final String[][] LEGS = {{"A", "B"}, {"B", "C"}, {"C", "D"}, {"D", "C"}, {"C", "B"}, {"B", "A"}};
+
+    @Param({"5"})
+    private long commitWindowMillis;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<String> requestBodies;
+    private String batchBody;
+    private Path dataDir;
+    private WriteAheadLog reservationLog;
+    private BusReservationService reservationService;
+
+    @Setup(Level.Trial)
+    public void createRequests() throws IOException {
+        LocalDate firstDate = LocalDate.now().plusDays(1);
+        List<ReservationRequest> requests = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            String[] leg = LEGS[i % LEGS.length];
+            requests.add(new ReservationRequest.Builder()
+                    .origin(leg[0])
+                    .destination(leg[1])
+                    .passengerCount(1)
+                    .paymentAmount(BigDecimal.valueOf(50))
+                    .travelDate(firstDate.plusDays((i / LEGS.length) % 7).toString())
+                    .build());
+        }
+        requestBodies = new ArrayList<>();
+        for (ReservationRequest request : requests) {
+            requestBodies.add(objectMapper.writeValueAsString(toJson(request)));
+        }
+        batchBody = objectMapper.writeValueAsString(requests.stream().map(BatchReservationBenchmark::toJson).toList());
+    }
+
+    @Setup(Level.Invocation)
+    public void setUp() throws IOException {
+        dataDir = Files.createTempDirectory("batch-benchmark");
+        reservationLog = WriteAheadLog.open(dataDir.resolve("reservations.wal"), Duration.ofMillis(commitWindowMillis));
+        reservationService = new BusReservationService.Builder(Fleet.of(new Bus()))
+                .lockStripes(LOCK_STRIPES)
+                .reservationLog(reservationLog)
+                .build();
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() throws IOException {
+        reservationLog.close();
+        Files.deleteIfExists(dataDir.resolve("reservations.wal"));
+        Files.deleteIfExists(dataDir);
+    }
+
+    @Benchmark
+    public int individualRequests() throws IOException {
+        int length = 0;
+        for (String body : requestBodies) {
+            ReservationRequest request = objectMapper.readValue(body, ReservationRequest.class);
+            RequestValidator.validateReservationRequest(request);
+            ReservationResponse response = reservationService.reserveTicket(request);
+            length += objectMapper.writeValueAsString(ApiResponse.success(response)).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public int batchRequest() throws IOException {
+        List<ReservationRequest> requests = new ArrayList<>();
+        try (MappingIterator<ReservationRequest> items = objectMapper.readerFor(ReservationRequest.class).readValues(batchBody)) {
+            while (items.hasNextValue()) {
+                ReservationRequest request = items.nextValue();
+                RequestValidator.validateReservationRequest(request);
+                requests.add(request);
+            }
+        }
+        StringWriter out = new StringWriter();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartArray();
+            for (ApiResponse<ReservationResponse> result : reservationService.reserveTickets(requests)) {
+                generator.writeObject(result);
+            }
+            generator.writeEndArray();
+        }
+        return out.getBuffer().length();
+    }
+
+    private static Map<String, Object> toJson(ReservationRequest request) {
+        return Map.of(
+                "origin", request.getOrigin(),
+                "destination", request.getDestination(),
+                "passengerCount", request.getPassengerCount(),
+                "paymentAmount", request.getPaymentAmount(),
+                "travelDate", request.getTravelDate());
+    }
+}
@@ -0,0 +1,78 @@
+package org.reservation.system.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.reservation.system.exception.NotEnoughSeatException;
+import org.reservation.system.model.Bus;
+import org.reservation.system.model.Fleet;
+import org.reservation.system.model.request.ReservationRequest;
+import org.reservation.system.model.response.ReservationResponse;
+import org.reservation.system.persistence.WriteAheadLog;
+import org.reservation.system.service.BusReservationService;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.reservation.system.Constant.DefaultConfig.LOCK_STRIPES;
+
+/**
+ * Durable bookings per second through the reservation log at different group commit windows.
+ * Each booking takes one seat; when a trip sells out the threads move on to the next date.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(32)
+public class GroupCommitBenchmark {
+
+    @Param({"1", "5", "10"})
+    private long commitWindowMillis;
+
+    private final AtomicInteger dayOffset = new AtomicInteger();
+    private Path dataDir;
+    private WriteAheadLog reservationLog;
+    private BusReservationService reservationService;
+    private LocalDate firstDate;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        dataDir = Files.createTempDirectory("wal-benchmark");
+        reservationLog = WriteAheadLog.open(dataDir.resolve("reservations.wal"), Duration.ofMillis(commitWindowMillis));
+        reservationService = new BusReservationService.Builder(Fleet.of(new Bus()))
+                .lockStripes(LOCK_STRIPES)
+                .reservationLog(reservationLog)
+                .build();
+        firstDate = LocalDate.now().plusDays(1);
+        dayOffset.set(0);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        reservationLog.close();
+        Files.deleteIfExists(dataDir.resolve("reservations.wal"));
+        Files.deleteIfExists(dataDir);
+    }
+
+    @Benchmark
+    public ReservationResponse book() {
+        int offset = dayOffset.get();
+        ReservationRequest request = new ReservationRequest.Builder()
+                .origin("A")
+                .destination("D")
+                .passengerCount(1)
+                .paymentAmount(BigDecimal.valueOf(150))
+                .travelDate(firstDate.plusDays(offset).toString())
+                .build();
+        try {
+            return reservationService.reserveTicket(request);
+        } catch (NotEnoughSeatException e) {
+            dayOffset.compareAndSet(offset, offset + 1);
+            return null;
+        }
+    }
+}
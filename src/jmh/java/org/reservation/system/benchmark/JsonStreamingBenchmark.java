@@ -0,0 +1,105 @@
+package org.reservation.system.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.reservation.system.model.request.ReservationRequest;
+import org.reservation.system.model.response.ApiResponse;
+import org.reservation.system.model.response.ReservationResponse;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the JSON path of a reservation request in the servlet: parsing the request body and serialising the
+ * response. Compares reading the body into a string line by line and writing the response through a string,
+ * with a default mapper, against parsing from the request stream and writing into the response stream with
+ * type-bound readers and writers and a shared buffer pool. Each request runs on a new virtual thread, as the
+ * servlet runs it. Run with {@code -prof gc} to compare bytes allocated per request ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonStreamingBenchmark {
+
+    private final ObjectMapper stringMapper = new ObjectMapper();
+    private final ObjectMapper streamingMapper = new ObjectMapper(JsonFactory.builder()
+            .recyclerPool(JsonRecyclerPools.newConcurrentDequePool())
+            .build());
+    private final ObjectReader requestReader = streamingMapper.readerFor(ReservationRequest.class);
+    private final ObjectWriter responseWriter = streamingMapper.writerFor(new TypeReference<ApiResponse<ReservationResponse>>() {});
+
+    private byte[] requestBody;
+    private ReservationResponse reservation;
+
+    @Setup
+    public void setUp() {
+        requestBody = ("{\"origin\":\"A\",\"destination\":\"C\",\"passengerCount\":2,"
+                + "\"paymentAmount\":100,\"travelDate\":\"2030-01-15\"}").getBytes(StandardCharsets.UTF_8);
+        reservation = new ReservationResponse.Builder()
+                .reservationId("4b1f6c2e-8d3a-4c8f-9e2b-5a7d1c0e3f42")
+                .origin("A")
+                .destination("C")
+                .allocatedSeatNumbers(List.of("1A", "1B"))
+                .totalPrice(BigDecimal.valueOf(100))
+                .departureTime("2030-01-15T08:00")
+                .arrivalTime("2030-01-15T10:00")
+                .status("CONFIRMED")
+                .build();
+    }
+
+    @Benchmark
+    public Object throughStrings() throws InterruptedException {
+        return onVirtualThread(() -> {
+            StringBuilder sb = new StringBuilder();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(requestBody), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    sb.append(line);
+                }
+            }
+            ReservationRequest request = stringMapper.readValue(sb.toString(), ReservationRequest.class);
+            Writer.nullWriter().write(stringMapper.writeValueAsString(ApiResponse.success(reservation)));
+            return request;
+        });
+    }
+
+    @Benchmark
+    public Object streaming() throws InterruptedException {
+        return onVirtualThread(() -> {
+            ReservationRequest request = requestReader.readValue(new ByteArrayInputStream(requestBody));
+            responseWriter.writeValue(OutputStream.nullOutputStream(), ApiResponse.success(reservation));
+            return request;
+        });
+    }
+
+    @FunctionalInterface
+    private interface JsonTask {
+        Object run() throws IOException;
+    }
+
+    private static Object onVirtualThread(JsonTask task) throws InterruptedException {
+        Object[] result = new Object[1];
+        Thread.ofVirtual().start(() -> {
+            try {
+                result[0] = task.run();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).join();
+        return result[0];
+    }
+}
@@ -0,0 +1,38 @@
+package org.reservation.system.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.reservation.system.model.Bus;
+import org.reservation.system.model.PricingInfo;
+import org.reservation.system.model.Route;
+import org.reservation.system.service.PriceCalculator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of pricing a booking from the bus timetable, for a single leg, the whole line and a return trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PriceCalculatorBenchmark {
+
+    @Param({"A-B", "A-D", "D-B"})
+    private String stops;
+
+    @Param({"1", "4"})
+    private int passengers;
+
+    private Bus bus;
+    private Route route;
+
+    @Setup
+    public void setUp() {
+        bus = new Bus();
+        route = bus.getRoute(stops.substring(0, 1), stops.substring(2));
+    }
+
+    @Benchmark
+    public PricingInfo calculatePrice() {
+        return PriceCalculator.calculatePrice(bus, route, passengers);
+    }
+}
@@ -0,0 +1,169 @@
+package org.reservation.system.benchmark;
+
+import org.reservation.system.exception.NotEnoughSeatException;
+import org.reservation.system.metrics.LatencyHistogram;
+import org.reservation.system.model.Bus;
+import org.reservation.system.model.request.AvailabilityRequest;
+import org.reservation.system.model.request.ReservationRequest;
+import org.reservation.system.model.response.ReservationResponse;
+import org.reservation.system.replication.ReplicaService;
+import org.reservation.system.service.BusReservationService;
+import org.reservation.system.shard.ShardClient;
+import org.reservation.system.shard.ShardNode;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * How far a {@link ReplicaService} trails its primary under booking load. The primary is a {@link ShardNode} in a
+ * JVM of its own with a durable reservation log; the replica follows it in this JVM. Closed-loop clients reserve
+ * and cancel a seat through the replica, which forwards the writes, while as many readers check availability on
+ * it. Every millisecond the replica's staleness and the records it has yet to apply are sampled.
+ * <p>
+ * Run after {@code mvn -Pbenchmarks test-compile} with
+ * {@code java -cp target/classes:target/test-classes:<dependency classpath> org.reservation.system.benchmark.ReplicationLagHarness
+ * [seconds] [clients]}, by default for 10 seconds with 32 writing and 32 reading clients. The primary runs on the
+ * same host, so replica and primary compete for its cores.
+ */
+public class ReplicationLagHarness {
+    private static final String[][] LEGS = {{"A", "B"}, {"B", "C"}, {"C", "D"}, {"A", "D"}, {"D", "C"}, {"C", "B"}, {"B", "A"}, {"D", "A"}};
+
+    public static void main(String[] args) throws Exception {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+
+        Path dataDir = Files.createTempDirectory("replication-lag-test");
+        int port = freePort();
+        Process primary = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                "-Dreservation.log.mode=ASYNC",
+                ShardNode.class.getName(), String.valueOf(port), dataDir.toString())
+                .redirectErrorStream(true)
+                .redirectOutput(dataDir.resolve("primary.log").toFile())
+                .start();
+        try {
+            InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+            awaitListening(address);
+            try (ReplicaService replica = ReplicaService.start(() -> new BusReservationService(new Bus()),
+                    new ShardClient(address, clients, 30_000), Duration.ofSeconds(5))) {
+                run(replica, clients, Math.max(seconds / 2, 1));
+                Result result = run(replica, clients, seconds);
+                System.out.printf("%.0f reservations/s, %.0f availability checks/s, %d forwarded to the primary%n",
+                        result.reservations / (double) seconds, result.reads / (double) seconds, replica.getForwardedReads());
+                long[] staleness = result.staleness.valuesAtQuantiles(0.5, 0.99, 0.999);
+                System.out.printf("staleness ms: p50=%d p99=%d p99.9=%d max=%d%n",
+                        staleness[0], staleness[1], staleness[2], result.staleness.getMax());
+                long[] lag = result.lag.valuesAtQuantiles(0.5, 0.99, 0.999);
+                System.out.printf("lag records: p50=%d p99=%d p99.9=%d max=%d%n", lag[0], lag[1], lag[2], result.lag.getMax());
+            }
+        } finally {
+            primary.destroy();
+            primary.waitFor(10, TimeUnit.SECONDS);
+            try (Stream<Path> files = Files.walk(dataDir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private record Result(long reservations, long reads, LatencyHistogram staleness, LatencyHistogram lag) {
+    }
+
+    private static Result run(ReplicaService replica, int clients, int seconds) throws InterruptedException {
+        LongAdder reservations = new LongAdder();
+        LongAdder reads = new LongAdder();
+        LatencyHistogram staleness = new LatencyHistogram();
+        LatencyHistogram lag = new LatencyHistogram();
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        // Replica reads never block, so readers on virtual threads would keep the writers from running
+        try (ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofPlatform().factory())) {
+            for (int i = 0; i < clients; i++) {
+                executor.execute(() -> {
+                    while (System.nanoTime() < end) {
+                        try {
+                            ReservationResponse reserved = replica.reserveTicket(nextReservation());
+                            reservations.increment();
+                            replica.cancelReservation(reserved.getReservationId());
+                        } catch (NotEnoughSeatException e) {
+                            // Seats are all booked by other clients for the moment
+                        }
+                    }
+                });
+                executor.execute(() -> {
+                    while (System.nanoTime() < end) {
+                        replica.checkAvailability(nextAvailability());
+                        reads.increment();
+                    }
+                });
+            }
+            executor.execute(() -> {
+                while (System.nanoTime() < end) {
+                    staleness.record(replica.getStalenessMillis());
+                    lag.record(replica.getLagRecords());
+                    try {
+                        Thread.sleep(1);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+        }
+        return new Result(reservations.sum(), reads.sum(), staleness, lag);
+    }
+
+    private static ReservationRequest nextReservation() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String[] leg = LEGS[random.nextInt(LEGS.length)];
+        return new ReservationRequest.Builder()
+                .origin(leg[0])
+                .destination(leg[1])
+                .passengerCount(1)
+                .paymentAmount(new BigDecimal("100"))
+                .travelDate(LocalDate.now().plusDays(1 + random.nextInt(7)).toString())
+                .build();
+    }
+
+    private static AvailabilityRequest nextAvailability() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String[] leg = LEGS[random.nextInt(LEGS.length)];
+        return new AvailabilityRequest.Builder()
+                .origin(leg[0])
+                .destination(leg[1])
+                .passengerCount(1 + random.nextInt(4))
+                .travelDate(LocalDate.now().plusDays(1 + random.nextInt(7)).toString())
+                .build();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void awaitListening(InetSocketAddress address) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (System.nanoTime() < deadline) {
+            try (Socket socket = new Socket()) {
+                socket.connect(address, 1000);
+                return;
+            } catch (IOException e) {
+                Thread.sleep(100);
+            }
+        }
+        throw new IllegalStateException("Primary on " + address + " did not start");
+    }
+}
@@ -0,0 +1,54 @@
+package org.reservation.system.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.reservation.system.exception.RequestValidationException;
+import org.reservation.system.model.request.ReservationRequest;
+import org.reservation.system.validator.RequestValidator;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of validating a reservation request, for a valid request and for one rejected for its travel date.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RequestValidatorBenchmark {
+
+    private ReservationRequest validRequest;
+    private ReservationRequest pastDateRequest;
+
+    @Setup
+    public void setUp() {
+        validRequest = request(LocalDate.now().plusDays(3));
+        pastDateRequest = request(LocalDate.now().minusDays(1));
+    }
+
+    @Benchmark
+    public ReservationRequest validReservationRequest() {
+        RequestValidator.validateReservationRequest(validRequest);
+        return validRequest;
+    }
+
+    @Benchmark
+    public RequestValidationException rejectedReservationRequest() {
+        try {
+            RequestValidator.validateReservationRequest(pastDateRequest);
+            throw new IllegalStateException("Request was not rejected");
+        } catch (RequestValidationException e) {
+            return e;
+        }
+    }
+
+    private static ReservationRequest request(LocalDate travelDate) {
+        return new ReservationRequest.Builder()
+                .origin("A")
+                .destination("D")
+                .passengerCount(2)
+                .paymentAmount(BigDecimal.valueOf(100))
+                .travelDate(travelDate.toString())
+                .build();
+    }
+}
@@ -0,0 +1,86 @@
+package org.reservation.system.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.reservation.system.model.Bus;
+import org.reservation.system.model.Fleet;
+import org.reservation.system.model.request.AvailabilityRequest;
+import org.reservation.system.model.request.ReservationRequest;
+import org.reservation.system.model.response.AvailabilityResponse;
+import org.reservation.system.model.response.ReservationResponse;
+import org.reservation.system.service.BusReservationService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import static org.reservation.system.Constant.DefaultConfig.LOCK_STRIPES;
+
+/**
+ * Availability checks and bookings through {@link BusReservationService}, in memory without a reservation log.
+ * All bookings go to the same trip, so concurrent threads contend for its stripe lock. Each booking is cancelled
+ * again, so the trip never sells out and every operation is a successful reservation and cancellation.
+ */
+@State(Scope.Benchmark)
+public class ReservationServiceBenchmark {
+
+    private BusReservationService reservationService;
+    private AvailabilityRequest availabilityRequest;
+    private ReservationRequest reservationRequest;
+
+    @Setup
+    public void setUp() {
+        reservationService = new BusReservationService.Builder(Fleet.of(new Bus()))
+                .lockStripes(LOCK_STRIPES)
+                .build();
+        String travelDate = LocalDate.now().plusDays(1).toString();
+        availabilityRequest = new AvailabilityRequest.Builder()
+                .origin("A")
+                .destination("C")
+                .passengerCount(2)
+                .travelDate(travelDate)
+                .build();
+        reservationRequest = new ReservationRequest.Builder()
+                .origin("A")
+                .destination("C")
+                .passengerCount(1)
+                .paymentAmount(BigDecimal.valueOf(100))
+                .travelDate(travelDate)
+                .build();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public AvailabilityResponse checkAvailability() {
+        return reservationService.checkAvailability(availabilityRequest);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Threads(1)
+    public ReservationResponse reserveTicket_1() {
+        return reserveAndCancel();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Threads(8)
+    public ReservationResponse reserveTicket_8() {
+        return reserveAndCancel();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Threads(32)
+    public ReservationResponse reserveTicket_32() {
+        return reserveAndCancel();
+    }
+
+    private ReservationResponse reserveAndCancel() {
+        ReservationResponse reservation = reservationService.reserveTicket(reservationRequest);
+        return reservationService.cancelReservation(reservation.getReservationId());
+    }
+}
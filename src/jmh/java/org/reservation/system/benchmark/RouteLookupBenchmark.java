@@ -0,0 +1,60 @@
+package org.reservation.system.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.reservation.system.model.Bus;
+import org.reservation.system.model.Route;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link Bus#getRoute} on the route table against the two stream scans it replaced.
+ * The stream version always ran the return route scan, since {@code orElse} evaluates its argument eagerly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RouteLookupBenchmark {
+
+    @Param({"A-B", "C-D", "D-A"})
+    private String stops;
+
+    private Bus bus;
+    private String origin;
+    private String destination;
+    private List<Route> routes;
+    private List<Route> returnRoutes;
+
+    @Setup
+    public void setUp() {
+        bus = new Bus();
+        origin = new String(stops.substring(0, 1));
+        destination = new String(stops.substring(2));
+        routes = new ArrayList<>();
+        returnRoutes = new ArrayList<>();
+        String[] busStops = bus.getBusStops();
+        for (int i = 0; i < busStops.length - 1; i++) {
+            for (int j = i + 1; j < busStops.length; j++) {
+                routes.add(bus.getRoute(busStops[i], busStops[j]));
+                returnRoutes.add(bus.getRoute(busStops[j], busStops[i]));
+            }
+        }
+    }
+
+    @Benchmark
+    public Route routeTable() {
+        return bus.getRoute(origin, destination);
+    }
+
+    @Benchmark
+    public Route streamScan() {
+        return routes.stream()
+                .filter(route -> route.getOrigin().equals(origin) && route.getDestination().equals(destination))
+                .findFirst()
+                .orElse(returnRoutes.stream()
+                        .filter(route -> route.getOrigin().equals(origin) && route.getDestination().equals(destination))
+                        .findFirst()
+                        .orElse(null));
+    }
+}
@@ -0,0 +1,89 @@
+package org.reservation.system.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.reservation.system.inventory.SeatInventory;
+import org.reservation.system.model.Bus;
+import org.reservation.system.model.Route;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Booking throughput of the lock-free seat claims against the same claims
+ * serialised on one service-wide monitor, as {@code reserveSeats} used to be.
+ * All threads book the same trip; when it sells out they move on to the next date.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SeatAllocationBenchmark {
+
+    private final Object serviceMonitor = new Object();
+    private final AtomicInteger dayOffset = new AtomicInteger();
+    private Bus bus;
+    private Route route;
+    private LocalDate firstDate;
+    private SeatInventory seatInventory;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        bus = new Bus();
+        route = bus.getRoute("A", "C");
+        firstDate = LocalDate.now().plusDays(1);
+        seatInventory = new SeatInventory(bus);
+        dayOffset.set(0);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public List<String> lockFree_1() {
+        return claimLockFree();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public List<String> lockFree_8() {
+        return claimLockFree();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public List<String> lockFree_32() {
+        return claimLockFree();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public List<String> serviceMonitor_1() {
+        return claimSynchronized();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public List<String> serviceMonitor_8() {
+        return claimSynchronized();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public List<String> serviceMonitor_32() {
+        return claimSynchronized();
+    }
+
+    private List<String> claimLockFree() {
+        int offset = dayOffset.get();
+        List<String> seats = seatInventory.claimSeats(route, firstDate.plusDays(offset), 2);
+        if (seats.isEmpty()) {
+            dayOffset.compareAndSet(offset, offset + 1);
+        }
+        return seats;
+    }
+
+    private List<String> claimSynchronized() {
+        synchronized (serviceMonitor) {
+            return claimLockFree();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.reservation.system.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.reservation.system.event.SeatEvent;
+import org.reservation.system.event.SeatEventRing;
+import org.reservation.system.model.Bus;
+import org.reservation.system.model.Fleet;
+import org.reservation.system.model.request.ReservationRequest;
+import org.reservation.system.model.response.ReservationResponse;
+import org.reservation.system.service.BusReservationService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.reservation.system.Constant.DefaultConfig.SEAT_EVENT_RING_SIZE;
+
+/**
+ * Cost of publishing seat events: a reservation and its cancellation with and without an event ring, and a bare
+ * publish on the ring from one thread and from four. The ring has no readers, as on a server nobody subscribed to.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SeatEventBenchmark {
+    private static final List<String> SEATS = List.of("1A", "1B");
+
+    @Param({"false", "true"})
+    private boolean events;
+
+    private BusReservationService service;
+    private SeatEventRing ring;
+    private ReservationRequest request;
+
+    @Setup
+    public void setUp() {
+        ring = new SeatEventRing(SEAT_EVENT_RING_SIZE);
+        BusReservationService.Builder builder = new BusReservationService.Builder(Fleet.of(new Bus()));
+        if (events) {
+            builder.seatEvents(new SeatEventRing(SEAT_EVENT_RING_SIZE));
+        }
+        service = builder.build();
+        request = new ReservationRequest.Builder()
+                .origin("A")
+                .destination("C")
+                .travelDate(LocalDate.now().plusDays(1).toString())
+                .passengerCount(2)
+                .paymentAmount(new BigDecimal("200"))
+                .build();
+    }
+
+    @Benchmark
+    public ReservationResponse reserveAndCancel() {
+        ReservationResponse reserved = service.reserveTicket(request);
+        return service.cancelReservation(reserved.getReservationId());
+    }
+
+    @Benchmark
+    public long publish() {
+        return ring.publish(SeatEventBenchmark::event);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long publishFromFourThreads() {
+        return ring.publish(SeatEventBenchmark::event);
+    }
+
+    private static SeatEvent event(long sequence) {
+        return new SeatEvent(sequence, SeatEvent.Type.SEATS_CLAIMED, "reservation", "BUS-1", LocalDate.EPOCH, false,
+                "A", "C", SEATS, 0);
+    }
+}
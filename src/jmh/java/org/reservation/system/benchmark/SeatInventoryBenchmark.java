@@ -0,0 +1,73 @@
+package org.reservation.system.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.reservation.system.inventory.SeatInventory;
+import org.reservation.system.model.Bus;
+import org.reservation.system.model.Route;
+import org.reservation.system.model.Seat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Compares availability checks on the bitset {@link SeatInventory} against the
+ * per-date {@code String -> AtomicBoolean} seat maps it replaced.
+ * Half of the seats are sold on the first leg before measuring.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SeatInventoryBenchmark {
+
+    @Param({"1", "20", "40"})
+    private int passengers;
+
+    private Bus bus;
+    private Route route;
+    private LocalDate travelDate;
+    private SeatInventory seatInventory;
+    private ConcurrentHashMap<LocalDate, ConcurrentHashMap<String, AtomicBoolean>> legacySeats;
+
+    @Setup
+    public void setUp() {
+        bus = new Bus();
+        route = bus.getRoute("B", "D");
+        travelDate = LocalDate.now().plusDays(1);
+        int soldSeats = bus.getSeats().size() / 2;
+
+        seatInventory = new SeatInventory(bus);
+        seatInventory.claimSeats(bus.getRoute("A", "B"), travelDate, soldSeats);
+
+        legacySeats = new ConcurrentHashMap<>();
+        ConcurrentHashMap<String, AtomicBoolean> seatMap = legacySeats.computeIfAbsent(travelDate, k -> new ConcurrentHashMap<>());
+        List<Seat> seats = bus.getSeats();
+        for (int i = 0; i < seats.size(); i++) {
+            seatMap.put(seats.get(i).getSeatNumber(), new AtomicBoolean(i < soldSeats));
+        }
+    }
+
+    @Benchmark
+    public boolean bitsetInventory() {
+        return seatInventory.countAvailableSeats(route, travelDate) >= passengers;
+    }
+
+    @Benchmark
+    public boolean legacySeatMaps() {
+        ConcurrentHashMap<String, AtomicBoolean> seatMap = legacySeats.computeIfAbsent(travelDate, k -> new ConcurrentHashMap<>());
+        List<String> availableSeats = new ArrayList<>();
+        for (Seat seat : bus.getSeats()) {
+            if (availableSeats.size() >= passengers) {
+                break;
+            }
+            seatMap.computeIfAbsent(seat.getSeatNumber(), key -> new AtomicBoolean(false));
+            if (!seatMap.get(seat.getSeatNumber()).get()) {
+                availableSeats.add(seat.getSeatNumber());
+            }
+        }
+        return availableSeats.size() >= passengers;
+    }
+}
@@ -0,0 +1,218 @@
+package org.reservation.system.benchmark;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One request to a servlet and its response, without a container. The request, response and async context are
+ * dynamic proxies of the servlet API interfaces that answer only what the reservation servlet asks for.
+ */
+final class ServletExchange {
+    private final String method;
+    private final String servletPath;
+    private final Map<String, String> parameters;
+    private final byte[] body;
+    private final StringWriter output = new StringWriter();
+    private final ByteArrayOutputStream outputBytes = new ByteArrayOutputStream();
+    private final AtomicBoolean completed = new AtomicBoolean();
+    private final CountDownLatch completion = new CountDownLatch(1);
+    private volatile boolean async;
+    private volatile int status = HttpServletResponse.SC_OK;
+    private volatile Runnable onComplete = () -> {
+    };
+
+    ServletExchange(String method, String servletPath, Map<String, String> parameters, String body) {
+        this.method = method;
+        this.servletPath = servletPath;
+        this.parameters = parameters;
+        this.body = body.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Sets what to run once the response is complete, before {@link #await} returns.
+     */
+    void onComplete(Runnable onComplete) {
+        this.onComplete = onComplete;
+    }
+
+    /**
+     * Passes the request to a servlet, completing the exchange when the servlet returns unless it went async.
+     */
+    void service(HttpServlet servlet) throws ServletException, IOException {
+        try {
+            servlet.service(request(), response());
+        } finally {
+            if (!async) {
+                complete();
+            }
+        }
+    }
+
+    /**
+     * Waits until the response is complete.
+     */
+    void await() throws InterruptedException {
+        completion.await();
+    }
+
+    String servletPath() {
+        return servletPath;
+    }
+
+    int status() {
+        return status;
+    }
+
+    /**
+     * Returns the response body, whether written as characters or bytes.
+     */
+    String responseBody() {
+        return outputBytes.size() > 0 ? outputBytes.toString(StandardCharsets.UTF_8) : output.toString();
+    }
+
+    private void complete() {
+        if (completed.compareAndSet(false, true)) {
+            onComplete.run();
+            completion.countDown();
+        }
+    }
+
+    private HttpServletRequest request() {
+        AsyncContext asyncContext = proxy(AsyncContext.class, (name, args) -> {
+            if (name.equals("complete")) {
+                complete();
+            }
+            return null;
+        });
+        return proxy(HttpServletRequest.class, (name, args) -> switch (name) {
+            case "getMethod" -> method;
+            case "getServletPath" -> servletPath;
+            case "getParameter" -> parameters.get((String) args[0]);
+            case "getContentLength" -> body.length;
+            case "getReader" -> new BufferedReader(new StringReader(new String(body, StandardCharsets.UTF_8)));
+            case "getInputStream" -> new BodyInputStream(body);
+            case "getProtocol" -> "HTTP/1.1";
+            case "startAsync" -> {
+                async = true;
+                yield asyncContext;
+            }
+            default -> null;
+        });
+    }
+
+    private HttpServletResponse response() {
+        PrintWriter writer = new PrintWriter(output);
+        return proxy(HttpServletResponse.class, (name, args) -> switch (name) {
+            case "setStatus" -> {
+                status = (Integer) args[0];
+                yield null;
+            }
+            case "getStatus" -> status;
+            case "getWriter" -> writer;
+            case "getOutputStream" -> new BodyOutputStream(outputBytes);
+            default -> null;
+        });
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object invoke(String methodName, Object[] args);
+    }
+
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Object value = handler.invoke(method.getName(), args);
+            if (value != null || !method.getReturnType().isPrimitive()) {
+                return value;
+            }
+            if (method.getReturnType() == boolean.class) {
+                return false;
+            }
+            if (method.getReturnType() == long.class) {
+                return 0L;
+            }
+            return method.getReturnType() == void.class ? null : 0;
+        }));
+    }
+
+    private static final class BodyInputStream extends ServletInputStream {
+        private final ByteArrayInputStream in;
+
+        BodyInputStream(byte[] body) {
+            this.in = new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public int read() {
+            return in.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            return in.read(b, off, len);
+        }
+
+        @Override
+        public boolean isFinished() {
+            return in.available() == 0;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static final class BodyOutputStream extends ServletOutputStream {
+        private final ByteArrayOutputStream out;
+
+        BodyOutputStream(ByteArrayOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) {
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
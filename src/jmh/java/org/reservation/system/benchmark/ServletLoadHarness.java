@@ -0,0 +1,176 @@
+package org.reservation.system.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletResponse;
+import org.reservation.system.servlet.ReservationServlet;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import static org.reservation.system.Constant.SystemProperty.DATA_DIR;
+
+/**
+ * Open-loop load test of {@link ReservationServlet} in process, with a durable reservation log.
+ * Requests arrive at a fixed rate and are handed to a pool of container threads, as a Tomcat connector would;
+ * latency runs from the scheduled arrival to the completion of the response, so a request queued behind
+ * a saturated pool counts its wait. The mix is 70% availability checks, 15% reservations and 15% cancellations
+ * of earlier reservations, which keeps the bus from selling out.
+ * <p>
+ * Run after {@code mvn -Pbenchmarks test-compile} with
+ * {@code java -cp target/classes:target/test-classes:<dependency classpath> org.reservation.system.benchmark.ServletLoadHarness
+ * [peak requests per second] [load factor] [seconds] [container threads]}, by default 1,000 requests per second
+ * at twice that for 10 seconds on 200 container threads. System properties such as
+ * {@code -Dreservation.maxInFlightRequests} are passed on to the servlet.
+ */
+public class ServletLoadHarness {
+    private static final String[][] LEGS = {{"A", "B"}, {"B", "C"}, {"C", "D"}, {"A", "D"}, {"D", "C"}, {"C", "B"}, {"B", "A"}, {"D", "A"}};
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        int peakRate = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        double loadFactor = args.length > 1 ? Double.parseDouble(args[1]) : 2.0;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int containerThreads = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+
+        Path dataDir = Files.createTempDirectory("servlet-load-test");
+        System.setProperty(DATA_DIR, dataDir.toString());
+        ReservationServlet servlet = new ReservationServlet();
+        ExecutorService container = Executors.newFixedThreadPool(containerThreads);
+        Queue<String> reservationIds = new ConcurrentLinkedQueue<>();
+        try {
+            System.out.printf("Warming up at %d requests/s%n", peakRate);
+            run(servlet, container, reservationIds, peakRate, Math.max(seconds / 2, 1));
+            int rate = (int) Math.round(peakRate * loadFactor);
+            System.out.printf("Measuring at %d requests/s (%.1fx peak) for %d s on %d container threads%n",
+                    rate, loadFactor, seconds, containerThreads);
+            run(servlet, container, reservationIds, rate, seconds).print();
+        } finally {
+            container.shutdown();
+            servlet.destroy();
+            try (Stream<Path> files = Files.walk(dataDir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static Result run(ReservationServlet servlet, ExecutorService container, Queue<String> reservationIds,
+                              int rate, int seconds) throws InterruptedException {
+        int total = rate * seconds;
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        Result result = new Result(total);
+        CountDownLatch done = new CountDownLatch(total);
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(10);
+        for (int i = 0; i < total; i++) {
+            long arrival = start + i * interval;
+            long delay = arrival - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            ServletExchange exchange = nextExchange(reservationIds);
+            int index = i;
+            exchange.onComplete(() -> {
+                result.record(index, System.nanoTime() - arrival, exchange.status());
+                collectReservationId(exchange, reservationIds);
+                done.countDown();
+            });
+            container.execute(() -> {
+                try {
+                    exchange.service(servlet);
+                } catch (ServletException | IOException e) {
+                    throw new IllegalStateException("Request failed", e);
+                }
+            });
+        }
+        if (!done.await(1, TimeUnit.MINUTES)) {
+            System.out.printf("%d requests did not complete%n", done.getCount());
+        }
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    private static ServletExchange nextExchange(Queue<String> reservationIds) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String[] leg = LEGS[random.nextInt(LEGS.length)];
+        String travelDate = LocalDate.now().plusDays(1 + random.nextInt(7)).toString();
+        int pick = random.nextInt(100);
+        if (pick >= 85) {
+            String reservationId = reservationIds.poll();
+            if (reservationId != null) {
+                return new ServletExchange("POST", "/cancel", Map.of("reservationId", reservationId), "");
+            }
+        }
+        if (pick >= 70) {
+            String body = "{\"origin\":\"" + leg[0] + "\",\"destination\":\"" + leg[1] + "\",\"passengerCount\":1,"
+                    + "\"paymentAmount\":100,\"travelDate\":\"" + travelDate + "\"}";
+            return new ServletExchange("POST", "/reserve", Map.of(), body);
+        }
+        return new ServletExchange("GET", "/check-availability", Map.of(
+                "origin", leg[0], "destination", leg[1],
+                "passengerCount", String.valueOf(1 + random.nextInt(4)), "travelDate", travelDate), "");
+    }
+
+    private static void collectReservationId(ServletExchange exchange, Queue<String> reservationIds) {
+        if (!exchange.servletPath().equals("/reserve") || exchange.status() != HttpServletResponse.SC_OK) {
+            return;
+        }
+        try {
+            JsonNode reservationId = objectMapper.readTree(exchange.responseBody()).path("data").path("reservationId");
+            if (reservationId.isTextual()) {
+                reservationIds.add(reservationId.asText());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unreadable reservation response", e);
+        }
+    }
+
+    private static final class Result {
+        private final long[] latencies;
+        private final AtomicIntegerArray statusCounts = new AtomicIntegerArray(600);
+        private long elapsedNanos;
+
+        Result(int total) {
+            this.latencies = new long[total];
+        }
+
+        void record(int index, long latencyNanos, int status) {
+            latencies[index] = latencyNanos;
+            statusCounts.incrementAndGet(status);
+        }
+
+        void print() {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            System.out.printf("Throughput: %.0f requests/s%n", sorted.length / (elapsedNanos / 1e9));
+            System.out.printf("Latency ms: p50 %.2f  p90 %.2f  p99 %.2f  p99.9 %.2f  max %.2f%n",
+                    percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99),
+                    percentile(sorted, 99.9), sorted[sorted.length - 1] / 1e6);
+            for (int status = 0; status < statusCounts.length(); status++) {
+                if (statusCounts.get(status) > 0) {
+                    System.out.printf("HTTP %d: %d%n", status, statusCounts.get(status));
+                }
+            }
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.reservation.system.benchmark;
+
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.reservation.system.servlet.ReservationServlet;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end request handling of {@link ReservationServlet} with stub request and response objects, from the
+ * container's call into the servlet until the async response is complete. The servlet runs in memory without a
+ * reservation log. A booking is cancelled in a second request, so the trip never sells out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ServletRequestBenchmark {
+    private static final String RESERVATION_ID = "\"reservationId\":\"";
+
+    private ReservationServlet servlet;
+    private Map<String, String> availabilityParameters;
+    private String reservationBody;
+
+    @Setup
+    public void setUp() {
+        servlet = new ReservationServlet();
+        String travelDate = LocalDate.now().plusDays(1).toString();
+        availabilityParameters = Map.of("origin", "A", "destination", "C", "passengerCount", "2", "travelDate", travelDate);
+        reservationBody = "{\"origin\":\"A\",\"destination\":\"C\",\"passengerCount\":1,"
+                + "\"paymentAmount\":100,\"travelDate\":\"" + travelDate + "\"}";
+    }
+
+    @TearDown
+    public void tearDown() {
+        servlet.destroy();
+    }
+
+    @Benchmark
+    public int checkAvailability() throws Exception {
+        return send(new ServletExchange("GET", "/check-availability", availabilityParameters, "")).status();
+    }
+
+    @Benchmark
+    public int reserveAndCancel() throws Exception {
+        String reservation = send(new ServletExchange("POST", "/reserve", Map.of(), reservationBody)).responseBody();
+        int start = reservation.indexOf(RESERVATION_ID) + RESERVATION_ID.length();
+        String reservationId = reservation.substring(start, reservation.indexOf('"', start));
+        return send(new ServletExchange("POST", "/cancel", Map.of("reservationId", reservationId), "")).status();
+    }
+
+    @Benchmark
+    public int invalidRoute() throws Exception {
+        return send(new ServletExchange("GET", "/check-availability",
+                Map.of("origin", "A", "destination", "X", "passengerCount", "2", "travelDate", availabilityParameters.get("travelDate")), "")).status();
+    }
+
+    @Benchmark
+    public int notFound() throws Exception {
+        return send(new ServletExchange("GET", "/unknown", Map.of(), "")).status();
+    }
+
+    private ServletExchange send(ServletExchange exchange) throws ServletException, IOException, InterruptedException {
+        exchange.service(servlet);
+        exchange.await();
+        return exchange;
+    }
+}
@@ -0,0 +1,140 @@
+package org.reservation.system.benchmark;
+
+import org.reservation.system.exception.NotEnoughSeatException;
+import org.reservation.system.model.Bus;
+import org.reservation.system.model.Fleet;
+import org.reservation.system.model.request.ReservationRequest;
+import org.reservation.system.model.response.ReservationResponse;
+import org.reservation.system.shard.ShardClient;
+import org.reservation.system.shard.ShardNode;
+import org.reservation.system.shard.ShardRouter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Booking throughput of a {@link ShardRouter} over shard nodes running in JVMs of their own, each a
+ * {@link ShardNode} with a durable reservation log. Closed-loop clients reserve a seat on a random leg and date
+ * and cancel it again, so the bus never sells out; throughput counts reservations per second.
+ * <p>
+ * Run after {@code mvn -Pbenchmarks test-compile} with
+ * {@code java -cp target/classes:target/test-classes:<dependency classpath> org.reservation.system.benchmark.ShardScalingHarness
+ * [shard counts] [seconds] [clients]}, by default 1,2,4 shards for 10 seconds each with 64 clients. The shards run
+ * on the same host as the router, so the numbers show scaling only as far as the host has cores to spare.
+ */
+public class ShardScalingHarness {
+    private static final String[][] LEGS = {{"A", "B"}, {"B", "C"}, {"C", "D"}, {"A", "D"}, {"D", "C"}, {"C", "B"}, {"B", "A"}, {"D", "A"}};
+
+    public static void main(String[] args) throws Exception {
+        String[] shardCounts = (args.length > 0 ? args[0] : "1,2,4").split(",");
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int clients = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+
+        for (String shardCount : shardCounts) {
+            int shards = Integer.parseInt(shardCount.trim());
+            Path dataDir = Files.createTempDirectory("shard-scaling-test");
+            List<Process> nodes = new ArrayList<>();
+            Map<String, ShardClient> shardClients = new LinkedHashMap<>();
+            try {
+                for (int i = 1; i <= shards; i++) {
+                    int port = freePort();
+                    Path nodeDir = Files.createDirectories(dataDir.resolve("node-" + i));
+                    nodes.add(new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                            "-cp", System.getProperty("java.class.path"),
+                            "-Dreservation.log.mode=ASYNC",
+                            ShardNode.class.getName(), String.valueOf(port), nodeDir.toString())
+                            .redirectErrorStream(true)
+                            .redirectOutput(nodeDir.resolve("node.log").toFile())
+                            .start());
+                    InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+                    awaitListening(address);
+                    shardClients.put("node-" + i, new ShardClient(address, clients, 30_000));
+                }
+                try (ShardRouter router = new ShardRouter(Fleet.of(new Bus()), shardClients)) {
+                    run(router, clients, Math.max(seconds / 2, 1));
+                    double throughput = run(router, clients, seconds);
+                    System.out.printf("%d shard(s): %.0f reservations/s with %d clients%n", shards, throughput, clients);
+                }
+            } finally {
+                for (Process node : nodes) {
+                    node.destroy();
+                    node.waitFor(10, TimeUnit.SECONDS);
+                }
+                try (Stream<Path> files = Files.walk(dataDir)) {
+                    files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+                }
+            }
+        }
+    }
+
+    private static double run(ShardRouter router, int clients, int seconds) throws InterruptedException {
+        LongAdder reservations = new LongAdder();
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                executor.execute(() -> {
+                    while (System.nanoTime() < end) {
+                        try {
+                            ReservationResponse reserved = router.reserveTicket(nextRequest());
+                            reservations.increment();
+                            router.cancelReservation(reserved.getReservationId());
+                        } catch (NotEnoughSeatException e) {
+                            // Seats are all booked by other clients for the moment
+                        }
+                    }
+                });
+            }
+        }
+        return reservations.sum() / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static ReservationRequest nextRequest() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String[] leg = LEGS[random.nextInt(LEGS.length)];
+        return new ReservationRequest.Builder()
+                .origin(leg[0])
+                .destination(leg[1])
+                .passengerCount(1)
+                .paymentAmount(new BigDecimal("100"))
+                .travelDate(LocalDate.now().plusDays(1 + random.nextInt(7)).toString())
+                .build();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void awaitListening(InetSocketAddress address) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (System.nanoTime() < deadline) {
+            try (Socket socket = new Socket()) {
+                socket.connect(address, 1000);
+                return;
+            } catch (IOException e) {
+                Thread.sleep(100);
+            }
+        }
+        throw new IllegalStateException("Shard node on " + address + " did not start");
+    }
+}
@@ -0,0 +1,81 @@
+package org.reservation.system.benchmark;
+
+import org.reservation.system.inventory.SeatInventory;
+import org.reservation.system.model.Bus;
+import org.reservation.system.model.Fleet;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reports the retained heap of the fleet trip index and of the per-trip seat inventory,
+ * per 1,000 trips. A trip is one bus in one direction on one date.
+ * <p>
+ * Run after {@code mvn -Pbenchmarks test-compile} with
+ * {@code java -cp target/classes:target/test-classes org.reservation.system.benchmark.TripFootprint [buses] [days]}.
+ */
+public class TripFootprint {
+
+    public static void main(String[] args) {
+        int busCount = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int days = args.length > 1 ? Integer.parseInt(args[1]) : 7;
+
+        long baseline = usedHeap();
+        List<Bus> buses = new ArrayList<>();
+        for (int i = 0; i < busCount; i++) {
+            buses.add(bus("BUS-" + i));
+        }
+        long busesOnly = usedHeap();
+        Fleet fleet = new Fleet(buses);
+        long withIndex = usedHeap();
+
+        List<SeatInventory> inventories = new ArrayList<>();
+        LocalDate firstDate = LocalDate.now().plusDays(1);
+        for (Bus bus : fleet.getBuses()) {
+            SeatInventory inventory = new SeatInventory(bus);
+            for (int day = 0; day < days; day++) {
+                LocalDate travelDate = firstDate.plusDays(day);
+                inventory.occupySeats(bus.getRoute("A", "D"), travelDate, List.of("1A"));
+                inventory.occupySeats(bus.getRoute("D", "A"), travelDate, List.of("1A"));
+            }
+            inventories.add(inventory);
+        }
+        long withTrips = usedHeap();
+
+        long trips = 2L * busCount * days;
+        System.out.printf("buses=%d trips=%d%n", busCount, trips);
+        System.out.printf("bus definitions: %,d bytes per bus%n", (busesOnly - baseline) / busCount);
+        System.out.printf("trip index:      %,d bytes per 1,000 trips%n", (withIndex - busesOnly) * 1000 / trips);
+        System.out.printf("seat inventory:  %,d bytes per 1,000 trips%n", (withTrips - withIndex) * 1000 / trips);
+        // Keep everything reachable until the last measurement
+        if (fleet.getBuses().size() + inventories.size() < 0) {
+            System.out.println();
+        }
+    }
+
+    private static Bus bus(String busId) {
+        return new Bus.Builder()
+                .busId(busId)
+                .stops("A", "B", "C", "D")
+                .seatLayout(10, 'A', 'B', 'C', 'D')
+                .ticketPrice("A", "B", BigDecimal.valueOf(50))
+                .ticketPrice("B", "C", BigDecimal.valueOf(50))
+                .ticketPrice("C", "D", BigDecimal.valueOf(50))
+                .travelDuration("A", "B", 90)
+                .travelDuration("B", "C", 120)
+                .travelDuration("C", "D", 90)
+                .baseDepartureTime(9)
+                .baseReturnDepartureTime(14)
+                .build();
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
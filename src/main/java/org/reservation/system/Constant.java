@@ -8,7 +8,15 @@ public class Constant {
 
     public static class api {
         public static final String RESERVE = "/reserve";
+        public static final String RESERVE_BATCH = "/reserve/batch";
         public static final String CHECK_AVAILABILITY = "/check-availability";
+        public static final String AVAILABILITY_CALENDAR = "/availability-calendar";
+        public static final String RESERVATION = "/reservation";
+        public static final String CANCEL = "/cancel";
+        public static final String HOLD = "/hold";
+        public static final String CONFIRM = "/confirm";
+        public static final String METRICS = "/metrics";
+        public static final String EVENTS = "/events";
     }
 
     public static class AttributeName {
@@ -16,10 +24,63 @@ public class Constant {
         public static final String DESTINATION = "destination";
         public static final String PASSENGER_COUNT = "passengerCount";
         public static final String TRAVEL_DATE = "travelDate";
+        public static final String RESERVATION_ID = "reservationId";
+        public static final String LAST_EVENT_ID = "lastEventId";
+    }
+
+    public static class HeaderName {
+        public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+        public static final String RETRY_AFTER = "Retry-After";
+        public static final String LAST_EVENT_ID = "Last-Event-ID";
     }
 
     public static class DefaultConfig {
         public static final int MIN_RESERVATION_DAYS = 1;
         public static final int MAX_RESERVATION_DAYS = 7;
+        public static final int LOCK_STRIPES = 64;
+        public static final long WAL_COMMIT_WINDOW_MILLIS = 5;
+        public static final long SNAPSHOT_INTERVAL_SECONDS = 300;
+        public static final int AVAILABILITY_CACHE_SIZE = 10_000;
+        public static final long AVAILABILITY_CACHE_MAX_AGE_SECONDS = 60;
+        public static final long EVICTION_INTERVAL_MINUTES = 60;
+        public static final long HOLD_TTL_SECONDS = 120;
+        public static final long HOLD_TIMER_TICK_MILLIS = 1000;
+        public static final int IDEMPOTENCY_CACHE_SIZE = 50_000;
+        public static final long IDEMPOTENCY_KEY_MAX_AGE_SECONDS = 3600;
+        public static final int IDEMPOTENCY_KEY_MAX_LENGTH = 255;
+        public static final int REQUEST_BODY_MAX_BYTES = 16_384;
+        public static final int BATCH_MAX_SIZE = 1000;
+        public static final int MAX_IN_FLIGHT_REQUESTS = 2000;
+        public static final int RETRY_AFTER_SECONDS = 1;
+        public static final int LOG_PAYLOAD_SAMPLE_INTERVAL = 100;
+        public static final int SHARD_MAX_CONNECTIONS = 64;
+        public static final int SHARD_TIMEOUT_MILLIS = 30_000;
+        public static final int REPLICATION_BACKLOG_RECORDS = 65_536;
+        public static final int REPLICATION_BATCH_MAX_RECORDS = 1024;
+        public static final long REPLICATION_HEARTBEAT_MILLIS = 100;
+        public static final long REPLICA_MAX_STALENESS_MILLIS = 5000;
+        public static final long REPLICA_RECONNECT_MILLIS = 1000;
+        public static final int SEAT_EVENT_RING_SIZE = 65_536;
+        public static final int EVENT_STREAM_MAX_SUBSCRIBERS = 256;
+        public static final int EVENT_STREAM_BATCH_MAX_EVENTS = 256;
+        public static final long EVENT_STREAM_HEARTBEAT_SECONDS = 15;
+    }
+
+    public static class SystemProperty {
+        public static final String DATA_DIR = "reservation.dataDir";
+        public static final String WAL_COMMIT_WINDOW = "reservation.wal.commitWindowMillis";
+        public static final String SNAPSHOT_INTERVAL = "reservation.snapshot.intervalSeconds";
+        public static final String HOLD_TTL = "reservation.hold.ttlSeconds";
+        public static final String MAX_IN_FLIGHT = "reservation.maxInFlightRequests";
+        public static final String LOG_PAYLOAD_SAMPLE = "reservation.log.payloadSampleInterval";
+        public static final String SHARDS = "reservation.shards";
+        public static final String REPLICATION_PORT = "reservation.replication.port";
+        public static final String REPLICATION_HOST = "reservation.replication.host";
+        public static final String PRIMARY = "reservation.replica.primary";
+        public static final String REPLICA_MAX_STALENESS = "reservation.replica.maxStalenessMillis";
+    }
+
+    public static class LoggerName {
+        public static final String ACCESS_LOGGER = "reservation.access";
     }
 }
@@ -0,0 +1,202 @@
+package org.reservation.system.cache;
+
+import org.reservation.system.model.BusRoute;
+import org.reservation.system.model.Fleet;
+import org.reservation.system.service.SeatChangeListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of serialised availability answers.
+ * An answer depends on the trips serving its route on its dates, and is dropped as soon as seats
+ * change on any of them. Entries also expire after a maximum age, and the oldest entries are
+ * evicted once the cache is full.
+ * <p>
+ * Callers take a {@link #stamp()} before computing an answer and pass it to {@link #put};
+ * an answer computed while one of its trips changed is not cached.
+ */
+public class AvailabilityCache implements SeatChangeListener {
+
+    /**
+     * Availability question. The passenger count is part of the key since the answer and price depend on it.
+     * A question can span several consecutive travel dates, as an availability calendar does.
+     */
+    public record Key(String origin, String destination, LocalDate travelDate, int passengerCount, int days) {
+
+        public Key(String origin, String destination, LocalDate travelDate, int passengerCount) {
+            this(origin, destination, travelDate, passengerCount, 1);
+        }
+    }
+
+    private record TripKey(String busId, LocalDate travelDate, boolean returnTrip) {
+    }
+
+    private record Entry(Key key, String payload, long createdNanos) {
+    }
+
+    private final Fleet fleet;
+    private final int maxEntries;
+    private final long maxAgeNanos;
+    private final Clock clock;
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final ConcurrentHashMap<TripKey, Set<Key>> dependents = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<TripKey, Long> lastChanged = new ConcurrentHashMap<>();
+    private final AtomicLong changes = new AtomicLong();
+    private volatile LocalDate prunedBefore = LocalDate.MIN;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * @param fleet      Fleet whose trips answers depend on
+     * @param maxEntries Maximum number of cached answers
+     * @param maxAge     Maximum age of a cached answer
+     */
+    public AvailabilityCache(Fleet fleet, int maxEntries, Duration maxAge) {
+        this(fleet, maxEntries, maxAge, Clock.systemDefaultZone());
+    }
+
+    /**
+     * @param fleet      Fleet whose trips answers depend on
+     * @param maxEntries Maximum number of cached answers
+     * @param maxAge     Maximum age of a cached answer
+     * @param clock      Clock telling which travel dates have departed, that of the service answering
+     */
+    public AvailabilityCache(Fleet fleet, int maxEntries, Duration maxAge, Clock clock) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Cache size must be greater than zero. Provided: " + maxEntries);
+        }
+        this.fleet = fleet;
+        this.maxEntries = maxEntries;
+        this.maxAgeNanos = maxAge.toNanos();
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the cached answer to an availability question.
+     *
+     * @param key The question
+     * @return The serialised answer, or null if it is not cached
+     */
+    public String get(Key key) {
+        Entry entry = entries.get(key);
+        if (entry != null && System.nanoTime() - entry.createdNanos() > maxAgeNanos) {
+            if (entries.remove(key, entry)) {
+                evictions.increment();
+            }
+            entry = null;
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.payload();
+    }
+
+    /**
+     * Returns the stamp to pass to {@link #put} for an answer computed from now on.
+     */
+    public long stamp() {
+        return changes.get();
+    }
+
+    /**
+     * Caches an answer, unless seats changed on one of its trips since the stamp was taken.
+     *
+     * @param key     The question
+     * @param payload The serialised answer
+     * @param stamp   Stamp taken before the answer was computed
+     */
+    public void put(Key key, String payload, long stamp) {
+        List<TripKey> trips = new ArrayList<>();
+        for (int day = 0; day < key.days(); day++) {
+            LocalDate travelDate = key.travelDate().plusDays(day);
+            for (BusRoute trip : fleet.findTrips(key.origin(), key.destination(), travelDate)) {
+                trips.add(new TripKey(trip.bus().getBusId(), travelDate, trip.route().isReturnRoute()));
+            }
+        }
+        // Register first: a change after this point either removes the entry or is seen by the check below
+        for (TripKey trip : trips) {
+            dependents.computeIfAbsent(trip, k -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+        Entry entry = new Entry(key, payload, System.nanoTime());
+        entries.put(key, entry);
+        for (TripKey trip : trips) {
+            if (lastChanged.getOrDefault(trip, 0L) > stamp) {
+                entries.remove(key, entry);
+                return;
+            }
+        }
+        insertionOrder.add(entry);
+        queued.incrementAndGet();
+        evictOverflow();
+        pruneDepartedTrips();
+    }
+
+    /**
+     * Drops every answer that depends on the changed trip.
+     */
+    @Override
+    public void seatsChanged(String busId, LocalDate travelDate, boolean returnTrip) {
+        TripKey trip = new TripKey(busId, travelDate, returnTrip);
+        lastChanged.put(trip, changes.incrementAndGet());
+        Set<Key> keys = dependents.remove(trip);
+        if (keys != null) {
+            for (Key key : keys) {
+                if (entries.remove(key) != null) {
+                    invalidations.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * Evicts the oldest entries while the cache is over its size.
+     * Entries already invalidated are skipped, so the queue cannot grow without bound either.
+     */
+    private void evictOverflow() {
+        while (entries.size() > maxEntries || queued.get() > 2 * maxEntries) {
+            Entry oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            queued.decrementAndGet();
+            if (entries.remove(oldest.key(), oldest)) {
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Forgets the trips of past dates once a day, since no answer can depend on them any more.
+     */
+    private void pruneDepartedTrips() {
+        LocalDate today = LocalDate.now(clock);
+        if (today.isAfter(prunedBefore)) {
+            prunedBefore = today;
+            dependents.keySet().removeIf(trip -> trip.travelDate().isBefore(today));
+            lastChanged.keySet().removeIf(trip -> trip.travelDate().isBefore(today));
+        }
+    }
+
+    public int size() { return entries.size(); }
+    public long getHits() { return hits.sum(); }
+    public long getMisses() { return misses.sum(); }
+    public long getEvictions() { return evictions.sum(); }
+    public long getInvalidations() { return invalidations.sum(); }
+}
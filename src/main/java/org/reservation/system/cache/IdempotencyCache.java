@@ -0,0 +1,147 @@
+package org.reservation.system.cache;
+
+import org.reservation.system.exception.IdempotencyKeyReusedException;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of serialised responses by idempotency key, so a retried request is answered
+ * with the original response instead of being executed again.
+ * <p>
+ * The first request with a key executes; concurrent duplicates wait for its response rather than
+ * executing themselves. Server errors are not cached, so a request that failed can be retried
+ * under the same key. Entries expire after a maximum age, and the oldest entries are evicted once
+ * the cache is full. A request is remembered by the SHA-256 digest of its body rather than the body itself, so an
+ * entry takes the same room whatever the size of its request.
+ */
+public class IdempotencyCache {
+
+    /**
+     * A serialised response together with its HTTP status.
+     */
+    public record Response(int status, String body) {
+    }
+
+    // The response completes with null if the first request failed
+    private record Entry(String key, byte[] fingerprint, CompletableFuture<Response> response, long createdNanos) {
+    }
+
+    private final int maxEntries;
+    private final long maxAgeNanos;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxEntries Maximum number of cached responses
+     * @param maxAge     How long a key is remembered
+     */
+    public IdempotencyCache(int maxEntries, Duration maxAge) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Cache size must be greater than zero. Provided: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.maxAgeNanos = maxAge.toNanos();
+    }
+
+    /**
+     * Executes a request once per key. A repeated key gets the response of the first request, waiting for it
+     * if that request is still executing.
+     *
+     * @param key         The idempotency key
+     * @param requestBody Body of the request, to detect a key reused for a different request
+     * @param request     Executes the request; a status of 500 or above is not cached
+     * @return The response of the first successful execution under the key
+     * @throws IdempotencyKeyReusedException if the key was used for a different request
+     */
+    public Response execute(String key, byte[] requestBody, Supplier<Response> request) {
+        byte[] fingerprint = fingerprint(requestBody);
+        while (true) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.response().isDone() && System.nanoTime() - entry.createdNanos() > maxAgeNanos) {
+                if (entries.remove(key, entry)) {
+                    evictions.increment();
+                }
+                entry = null;
+            }
+            if (entry == null) {
+                Entry created = new Entry(key, fingerprint, new CompletableFuture<>(), System.nanoTime());
+                entry = entries.putIfAbsent(key, created);
+                if (entry == null) {
+                    misses.increment();
+                    return executeFirst(created, request);
+                }
+            }
+            if (!MessageDigest.isEqual(entry.fingerprint(), fingerprint)) {
+                throw new IdempotencyKeyReusedException("Idempotency-Key " + key + " was already used for a different request");
+            }
+            Response response = entry.response().join();
+            if (response != null) {
+                hits.increment();
+                return response;
+            }
+            // The first request failed and its entry is gone; try again as the first
+        }
+    }
+
+    private static byte[] fingerprint(byte[] requestBody) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(requestBody);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Response executeFirst(Entry entry, Supplier<Response> request) {
+        Response response = null;
+        try {
+            response = request.get();
+            return response;
+        } finally {
+            if (response == null || response.status() >= 500) {
+                entries.remove(entry.key(), entry);
+                entry.response().complete(null);
+            } else {
+                entry.response().complete(response);
+                insertionOrder.add(entry);
+                queued.incrementAndGet();
+                evictOverflow();
+            }
+        }
+    }
+
+    /**
+     * Evicts the oldest entries while the cache is over its size.
+     * Entries already expired are skipped, so the queue cannot grow without bound either.
+     */
+    private void evictOverflow() {
+        while (entries.size() > maxEntries || queued.get() > 2 * maxEntries) {
+            Entry oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            queued.decrementAndGet();
+            if (entries.remove(oldest.key(), oldest)) {
+                evictions.increment();
+            }
+        }
+    }
+
+    public int size() { return entries.size(); }
+    public long getHits() { return hits.sum(); }
+    public long getMisses() { return misses.sum(); }
+    public long getEvictions() { return evictions.sum(); }
+}
@@ -0,0 +1,33 @@
+package org.reservation.system.event;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A change of seat state, as published on the {@link SeatEventRing}.
+ *
+ * @param sequence        Number of the event on the ring, one more than the event before it
+ * @param type            What changed
+ * @param bookingId       Id of the reservation or seat hold the seats belong to
+ * @param busId           The bus running the trip
+ * @param travelDate      Date of travel
+ * @param returnTrip      Whether the trip is in the return direction
+ * @param origin          First stop of the seats' legs
+ * @param destination     Last stop of the seats' legs
+ * @param seatNumbers     The seats
+ * @param timestampMillis Time the change was made
+ */
+public record SeatEvent(long sequence, Type type, String bookingId, String busId, LocalDate travelDate, boolean returnTrip,
+                        String origin, String destination, List<String> seatNumbers, long timestampMillis) {
+
+    public enum Type {
+        /** Seats were taken by a reservation or a seat hold. */
+        SEATS_CLAIMED,
+        /** Seats were freed by a cancellation, an expired hold or a reservation that could not be made durable. */
+        SEATS_RELEASED,
+        /** A reservation was made, directly or by confirming a hold, and is durable. */
+        RESERVATION_CREATED,
+        /** A reservation was cancelled. */
+        RESERVATION_CANCELLED
+    }
+}
@@ -0,0 +1,142 @@
+package org.reservation.system.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
+
+/**
+ * Ring buffer of seat events in the manner of the LMAX Disruptor. A publisher claims the next sequence number
+ * with one atomic increment and stores its event in the slot the number maps to; readers follow the ring at their
+ * own pace by sequence number and never hold up a publisher. The reservation service publishes a trip's seat
+ * events under the trip's lock stripe, so each trip has a single writer at a time and its events are numbered in
+ * the order its seats changed.
+ * <p>
+ * The ring keeps the latest {@code capacity} events. A reader that falls further behind finds its next event
+ * overwritten and has to start again from the current state. Readers that wait for events are woken by publishers,
+ * who only take the wake-up lock while a reader is waiting.
+ */
+public class SeatEventRing {
+    private final AtomicReferenceArray<SeatEvent> slots;
+    private final int mask;
+    private final AtomicLong nextSequence = new AtomicLong();
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition published = lock.newCondition();
+    private final long epoch = System.currentTimeMillis();
+    private volatile boolean closed;
+
+    /**
+     * @param capacity Number of latest events kept, a power of two
+     */
+    public SeatEventRing(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two. Provided: " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Publishes an event under the next sequence number.
+     *
+     * @param translator Creates the event for the sequence number claimed
+     * @return The sequence number of the event
+     */
+    public long publish(LongFunction<SeatEvent> translator) {
+        long sequence = nextSequence.getAndIncrement();
+        SeatEvent event = translator.apply(sequence);
+        // A publisher delayed by a whole lap of the ring must not overwrite the newer event in its slot
+        slots.accumulateAndGet(slotOf(sequence), event,
+                (current, next) -> current == null || current.sequence() < next.sequence() ? next : current);
+        if (waiters.get() > 0) {
+            lock.lock();
+            try {
+                published.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return sequence;
+    }
+
+    /**
+     * Returns the events from a sequence number on, waiting for one if there is none yet.
+     *
+     * @param fromSequence Number of the first event to return
+     * @param maxEvents    Most events to return
+     * @param timeout      How long to wait for an event
+     * @param unit         Unit of the timeout
+     * @return The events in sequence order, none if the wait timed out or the ring was closed, or null if the
+     *         first of them was overwritten
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public List<SeatEvent> await(long fromSequence, int maxEvents, long timeout, TimeUnit unit) throws InterruptedException {
+        if (!isPublished(fromSequence) && !closed) {
+            long nanos = unit.toNanos(timeout);
+            waiters.incrementAndGet();
+            lock.lock();
+            try {
+                while (!isPublished(fromSequence) && !closed && nanos > 0) {
+                    nanos = published.awaitNanos(nanos);
+                }
+            } finally {
+                lock.unlock();
+                waiters.decrementAndGet();
+            }
+        }
+        List<SeatEvent> events = new ArrayList<>();
+        for (long sequence = fromSequence; events.size() < maxEvents; sequence++) {
+            SeatEvent event = slots.get(slotOf(sequence));
+            if (event == null || event.sequence() < sequence) {
+                break;
+            }
+            if (event.sequence() > sequence) {
+                // Overwritten; the events read so far are still returned, the next call reports the loss
+                return events.isEmpty() ? null : events;
+            }
+            events.add(event);
+        }
+        return events;
+    }
+
+    /**
+     * Returns the sequence number the next event will get, which is also the number of events published.
+     */
+    public long getSequence() { return nextSequence.get(); }
+
+    /**
+     * Returns when the ring was created. Sequence numbers restart with every ring, so a reader resuming from a
+     * sequence number has to check it was read from the same ring.
+     */
+    public long getEpoch() { return epoch; }
+
+    /**
+     * Wakes every waiting reader, and makes further waits return at once.
+     */
+    public void close() {
+        closed = true;
+        lock.lock();
+        try {
+            published.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isClosed() { return closed; }
+
+    private boolean isPublished(long sequence) {
+        SeatEvent event = slots.get(slotOf(sequence));
+        return event != null && event.sequence() >= sequence;
+    }
+
+    private int slotOf(long sequence) {
+        return (int) (sequence & mask);
+    }
+}
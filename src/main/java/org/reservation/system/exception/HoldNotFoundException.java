@@ -0,0 +1,7 @@
+package org.reservation.system.exception;
+
+public class HoldNotFoundException extends RuntimeException {
+    public HoldNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package org.reservation.system.exception;
+
+public class ReservationNotFoundException extends RuntimeException {
+    public ReservationNotFoundException(String message) {
+        super(message);
+    }
+}
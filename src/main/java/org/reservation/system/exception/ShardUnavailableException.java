@@ -0,0 +1,11 @@
+package org.reservation.system.exception;
+
+public class ShardUnavailableException extends RuntimeException {
+    public ShardUnavailableException(String message) {
+        super(message);
+    }
+
+    public ShardUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,250 @@
+package org.reservation.system.inventory;
+
+import org.reservation.system.exception.RouteNotFoundException;
+import org.reservation.system.model.Bus;
+import org.reservation.system.model.Route;
+import org.reservation.system.model.Seat;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Segment-aware seat inventory of one bus, holding a trip per travel date and direction.
+ * A seat sold for part of the journey stays sellable on the legs it does not cover,
+ * e.g. a seat sold A-B is still free for B-D on the same date.
+ */
+public class SeatInventory {
+    private static final int MAX_STOPS = Long.SIZE;
+
+    private final Bus bus;
+    private volatile String[] seatNumbers;
+    private final int[][] spans;     // [from stop id][to stop id], same in both directions
+    private final long[] spanMasks;  // leg mask of each span
+    private final ConcurrentHashMap<LocalDate, TripInventory> outboundTrips = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<LocalDate, TripInventory> returnTrips = new ConcurrentHashMap<>();
+
+    public SeatInventory(Bus bus) {
+        this.bus = bus;
+        int stops = bus.getBusStops().length;
+        if (stops > MAX_STOPS) {
+            throw new IllegalArgumentException("A bus can have at most " + MAX_STOPS + " stops");
+        }
+        long[][] legMasks = buildLegMasks(stops);
+        this.spans = new int[stops][stops];
+        this.spanMasks = new long[stops * (stops - 1) / 2];
+        int span = 0;
+        for (int from = 0; from < stops; from++) {
+            spans[from][from] = -1;
+            for (int to = from + 1; to < stops; to++) {
+                spans[from][to] = span;
+                spans[to][from] = span;
+                spanMasks[span++] = legMasks[from][to];
+            }
+        }
+    }
+
+    /**
+     * Counts the seats that are free for the whole route on the given date.
+     * This is a read of the trip's free-seat counter and allocates nothing.
+     *
+     * @param route      Route information
+     * @param travelDate Date of travel
+     * @return Number of free seats
+     */
+    public int countAvailableSeats(Route route, LocalDate travelDate) {
+        int span = spanOf(route);
+        TripInventory trip = trips(route.isReturnRoute()).get(travelDate);
+        return trip == null ? seatNumbers().length : trip.countFree(span);
+    }
+
+    /**
+     * Claims seats for the whole route on the given date.
+     * Either all requested seats are claimed or none are. Safe to call concurrently.
+     *
+     * @param route      Route information
+     * @param travelDate Date of travel
+     * @param passengers Number of seats to claim
+     * @return Claimed seat numbers, or an empty list if not enough seats are free
+     */
+    public List<String> claimSeats(Route route, LocalDate travelDate, int passengers) {
+        return getTrip(route, travelDate).claim(spanOf(route), passengers);
+    }
+
+    /**
+     * Marks seats as occupied for the whole route, without checking whether they are free.
+     * Used to restore previously claimed seats.
+     *
+     * @param route       Route information
+     * @param travelDate  Date of travel
+     * @param seatNumbers Seat numbers to occupy
+     */
+    public void occupySeats(Route route, LocalDate travelDate, List<String> seatNumbers) {
+        getTrip(route, travelDate).occupy(legMask(route), seatNumbers);
+    }
+
+    /**
+     * Frees seats previously claimed for the whole route.
+     *
+     * @param route       Route information
+     * @param travelDate  Date of travel
+     * @param seatNumbers Seat numbers to release
+     */
+    public void releaseSeats(Route route, LocalDate travelDate, List<String> seatNumbers) {
+        getTrip(route, travelDate).release(legMask(route), seatNumbers);
+    }
+
+    /**
+     * Returns the travel dates that have seat state in one direction.
+     *
+     * @param returnTrip Whether to list return trips
+     * @return Travel dates with seat state
+     */
+    public Set<LocalDate> getTravelDates(boolean returnTrip) {
+        return Set.copyOf(trips(returnTrip).keySet());
+    }
+
+    /**
+     * Drops the seat state of a trip, e.g. once it has departed. The caller holds the trip's lock stripe.
+     *
+     * @param travelDate Date of travel
+     * @param returnTrip Whether the trip is in the return direction
+     */
+    public void evictTrip(LocalDate travelDate, boolean returnTrip) {
+        trips(returnTrip).remove(travelDate);
+    }
+
+    /**
+     * Copies the occupied legs of every seat of a trip, in bus seat order.
+     *
+     * @param travelDate Date of travel
+     * @param returnTrip Whether the trip is in the return direction
+     * @return Leg masks of all seats
+     */
+    public long[] copyOccupiedLegs(LocalDate travelDate, boolean returnTrip) {
+        return getTrip(travelDate, returnTrip).copyOccupiedLegs();
+    }
+
+    /**
+     * Clears the legs of a route from some seats in a copy of a trip's occupied legs.
+     *
+     * @param occupiedLegs Leg masks of all seats, in bus seat order, as returned by {@link #copyOccupiedLegs}
+     * @param route        Route information
+     * @param seatNumbers  Seat numbers to clear
+     */
+    public void clearSeats(long[] occupiedLegs, Route route, List<String> seatNumbers) {
+        long legMask = legMask(route);
+        String[] numbers = seatNumbers();
+        for (String seatNumber : seatNumbers) {
+            for (int i = 0; i < numbers.length; i++) {
+                if (numbers[i].equals(seatNumber)) {
+                    occupiedLegs[i] &= ~legMask;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Overwrites the seat state of a trip, e.g. from a snapshot.
+     *
+     * @param travelDate   Date of travel
+     * @param returnTrip   Whether the trip is in the return direction
+     * @param occupiedLegs Leg masks of all seats, in bus seat order
+     */
+    public void restoreOccupiedLegs(LocalDate travelDate, boolean returnTrip, long[] occupiedLegs) {
+        getTrip(travelDate, returnTrip).restoreOccupiedLegs(occupiedLegs);
+    }
+
+    /**
+     * Returns the bitmask of legs travelled on the given route.
+     *
+     * @param route Route information
+     * @return Leg mask of the route
+     * @throws RouteNotFoundException if the route does not connect two different stops of the bus
+     */
+    public long legMask(Route route) {
+        return spanMasks[spanOf(route)];
+    }
+
+    /**
+     * Returns the number of trips with seat state, in both directions.
+     *
+     * @return Trips held in memory
+     */
+    public int getTripCount() {
+        return outboundTrips.size() + returnTrips.size();
+    }
+
+    /**
+     * Returns the number of seats with state, one per seat of the bus on every trip held in memory.
+     *
+     * @return Seats held in memory
+     */
+    public long getSeatCount() {
+        return (long) getTripCount() * bus.getSeats().size();
+    }
+
+    /**
+     * Returns the index of the span (pair of stops) travelled on the given route.
+     *
+     * @throws RouteNotFoundException if the route does not connect two different stops of the bus
+     */
+    private int spanOf(Route route) {
+        int from = bus.getStopId(route.getOrigin());
+        int to = bus.getStopId(route.getDestination());
+        if (from < 0 || to < 0 || from == to) {
+            throw new RouteNotFoundException("Invalid origin or destination");
+        }
+        return spans[from][to];
+    }
+
+    private TripInventory getTrip(Route route, LocalDate travelDate) {
+        return getTrip(travelDate, route.isReturnRoute());
+    }
+
+    private TripInventory getTrip(LocalDate travelDate, boolean returnTrip) {
+        return trips(returnTrip).computeIfAbsent(travelDate, date -> new TripInventory(seatNumbers(), spanMasks));
+    }
+
+    private ConcurrentHashMap<LocalDate, TripInventory> trips(boolean returnTrip) {
+        return returnTrip ? returnTrips : outboundTrips;
+    }
+
+    /**
+     * Returns the seat numbers of the bus, shared by all of its trips.
+     */
+    private String[] seatNumbers() {
+        String[] numbers = seatNumbers;
+        if (numbers == null) {
+            List<Seat> seats = bus.getSeats();
+            numbers = new String[seats.size()];
+            for (int i = 0; i < numbers.length; i++) {
+                numbers[i] = seats.get(i).getSeatNumber();
+            }
+            seatNumbers = numbers;
+        }
+        return numbers;
+    }
+
+    /**
+     * Precomputes the leg mask of every stop pair. Legs are numbered by their first stop,
+     * so both directions of travel share the same numbering.
+     */
+    private static long[][] buildLegMasks(int stopCount) {
+        long[][] masks = new long[stopCount][stopCount];
+        for (int from = 0; from < stopCount; from++) {
+            for (int to = 0; to < stopCount; to++) {
+                int low = Math.min(from, to);
+                int high = Math.max(from, to);
+                masks[from][to] = lowBits(high) & ~lowBits(low);
+            }
+        }
+        return masks;
+    }
+
+    private static long lowBits(int count) {
+        return count >= Long.SIZE ? -1L : (1L << count) - 1;
+    }
+}
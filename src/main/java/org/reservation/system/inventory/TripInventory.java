@@ -0,0 +1,197 @@
+package org.reservation.system.inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Seat state of a single trip (one travel date in one direction).
+ * Each seat holds a bitmask of the legs it is sold on, where bit {@code i}
+ * is the leg between stop {@code i} and stop {@code i + 1}.
+ * Seats are claimed with compare-and-set, so concurrent claims need no lock.
+ * <p>
+ * A free-seat counter per span (pair of stops) is adjusted with every change to a seat,
+ * so availability is a single read. The counters follow each seat update rather than
+ * changing together with it, so a concurrent reader may see them briefly lag the seats.
+ */
+final class TripInventory {
+    private final String[] seatNumbers;
+    private final long[] spanMasks;
+    private final AtomicLongArray occupiedLegs;
+    private final AtomicIntegerArray freeSeats;
+
+    /**
+     * @param seatNumbers Seat numbers of the bus, shared by all trips
+     * @param spanMasks   Leg mask of every span, shared by all trips
+     */
+    TripInventory(String[] seatNumbers, long[] spanMasks) {
+        this.seatNumbers = seatNumbers;
+        this.spanMasks = spanMasks;
+        this.occupiedLegs = new AtomicLongArray(seatNumbers.length);
+        this.freeSeats = new AtomicIntegerArray(spanMasks.length);
+        for (int span = 0; span < spanMasks.length; span++) {
+            freeSeats.set(span, seatNumbers.length);
+        }
+    }
+
+    /**
+     * Returns the number of seats that are free on every leg of a span.
+     *
+     * @param span Span index
+     * @return Number of free seats
+     */
+    int countFree(int span) {
+        return freeSeats.get(span);
+    }
+
+    /**
+     * Claims the first {@code count} seats that are free on the given legs.
+     * Seats are claimed one at a time; if fewer than {@code count} can be claimed,
+     * the partial claim is rolled back and nothing stays occupied.
+     *
+     * @param span  Span covered by the route
+     * @param count Number of seats to claim
+     * @return Claimed seat numbers, or an empty list if not enough seats are free
+     */
+    List<String> claim(int span, int count) {
+        if (freeSeats.get(span) < count) {
+            return List.of();
+        }
+        long legMask = spanMasks[span];
+        int[] claimed = new int[count];
+        int found = 0;
+        for (int i = 0; i < seatNumbers.length && found < count; i++) {
+            if (tryClaim(i, legMask)) {
+                claimed[found++] = i;
+            }
+        }
+        if (found < count) {
+            for (int j = 0; j < found; j++) {
+                release(claimed[j], legMask);
+            }
+            return List.of();
+        }
+
+        List<String> seats = new ArrayList<>(count);
+        for (int index : claimed) {
+            seats.add(seatNumbers[index]);
+        }
+        return seats;
+    }
+
+    /**
+     * Marks the given seats as occupied on the given legs, e.g. when restoring saved state.
+     *
+     * @param legMask     Legs covered by the route
+     * @param seatNumbers Seat numbers to occupy
+     */
+    void occupy(long legMask, List<String> seatNumbers) {
+        for (String seatNumber : seatNumbers) {
+            int index = indexOf(seatNumber);
+            long before = occupiedLegs.getAndUpdate(index, legs -> legs | legMask);
+            adjustFreeSeats(before, before | legMask);
+        }
+    }
+
+    /**
+     * Frees the given seats on the given legs.
+     *
+     * @param legMask     Legs covered by the route
+     * @param seatNumbers Seat numbers to release
+     */
+    void release(long legMask, List<String> seatNumbers) {
+        for (String seatNumber : seatNumbers) {
+            release(indexOf(seatNumber), legMask);
+        }
+    }
+
+    /**
+     * Copies the occupied legs of every seat, in seat order.
+     *
+     * @return Leg masks of all seats
+     */
+    long[] copyOccupiedLegs() {
+        long[] copy = new long[seatNumbers.length];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = occupiedLegs.get(i);
+        }
+        return copy;
+    }
+
+    /**
+     * Overwrites the occupied legs of every seat, in seat order.
+     *
+     * @param legs Leg masks of all seats
+     */
+    void restoreOccupiedLegs(long[] legs) {
+        if (legs.length != seatNumbers.length) {
+            throw new IllegalArgumentException("Expected " + seatNumbers.length + " seats but got " + legs.length);
+        }
+        for (int i = 0; i < legs.length; i++) {
+            occupiedLegs.set(i, legs[i]);
+        }
+        for (int span = 0; span < spanMasks.length; span++) {
+            int free = 0;
+            for (long seatLegs : legs) {
+                if ((seatLegs & spanMasks[span]) == 0) {
+                    free++;
+                }
+            }
+            freeSeats.set(span, free);
+        }
+    }
+
+    private int indexOf(String seatNumber) {
+        for (int i = 0; i < seatNumbers.length; i++) {
+            if (seatNumbers[i].equals(seatNumber)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown seat " + seatNumber);
+    }
+
+    /**
+     * Marks a seat as occupied on the given legs if none of them is taken yet.
+     */
+    private boolean tryClaim(int index, long legMask) {
+        long current = occupiedLegs.get(index);
+        while ((current & legMask) == 0) {
+            long witness = occupiedLegs.compareAndExchange(index, current, current | legMask);
+            if (witness == current) {
+                adjustFreeSeats(current, current | legMask);
+                return true;
+            }
+            current = witness;
+        }
+        return false;
+    }
+
+    /**
+     * Clears the given legs of a seat. Only the holder of those legs may release them.
+     */
+    private void release(int index, long legMask) {
+        long before = occupiedLegs.getAndUpdate(index, legs -> legs & ~legMask);
+        adjustFreeSeats(before, before & ~legMask);
+    }
+
+    /**
+     * Moves the free-seat counters of every span whose freedom changed with a seat update.
+     */
+    private void adjustFreeSeats(long before, long after) {
+        long changed = before ^ after;
+        if (changed == 0) {
+            return;
+        }
+        for (int span = 0; span < spanMasks.length; span++) {
+            long mask = spanMasks[span];
+            if ((changed & mask) != 0) {
+                boolean wasFree = (before & mask) == 0;
+                boolean isFree = (after & mask) == 0;
+                if (wasFree != isFree) {
+                    freeSeats.addAndGet(span, isFree ? 1 : -1);
+                }
+            }
+        }
+    }
+}
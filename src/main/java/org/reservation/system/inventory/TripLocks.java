@@ -0,0 +1,74 @@
+package org.reservation.system.inventory;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped locks keyed by trip (bus, travel date and direction).
+ * Trips on different stripes never contend. For each bus, consecutive dates and both directions
+ * map to different stripes, so with at least {@code 2 * MAX_RESERVATION_DAYS} stripes every
+ * bookable trip of a bus has a stripe of its own.
+ * Time spent waiting for each stripe is counted so hot trips can be spotted.
+ */
+public class TripLocks {
+    private final ReentrantLock[] locks;
+    private final LongAdder[] acquisitions;
+    private final LongAdder[] contendedAcquisitions;
+    private final LongAdder[] waitNanos;
+
+    public TripLocks(int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Lock stripe count must be greater than zero. Provided: " + stripes);
+        }
+        locks = new ReentrantLock[stripes];
+        acquisitions = new LongAdder[stripes];
+        contendedAcquisitions = new LongAdder[stripes];
+        waitNanos = new LongAdder[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+            acquisitions[i] = new LongAdder();
+            contendedAcquisitions[i] = new LongAdder();
+            waitNanos[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Returns the stripe guarding the given trip.
+     *
+     * @param busId      The bus running the trip
+     * @param travelDate Date of travel
+     * @param returnTrip Whether the trip is in the return direction
+     * @return Stripe index
+     */
+    public int stripeOf(String busId, LocalDate travelDate, boolean returnTrip) {
+        long key = busId.hashCode() * 31L + travelDate.toEpochDay() * 2 + (returnTrip ? 1 : 0);
+        return (int) Math.floorMod(key, (long) locks.length);
+    }
+
+    /**
+     * Acquires a stripe, recording how long the caller had to wait for it.
+     *
+     * @param stripe Stripe index
+     */
+    public void lock(int stripe) {
+        ReentrantLock lock = locks[stripe];
+        if (!lock.tryLock()) {
+            long start = System.nanoTime();
+            lock.lock();
+            waitNanos[stripe].add(System.nanoTime() - start);
+            contendedAcquisitions[stripe].increment();
+        }
+        acquisitions[stripe].increment();
+    }
+
+    public void unlock(int stripe) {
+        locks[stripe].unlock();
+    }
+
+    // Getters
+    public int getStripeCount() { return locks.length; }
+    public long getAcquisitions(int stripe) { return acquisitions[stripe].sum(); }
+    public long getContendedAcquisitions(int stripe) { return contendedAcquisitions[stripe].sum(); }
+    public long getWaitNanos(int stripe) { return waitNanos[stripe].sum(); }
+}
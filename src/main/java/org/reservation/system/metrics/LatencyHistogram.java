@@ -0,0 +1,117 @@
+package org.reservation.system.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram over log-linear buckets, in the manner of HdrHistogram.
+ * Every power of two is split into {@code 2^SUB_BUCKET_BITS} equal buckets, so a recorded value is
+ * known to within one part in sixteen at any magnitude, from nanoseconds to hours, in a fixed
+ * array of counters. Recording is an array increment and never allocates.
+ * <p>
+ * Quantiles are read from a copy of the counters, which concurrent recordings may change while
+ * it is taken; a reading can be off by the values recorded meanwhile.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Values below 2 * SUB_BUCKETS have a bucket each, then SUB_BUCKETS buckets per power of two up to 2^63
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records a value, clamping negative values to zero.
+     *
+     * @param value Value to record, in nanoseconds
+     */
+    public void record(long value) {
+        long clamped = Math.max(value, 0);
+        counts.incrementAndGet(bucketOf(clamped));
+        sum.add(clamped);
+        max.accumulate(clamped);
+    }
+
+    /**
+     * Records the time elapsed since a {@link System#nanoTime()} reading.
+     *
+     * @param startNanos Start of the timed section
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Returns the value below which the given fraction of the recorded values fall, as the highest value of
+     * the bucket the quantile lands in, capped at the largest value recorded.
+     *
+     * @param quantile Fraction between 0 and 1
+     * @return Value at the quantile in nanoseconds, or 0 if nothing was recorded
+     */
+    public long valueAtQuantile(double quantile) {
+        return valuesAtQuantiles(quantile)[0];
+    }
+
+    /**
+     * Returns the values at several quantiles, all read from the same copy of the counters.
+     *
+     * @param quantiles Fractions between 0 and 1, in ascending order
+     * @return Value at each quantile in nanoseconds
+     */
+    public long[] valuesAtQuantiles(double... quantiles) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        long[] values = new long[quantiles.length];
+        if (total == 0) {
+            return values;
+        }
+        long highest = getMax();
+        int bucket = 0;
+        long seen = snapshot[0];
+        for (int q = 0; q < quantiles.length; q++) {
+            long rank = Math.max(1, (long) Math.ceil(quantiles[q] * total));
+            while (seen < rank && bucket < BUCKETS - 1) {
+                seen += snapshot[++bucket];
+            }
+            values[q] = Math.min(highestValueOf(bucket), highest);
+        }
+        return values;
+    }
+
+    static int bucketOf(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    static long highestValueOf(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long subBucket = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        // The top bucket ends at 2^63 - 1, which the subtraction reaches by wrapping around
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    // Getters
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    public long getSum() { return sum.sum(); }
+    public long getMax() { return max.get(); }
+}
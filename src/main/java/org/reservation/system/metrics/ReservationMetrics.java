@@ -0,0 +1,220 @@
+package org.reservation.system.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Latency histograms, counters and gauges of the reservation hot paths, exported in the Prometheus text format.
+ * Histograms are kept per endpoint and per stage of request handling; endpoints are fixed when the metrics are
+ * created, so looking one up is a read of an immutable map. Recording allocates nothing.
+ * <p>
+ * Counters and gauges kept elsewhere, such as cache hit counts, are registered as suppliers and read on export.
+ * A family of counters kept per index, such as per lock stripe, is exported with the index as a label.
+ */
+public class ReservationMetrics {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final String[] QUANTILE_LABELS = {"0.5", "0.9", "0.99", "0.999"};
+    private static final String OTHER_ENDPOINT = "other";
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    /**
+     * Stages of handling a request, timed separately from the request as a whole.
+     */
+    public enum Stage {
+        VALIDATE("validate"),
+        ROUTE_LOOKUP("route_lookup"),
+        ALLOCATE("allocate"),
+        PRICE("price"),
+        SERIALIZE("serialize");
+
+        private final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * Reasons a request is turned down without an error on the server.
+     */
+    public enum Rejection {
+        NOT_ENOUGH_SEATS("not_enough_seats"),
+        ROUTE_NOT_FOUND("route_not_found"),
+        VALIDATION("validation");
+
+        private final String label;
+
+        Rejection(String label) {
+            this.label = label;
+        }
+    }
+
+    // An unlabelled sample has a null label and a count of 1
+    private record Sample(String name, String help, String type, String label, int count, IntToDoubleFunction value) {
+    }
+
+    private final Map<String, LatencyHistogram> endpoints;
+    private final LatencyHistogram otherEndpoint = new LatencyHistogram();
+    private final LatencyHistogram[] stages = new LatencyHistogram[Stage.values().length];
+    private final LongAdder[] rejections = new LongAdder[Rejection.values().length];
+    private final LongAdder shedRequests = new LongAdder();
+    private final List<Sample> samples = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates metrics without per-endpoint histograms; all requests are recorded under one endpoint.
+     */
+    public ReservationMetrics() {
+        this(List.of());
+    }
+
+    /**
+     * @param endpoints Paths of the endpoints to keep a latency histogram for
+     */
+    public ReservationMetrics(Collection<String> endpoints) {
+        Map<String, LatencyHistogram> histograms = new LinkedHashMap<>();
+        for (String endpoint : endpoints) {
+            histograms.put(endpoint, new LatencyHistogram());
+        }
+        this.endpoints = Collections.unmodifiableMap(histograms);
+        for (int i = 0; i < stages.length; i++) {
+            stages[i] = new LatencyHistogram();
+        }
+        for (int i = 0; i < rejections.length; i++) {
+            rejections[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Returns the latency histogram of an endpoint, or the one shared by unknown paths.
+     *
+     * @param path Servlet path of the request
+     * @return Latency histogram
+     */
+    public LatencyHistogram endpoint(String path) {
+        LatencyHistogram histogram = path == null ? null : endpoints.get(path);
+        return histogram != null ? histogram : otherEndpoint;
+    }
+
+    /**
+     * Returns the latency histogram of a stage.
+     *
+     * @param stage Stage of request handling
+     * @return Latency histogram
+     */
+    public LatencyHistogram stage(Stage stage) {
+        return stages[stage.ordinal()];
+    }
+
+    public void countRejection(Rejection rejection) {
+        rejections[rejection.ordinal()].increment();
+    }
+
+    public void countShedRequest() {
+        shedRequests.increment();
+    }
+
+    /**
+     * Registers a value that only goes up, read on every export.
+     *
+     * @param name  Metric name, ending in {@code _total}
+     * @param help  Description of the metric
+     * @param value Reads the current value
+     */
+    public void counter(String name, String help, DoubleSupplier value) {
+        samples.add(new Sample(name, help, "counter", null, 1, index -> value.getAsDouble()));
+    }
+
+    /**
+     * Registers a family of values that only go up, one per index, read on every export.
+     *
+     * @param name  Metric name, ending in {@code _total}
+     * @param help  Description of the metric
+     * @param label Name of the label holding the index
+     * @param count Number of indexes, from 0
+     * @param value Reads the current value at an index
+     */
+    public void counter(String name, String help, String label, int count, IntToDoubleFunction value) {
+        samples.add(new Sample(name, help, "counter", label, count, value));
+    }
+
+    /**
+     * Registers a value that goes up and down, read on every export.
+     *
+     * @param name  Metric name
+     * @param help  Description of the metric
+     * @param value Reads the current value
+     */
+    public void gauge(String name, String help, DoubleSupplier value) {
+        samples.add(new Sample(name, help, "gauge", null, 1, index -> value.getAsDouble()));
+    }
+
+    /**
+     * Writes all metrics in the Prometheus text exposition format. Latencies are exported as summaries in
+     * seconds, with the 50th, 90th, 99th and 99.9th percentiles.
+     *
+     * @param out Receives the metrics
+     * @throws IOException If the metrics could not be written
+     */
+    public void writeTo(Writer out) throws IOException {
+        writeHeader(out, "reservation_request_duration_seconds", "Time to answer a request, by endpoint.", "summary");
+        for (Map.Entry<String, LatencyHistogram> endpoint : endpoints.entrySet()) {
+            writeSummary(out, "reservation_request_duration_seconds", "endpoint", endpoint.getKey(), endpoint.getValue());
+        }
+        writeSummary(out, "reservation_request_duration_seconds", "endpoint", OTHER_ENDPOINT, otherEndpoint);
+
+        writeHeader(out, "reservation_stage_duration_seconds", "Time spent in each stage of handling a request.", "summary");
+        for (Stage stage : Stage.values()) {
+            writeSummary(out, "reservation_stage_duration_seconds", "stage", stage.label, stage(stage));
+        }
+
+        writeHeader(out, "reservation_rejections_total", "Requests turned down, by reason.", "counter");
+        for (Rejection rejection : Rejection.values()) {
+            writeSample(out, "reservation_rejections_total{reason=\"" + rejection.label + "\"}",
+                    rejections[rejection.ordinal()].sum());
+        }
+
+        writeHeader(out, "reservation_requests_shed_total", "Requests turned away at the in-flight limit.", "counter");
+        writeSample(out, "reservation_requests_shed_total", shedRequests.sum());
+
+        for (Sample sample : samples) {
+            writeHeader(out, sample.name(), sample.help(), sample.type());
+            if (sample.label() == null) {
+                writeSample(out, sample.name(), sample.value().applyAsDouble(0));
+                continue;
+            }
+            for (int index = 0; index < sample.count(); index++) {
+                writeSample(out, sample.name() + "{" + sample.label() + "=\"" + index + "\"}", sample.value().applyAsDouble(index));
+            }
+        }
+    }
+
+    private static void writeHeader(Writer out, String name, String help, String type) throws IOException {
+        out.write("# HELP " + name + " " + help + "\n");
+        out.write("# TYPE " + name + " " + type + "\n");
+    }
+
+    private static void writeSummary(Writer out, String name, String label, String labelValue, LatencyHistogram histogram)
+            throws IOException {
+        String labels = label + "=\"" + labelValue + "\"";
+        long[] values = histogram.valuesAtQuantiles(QUANTILES);
+        for (int i = 0; i < QUANTILES.length; i++) {
+            writeSample(out, name + "{" + labels + ",quantile=\"" + QUANTILE_LABELS[i] + "\"}", values[i] / NANOS_PER_SECOND);
+        }
+        writeSample(out, name + "_sum{" + labels + "}", histogram.getSum() / NANOS_PER_SECOND);
+        writeSample(out, name + "_count{" + labels + "}", histogram.getCount());
+    }
+
+    private static void writeSample(Writer out, String sample, double value) throws IOException {
+        boolean integral = value == Math.rint(value) && Math.abs(value) < 1L << 53;
+        out.write(sample + " " + (integral ? Long.toString((long) value) : Double.toString(value)) + "\n");
+    }
+}
@@ -1,82 +1,95 @@
 package org.reservation.system.model;
 
 import java.math.BigDecimal;
+import java.time.DayOfWeek;
 import java.util.*;
 
 /**
- * Represents a bus with predefined routes, seats, ticket prices, and schedules.
+ * Represents a bus with its own seat layout, stops, ticket prices, and schedule.
+ * The bus runs outbound from its first stop and returns from its last stop on each operating day.
  */
 public class Bus {
-    private final int rows = 10;
-    private final int seatsPerRow = 4;
-    private static final String[] stops = {"A", "B", "C", "D"};
+    private static final String DEFAULT_BUS_ID = "BUS-1";
 
-    private final char[] seatLabels = {'A', 'B', 'C', 'D'};
+    private final String busId;
+    private final String[] stops;
     private final List<Seat> seatList = new ArrayList<>();
 
-    private static final Map<String, BigDecimal> ticketPrices = new HashMap<>();
-    private static final List<Route> routes = new ArrayList<>();
-    private static final List<Route> returnRoutes = new ArrayList<>();
-    private static final Map<String, Integer> travelDurations = new HashMap<>(); // Travel time per route
+    private final Map<String, Integer> stopIds;
+    private final Route[][] routeTable; // [origin stop id][destination stop id]
 
-    private static final int baseDepartureTime = 9; // Hour 9:00 AM
-    private static final int baseReturnDepartureTime = 14;
+    private volatile Timetable timetable;
+    private final Set<DayOfWeek> operatingDays;
 
-    static {
-        initializeTicketPrices();
+    /**
+     * Constructs the default bus: 10 rows of 4 seats serving stops A to D every day,
+     * leaving at 9:00 AM and returning at 2:00 PM.
+     */
+    public Bus() {
+        this(defaultBus());
+    }
+
+    private Bus(Builder builder) {
+        this.busId = builder.busId;
+        this.stops = builder.stops.clone();
+        this.timetable = builder.timetable.build(stops);
+        this.operatingDays = Collections.unmodifiableSet(EnumSet.copyOf(builder.operatingDays));
+        this.stopIds = internStops(stops);
+        this.routeTable = new Route[stops.length][stops.length];
         initializeRoutes();
-        initializeTravelDurations();
+        initializeSeats(builder.rows, builder.seatLabels);
     }
 
-    /**
-     * Initializes ticket prices for different routes.
-     */
-    private static void initializeTicketPrices() {
-        ticketPrices.put("A-B", BigDecimal.valueOf(50));
-        ticketPrices.put("A-C", BigDecimal.valueOf(100));
-        ticketPrices.put("A-D", BigDecimal.valueOf(150));
-        ticketPrices.put("B-C", BigDecimal.valueOf(50));
-        ticketPrices.put("B-D", BigDecimal.valueOf(100));
-        ticketPrices.put("C-D", BigDecimal.valueOf(50));
+    private static Builder defaultBus() {
+        return new Builder()
+                .busId(DEFAULT_BUS_ID)
+                .stops("A", "B", "C", "D")
+                .seatLayout(10, 'A', 'B', 'C', 'D')
+                .ticketPrice("A", "B", BigDecimal.valueOf(50))
+                .ticketPrice("A", "C", BigDecimal.valueOf(100))
+                .ticketPrice("A", "D", BigDecimal.valueOf(150))
+                .ticketPrice("B", "C", BigDecimal.valueOf(50))
+                .ticketPrice("B", "D", BigDecimal.valueOf(100))
+                .ticketPrice("C", "D", BigDecimal.valueOf(50))
+                .travelDuration("A", "B", 90)  // 1 hour 30 mins
+                .travelDuration("A", "C", 180) // 3 hours
+                .travelDuration("A", "D", 240) // 4 hours
+                .travelDuration("B", "C", 120) // 2 hours
+                .travelDuration("B", "D", 180) // 3 hours
+                .travelDuration("C", "D", 90)  // 1 hour 30 mins
+                .baseDepartureTime(9)           // Hour 9:00 AM
+                .baseReturnDepartureTime(14);
     }
 
     /**
-     * Initializes the estimated travel durations (in minutes) for different routes.
+     * Assigns each stop a dense id, its position along the outbound route.
      */
-    private static void initializeTravelDurations() {
-        travelDurations.put("A-B", 90);  // 1 hour 30 mins
-        travelDurations.put("A-C", 180); // 3 hours
-        travelDurations.put("A-D", 240); // 4 hours
-        travelDurations.put("B-C", 120); // 2 hours
-        travelDurations.put("B-D", 180); // 3 hours
-        travelDurations.put("C-D", 90);  // 1 hour 30 mins
+    private static Map<String, Integer> internStops(String[] stops) {
+        Map<String, Integer> ids = new HashMap<>();
+        for (int i = 0; i < stops.length; i++) {
+            if (ids.put(stops[i], i) != null) {
+                throw new IllegalArgumentException("Duplicate stop " + stops[i]);
+            }
+        }
+        return Map.copyOf(ids);
     }
 
     /**
-     * Initializes all possible routes and return routes between bus stops.
+     * Initializes all possible routes and return routes between bus stops into the route table.
      */
-    private static void initializeRoutes() {
+    private void initializeRoutes() {
         for (int i = 0; i <= stops.length - 2; i++) {
             for (int j = i + 1; j <= stops.length - 1; j++) {
-                Route route = new Route(stops[i] + stops[j], stops[i], stops[j], false);
-                routes.add(route);
-                Route returnRoute = new Route(stops[j] + stops[i], stops[j], stops[i], true);
-                returnRoutes.add(returnRoute);
+                routeTable[i][j] = new Route(stops[i] + stops[j], stops[i], stops[j], false);
+                routeTable[j][i] = new Route(stops[j] + stops[i], stops[j], stops[i], true);
             }
         }
     }
 
-    /**
-     * Constructs a new Bus and initializes its seats.
-     */
-    public Bus() {
-        initializeSeats();
-    }
-
     /**
      * Initializes all seats in the bus.
      */
-    private void initializeSeats() {
+    private void initializeSeats(int rows, char[] seatLabels) {
         for (int i = 1; i <= rows; i++) {
             for (char seatLabel : seatLabels) {
                 Seat seat = new Seat(i + String.valueOf(seatLabel));
@@ -93,21 +106,114 @@ public class Bus {
      * @return The corresponding route or return route, if available.
      */
     public Route getRoute(String origin, String destination) {
-        return routes.stream()
-                .filter(route -> route.getOrigin().equals(origin) && route.getDestination().equals(destination))
-                .findFirst()
-                .orElse(returnRoutes.stream()
-                        .filter(route -> route.getOrigin().equals(origin) && route.getDestination().equals(destination))
-                        .findFirst()
-                        .orElse(null));
+        int from = getStopId(origin);
+        int to = getStopId(destination);
+        return from < 0 || to < 0 ? null : routeTable[from][to];
+    }
+
+    /**
+     * Returns the id of a stop, its position along the outbound route.
+     *
+     * @param stop The stop name.
+     * @return The stop id, or -1 if the bus does not serve the stop.
+     */
+    public int getStopId(String stop) {
+        Integer id = stop == null ? null : stopIds.get(stop);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Checks whether the bus runs on the given day.
+     *
+     * @param day The day of the week.
+     * @return True if the bus operates on that day.
+     */
+    public boolean operatesOn(DayOfWeek day) {
+        return operatingDays.contains(day);
+    }
+
+    /**
+     * Replaces the fares and schedule of the bus. Readers see either the old or the new timetable, never a mix.
+     *
+     * @param timetable The new timetable, compiled for the stops of this bus.
+     */
+    public void setTimetable(Timetable timetable) {
+        if (timetable.getStopCount() != stops.length) {
+            throw new IllegalArgumentException("Timetable has " + timetable.getStopCount() + " stops, bus " + busId + " has " + stops.length);
+        }
+        this.timetable = timetable;
     }
 
     // Getters
-    public static Map<String, BigDecimal> getTicketPriceList() { return ticketPrices; }
+    public String getBusId() { return busId; }
+    public Timetable getTimetable() { return timetable; }
     public List<Seat> getSeats() { return seatList; }
-    public static Map<String, Integer> getTravelDurations() { return travelDurations; }
-    public static String[] getBusStops() { return stops; }
-    public static int getBaseDepartureTime() { return baseDepartureTime; }
-    public static int getBaseReturnDepartureTime() { return baseReturnDepartureTime; }
-}
+    public String[] getBusStops() { return stops; }
+    public Set<DayOfWeek> getOperatingDays() { return operatingDays; }
+
+    public static class Builder {
+        private String busId;
+        private String[] stops;
+        private int rows;
+        private char[] seatLabels;
+        private final Timetable.Builder timetable = new Timetable.Builder();
+        private Set<DayOfWeek> operatingDays = EnumSet.allOf(DayOfWeek.class);
+
+        public Builder busId(String busId) {
+            this.busId = busId;
+            return this;
+        }
+
+        public Builder stops(String... stops) {
+            this.stops = stops;
+            return this;
+        }
+
+        public Builder seatLayout(int rows, char... seatLabels) {
+            this.rows = rows;
+            this.seatLabels = seatLabels;
+            return this;
+        }
+
+        /**
+         * Sets the ticket price between two stops, in the outbound order of the stops.
+         */
+        public Builder ticketPrice(String from, String to, BigDecimal price) {
+            this.timetable.ticketPrice(from, to, price);
+            return this;
+        }
 
+        /**
+         * Sets the travel time in minutes between two stops, in the outbound order of the stops.
+         */
+        public Builder travelDuration(String from, String to, int minutes) {
+            this.timetable.travelDuration(from, to, minutes);
+            return this;
+        }
+
+        public Builder baseDepartureTime(int hour) {
+            this.timetable.baseDepartureTime(hour);
+            return this;
+        }
+
+        public Builder baseReturnDepartureTime(int hour) {
+            this.timetable.baseReturnDepartureTime(hour);
+            return this;
+        }
+
+        public Builder operatingDays(Set<DayOfWeek> operatingDays) {
+            this.operatingDays = operatingDays;
+            return this;
+        }
+
+        public Bus build() {
+            if (busId == null || stops == null || stops.length < 2 || rows <= 0 || seatLabels == null || seatLabels.length == 0) {
+                throw new IllegalArgumentException("A bus needs an id, at least two stops and a seat layout");
+            }
+            if (operatingDays.isEmpty()) {
+                throw new IllegalArgumentException("Bus " + busId + " must operate on at least one day");
+            }
+            return new Bus(this);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package org.reservation.system.model;
+
+/**
+ * A route served by a particular bus. Together with a travel date it identifies a trip.
+ */
+public record BusRoute(Bus bus, Route route) {
+}
@@ -0,0 +1,70 @@
+package org.reservation.system.model;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * The buses available for reservation, with an index of the trips they run.
+ * A fleet is immutable; to change the buses, build a new fleet.
+ */
+public class Fleet {
+    private final List<Bus> buses;
+    private final Map<String, Bus> busesById;
+    private final TripIndex tripIndex;
+
+    /**
+     * Constructs a fleet. Buses earlier in the list are preferred when filling trips.
+     *
+     * @param buses The buses of the fleet.
+     */
+    public Fleet(List<Bus> buses) {
+        this.buses = List.copyOf(buses);
+        Map<String, Bus> byId = new HashMap<>();
+        for (Bus bus : this.buses) {
+            if (byId.put(bus.getBusId(), bus) != null) {
+                throw new IllegalArgumentException("Duplicate bus id " + bus.getBusId());
+            }
+        }
+        this.busesById = Map.copyOf(byId);
+        this.tripIndex = new TripIndex(this.buses);
+    }
+
+    public static Fleet of(Bus... buses) {
+        return new Fleet(Arrays.asList(buses));
+    }
+
+    /**
+     * Returns the trips that serve a pair of stops on a date.
+     *
+     * @param origin      The starting point of the journey.
+     * @param destination The ending point of the journey.
+     * @param travelDate  The date of travel.
+     * @return Candidate trips in fleet order, or an empty list if no bus serves the stops that day.
+     */
+    public List<BusRoute> findTrips(String origin, String destination, LocalDate travelDate) {
+        return tripIndex.findTrips(origin, destination, travelDate);
+    }
+
+    /**
+     * Checks whether any bus of the fleet serves a pair of stops.
+     *
+     * @param origin      The starting point of the journey.
+     * @param destination The ending point of the journey.
+     * @return True if the stops are connected on some day.
+     */
+    public boolean serves(String origin, String destination) {
+        return tripIndex.serves(origin, destination);
+    }
+
+    /**
+     * Finds a bus by its id.
+     *
+     * @param busId The bus id.
+     * @return The bus, or null if it is not part of the fleet.
+     */
+    public Bus getBus(String busId) {
+        return busesById.get(busId);
+    }
+
+    public List<Bus> getBuses() { return buses; }
+}
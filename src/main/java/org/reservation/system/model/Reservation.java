@@ -1,6 +1,7 @@
 package org.reservation.system.model;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -14,9 +15,10 @@ public class Reservation {
     private final String reservationId;
     private final Route route;
     private final Bus bus;
+    private final LocalDate travelDate;
     private final List<String> reservedSeats;
     private final BigDecimal totalPrice;
-    private ReservationStatus status;
+    private volatile ReservationStatus status;
     private final LocalDateTime departureTime;
     private final LocalDateTime arrivalTime;
 
@@ -25,15 +27,33 @@ public class Reservation {
      *
      * @param route          The route of the bus journey.
      * @param bus            The bus associated with the reservation.
+     * @param travelDate     The date of travel.
      * @param reservedSeats  The list of reserved seat numbers.
      * @param price          The total price of the reservation.
      * @param departureTime  The departure time of the journey.
      * @param arrivalTime    The estimated arrival time of the journey.
      */
-    public Reservation(Route route, Bus bus, List<String> reservedSeats, BigDecimal price, LocalDateTime departureTime, LocalDateTime arrivalTime) {
-        this.reservationId = UUID.randomUUID().toString();
+    public Reservation(Route route, Bus bus, LocalDate travelDate, List<String> reservedSeats, BigDecimal price, LocalDateTime departureTime, LocalDateTime arrivalTime) {
+        this(UUID.randomUUID().toString(), route, bus, travelDate, reservedSeats, price, departureTime, arrivalTime);
+    }
+
+    /**
+     * Recreates an existing reservation with a known ID.
+     *
+     * @param reservationId  The unique reservation ID.
+     * @param route          The route of the bus journey.
+     * @param bus            The bus associated with the reservation.
+     * @param travelDate     The date of travel.
+     * @param reservedSeats  The list of reserved seat numbers.
+     * @param price          The total price of the reservation.
+     * @param departureTime  The departure time of the journey.
+     * @param arrivalTime    The estimated arrival time of the journey.
+     */
+    public Reservation(String reservationId, Route route, Bus bus, LocalDate travelDate, List<String> reservedSeats, BigDecimal price, LocalDateTime departureTime, LocalDateTime arrivalTime) {
+        this.reservationId = reservationId;
         this.route = route;
         this.bus = bus;
+        this.travelDate = travelDate;
         this.reservedSeats = reservedSeats;
         this.totalPrice = price;
         this.status = ReservationStatus.CONFIRMED;
@@ -68,6 +88,15 @@ public class Reservation {
         return bus;
     }
 
+    /**
+     * Returns the date of travel.
+     *
+     * @return The travel date as a LocalDate object.
+     */
+    public LocalDate getTravelDate() {
+        return travelDate;
+    }
+
     /**
      * Returns a list of reserved seat numbers.
      *
@@ -95,6 +124,13 @@ public class Reservation {
         return status;
     }
 
+    /**
+     * Marks the reservation as cancelled.
+     */
+    public void cancel() {
+        this.status = ReservationStatus.CANCELLED;
+    }
+
     /**
      * Returns the departure time of the journey.
      *
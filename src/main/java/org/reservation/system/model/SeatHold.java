@@ -0,0 +1,31 @@
+package org.reservation.system.model;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Seats claimed on a trip while the passenger pays. A hold either becomes a reservation
+ * when it is confirmed, or its seats are released once it expires.
+ *
+ * @param holdId      The unique hold ID.
+ * @param bus         The bus the seats are held on.
+ * @param route       The route the seats are held for.
+ * @param travelDate  The date of travel.
+ * @param seatNumbers The held seat numbers.
+ * @param totalPrice  The quoted price for all passengers.
+ * @param expiresAt   When the seats are released unless the hold is confirmed.
+ */
+public record SeatHold(String holdId,
+                       Bus bus,
+                       Route route,
+                       LocalDate travelDate,
+                       List<String> seatNumbers,
+                       BigDecimal totalPrice,
+                       Instant expiresAt) {
+
+    public SeatHold {
+        seatNumbers = List.copyOf(seatNumbers);
+    }
+}
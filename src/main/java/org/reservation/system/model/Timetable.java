@@ -0,0 +1,154 @@
+package org.reservation.system.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fares and schedule of a bus, compiled into tables indexed by stop id.
+ * Every pair of stops has an exact fare and travel time, so lookups never fall back to defaults.
+ * A timetable is immutable; a bus swaps in a new one as a whole.
+ */
+public final class Timetable {
+    private final int stopCount;
+    private final BigDecimal[][] fares;    // [from stop id][to stop id], same in both directions
+    private final int[][] durations;       // minutes, [from stop id][to stop id], same in both directions
+    private final int[] departureOffsets;  // minutes after the base departure the outbound trip leaves each stop
+    private final int[] returnDepartureOffsets;
+    private final int baseDepartureTime;
+    private final int baseReturnDepartureTime;
+
+    private Timetable(int stopCount, BigDecimal[][] fares, int[][] durations, int baseDepartureTime, int baseReturnDepartureTime) {
+        this.stopCount = stopCount;
+        this.fares = fares;
+        this.durations = durations;
+        this.baseDepartureTime = baseDepartureTime;
+        this.baseReturnDepartureTime = baseReturnDepartureTime;
+        this.departureOffsets = new int[stopCount];
+        this.returnDepartureOffsets = new int[stopCount];
+        for (int stop = 0; stop < stopCount; stop++) {
+            departureOffsets[stop] = durations[0][stop];
+            returnDepartureOffsets[stop] = durations[stop][stopCount - 1];
+        }
+    }
+
+    /**
+     * Returns the fare per passenger between two stops.
+     *
+     * @param from Origin stop id.
+     * @param to   Destination stop id.
+     * @return The fare per passenger.
+     */
+    public BigDecimal getFare(int from, int to) {
+        return fares[from][to];
+    }
+
+    /**
+     * Returns the travel time between two stops.
+     *
+     * @param from Origin stop id.
+     * @param to   Destination stop id.
+     * @return Travel time in minutes.
+     */
+    public int getDuration(int from, int to) {
+        return durations[from][to];
+    }
+
+    /**
+     * Returns when the bus leaves a stop on a date.
+     *
+     * @param stop       Stop id.
+     * @param returnTrip Whether the bus is on its return trip.
+     * @param travelDate The travel date.
+     * @return The departure time from the stop.
+     */
+    public LocalDateTime getDepartureTime(int stop, boolean returnTrip, LocalDate travelDate) {
+        if (returnTrip) {
+            return travelDate.atTime(baseReturnDepartureTime, 0).plusMinutes(returnDepartureOffsets[stop]);
+        }
+        return travelDate.atTime(baseDepartureTime, 0).plusMinutes(departureOffsets[stop]);
+    }
+
+    public int getStopCount() { return stopCount; }
+    public int getBaseDepartureTime() { return baseDepartureTime; }
+    public int getBaseReturnDepartureTime() { return baseReturnDepartureTime; }
+
+    /**
+     * Builds a timetable from fares and travel times between stops, given in the outbound order of the stops.
+     * Consecutive stops must have a fare and travel time; for other pairs a missing value is
+     * the sum over the legs in between.
+     */
+    public static class Builder {
+        private final Map<String, BigDecimal> ticketPrices = new HashMap<>();
+        private final Map<String, Integer> travelDurations = new HashMap<>();
+        private int baseDepartureTime;
+        private int baseReturnDepartureTime;
+
+        public Builder ticketPrice(String from, String to, BigDecimal price) {
+            this.ticketPrices.put(from + "-" + to, price);
+            return this;
+        }
+
+        public Builder travelDuration(String from, String to, int minutes) {
+            this.travelDurations.put(from + "-" + to, minutes);
+            return this;
+        }
+
+        public Builder baseDepartureTime(int hour) {
+            this.baseDepartureTime = hour;
+            return this;
+        }
+
+        public Builder baseReturnDepartureTime(int hour) {
+            this.baseReturnDepartureTime = hour;
+            return this;
+        }
+
+        /**
+         * Compiles the timetable for a list of stops.
+         *
+         * @param stops The stops of the bus in outbound order; a stop's id is its position.
+         * @return The compiled timetable.
+         * @throws IllegalArgumentException if a fare or travel time cannot be determined, or an hour is out of range.
+         */
+        public Timetable build(String... stops) {
+            if (baseDepartureTime < 0 || baseDepartureTime > 23 || baseReturnDepartureTime < 0 || baseReturnDepartureTime > 23) {
+                throw new IllegalArgumentException("Departure hours must be between 0 and 23");
+            }
+            int stopCount = stops.length;
+            BigDecimal[][] fares = new BigDecimal[stopCount][stopCount];
+            int[][] durations = new int[stopCount][stopCount];
+            for (int stop = 0; stop < stopCount; stop++) {
+                fares[stop][stop] = BigDecimal.ZERO;
+            }
+            // Shorter spans first, so a missing pair can be summed from spans already compiled
+            for (int span = 1; span < stopCount; span++) {
+                for (int from = 0; from + span < stopCount; from++) {
+                    int to = from + span;
+                    String key = stops[from] + "-" + stops[to];
+                    BigDecimal fare = ticketPrices.get(key);
+                    Integer duration = travelDurations.get(key);
+                    if (span == 1 && (fare == null || duration == null)) {
+                        throw new IllegalArgumentException("No ticket price or travel duration between " + stops[from] + " and " + stops[to]);
+                    }
+                    if (fare == null) {
+                        fare = fares[from][to - 1].add(fares[to - 1][to]);
+                    }
+                    if (duration == null) {
+                        duration = durations[from][to - 1] + durations[to - 1][to];
+                    }
+                    if (fare.signum() < 0 || duration <= 0) {
+                        throw new IllegalArgumentException("Invalid ticket price or travel duration between " + stops[from] + " and " + stops[to]);
+                    }
+                    fares[from][to] = fare;
+                    fares[to][from] = fare;
+                    durations[from][to] = duration;
+                    durations[to][from] = duration;
+                }
+            }
+            return new Timetable(stopCount, fares, durations, baseDepartureTime, baseReturnDepartureTime);
+        }
+    }
+}
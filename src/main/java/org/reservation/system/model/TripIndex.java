@@ -0,0 +1,92 @@
+package org.reservation.system.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Index of the trips serving each pair of stops, by day of the week.
+ * Lookups are two hash probes and an array load, and return a shared immutable list.
+ */
+public class TripIndex {
+    private static final int DAYS_PER_WEEK = DayOfWeek.values().length;
+
+    // origin -> destination -> candidates per day of the week (Monday first)
+    private final Map<String, Map<String, List<BusRoute>[]>> index;
+
+    /**
+     * Builds the index for every route of every bus, keeping the given bus order.
+     *
+     * @param buses Buses of the fleet
+     */
+    public TripIndex(List<Bus> buses) {
+        Map<String, Map<String, List<List<BusRoute>>>> building = new HashMap<>();
+        for (Bus bus : buses) {
+            String[] stops = bus.getBusStops();
+            for (String origin : stops) {
+                for (String destination : stops) {
+                    Route route = origin.equals(destination) ? null : bus.getRoute(origin, destination);
+                    if (route == null) {
+                        continue;
+                    }
+                    List<List<BusRoute>> byDay = building.computeIfAbsent(origin, k -> new HashMap<>())
+                            .computeIfAbsent(destination, k -> newWeek());
+                    for (DayOfWeek day : bus.getOperatingDays()) {
+                        byDay.get(day.ordinal()).add(new BusRoute(bus, route));
+                    }
+                }
+            }
+        }
+
+        Map<String, Map<String, List<BusRoute>[]>> built = new HashMap<>();
+        building.forEach((origin, destinations) -> {
+            Map<String, List<BusRoute>[]> byDestination = new HashMap<>();
+            destinations.forEach((destination, byDay) -> byDestination.put(destination, freeze(byDay)));
+            built.put(origin, byDestination);
+        });
+        this.index = built;
+    }
+
+    /**
+     * Returns the trips that serve a pair of stops on a date.
+     *
+     * @param origin      Origin stop
+     * @param destination Destination stop
+     * @param travelDate  Date of travel
+     * @return Candidate trips in fleet order, empty if none run that day
+     */
+    public List<BusRoute> findTrips(String origin, String destination, LocalDate travelDate) {
+        Map<String, List<BusRoute>[]> destinations = index.get(origin);
+        List<BusRoute>[] byDay = destinations == null ? null : destinations.get(destination);
+        return byDay == null ? List.of() : byDay[travelDate.getDayOfWeek().ordinal()];
+    }
+
+    /**
+     * Checks whether any bus serves a pair of stops.
+     *
+     * @param origin      Origin stop
+     * @param destination Destination stop
+     * @return True if the stops are connected
+     */
+    public boolean serves(String origin, String destination) {
+        Map<String, List<BusRoute>[]> destinations = index.get(origin);
+        return destinations != null && destinations.containsKey(destination);
+    }
+
+    private static List<List<BusRoute>> newWeek() {
+        List<List<BusRoute>> week = new ArrayList<>(DAYS_PER_WEEK);
+        for (int i = 0; i < DAYS_PER_WEEK; i++) {
+            week.add(new ArrayList<>());
+        }
+        return week;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<BusRoute>[] freeze(List<List<BusRoute>> byDay) {
+        List<BusRoute>[] frozen = new List[DAYS_PER_WEEK];
+        for (int i = 0; i < DAYS_PER_WEEK; i++) {
+            frozen[i] = List.copyOf(byDay.get(i));
+        }
+        return frozen;
+    }
+}
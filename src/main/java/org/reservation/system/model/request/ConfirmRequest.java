@@ -0,0 +1,42 @@
+package org.reservation.system.model.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+import java.math.BigDecimal;
+
+@JsonDeserialize(builder = ConfirmRequest.Builder.class)
+public class ConfirmRequest {
+    private final String holdId;
+    private final BigDecimal paymentAmount;
+
+    private ConfirmRequest(Builder builder) {
+        this.holdId = builder.holdId;
+        this.paymentAmount = builder.paymentAmount;
+    }
+
+    // Getters
+    public String getHoldId() { return holdId; }
+    public BigDecimal getPaymentAmount() { return paymentAmount; }
+
+    public static class Builder {
+        private String holdId;
+        private BigDecimal paymentAmount;
+
+        @JsonProperty("holdId")
+        public Builder holdId(String holdId) {
+            this.holdId = holdId;
+            return this;
+        }
+
+        @JsonProperty("paymentAmount")
+        public Builder paymentAmount(BigDecimal paymentAmount) {
+            this.paymentAmount = paymentAmount;
+            return this;
+        }
+
+        public ConfirmRequest build() {
+            return new ConfirmRequest(this);
+        }
+    }
+}
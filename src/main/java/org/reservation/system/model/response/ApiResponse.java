@@ -1,6 +1,8 @@
 package org.reservation.system.model.response;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 /**
  * A generic API response wrapper for standardizing API responses.
@@ -14,7 +16,9 @@ public class ApiResponse<T> {
     private final String error;
     private final String message;
 
-    private ApiResponse(boolean success, T data, String error, String message) {
+    @JsonCreator
+    private ApiResponse(@JsonProperty("success") boolean success, @JsonProperty("data") T data,
+                        @JsonProperty("error") String error, @JsonProperty("message") String message) {
         this.success = success;
         this.data = data;
         this.error = error;
@@ -0,0 +1,64 @@
+package org.reservation.system.model.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonDeserialize(builder = AvailabilityCalendarResponse.Builder.class)
+public class AvailabilityCalendarResponse {
+    private final String origin;
+    private final String destination;
+    private final int passengerCount;
+    private final List<CalendarDay> days;
+
+    private AvailabilityCalendarResponse(Builder builder) {
+        this.origin = builder.origin;
+        this.destination = builder.destination;
+        this.passengerCount = builder.passengerCount;
+        this.days = builder.days;
+    }
+
+    // Getters
+    public String getOrigin() { return origin; }
+    public String getDestination() { return destination; }
+    public int getPassengerCount() { return passengerCount; }
+    public List<CalendarDay> getDays() { return days; }
+
+    public static class Builder {
+        private String origin;
+        private String destination;
+        private int passengerCount;
+        private List<CalendarDay> days;
+
+        @JsonProperty("origin")
+        public Builder origin(String origin) {
+            this.origin = origin;
+            return this;
+        }
+
+        @JsonProperty("destination")
+        public Builder destination(String destination) {
+            this.destination = destination;
+            return this;
+        }
+
+        @JsonProperty("passengerCount")
+        public Builder passengerCount(int passengerCount) {
+            this.passengerCount = passengerCount;
+            return this;
+        }
+
+        @JsonProperty("days")
+        public Builder days(List<CalendarDay> days) {
+            this.days = days;
+            return this;
+        }
+
+        public AvailabilityCalendarResponse build() {
+            return new AvailabilityCalendarResponse(this);
+        }
+    }
+}
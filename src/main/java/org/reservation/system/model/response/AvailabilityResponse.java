@@ -32,7 +32,7 @@ public class AvailabilityResponse {
             return this;
         }
 
-        @JsonProperty("PricingInfo")
+        @JsonProperty("pricingInfo")
         public Builder pricingInfo(PricingInfo pricingInfo) {
             this.pricingInfo = pricingInfo;
             return this;
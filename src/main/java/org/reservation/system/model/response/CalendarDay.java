@@ -0,0 +1,20 @@
+package org.reservation.system.model.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.reservation.system.model.PricingInfo;
+
+/**
+ * Availability of a route on one date of an availability calendar.
+ *
+ * @param travelDate       The date of travel.
+ * @param freeSeats        The most seats free on a single bus running the route that day.
+ * @param seatAvailability Whether one bus can seat all passengers.
+ * @param pricingInfo      The price on the bus the passengers would be booked on, if any.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CalendarDay(@JsonProperty("travelDate") String travelDate,
+                          @JsonProperty("freeSeats") int freeSeats,
+                          @JsonProperty("seatAvailability") boolean seatAvailability,
+                          @JsonProperty("PricingInfo") PricingInfo pricingInfo) {
+}
@@ -0,0 +1,86 @@
+package org.reservation.system.model.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonDeserialize(builder = HoldResponse.Builder.class)
+public class HoldResponse {
+    private final String holdId;
+    private final String origin;
+    private final String destination;
+    private final List<String> allocatedSeatNumbers;
+    private final BigDecimal totalPrice;
+    private final String expiresAt;
+
+    private HoldResponse(Builder builder) {
+        this.holdId = builder.holdId;
+        this.origin = builder.origin;
+        this.destination = builder.destination;
+        this.allocatedSeatNumbers = builder.allocatedSeatNumbers;
+        this.totalPrice = builder.totalPrice;
+        this.expiresAt = builder.expiresAt;
+    }
+
+    // Getters
+    public String getHoldId() { return holdId; }
+    public String getOrigin() { return origin; }
+    public String getDestination() { return destination; }
+    public List<String> getAllocatedSeatNumbers() { return allocatedSeatNumbers; }
+    public BigDecimal getTotalPrice() { return totalPrice; }
+    public String getExpiresAt() { return expiresAt; }
+
+    // Builder class
+    public static class Builder {
+        private String holdId;
+        private String origin;
+        private String destination;
+        private List<String> allocatedSeatNumbers;
+        private BigDecimal totalPrice;
+        private String expiresAt;
+
+        @JsonProperty("holdId")
+        public Builder holdId(String holdId) {
+            this.holdId = holdId;
+            return this;
+        }
+
+        @JsonProperty("origin")
+        public Builder origin(String origin) {
+            this.origin = origin;
+            return this;
+        }
+
+        @JsonProperty("destination")
+        public Builder destination(String destination) {
+            this.destination = destination;
+            return this;
+        }
+
+        @JsonProperty("allocatedSeatNumbers")
+        public Builder allocatedSeatNumbers(List<String> allocatedSeatNumbers) {
+            this.allocatedSeatNumbers = allocatedSeatNumbers;
+            return this;
+        }
+
+        @JsonProperty("totalPrice")
+        public Builder totalPrice(BigDecimal totalPrice) {
+            this.totalPrice = totalPrice;
+            return this;
+        }
+
+        @JsonProperty("expiresAt")
+        public Builder expiresAt(String expiresAt) {
+            this.expiresAt = expiresAt;
+            return this;
+        }
+
+        public HoldResponse build() {
+            return new HoldResponse(this);
+        }
+    }
+}
@@ -17,6 +17,7 @@ public class ReservationResponse {
     private final BigDecimal totalPrice;
     private final String departureTime;
     private final String arrivalTime;
+    private final String status;
 
     private ReservationResponse(Builder builder) {
         this.reservationId = builder.reservationId;
@@ -26,6 +27,7 @@ public class ReservationResponse {
         this.totalPrice = builder.totalPrice;
         this.departureTime = builder.departureTime;
         this.arrivalTime = builder.arrivalTime;
+        this.status = builder.status;
     }
 
     // Getters
@@ -36,6 +38,7 @@ public class ReservationResponse {
     public BigDecimal getTotalPrice() { return totalPrice; }
     public String getDepartureTime() { return departureTime; }
     public String getArrivalTime() { return arrivalTime; }
+    public String getStatus() { return status; }
 
     // Builder class
     public static class Builder {
@@ -46,6 +49,7 @@ public class ReservationResponse {
         private BigDecimal totalPrice;
         private String departureTime;
         private String arrivalTime;
+        private String status;
 
         @JsonProperty("reservationId")
         public Builder reservationId(String ticketNumber) {
@@ -89,6 +93,12 @@ public class ReservationResponse {
             return this;
         }
 
+        @JsonProperty("status")
+        public Builder status(String status) {
+            this.status = status;
+            return this;
+        }
+
         public ReservationResponse build() {
             return new ReservationResponse(this);
         }
@@ -0,0 +1,95 @@
+package org.reservation.system.persistence;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reservation archive keeping one file per travel date.
+ * <p>
+ * Layout of a file, big-endian:
+ * <pre>
+ * header        int magic, int version, int reservationCount
+ * reservations  reservationCount x [int length, byte[length] reservation record]
+ * </pre>
+ * A file is written to a temporary file and moved into place once synced, so it is always complete.
+ */
+public final class ArchiveDirectory implements ReservationArchive {
+    private static final int MAGIC = 0x52415243; // "RARC"
+    private static final int VERSION = 1;
+
+    private final Path directory;
+
+    public ArchiveDirectory(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public synchronized void archive(LocalDate travelDate, List<ReservationRecord> reservations) throws IOException {
+        Map<String, ReservationRecord> merged = new LinkedHashMap<>();
+        for (ReservationRecord reservation : read(travelDate)) {
+            merged.put(reservation.reservationId(), reservation);
+        }
+        for (ReservationRecord reservation : reservations) {
+            merged.put(reservation.reservationId(), reservation);
+        }
+
+        Files.createDirectories(directory);
+        Path file = fileOf(travelDate);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileOutputStream stream = new FileOutputStream(temp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(merged.size());
+            for (ReservationRecord reservation : merged.values()) {
+                byte[] encoded = LogRecordCodec.encode(reservation);
+                out.writeInt(encoded.length);
+                out.write(encoded);
+            }
+            out.flush();
+            stream.getFD().sync();
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads the archived reservations of a travel date.
+     *
+     * @param travelDate The travel date
+     * @return The archived reservations, empty if none were archived
+     * @throws IOException If the archive file cannot be read or is not an archive
+     */
+    public List<ReservationRecord> read(LocalDate travelDate) throws IOException {
+        Path file = fileOf(travelDate);
+        if (!Files.exists(file)) {
+            return List.of();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException(file + " is not a reservation archive");
+            }
+            int count = in.readInt();
+            List<ReservationRecord> reservations = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                byte[] encoded = new byte[in.readInt()];
+                in.readFully(encoded);
+                if (!(LogRecordCodec.decode(encoded) instanceof ReservationRecord reservation)) {
+                    throw new IOException(file + " holds a record that is not a reservation");
+                }
+                reservations.add(reservation);
+            }
+            return reservations;
+        }
+    }
+
+    private Path fileOf(LocalDate travelDate) {
+        return directory.resolve(travelDate + ".archive");
+    }
+}
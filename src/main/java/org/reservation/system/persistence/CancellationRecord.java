@@ -0,0 +1,7 @@
+package org.reservation.system.persistence;
+
+/**
+ * Records the cancellation of a reservation, whose seats became free again.
+ */
+public record CancellationRecord(String reservationId) implements LogRecord {
+}
@@ -0,0 +1,13 @@
+package org.reservation.system.persistence;
+
+import java.util.List;
+
+/**
+ * Saved seat inventory and reservations.
+ * Records appended to the reservation log from {@code logPosition} on may not be
+ * reflected yet and are replayed on top of it.
+ */
+public record InventorySnapshot(long logPosition,
+                                List<TripSnapshot> trips,
+                                List<ReservationRecord> reservations) {
+}
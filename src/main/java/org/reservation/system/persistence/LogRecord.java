@@ -0,0 +1,7 @@
+package org.reservation.system.persistence;
+
+/**
+ * A change to the reservation state, as written to the reservation log.
+ */
+public sealed interface LogRecord permits ReservationRecord, CancellationRecord {
+}
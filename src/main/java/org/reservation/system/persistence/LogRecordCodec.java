@@ -0,0 +1,88 @@
+package org.reservation.system.persistence;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary encoding of log records, used by the reservation log and for shipping records to replicas.
+ * Each record starts with a one byte type tag.
+ */
+public final class LogRecordCodec {
+    private static final byte RESERVATION = 1;
+    private static final byte CANCELLATION = 2;
+
+    private LogRecordCodec() {
+    }
+
+    public static byte[] encode(LogRecord record) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            switch (record) {
+                case ReservationRecord reservation -> {
+                    out.writeByte(RESERVATION);
+                    out.writeUTF(reservation.reservationId());
+                    out.writeUTF(reservation.busId());
+                    out.writeUTF(reservation.origin());
+                    out.writeUTF(reservation.destination());
+                    out.writeLong(reservation.travelDate().toEpochDay());
+                    writeSeats(out, reservation.seatNumbers());
+                    writeDecimal(out, reservation.totalPrice());
+                }
+                case CancellationRecord cancellation -> {
+                    out.writeByte(CANCELLATION);
+                    out.writeUTF(cancellation.reservationId());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static LogRecord decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte type = in.readByte();
+        return switch (type) {
+            case RESERVATION -> new ReservationRecord(
+                    in.readUTF(),
+                    in.readUTF(),
+                    in.readUTF(),
+                    in.readUTF(),
+                    LocalDate.ofEpochDay(in.readLong()),
+                    readSeats(in),
+                    readDecimal(in));
+            case CANCELLATION -> new CancellationRecord(in.readUTF());
+            default -> throw new IOException("Unknown log record type " + type);
+        };
+    }
+
+    private static void writeSeats(DataOutputStream out, List<String> seatNumbers) throws IOException {
+        out.writeShort(seatNumbers.size());
+        for (String seatNumber : seatNumbers) {
+            out.writeUTF(seatNumber);
+        }
+    }
+
+    private static List<String> readSeats(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        List<String> seatNumbers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            seatNumbers.add(in.readUTF());
+        }
+        return seatNumbers;
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value.toString());
+        }
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new BigDecimal(in.readUTF()) : null;
+    }
+}
@@ -0,0 +1,26 @@
+package org.reservation.system.persistence;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Long-term store for reservations whose trips have departed, so they can leave memory.
+ */
+public interface ReservationArchive {
+
+    /**
+     * An archive that drops departed reservations.
+     */
+    ReservationArchive NONE = (travelDate, reservations) -> { };
+
+    /**
+     * Adds the reservations of a departed travel date to the archive.
+     * Archiving a reservation that is already archived keeps a single copy.
+     *
+     * @param travelDate   The travel date
+     * @param reservations Reservations travelling on that date
+     * @throws IOException If the reservations cannot be archived
+     */
+    void archive(LocalDate travelDate, List<ReservationRecord> reservations) throws IOException;
+}
@@ -0,0 +1,75 @@
+package org.reservation.system.persistence;
+
+import java.util.function.Consumer;
+
+/**
+ * Durable, append-only log of reservation changes.
+ * Appends are ordered; {@link #awaitDurable(long)} blocks until an appended record survives a crash.
+ * Positions are byte offsets into the log.
+ */
+public interface ReservationLog {
+
+    /**
+     * A log that keeps nothing, for running with in-memory state only.
+     */
+    ReservationLog NONE = new ReservationLog() {
+        @Override
+        public long append(LogRecord record) {
+            return 0;
+        }
+
+        @Override
+        public void awaitDurable(long position) {
+        }
+
+        @Override
+        public long position() {
+            return 0;
+        }
+
+        @Override
+        public void replay(long fromPosition, Consumer<LogRecord> consumer) {
+        }
+    };
+
+    /**
+     * Appends a record to the log.
+     *
+     * @param record The record to append
+     * @return Log position to pass to {@link #awaitDurable(long)}
+     */
+    long append(LogRecord record);
+
+    /**
+     * Blocks until everything up to the given position is durable.
+     *
+     * @param position Position returned by {@link #append(LogRecord)}
+     */
+    void awaitDurable(long position);
+
+    /**
+     * Returns the position just after the last appended record.
+     *
+     * @return Current end of the log
+     */
+    long position();
+
+    /**
+     * Feeds every record from the given position on to the consumer, in append order.
+     * Must be called once before the first append, so a torn record left by a crash
+     * can be dropped before new records are written after it.
+     *
+     * @param fromPosition Position to start from, such as one saved with a snapshot
+     * @param consumer     Receives the records
+     */
+    void replay(long fromPosition, Consumer<LogRecord> consumer);
+
+    /**
+     * Lets the log drop the records before a position, once a durable snapshot holds everything they did.
+     * Records from the position on are kept for replay. A log may keep more; this one keeps everything.
+     *
+     * @param position Position saved with the snapshot
+     */
+    default void discardBefore(long position) {
+    }
+}
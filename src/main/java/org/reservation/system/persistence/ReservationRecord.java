@@ -0,0 +1,17 @@
+package org.reservation.system.persistence;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Records a confirmed reservation together with the seats it claimed.
+ */
+public record ReservationRecord(String reservationId,
+                                String busId,
+                                String origin,
+                                String destination,
+                                LocalDate travelDate,
+                                List<String> seatNumbers,
+                                BigDecimal totalPrice) implements LogRecord {
+}
@@ -0,0 +1,157 @@
+package org.reservation.system.persistence;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Memory-mapped snapshot file of the seat inventory.
+ * <p>
+ * Layout, big-endian:
+ * <pre>
+ * header        int magic, int version, long logPosition, int busCount, int tripCount, int reservationCount
+ * buses         busCount x [int seatCount, int idLength, byte[idLength] busId]
+ * trips         tripCount x [int busIndex, int returnTrip, long epochDay, seatCount x long occupiedLegs]
+ * reservations  reservationCount x [int length, byte[length] reservation record]
+ * </pre>
+ * Trips are grouped by bus and all trips of a bus have the same size, so the seat bitmaps
+ * of any trip are at a computable offset.
+ * A new snapshot is written to a temporary file and moved over the old one once synced.
+ */
+public final class SnapshotFile {
+    private static final int MAGIC = 0x52534E50; // "RSNP"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 5 * Integer.BYTES + Long.BYTES;
+    private static final int TRIP_HEADER_BYTES = 2 * Integer.BYTES + Long.BYTES;
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Atomically replaces the snapshot file.
+     *
+     * @param file     Snapshot file
+     * @param snapshot Snapshot to write
+     * @throws IOException If the snapshot cannot be written
+     */
+    public static void write(Path file, InventorySnapshot snapshot) throws IOException {
+        List<TripSnapshot> trips = new ArrayList<>(snapshot.trips());
+        trips.sort(Comparator.comparing(TripSnapshot::busId));
+        Map<String, Integer> busIndexes = new LinkedHashMap<>();
+        Map<String, Integer> seatCounts = new HashMap<>();
+        List<byte[]> busIds = new ArrayList<>();
+        long size = HEADER_BYTES;
+        for (TripSnapshot trip : trips) {
+            Integer seatCount = seatCounts.putIfAbsent(trip.busId(), trip.occupiedLegs().length);
+            if (seatCount != null && seatCount != trip.occupiedLegs().length) {
+                throw new IllegalArgumentException("Trips of bus " + trip.busId() + " have different seat counts");
+            }
+            if (!busIndexes.containsKey(trip.busId())) {
+                byte[] busId = trip.busId().getBytes(StandardCharsets.UTF_8);
+                busIndexes.put(trip.busId(), busIds.size());
+                busIds.add(busId);
+                size += 2L * Integer.BYTES + busId.length;
+            }
+            size += TRIP_HEADER_BYTES + (long) trip.occupiedLegs().length * Long.BYTES;
+        }
+        List<byte[]> reservations = new ArrayList<>(snapshot.reservations().size());
+        for (ReservationRecord reservation : snapshot.reservations()) {
+            byte[] encoded = LogRecordCodec.encode(reservation);
+            reservations.add(encoded);
+            size += Integer.BYTES + encoded.length;
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putLong(snapshot.logPosition())
+                    .putInt(busIds.size())
+                    .putInt(trips.size())
+                    .putInt(reservations.size());
+            for (Map.Entry<String, Integer> bus : busIndexes.entrySet()) {
+                byte[] busId = busIds.get(bus.getValue());
+                buffer.putInt(seatCounts.get(bus.getKey())).putInt(busId.length).put(busId);
+            }
+            for (TripSnapshot trip : trips) {
+                buffer.putInt(busIndexes.get(trip.busId()))
+                        .putInt(trip.returnTrip() ? 1 : 0)
+                        .putLong(trip.travelDate().toEpochDay());
+                for (long legs : trip.occupiedLegs()) {
+                    buffer.putLong(legs);
+                }
+            }
+            for (byte[] reservation : reservations) {
+                buffer.putInt(reservation.length).put(reservation);
+            }
+            buffer.force();
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps and reads a snapshot file.
+     *
+     * @param file Snapshot file
+     * @return The snapshot, or empty if the file does not exist
+     * @throws IOException If the file cannot be read or is not a snapshot
+     */
+    public static Optional<InventorySnapshot> read(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+                throw new IOException(file + " is not an inventory snapshot");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + " in " + file);
+            }
+            long logPosition = buffer.getLong();
+            int busCount = buffer.getInt();
+            int tripCount = buffer.getInt();
+            int reservationCount = buffer.getInt();
+
+            String[] busIds = new String[busCount];
+            int[] seatCounts = new int[busCount];
+            for (int i = 0; i < busCount; i++) {
+                seatCounts[i] = buffer.getInt();
+                byte[] busId = new byte[buffer.getInt()];
+                buffer.get(busId);
+                busIds[i] = new String(busId, StandardCharsets.UTF_8);
+            }
+
+            List<TripSnapshot> trips = new ArrayList<>(tripCount);
+            for (int i = 0; i < tripCount; i++) {
+                int busIndex = buffer.getInt();
+                boolean returnTrip = buffer.getInt() != 0;
+                LocalDate travelDate = LocalDate.ofEpochDay(buffer.getLong());
+                long[] occupiedLegs = new long[seatCounts[busIndex]];
+                buffer.asLongBuffer().get(occupiedLegs);
+                buffer.position(buffer.position() + occupiedLegs.length * Long.BYTES);
+                trips.add(new TripSnapshot(busIds[busIndex], travelDate, returnTrip, occupiedLegs));
+            }
+
+            List<ReservationRecord> reservations = new ArrayList<>(reservationCount);
+            for (int i = 0; i < reservationCount; i++) {
+                byte[] encoded = new byte[buffer.getInt()];
+                buffer.get(encoded);
+                reservations.add((ReservationRecord) LogRecordCodec.decode(encoded));
+            }
+            return Optional.of(new InventorySnapshot(logPosition, trips, reservations));
+        } catch (RuntimeException e) {
+            throw new IOException(file + " is not a valid inventory snapshot", e);
+        }
+    }
+}
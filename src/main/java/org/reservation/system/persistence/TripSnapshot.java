@@ -0,0 +1,9 @@
+package org.reservation.system.persistence;
+
+import java.time.LocalDate;
+
+/**
+ * Saved seat state of one trip: the occupied legs of every seat, in bus seat order.
+ */
+public record TripSnapshot(String busId, LocalDate travelDate, boolean returnTrip, long[] occupiedLegs) {
+}
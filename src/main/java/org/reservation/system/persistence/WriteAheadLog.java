@@ -0,0 +1,447 @@
+package org.reservation.system.persistence;
+
+import org.reservation.system.exception.PersistenceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary reservation log with group commit.
+ * Appended records are buffered and a background thread writes and fsyncs them once per
+ * commit window, so one fsync covers every booking made during the window.
+ * <p>
+ * Each record is framed as {@code [int length][int crc32][payload]}. A torn record at the
+ * end of the file, left by a crash during a write, is dropped by the first replay, which
+ * only reads the log from the requested position on.
+ * After a write or fsync failure the log refuses further appends.
+ * <p>
+ * The log is kept in segments: the first in the given file, each later one in a file named
+ * after it with the position the segment starts at appended, e.g. {@code reservations.wal.81920}.
+ * {@link #discardBefore(long)} starts a new segment with the next write and deletes the
+ * segments that end at or before the given position, so the log only holds the records
+ * since about the last two snapshots.
+ */
+public class WriteAheadLog implements ReservationLog, Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(WriteAheadLog.class);
+    private static final int FRAME_HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int INITIAL_BUFFER_BYTES = 64 * 1024;
+
+    private final Path file;
+    // Last segment; only the flusher switches segments once the log is recovered
+    private FileChannel channel;
+    private long segmentStart;
+    private final long commitWindowNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+    private final Thread flusher;
+
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+    private ByteBuffer spare = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+    private long appendedPosition;
+    private long durablePosition;
+    private IOException failure;
+    private boolean recovered;
+    private boolean closed;
+    private boolean rollRequested;
+
+    private WriteAheadLog(Path file, FileChannel channel, long segmentStart, Duration commitWindow) {
+        this.file = file;
+        this.channel = channel;
+        this.segmentStart = segmentStart;
+        this.commitWindowNanos = commitWindow.toNanos();
+        this.flusher = Thread.ofPlatform().name("reservation-log-flusher").daemon().start(this::runFlusher);
+    }
+
+    /**
+     * Opens or creates a log file, appending to its last segment. Call {@link #replay(long, Consumer)} before appending.
+     *
+     * @param file         Log file, which names its segments
+     * @param commitWindow How long to collect appends before writing and syncing them
+     * @return The opened log
+     * @throws IOException If the file cannot be opened
+     */
+    public static WriteAheadLog open(Path file, Duration commitWindow) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        NavigableMap<Long, Path> segments = segments(file);
+        long segmentStart = segments.isEmpty() ? 0 : segments.lastKey();
+        FileChannel channel = FileChannel.open(segmentFile(file, segmentStart), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        return new WriteAheadLog(file, channel, segmentStart, commitWindow);
+    }
+
+    @Override
+    public long append(LogRecord record) {
+        byte[] payload = LogRecordCodec.encode(record);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        lock.lock();
+        try {
+            ensureWritable();
+            ensureCapacity(FRAME_HEADER_BYTES + payload.length);
+            boolean wasEmpty = pending.position() == 0;
+            pending.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+            appendedPosition += FRAME_HEADER_BYTES + payload.length;
+            if (wasEmpty) {
+                appended.signal();
+            }
+            return appendedPosition;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void awaitDurable(long position) {
+        lock.lock();
+        try {
+            while (durablePosition < position && failure == null) {
+                flushed.awaitUninterruptibly();
+            }
+            if (durablePosition < position) {
+                throw new PersistenceException("Reservation log " + file + " could not be synced", failure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long position() {
+        lock.lock();
+        try {
+            return appendedPosition;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void replay(long fromPosition, Consumer<LogRecord> consumer) {
+        long durableEnd;
+        lock.lock();
+        try {
+            if (!recovered) {
+                recover(fromPosition, consumer);
+                return;
+            }
+            durableEnd = durablePosition;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            scanSegments(segments(file), Math.min(fromPosition, durableEnd), durableEnd, consumer);
+        } catch (IOException e) {
+            throw new PersistenceException("Reservation log " + file + " could not be read", e);
+        }
+    }
+
+    /**
+     * Starts a new segment with the next write, and deletes the segments holding only records before the position.
+     * The segment holding the position is kept whole, and so is the one being written.
+     */
+    @Override
+    public void discardBefore(long position) {
+        lock.lock();
+        try {
+            rollRequested = true;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            NavigableMap<Long, Path> segments = segments(file);
+            Long kept = segments.floorKey(position);
+            if (kept == null) {
+                return;
+            }
+            for (Path segment : segments.headMap(kept).values()) {
+                Files.delete(segment);
+                logger.info("Deleted reservation log segment {}, which a snapshot stands in for", segment);
+            }
+        } catch (IOException e) {
+            throw new PersistenceException("Reservation log " + file + " could not be compacted", e);
+        }
+    }
+
+    /**
+     * Replays the log for the first time, dropping a torn record at its end.
+     */
+    private void recover(long fromPosition, Consumer<LogRecord> consumer) {
+        try {
+            NavigableMap<Long, Path> segments = segments(file);
+            long size = segmentStart + channel.size();
+            long start = fromPosition;
+            if (fromPosition > size) {
+                logger.warn("Reservation log {} is shorter than replay position {}, starting from its end", file, fromPosition);
+                start = size;
+            }
+            long validLength = scanSegments(segments, start, size, consumer);
+            if (validLength < segmentStart) {
+                throw new PersistenceException("Reservation log " + file + " has a torn record at position " + validLength
+                        + ", before its last segment");
+            }
+            if (validLength < size) {
+                logger.warn("Dropping {} bytes of torn records at the end of {}", size - validLength, file);
+                channel.truncate(validLength - segmentStart);
+                channel.force(true);
+            }
+            appendedPosition = validLength;
+            durablePosition = validLength;
+            recovered = true;
+        } catch (IOException e) {
+            throw new PersistenceException("Reservation log " + file + " could not be read", e);
+        }
+    }
+
+    /**
+     * Writes and syncs everything appended so far, then stops the flusher and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            appended.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    private void runFlusher() {
+        while (awaitAppends()) {
+            if (commitWindowNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(commitWindowNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            flush();
+        }
+        flush();
+    }
+
+    /**
+     * Waits until there is something to flush.
+     *
+     * @return False once the log is closed
+     */
+    private boolean awaitAppends() {
+        lock.lock();
+        try {
+            while (pending.position() == 0 && !closed) {
+                appended.awaitUninterruptibly();
+            }
+            return !closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flush() {
+        ByteBuffer batch;
+        long batchEnd;
+        boolean roll;
+        lock.lock();
+        try {
+            if (pending.position() == 0 || failure != null) {
+                return;
+            }
+            batch = pending;
+            pending = spare;
+            spare = null;
+            batchEnd = appendedPosition;
+            roll = rollRequested;
+            rollRequested = false;
+        } finally {
+            lock.unlock();
+        }
+
+        IOException error = null;
+        try {
+            batch.flip();
+            long offset = batchEnd - batch.remaining();
+            if (roll && offset > segmentStart) {
+                FileChannel next = FileChannel.open(segmentFile(file, offset), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                syncDirectory(file.toAbsolutePath().getParent());
+                channel.close();
+                channel = next;
+                segmentStart = offset;
+            }
+            while (batch.hasRemaining()) {
+                offset += channel.write(batch, offset - segmentStart);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            logger.error("Failed to write reservation log {}", file, e);
+            error = e;
+        }
+
+        lock.lock();
+        try {
+            batch.clear();
+            spare = batch;
+            if (error == null) {
+                durablePosition = batchEnd;
+            } else {
+                failure = error;
+            }
+            flushed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void ensureWritable() {
+        if (!recovered) {
+            throw new IllegalStateException("Reservation log " + file + " must be replayed before appending");
+        }
+        if (failure != null) {
+            throw new PersistenceException("Reservation log " + file + " failed earlier", failure);
+        }
+        if (closed) {
+            throw new PersistenceException("Reservation log " + file + " is closed");
+        }
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (pending.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + bytes));
+            pending.flip();
+            larger.put(pending);
+            pending = larger;
+        }
+    }
+
+    /**
+     * Returns the segment files of a log by the position each starts at.
+     */
+    private static NavigableMap<Long, Path> segments(Path file) throws IOException {
+        NavigableMap<Long, Path> segments = new TreeMap<>();
+        String name = file.getFileName().toString();
+        Path directory = file.toAbsolutePath().getParent();
+        if (directory == null || !Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString()).forEach(fileName -> {
+                if (fileName.equals(name)) {
+                    segments.put(0L, file);
+                } else if (fileName.startsWith(name + ".") && fileName.length() > name.length() + 1
+                        && fileName.substring(name.length() + 1).chars().allMatch(Character::isDigit)) {
+                    long start = Long.parseLong(fileName.substring(name.length() + 1));
+                    segments.put(start, segmentFile(file, start));
+                }
+            });
+        }
+        return segments;
+    }
+
+    private static Path segmentFile(Path file, long start) {
+        return start == 0 ? file : file.resolveSibling(file.getFileName() + "." + start);
+    }
+
+    /**
+     * Syncs a directory, so a segment created in it survives a crash along with the records synced to it.
+     */
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not every platform can open a directory to sync it
+            logger.debug("Could not sync directory {}", directory, e);
+        }
+    }
+
+    /**
+     * Reads complete records between two positions of the log, across its segments.
+     *
+     * @param segments Segment files by start position; the first must start at or before {@code from}
+     * @param from     Position of the first record
+     * @param end      Position to stop reading at
+     * @param consumer Receives each record
+     * @return Position just after the last complete record
+     */
+    private static long scanSegments(NavigableMap<Long, Path> segments, long from, long end,
+                                     Consumer<LogRecord> consumer) throws IOException {
+        Long first = segments.floorKey(from);
+        if (first == null) {
+            throw new PersistenceException("Reservation log starts after replay position " + from
+                    + "; the records before it were discarded");
+        }
+        long position = from;
+        for (Map.Entry<Long, Path> segment : segments.tailMap(first, true).entrySet()) {
+            if (position >= end) {
+                break;
+            }
+            long start = segment.getKey();
+            Long next = segments.higherKey(start);
+            long segmentEnd = Math.min(next == null ? end : Math.min(next, end), start + Files.size(segment.getValue()));
+            long validEnd = start + scan(segment.getValue(), position - start, segmentEnd - start, consumer);
+            if (validEnd < segmentEnd || next == null || segmentEnd < next) {
+                return validEnd;
+            }
+            position = segmentEnd;
+        }
+        return position;
+    }
+
+    /**
+     * Reads complete records between two positions of one file.
+     *
+     * @param file     Log file
+     * @param from     Position of the first record
+     * @param end      Position to stop reading at
+     * @param consumer Receives each record
+     * @return Position just after the last complete record
+     */
+    private static long scan(Path file, long from, long end, Consumer<LogRecord> consumer) throws IOException {
+        long validLength = from;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            in.skipNBytes(from);
+            while (end - validLength >= FRAME_HEADER_BYTES) {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if (length < 0 || length > end - validLength - FRAME_HEADER_BYTES) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                consumer.accept(LogRecordCodec.decode(payload));
+                validLength += FRAME_HEADER_BYTES + length;
+            }
+        }
+        return validLength;
+    }
+}
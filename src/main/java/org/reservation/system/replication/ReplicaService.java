@@ -0,0 +1,221 @@
+package org.reservation.system.replication;
+
+import org.reservation.system.model.request.AvailabilityRequest;
+import org.reservation.system.model.request.ConfirmRequest;
+import org.reservation.system.model.request.ReservationRequest;
+import org.reservation.system.model.response.ApiResponse;
+import org.reservation.system.model.response.AvailabilityCalendarResponse;
+import org.reservation.system.model.response.AvailabilityResponse;
+import org.reservation.system.model.response.HoldResponse;
+import org.reservation.system.model.response.ReservationResponse;
+import org.reservation.system.service.BusReservationService;
+import org.reservation.system.service.ReservationService;
+import org.reservation.system.shard.ShardClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static org.reservation.system.Constant.DefaultConfig.EVICTION_INTERVAL_MINUTES;
+import static org.reservation.system.Constant.DefaultConfig.REPLICA_RECONNECT_MILLIS;
+
+/**
+ * Read replica of a primary reservation service. The replica follows the primary's change stream into a copy of
+ * its inventory and answers availability from it while the copy is fresh enough; everything else, and availability
+ * while the copy is too stale, is forwarded to the primary. Reservations are looked up on the primary too, so a
+ * client always finds the reservation it just made.
+ * <p>
+ * Staleness is how long ago, by the primary's clock, the replica last held every change the primary had made.
+ * While nothing is booked the primary sends a heartbeat every {@code REPLICATION_HEARTBEAT_MILLIS}, so staleness
+ * stays below that plus the network delay; it is only meaningful if the hosts' clocks are synchronised.
+ * Seats held on the primary are not replicated, and show as free on the replica until the hold is confirmed.
+ */
+public class ReplicaService implements ReservationService, Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaService.class);
+
+    private final Supplier<BusReservationService> replicaFactory;
+    private final ShardClient primary;
+    private final long maxStalenessMillis;
+    private final LongAdder forwardedReads = new LongAdder();
+    private volatile BusReservationService replica;
+    private volatile long nextSequence = ReplicationProtocol.LOAD;
+    private volatile long headSequence;
+    private volatile long currentAsOf;
+    private volatile DataInputStream stream;
+    private volatile boolean closed;
+
+    private ReplicaService(Supplier<BusReservationService> replicaFactory, ShardClient primary, Duration maxStaleness) {
+        this.replicaFactory = replicaFactory;
+        this.primary = primary;
+        this.maxStalenessMillis = maxStaleness.toMillis();
+    }
+
+    /**
+     * Starts following a primary.
+     *
+     * @param replicaFactory Builds an empty reservation service to load the primary's state into, each time the
+     *                       replica is loaded afresh
+     * @param primary        Client of the primary's shard server, which publishes its changes
+     * @param maxStaleness   Staleness beyond which availability is asked of the primary
+     * @return The replica, which forwards every request to the primary until it is first loaded
+     */
+    public static ReplicaService start(Supplier<BusReservationService> replicaFactory, ShardClient primary, Duration maxStaleness) {
+        ReplicaService replicaService = new ReplicaService(replicaFactory, primary, maxStaleness);
+        Thread.ofPlatform().name("replica-follower").daemon().start(replicaService::follow);
+        return replicaService;
+    }
+
+    @Override
+    public AvailabilityResponse checkAvailability(AvailabilityRequest request) {
+        return reader().checkAvailability(request);
+    }
+
+    @Override
+    public AvailabilityCalendarResponse checkAvailabilityCalendar(String origin, String destination, int passengerCount,
+                                                                  LocalDate firstDate, int days) {
+        return reader().checkAvailabilityCalendar(origin, destination, passengerCount, firstDate, days);
+    }
+
+    @Override
+    public ReservationResponse reserveTicket(ReservationRequest request) {
+        return primary.reserveTicket(request);
+    }
+
+    @Override
+    public List<ApiResponse<ReservationResponse>> reserveTickets(List<ReservationRequest> requests) {
+        return primary.reserveTickets(requests);
+    }
+
+    @Override
+    public ReservationResponse getReservation(String reservationId) {
+        return primary.getReservation(reservationId);
+    }
+
+    @Override
+    public ReservationResponse cancelReservation(String reservationId) {
+        return primary.cancelReservation(reservationId);
+    }
+
+    @Override
+    public HoldResponse holdSeats(AvailabilityRequest request) {
+        return primary.holdSeats(request);
+    }
+
+    @Override
+    public ReservationResponse confirmHold(ConfirmRequest request) {
+        return primary.confirmHold(request);
+    }
+
+    /**
+     * Stops following the primary and closes the connections to it.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        DataInputStream in = stream;
+        if (in != null) {
+            in.close();
+        }
+        primary.close();
+    }
+
+    /**
+     * Returns how long ago, by the primary's clock, the replica last held every change of the primary.
+     *
+     * @return Staleness in milliseconds, or {@link Long#MAX_VALUE} before the replica is first loaded
+     */
+    public long getStalenessMillis() {
+        return replica == null ? Long.MAX_VALUE : Math.max(0, System.currentTimeMillis() - currentAsOf);
+    }
+
+    /**
+     * Returns how many records the primary had logged that the replica had not applied, as of the last batch.
+     */
+    public long getLagRecords() {
+        return replica == null ? 0 : Math.max(0, headSequence - nextSequence);
+    }
+
+    /**
+     * Returns the number of the next record the replica will apply.
+     */
+    public long getNextSequence() { return nextSequence; }
+
+    /**
+     * Returns the number of availability requests forwarded to the primary because the replica was too stale.
+     */
+    public long getForwardedReads() { return forwardedReads.sum(); }
+
+    private ReservationService reader() {
+        BusReservationService current = replica;
+        if (current != null && getStalenessMillis() <= maxStalenessMillis) {
+            return current;
+        }
+        forwardedReads.increment();
+        return primary;
+    }
+
+    /**
+     * Reads the primary's change stream until closed, subscribing again from the next record after a failure.
+     * Departed trips are evicted between batches.
+     */
+    private void follow() {
+        long nextEviction = System.nanoTime() + TimeUnit.MINUTES.toNanos(EVICTION_INTERVAL_MINUTES);
+        while (!closed) {
+            try (DataInputStream in = primary.subscribe(ByteBuffer.allocate(Long.BYTES).putLong(nextSequence).array())) {
+                stream = in;
+                while (!closed) {
+                    apply(ReplicationProtocol.read(in));
+                    if (System.nanoTime() - nextEviction > 0) {
+                        replica.evictDepartedTrips();
+                        nextEviction = System.nanoTime() + TimeUnit.MINUTES.toNanos(EVICTION_INTERVAL_MINUTES);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                if (closed) {
+                    return;
+                }
+                logger.warn("Lost the change stream of the primary, subscribing again: {}", e.toString());
+                try {
+                    Thread.sleep(REPLICA_RECONNECT_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void apply(ReplicationProtocol.Message message) throws IOException {
+        switch (message) {
+            case ReplicationProtocol.Snapshot snapshot -> {
+                BusReservationService loaded = replicaFactory.get();
+                loaded.restoreReplica(snapshot.reservations(), snapshot.changes());
+                nextSequence = snapshot.firstSequence() + snapshot.changes().size();
+                headSequence = nextSequence;
+                currentAsOf = snapshot.currentAsOf();
+                replica = loaded;
+                logger.info("Loaded {} reservations from the primary, up to record {}", snapshot.reservations().size(), nextSequence);
+            }
+            case ReplicationProtocol.Batch batch -> {
+                if (replica == null || batch.firstSequence() != nextSequence) {
+                    throw new IOException("Expected record " + nextSequence + " from the primary, received " + batch.firstSequence());
+                }
+                replica.replicate(batch.changes());
+                nextSequence += batch.changes().size();
+                headSequence = batch.headSequence();
+                if (nextSequence >= batch.headSequence()) {
+                    currentAsOf = batch.readAtMillis();
+                }
+            }
+        }
+    }
+}
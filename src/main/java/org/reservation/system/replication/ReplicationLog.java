@@ -0,0 +1,165 @@
+package org.reservation.system.replication;
+
+import org.reservation.system.persistence.LogRecord;
+import org.reservation.system.persistence.ReservationLog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Reservation log of a primary, which numbers each appended record and keeps the latest ones for replicas
+ * to read. Records are passed on to the underlying log, which keeps them durable; the first record appended
+ * is numbered 0. The backlog is a ring of fixed size: a replica that falls further behind than the ring
+ * holds has to be loaded afresh.
+ */
+public class ReplicationLog implements ReservationLog {
+    private final ReservationLog log;
+    private final LogRecord[] records;
+    private final long[] positions;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    // Number of the next record appended
+    private volatile long nextSequence;
+
+    /**
+     * Records logged from a sequence number on.
+     *
+     * @param firstSequence Number of the first record
+     * @param records       The records, in log order
+     * @param lastPosition  Position of the last record in the underlying log, to await its durability
+     * @param headSequence  Number of the next record to be appended when the records were read
+     * @param readAtMillis  Time the records were read; if they reach the head, every record appended before
+     *                      then is among them
+     */
+    public record Changes(long firstSequence, List<LogRecord> records, long lastPosition, long headSequence,
+                          long readAtMillis) {
+    }
+
+    /**
+     * @param log         Log that keeps the records durable
+     * @param backlogSize Number of latest records kept for replicas
+     */
+    public ReplicationLog(ReservationLog log, int backlogSize) {
+        if (backlogSize <= 0) {
+            throw new IllegalArgumentException("Backlog size must be greater than zero. Provided: " + backlogSize);
+        }
+        this.log = log;
+        this.records = new LogRecord[backlogSize];
+        this.positions = new long[backlogSize];
+    }
+
+    /**
+     * Appends the record to the underlying log and to the backlog, in the same order.
+     */
+    @Override
+    public long append(LogRecord record) {
+        lock.lock();
+        try {
+            long position = log.append(record);
+            int slot = (int) (nextSequence % records.length);
+            records[slot] = record;
+            positions[slot] = position;
+            nextSequence++;
+            appended.signalAll();
+            return position;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void awaitDurable(long position) {
+        log.awaitDurable(position);
+    }
+
+    @Override
+    public long position() {
+        return log.position();
+    }
+
+    /**
+     * Replays the underlying log. Replayed records are not numbered; replicas are loaded from the state they built.
+     */
+    @Override
+    public void replay(long fromPosition, Consumer<LogRecord> consumer) {
+        log.replay(fromPosition, consumer);
+    }
+
+    @Override
+    public void discardBefore(long position) {
+        log.discardBefore(position);
+    }
+
+    /**
+     * Returns the number the next appended record will get, which is also the number of records appended.
+     */
+    public long getSequence() { return nextSequence; }
+
+    /**
+     * Returns whether the backlog holds the record with a sequence number, or the record will be the next appended.
+     *
+     * @param sequence Number of the record
+     * @return Whether the record can be read
+     */
+    public boolean retains(long sequence) {
+        long next = nextSequence;
+        return sequence >= next - records.length && sequence <= next;
+    }
+
+    /**
+     * Returns the records logged from a sequence number on, waiting for one if there is none yet.
+     *
+     * @param fromSequence Number of the first record to return
+     * @param maxRecords   Most records to return
+     * @param timeout      How long to wait for a record
+     * @param unit         Unit of the timeout
+     * @return The records, none if the wait timed out, or null if the backlog no longer holds the first of them
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public Changes await(long fromSequence, int maxRecords, long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (fromSequence == nextSequence && nanos > 0) {
+                nanos = appended.awaitNanos(nanos);
+            }
+            return read(fromSequence, maxRecords);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the records logged from a sequence number on, without waiting.
+     *
+     * @param fromSequence Number of the first record to return
+     * @return The records, or null if the backlog no longer holds the first of them
+     */
+    public Changes since(long fromSequence) {
+        lock.lock();
+        try {
+            return read(fromSequence, records.length);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Changes read(long fromSequence, int maxRecords) {
+        if (fromSequence < nextSequence - records.length || fromSequence > nextSequence) {
+            return null;
+        }
+        int count = (int) Math.min(maxRecords, nextSequence - fromSequence);
+        List<LogRecord> changes = new ArrayList<>(count);
+        long lastPosition = 0;
+        for (long sequence = fromSequence; sequence < fromSequence + count; sequence++) {
+            int slot = (int) (sequence % records.length);
+            changes.add(records[slot]);
+            lastPosition = positions[slot];
+        }
+        return new Changes(fromSequence, changes, lastPosition, nextSequence, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,125 @@
+package org.reservation.system.replication;
+
+import org.reservation.system.persistence.LogRecord;
+import org.reservation.system.persistence.LogRecordCodec;
+import org.reservation.system.persistence.ReservationRecord;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stream a primary writes to a replica that subscribed to it.
+ * The subscription request is the eight byte number of the next record the replica needs, or -1 to be loaded
+ * afresh. The primary answers with a snapshot if it no longer holds that record or the replica asked for one,
+ * then sends batches of the records logged since, as they are logged. A batch without records is sent at least
+ * every heartbeat interval, so the replica knows how current it is while nothing is booked.
+ * <p>
+ * A message is a one byte tag followed by its fields. Records are written as their length and their
+ * {@link LogRecordCodec} encoding.
+ */
+final class ReplicationProtocol {
+    static final long LOAD = -1;
+
+    private static final int SNAPSHOT = 1;
+    private static final int BATCH = 2;
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+
+    sealed interface Message permits Snapshot, Batch {
+    }
+
+    /**
+     * State to load a replica from: the active reservations, and every record logged from just before they were
+     * copied until the snapshot was sent. The replica is then current as of the primary's time given.
+     *
+     * @param firstSequence Number of the first record logged during the copy
+     * @param currentAsOf   Time of the primary; every record logged before it is in the snapshot
+     * @param reservations  The active reservations
+     * @param changes       Records logged during the copy
+     */
+    record Snapshot(long firstSequence, long currentAsOf, List<ReservationRecord> reservations,
+                    List<LogRecord> changes) implements Message {
+    }
+
+    /**
+     * Records logged on the primary, in log order.
+     *
+     * @param firstSequence Number of the first record
+     * @param headSequence  Number of the next record the primary logged when the batch was read
+     * @param readAtMillis  Time of the primary when the batch was read; a replica that applied every record
+     *                      up to the head is current as of it
+     * @param changes       The records, possibly none
+     */
+    record Batch(long firstSequence, long headSequence, long readAtMillis, List<LogRecord> changes) implements Message {
+    }
+
+    private ReplicationProtocol() {
+    }
+
+    static void writeSnapshot(DataOutputStream out, Snapshot snapshot) throws IOException {
+        out.writeByte(SNAPSHOT);
+        out.writeLong(snapshot.firstSequence());
+        out.writeLong(snapshot.currentAsOf());
+        writeRecords(out, snapshot.reservations());
+        writeRecords(out, snapshot.changes());
+        out.flush();
+    }
+
+    static void writeBatch(DataOutputStream out, Batch batch) throws IOException {
+        out.writeByte(BATCH);
+        out.writeLong(batch.firstSequence());
+        out.writeLong(batch.headSequence());
+        out.writeLong(batch.readAtMillis());
+        writeRecords(out, batch.changes());
+        out.flush();
+    }
+
+    static Message read(DataInputStream in) throws IOException {
+        int tag = in.readUnsignedByte();
+        return switch (tag) {
+            case SNAPSHOT -> {
+                long firstSequence = in.readLong();
+                long currentAsOf = in.readLong();
+                List<ReservationRecord> reservations = new ArrayList<>();
+                for (LogRecord record : readRecords(in)) {
+                    if (!(record instanceof ReservationRecord reservation)) {
+                        throw new IOException("Snapshot holds a record that is not a reservation");
+                    }
+                    reservations.add(reservation);
+                }
+                yield new Snapshot(firstSequence, currentAsOf, reservations, readRecords(in));
+            }
+            case BATCH -> new Batch(in.readLong(), in.readLong(), in.readLong(), readRecords(in));
+            default -> throw new IOException("Unknown replication message " + tag);
+        };
+    }
+
+    private static void writeRecords(DataOutputStream out, List<? extends LogRecord> records) throws IOException {
+        out.writeInt(records.size());
+        for (LogRecord record : records) {
+            byte[] encoded = LogRecordCodec.encode(record);
+            out.writeInt(encoded.length);
+            out.write(encoded);
+        }
+    }
+
+    private static List<LogRecord> readRecords(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Invalid record count " + count);
+        }
+        List<LogRecord> records = new ArrayList<>(Math.min(count, 1024));
+        for (int i = 0; i < count; i++) {
+            int length = in.readInt();
+            if (length <= 0 || length > MAX_RECORD_BYTES) {
+                throw new IOException("Invalid record length " + length);
+            }
+            byte[] encoded = new byte[length];
+            in.readFully(encoded);
+            records.add(LogRecordCodec.decode(encoded));
+        }
+        return records;
+    }
+}
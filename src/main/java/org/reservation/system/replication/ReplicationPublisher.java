@@ -0,0 +1,99 @@
+package org.reservation.system.replication;
+
+import org.reservation.system.persistence.ReservationRecord;
+import org.reservation.system.service.BusReservationService;
+import org.reservation.system.shard.ShardServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.reservation.system.Constant.DefaultConfig.REPLICATION_BATCH_MAX_RECORDS;
+import static org.reservation.system.Constant.DefaultConfig.REPLICATION_HEARTBEAT_MILLIS;
+
+/**
+ * Streams a primary's changes to each replica that subscribes, in the {@link ReplicationProtocol} format.
+ * Records are sent once they are durable on the primary, so a replica never shows a booking the primary
+ * could lose in a crash. Each replica is streamed on its own connection thread and reads from the backlog of
+ * the {@link ReplicationLog} at its own pace; a slow replica holds up nothing on the primary.
+ */
+public class ReplicationPublisher implements ShardServer.StreamHandler {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicationPublisher.class);
+
+    private final ReplicationLog log;
+    private final BusReservationService service;
+    private final AtomicInteger subscribers = new AtomicInteger();
+
+    /**
+     * @param log     Log of the primary's changes
+     * @param service The primary, to copy reservations from when a replica is loaded
+     */
+    public ReplicationPublisher(ReplicationLog log, BusReservationService service) {
+        this.log = log;
+        this.service = service;
+    }
+
+    @Override
+    public void stream(byte[] request, DataOutputStream out) throws IOException {
+        long next = request.length == Long.BYTES ? ByteBuffer.wrap(request).getLong() : ReplicationProtocol.LOAD;
+        subscribers.incrementAndGet();
+        try {
+            if (next == ReplicationProtocol.LOAD || !log.retains(next)) {
+                next = sendSnapshot(out);
+            }
+            while (true) {
+                ReplicationLog.Changes changes = log.await(next, REPLICATION_BATCH_MAX_RECORDS, REPLICATION_HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+                if (changes == null) {
+                    logger.warn("Replica fell behind the replication backlog at record {}, loading it afresh", next);
+                    next = sendSnapshot(out);
+                    continue;
+                }
+                if (!changes.records().isEmpty()) {
+                    log.awaitDurable(changes.lastPosition());
+                }
+                ReplicationProtocol.writeBatch(out, new ReplicationProtocol.Batch(next, changes.headSequence(),
+                        changes.readAtMillis(), changes.records()));
+                next += changes.records().size();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted streaming changes");
+        } finally {
+            subscribers.decrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the number of replicas streamed to.
+     */
+    public int getSubscriberCount() { return subscribers.get(); }
+
+    /**
+     * Sends the primary's reservations together with the records logged while they were copied.
+     *
+     * @return Number of the next record to send
+     */
+    private long sendSnapshot(DataOutputStream out) throws IOException {
+        while (true) {
+            long firstSequence = log.getSequence();
+            List<ReservationRecord> reservations = service.copyReservations();
+            ReplicationLog.Changes changes = log.since(firstSequence);
+            if (changes == null) {
+                // More was booked during the copy than the backlog holds
+                continue;
+            }
+            // Everything copied must be durable before a replica shows it
+            log.awaitDurable(log.position());
+            ReplicationProtocol.writeSnapshot(out, new ReplicationProtocol.Snapshot(firstSequence, changes.readAtMillis(),
+                    reservations, changes.records()));
+            logger.info("Sent a snapshot of {} reservations to a replica", reservations.size());
+            return firstSequence + changes.records().size();
+        }
+    }
+}
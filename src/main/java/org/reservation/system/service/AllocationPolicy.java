@@ -0,0 +1,15 @@
+package org.reservation.system.service;
+
+/**
+ * How a booking is placed when several buses run the requested route on the same date.
+ */
+public enum AllocationPolicy {
+    /**
+     * Fill buses in fleet order, moving on to the next bus only when the earlier ones cannot take the booking.
+     */
+    FILL_FIRST,
+    /**
+     * Place each booking on the bus with the most free seats for the route.
+     */
+    BALANCE
+}
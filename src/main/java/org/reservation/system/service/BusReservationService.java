@@ -1,31 +1,109 @@
 package org.reservation.system.service;
 
+import org.reservation.system.event.SeatEvent;
+import org.reservation.system.event.SeatEventRing;
+import org.reservation.system.exception.HoldNotFoundException;
 import org.reservation.system.exception.RouteNotFoundException;
 import org.reservation.system.exception.NotEnoughSeatException;
+import org.reservation.system.exception.PersistenceException;
+import org.reservation.system.exception.RequestValidationException;
+import org.reservation.system.exception.ReservationNotFoundException;
+import org.reservation.system.inventory.SeatInventory;
+import org.reservation.system.inventory.TripLocks;
+import org.reservation.system.metrics.ReservationMetrics;
 import org.reservation.system.model.*;
 import org.reservation.system.model.request.AvailabilityRequest;
+import org.reservation.system.model.request.ConfirmRequest;
 import org.reservation.system.model.request.ReservationRequest;
+import org.reservation.system.model.response.ApiResponse;
+import org.reservation.system.model.response.AvailabilityCalendarResponse;
 import org.reservation.system.model.response.AvailabilityResponse;
+import org.reservation.system.model.response.CalendarDay;
+import org.reservation.system.model.response.HoldResponse;
 import org.reservation.system.model.response.ReservationResponse;
+import org.reservation.system.persistence.*;
+import org.reservation.system.store.HoldStore;
+import org.reservation.system.store.ReservationStore;
 import org.reservation.system.util.DateUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.reservation.system.Constant.DefaultConfig.HOLD_TIMER_TICK_MILLIS;
+import static org.reservation.system.Constant.DefaultConfig.HOLD_TTL_SECONDS;
+import static org.reservation.system.Constant.DefaultConfig.LOCK_STRIPES;
+import static org.reservation.system.Constant.DefaultConfig.MAX_RESERVATION_DAYS;
+import static org.reservation.system.event.SeatEvent.Type.RESERVATION_CANCELLED;
+import static org.reservation.system.event.SeatEvent.Type.RESERVATION_CREATED;
+import static org.reservation.system.event.SeatEvent.Type.SEATS_CLAIMED;
+import static org.reservation.system.event.SeatEvent.Type.SEATS_RELEASED;
+import static org.reservation.system.metrics.ReservationMetrics.Rejection.NOT_ENOUGH_SEATS;
+import static org.reservation.system.metrics.ReservationMetrics.Rejection.ROUTE_NOT_FOUND;
+import static org.reservation.system.metrics.ReservationMetrics.Stage.ALLOCATE;
+import static org.reservation.system.metrics.ReservationMetrics.Stage.PRICE;
+import static org.reservation.system.metrics.ReservationMetrics.Stage.ROUTE_LOOKUP;
 
 public class BusReservationService implements ReservationService {
     private static final Logger logger = LoggerFactory.getLogger(BusReservationService.class);
-    private final Bus bus;
-    private final ConcurrentHashMap<LocalDate, ConcurrentHashMap<String, AtomicBoolean>> bookedSeats = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<LocalDate, ConcurrentHashMap<String, AtomicBoolean>> bookedReturnSeats = new ConcurrentHashMap<>();
-    private final List<Reservation> reservations = new ArrayList<>();
 
+    /**
+     * Requests for the same route and date compete for the same trips, so a batch claims them together.
+     */
+    private record RouteDate(String origin, String destination, LocalDate travelDate) {
+    }
+
+    private final Fleet fleet;
+    private final Map<String, SeatInventory> seatInventories;
+    private final TripLocks tripLocks;
+    private final ReservationLog reservationLog;
+    private final Path snapshotFile;
+    private final AllocationPolicy allocationPolicy;
+    private final SeatChangeListener seatChangeListener;
+    private final SeatEventRing seatEvents;
+    private final ReservationArchive reservationArchive;
+    private final ReservationStore reservations = new ReservationStore();
+    private final Duration holdTtl;
+    private final Clock clock;
+    private final ReservationMetrics metrics;
+    private final HoldStore holds;
+
+    /**
+     * Creates an in-memory reservation service for a single bus.
+     *
+     * @param bus The bus being reserved
+     */
     public BusReservationService(Bus bus) {
-        this.bus = bus;
+        this(new Builder(Fleet.of(bus)));
+    }
+
+    private BusReservationService(Builder builder) {
+        this.fleet = builder.fleet;
+        Map<String, SeatInventory> inventories = new HashMap<>();
+        for (Bus bus : fleet.getBuses()) {
+            inventories.put(bus.getBusId(), new SeatInventory(bus));
+        }
+        this.seatInventories = Map.copyOf(inventories);
+        this.tripLocks = new TripLocks(builder.lockStripes);
+        this.reservationLog = builder.reservationLog;
+        this.snapshotFile = builder.snapshotFile;
+        this.allocationPolicy = builder.allocationPolicy;
+        this.seatChangeListener = builder.seatChangeListener;
+        this.seatEvents = builder.seatEvents;
+        this.reservationArchive = builder.reservationArchive;
+        this.holdTtl = builder.holdTtl;
+        this.clock = builder.clock;
+        this.metrics = builder.metrics;
+        this.holds = new HoldStore(HOLD_TIMER_TICK_MILLIS, clock.instant());
+        recover();
+        evictDepartedTrips();
     }
 
     /**
@@ -36,129 +114,999 @@ public class BusReservationService implements ReservationService {
      */
     @Override
     public AvailabilityResponse checkAvailability(AvailabilityRequest request) {
-        logger.info("Checking availability for bus reservation");
-        Route route = validateRoute(request.getOrigin(), request.getDestination());
+        logger.debug("Checking availability for bus reservation");
+        List<BusRoute> trips = findTrips(request.getOrigin(), request.getDestination(), request.getTravelDate());
         int passengerCount = request.getPassengerCount();
 
         LocalDate travelDate = DateUtils.toLocalDate(request.getTravelDate());
-        boolean isAvailable = getAvailableSeats(route, travelDate, passengerCount).size() >= passengerCount;
-        logger.info("Availability - {}", isAvailable);
+        BusRoute available = null;
+        for (BusRoute trip : allocationOrder(trips, travelDate)) {
+            if (inventoryOf(trip.bus()).countAvailableSeats(trip.route(), travelDate) >= passengerCount) {
+                available = trip;
+                break;
+            }
+        }
+        boolean isAvailable = available != null;
+        logger.debug("Availability - {}", isAvailable);
         if (isAvailable) {
-            PricingInfo price = PriceCalculator.calculatePrice(route, Bus.getTicketPriceList(), passengerCount);
+            long priceStart = System.nanoTime();
+            PricingInfo price = PriceCalculator.calculatePrice(available.bus(), available.route(), passengerCount);
+            metrics.stage(PRICE).recordSince(priceStart);
             return new AvailabilityResponse.Builder().seatAvailability(isAvailable).pricingInfo(price).build();
         }
         return new AvailabilityResponse.Builder().seatAvailability(isAvailable).build();
     }
 
     /**
-     * Reserves tickets for a given route and date.
+     * Checks seat availability for a route on every date of a range, in one pass over the trips running it.
+     * Each date reports the most seats free on one bus, and the price on the bus a booking would go to.
+     *
+     * @param origin         Origin location
+     * @param destination    Destination location
+     * @param passengerCount Number of passengers to price and seat
+     * @param firstDate      First travel date
+     * @param days           Number of consecutive dates
+     * @return AvailabilityCalendarResponse with one entry per date
+     * @throws RouteNotFoundException if no bus of the fleet serves the route
+     */
+    @Override
+    public AvailabilityCalendarResponse checkAvailabilityCalendar(String origin, String destination, int passengerCount,
+                                                                  LocalDate firstDate, int days) {
+        logger.debug("Checking availability calendar for bus reservation");
+        if (!fleet.serves(origin, destination)) {
+            metrics.countRejection(ROUTE_NOT_FOUND);
+            throw new RouteNotFoundException("Invalid origin or destination");
+        }
+        Map<BusRoute, PricingInfo> prices = new HashMap<>();
+        List<CalendarDay> calendar = new ArrayList<>(days);
+        for (int day = 0; day < days; day++) {
+            LocalDate travelDate = firstDate.plusDays(day);
+            int freeSeats = 0;
+            BusRoute available = null;
+            for (BusRoute trip : allocationOrder(fleet.findTrips(origin, destination, travelDate), travelDate)) {
+                int tripFreeSeats = inventoryOf(trip.bus()).countAvailableSeats(trip.route(), travelDate);
+                freeSeats = Math.max(freeSeats, tripFreeSeats);
+                if (available == null && tripFreeSeats >= passengerCount) {
+                    available = trip;
+                }
+            }
+            PricingInfo price = available == null ? null
+                    : prices.computeIfAbsent(available, trip -> PriceCalculator.calculatePrice(trip.bus(), trip.route(), passengerCount));
+            calendar.add(new CalendarDay(travelDate.toString(), freeSeats, available != null, price));
+        }
+        return new AvailabilityCalendarResponse.Builder()
+                .origin(origin)
+                .destination(destination)
+                .passengerCount(passengerCount)
+                .days(calendar)
+                .build();
+    }
+
+    /**
+     * Reserves tickets for a given route and date, on the first bus that can seat all passengers.
+     * The reservation is confirmed only once it is durable in the reservation log.
      *
      * @param request Reservation request containing passenger details
      * @return ReservationResponse containing reservation details
      */
     @Override
     public ReservationResponse reserveTicket(ReservationRequest request) {
-        logger.info("Reserving ticket for bus reservation");
-        Route route = validateRoute(request.getOrigin(), request.getDestination());
+        logger.debug("Reserving ticket for bus reservation");
+        List<BusRoute> trips = findTrips(request.getOrigin(), request.getDestination(), request.getTravelDate());
         LocalDate travelDate = DateUtils.toLocalDate(request.getTravelDate());
 
-        List<String> seats = reserveSeats(route, travelDate, request.getPassengerCount());
+        Reservation reservation = null;
+        long logPosition = 0;
+        long allocateStart = System.nanoTime();
+        for (BusRoute trip : allocationOrder(trips, travelDate)) {
+            Bus bus = trip.bus();
+            Route route = trip.route();
+            int stripe = tripLocks.stripeOf(bus.getBusId(), travelDate, route.isReturnRoute());
+            tripLocks.lock(stripe);
+            try {
+                List<String> seats = inventoryOf(bus).claimSeats(route, travelDate, request.getPassengerCount());
+                if (seats.isEmpty()) {
+                    continue;
+                }
+                seatChangeListener.seatsChanged(bus.getBusId(), travelDate, route.isReturnRoute());
+                Timetable timetable = bus.getTimetable();
+                LocalDateTime departureTime = TimeDurationCalculator.getEstimatedDepartureTime(bus, timetable, route, travelDate);
+                LocalDateTime arrivalTime = TimeDurationCalculator.getEstimatedArrivalTime(bus, timetable, departureTime, route);
+                reservation = new Reservation(route, bus, travelDate, seats, request.getPaymentAmount(), departureTime, arrivalTime);
+                publishEvent(SEATS_CLAIMED, reservation);
+                logPosition = appendToLog(reservation);
+                reservations.add(reservation);
+                break;
+            } finally {
+                tripLocks.unlock(stripe);
+            }
+        }
+        metrics.stage(ALLOCATE).recordSince(allocateStart);
+        if (reservation == null) {
+            metrics.countRejection(NOT_ENOUGH_SEATS);
+            throw new NotEnoughSeatException("Not enough seats available for " + travelDate);
+        }
+        try {
+            reservationLog.awaitDurable(logPosition);
+        } catch (RuntimeException e) {
+            withdraw(reservation);
+            throw e;
+        }
+        publishEvent(RESERVATION_CREATED, reservation);
 
-        logger.info("Reserved seats - {}", seats);
-        LocalDateTime departureTime = TimeDurationCalculator.getEstimatedDepartureTime(route, travelDate);
-        LocalDateTime arrivalTime = TimeDurationCalculator.getEstimatedArrivalTime(departureTime, route);
+        logger.debug("Reserved seats - {} on bus {}", reservation.getReservedSeats(), reservation.getBus().getBusId());
+        logger.debug("Reserved reservation id- {}", reservation.getReservationId());
+        return toResponse(reservation);
+    }
 
-        Reservation reservation = new Reservation(route, bus, seats, request.getPaymentAmount(), departureTime, arrivalTime);
-        reservations.add(reservation);
+    /**
+     * Reserves tickets for many requests at once. Requests for the same route and date are grouped,
+     * and each group takes each candidate trip's lock stripe once, claiming seats for as many of its
+     * requests as fit before moving on to the next trip. The whole batch waits for the reservation log once.
+     *
+     * @param requests Validated reservation requests
+     * @return One result per request, in request order: the reservation, or why it could not be made
+     * @throws PersistenceException if the reservations could not be made durable; none of them are kept
+     */
+    @Override
+    public List<ApiResponse<ReservationResponse>> reserveTickets(List<ReservationRequest> requests) {
+        logger.debug("Reserving tickets for a batch of {} requests", requests.size());
+        List<ApiResponse<ReservationResponse>> results = new ArrayList<>(Collections.nCopies(requests.size(), null));
+        Reservation[] reserved = new Reservation[requests.size()];
+        Map<RouteDate, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            ReservationRequest request = requests.get(i);
+            if (!fleet.serves(request.getOrigin(), request.getDestination())) {
+                results.set(i, ApiResponse.error("Invalid origin or destination", null));
+                continue;
+            }
+            RouteDate routeDate = new RouteDate(request.getOrigin(), request.getDestination(), DateUtils.toLocalDate(request.getTravelDate()));
+            groups.computeIfAbsent(routeDate, k -> new ArrayList<>()).add(i);
+        }
+
+        long logPosition = 0;
+        try {
+            for (Map.Entry<RouteDate, List<Integer>> group : groups.entrySet()) {
+                RouteDate routeDate = group.getKey();
+                List<Integer> pending = new ArrayList<>(group.getValue());
+                List<BusRoute> trips = fleet.findTrips(routeDate.origin(), routeDate.destination(), routeDate.travelDate());
+                for (BusRoute trip : allocationOrder(trips, routeDate.travelDate())) {
+                    if (pending.isEmpty()) {
+                        break;
+                    }
+                    logPosition = Math.max(logPosition, reserveOnTrip(trip, routeDate.travelDate(), requests, pending, reserved));
+                }
+                for (int i : pending) {
+                    metrics.countRejection(NOT_ENOUGH_SEATS);
+                    results.set(i, ApiResponse.error(null, "Not enough seats available for " + routeDate.travelDate()));
+                }
+            }
+            reservationLog.awaitDurable(logPosition);
+        } catch (RuntimeException e) {
+            for (Reservation reservation : reserved) {
+                if (reservation != null) {
+                    withdraw(reservation);
+                }
+            }
+            throw e;
+        }
+
+        for (int i = 0; i < reserved.length; i++) {
+            if (reserved[i] != null) {
+                publishEvent(RESERVATION_CREATED, reserved[i]);
+                results.set(i, ApiResponse.success(toResponse(reserved[i])));
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Reserved {} of a batch of {} requests", Arrays.stream(reserved).filter(Objects::nonNull).count(), requests.size());
+        }
+        return results;
+    }
+
+    /**
+     * Claims seats on one trip for pending batch requests, under a single hold of the trip's lock stripe.
+     * Requests that get their seats are removed from the pending list.
+     *
+     * @return Log position of the last reservation made
+     */
+    private long reserveOnTrip(BusRoute trip, LocalDate travelDate, List<ReservationRequest> requests,
+                               List<Integer> pending, Reservation[] reserved) {
+        Bus bus = trip.bus();
+        Route route = trip.route();
+        SeatInventory seatInventory = inventoryOf(bus);
+        long logPosition = 0;
+        boolean claimed = false;
+        int stripe = tripLocks.stripeOf(bus.getBusId(), travelDate, route.isReturnRoute());
+        tripLocks.lock(stripe);
+        try {
+            Timetable timetable = bus.getTimetable();
+            LocalDateTime departureTime = TimeDurationCalculator.getEstimatedDepartureTime(bus, timetable, route, travelDate);
+            LocalDateTime arrivalTime = TimeDurationCalculator.getEstimatedArrivalTime(bus, timetable, departureTime, route);
+            for (Iterator<Integer> it = pending.iterator(); it.hasNext(); ) {
+                int i = it.next();
+                ReservationRequest request = requests.get(i);
+                List<String> seats = seatInventory.claimSeats(route, travelDate, request.getPassengerCount());
+                if (seats.isEmpty()) {
+                    continue;
+                }
+                claimed = true;
+                Reservation reservation = new Reservation(route, bus, travelDate, seats, request.getPaymentAmount(), departureTime, arrivalTime);
+                publishEvent(SEATS_CLAIMED, reservation);
+                logPosition = appendToLog(reservation);
+                reservations.add(reservation);
+                reserved[i] = reservation;
+                it.remove();
+            }
+        } finally {
+            if (claimed) {
+                seatChangeListener.seatsChanged(bus.getBusId(), travelDate, route.isReturnRoute());
+            }
+            tripLocks.unlock(stripe);
+        }
+        return logPosition;
+    }
+
+    /**
+     * Finds an active reservation by its id.
+     *
+     * @param reservationId The reservation id
+     * @return ReservationResponse containing reservation details
+     * @throws ReservationNotFoundException if no active reservation has the id
+     */
+    @Override
+    public ReservationResponse getReservation(String reservationId) {
+        Reservation reservation = reservationId == null ? null : reservations.get(reservationId);
+        if (reservation == null) {
+            throw new ReservationNotFoundException("Reservation " + reservationId + " not found");
+        }
+        return toResponse(reservation);
+    }
 
-        logger.info("Reserved reservation id- {}", reservation.getReservationId());
+    /**
+     * Cancels an active reservation and frees its seats for the legs, date and direction it was booked on.
+     * Only the reservation's trip lock stripe is held, so other trips keep booking meanwhile.
+     * The cancellation is logged before the seats are freed, so a resale of the seats is always logged after it.
+     *
+     * @param reservationId The reservation id
+     * @return ReservationResponse containing the cancelled reservation's details
+     * @throws ReservationNotFoundException if no active reservation has the id
+     * @throws PersistenceException if the cancellation could not be made durable; the seats are free in memory
+     *                              regardless, and the failed log accepts no further bookings
+     */
+    @Override
+    public ReservationResponse cancelReservation(String reservationId) {
+        logger.debug("Cancelling reservation {}", reservationId);
+        Reservation reservation = reservationId == null ? null : reservations.get(reservationId);
+        if (reservation == null) {
+            throw new ReservationNotFoundException("Reservation " + reservationId + " not found");
+        }
+        long logPosition;
+        int stripe = stripeOf(reservation);
+        tripLocks.lock(stripe);
+        try {
+            // A concurrent cancellation may have won the race for the lock
+            if (!reservations.contains(reservationId)) {
+                throw new ReservationNotFoundException("Reservation " + reservationId + " not found");
+            }
+            logPosition = reservationLog.append(new CancellationRecord(reservationId));
+            reservations.remove(reservationId);
+            releaseSeats(reservation);
+            reservation.cancel();
+        } finally {
+            tripLocks.unlock(stripe);
+        }
+        reservationLog.awaitDurable(logPosition);
+        publishEvent(RESERVATION_CANCELLED, reservation);
+
+        logger.debug("Cancelled reservation {}, released seats - {} on bus {}", reservationId,
+                reservation.getReservedSeats(), reservation.getBus().getBusId());
+        return toResponse(reservation);
+    }
+
+    /**
+     * Holds seats for a given route and date on the first bus that can seat all passengers, while the passenger pays.
+     * The seats are claimed like a booking's, and released again if the hold is not confirmed before it expires.
+     * Holds live in memory only; a restart releases them.
+     *
+     * @param request Availability request containing route details and passenger count
+     * @return HoldResponse containing the held seats, quoted price and expiry time
+     */
+    @Override
+    public HoldResponse holdSeats(AvailabilityRequest request) {
+        logger.debug("Holding seats for bus reservation");
+        List<BusRoute> trips = findTrips(request.getOrigin(), request.getDestination(), request.getTravelDate());
+        LocalDate travelDate = DateUtils.toLocalDate(request.getTravelDate());
+        Instant expiresAt = clock.instant().plus(holdTtl);
+
+        long allocateStart = System.nanoTime();
+        for (BusRoute trip : allocationOrder(trips, travelDate)) {
+            Bus bus = trip.bus();
+            Route route = trip.route();
+            int stripe = tripLocks.stripeOf(bus.getBusId(), travelDate, route.isReturnRoute());
+            tripLocks.lock(stripe);
+            try {
+                List<String> seats = inventoryOf(bus).claimSeats(route, travelDate, request.getPassengerCount());
+                if (seats.isEmpty()) {
+                    continue;
+                }
+                metrics.stage(ALLOCATE).recordSince(allocateStart);
+                seatChangeListener.seatsChanged(bus.getBusId(), travelDate, route.isReturnRoute());
+                long priceStart = System.nanoTime();
+                PricingInfo price = PriceCalculator.calculatePrice(bus, route, request.getPassengerCount());
+                metrics.stage(PRICE).recordSince(priceStart);
+                SeatHold hold = new SeatHold(UUID.randomUUID().toString(), bus, route, travelDate, seats, price.totalPrice(), expiresAt);
+                publishEvent(SEATS_CLAIMED, hold.holdId(), bus, route, travelDate, seats);
+                holds.add(hold);
+                logger.debug("Held seats - {} on bus {} until {}", seats, bus.getBusId(), expiresAt);
+                return toResponse(hold);
+            } finally {
+                tripLocks.unlock(stripe);
+            }
+        }
+        metrics.stage(ALLOCATE).recordSince(allocateStart);
+        metrics.countRejection(NOT_ENOUGH_SEATS);
+        throw new NotEnoughSeatException("Not enough seats available for " + travelDate);
+    }
+
+    /**
+     * Turns a hold into a reservation on the held seats, at the price quoted for the hold. The reservation is
+     * confirmed only once it is durable in the reservation log.
+     *
+     * @param request Confirm request containing the hold id and payment
+     * @return ReservationResponse containing reservation details
+     * @throws HoldNotFoundException      if the hold is unknown, already confirmed or expired
+     * @throws RequestValidationException if the payment is not the quoted price; the hold is kept
+     */
+    @Override
+    public ReservationResponse confirmHold(ConfirmRequest request) {
+        String holdId = request.getHoldId();
+        logger.debug("Confirming hold {}", holdId);
+        SeatHold hold = holdId == null ? null : holds.get(holdId);
+        if (hold == null) {
+            throw new HoldNotFoundException("Hold " + holdId + " not found or expired");
+        }
+        if (request.getPaymentAmount() == null || request.getPaymentAmount().compareTo(hold.totalPrice()) != 0) {
+            throw new RequestValidationException("Paid amount must be the quoted price of " + hold.totalPrice() + ".");
+        }
+        Reservation reservation;
+        long logPosition;
+        int stripe = stripeOf(hold.bus(), hold.route(), hold.travelDate());
+        tripLocks.lock(stripe);
+        try {
+            // Expiry or a concurrent confirmation may have won the race for the lock
+            if (!holds.remove(hold)) {
+                throw new HoldNotFoundException("Hold " + holdId + " not found or expired");
+            }
+            if (!clock.instant().isBefore(hold.expiresAt())) {
+                releaseSeats(hold.holdId(), hold.bus(), hold.route(), hold.travelDate(), hold.seatNumbers());
+                throw new HoldNotFoundException("Hold " + holdId + " not found or expired");
+            }
+            Timetable timetable = hold.bus().getTimetable();
+            LocalDateTime departureTime = TimeDurationCalculator.getEstimatedDepartureTime(hold.bus(), timetable, hold.route(), hold.travelDate());
+            LocalDateTime arrivalTime = TimeDurationCalculator.getEstimatedArrivalTime(hold.bus(), timetable, departureTime, hold.route());
+            reservation = new Reservation(hold.route(), hold.bus(), hold.travelDate(), hold.seatNumbers(),
+                    hold.totalPrice(), departureTime, arrivalTime);
+            logPosition = appendToLog(reservation);
+            reservations.add(reservation);
+        } finally {
+            tripLocks.unlock(stripe);
+        }
+        try {
+            reservationLog.awaitDurable(logPosition);
+        } catch (RuntimeException e) {
+            withdraw(reservation);
+            throw e;
+        }
+        publishEvent(RESERVATION_CREATED, reservation);
+
+        logger.debug("Confirmed hold {} as reservation {}", holdId, reservation.getReservationId());
+        return toResponse(reservation);
+    }
+
+    /**
+     * Releases the seats of every hold that has expired. Seats are released under the trip lock stripe,
+     * the same way a cancellation releases them, so a hold is either confirmed or released, never both.
+     *
+     * @return Number of holds released
+     */
+    public int expireHolds() {
+        int expired = 0;
+        for (SeatHold hold : holds.findExpired(clock.instant())) {
+            int stripe = stripeOf(hold.bus(), hold.route(), hold.travelDate());
+            tripLocks.lock(stripe);
+            try {
+                if (holds.remove(hold)) {
+                    releaseSeats(hold.holdId(), hold.bus(), hold.route(), hold.travelDate(), hold.seatNumbers());
+                    expired++;
+                }
+            } finally {
+                tripLocks.unlock(stripe);
+            }
+        }
+        if (expired > 0) {
+            logger.info("Released {} expired seat holds", expired);
+        }
+        return expired;
+    }
+
+    private static HoldResponse toResponse(SeatHold hold) {
+        return new HoldResponse.Builder()
+                .holdId(hold.holdId())
+                .origin(hold.route().getOrigin())
+                .destination(hold.route().getDestination())
+                .allocatedSeatNumbers(hold.seatNumbers())
+                .totalPrice(hold.totalPrice())
+                .expiresAt(hold.expiresAt().toString())
+                .build();
+    }
+
+    private static ReservationResponse toResponse(Reservation reservation) {
         return new ReservationResponse.Builder()
                 .reservationId(reservation.getReservationId())
-                .origin(request.getOrigin())
-                .destination(request.getDestination())
-                .allocatedSeatNumbers(seats)
-                .totalPrice(request.getPaymentAmount())
-                .departureTime(departureTime.toString())
-                .arrivalTime(arrivalTime.toString())
+                .origin(reservation.getRoute().getOrigin())
+                .destination(reservation.getRoute().getDestination())
+                .allocatedSeatNumbers(reservation.getReservedSeats())
+                .totalPrice(reservation.getTotalPrice())
+                .departureTime(reservation.getDepartureTime().toString())
+                .arrivalTime(reservation.getArrivalTime().toString())
+                .status(reservation.getStatus().name())
                 .build();
     }
 
     /**
-     * Validates if a given origin and destination exist in the bus routes.
+     * Finds the trips serving the given origin and destination on a date.
      *
      * @param origin Origin location
      * @param destination Destination location
-     * @return Validated Route object
-     * @throws RouteNotFoundException if route does not exist
+     * @param travelDate Date of travel
+     * @return Candidate trips, empty if no bus runs the route that day
+     * @throws RouteNotFoundException if no bus of the fleet serves the route
      */
-    private Route validateRoute(String origin, String destination) {
-        Route route = bus.getRoute(origin, destination);
-        if (route == null) {
-            throw new RouteNotFoundException("Invalid origin or destination");
+    private List<BusRoute> findTrips(String origin, String destination, String travelDate) {
+        long start = System.nanoTime();
+        try {
+            if (!fleet.serves(origin, destination)) {
+                metrics.countRejection(ROUTE_NOT_FOUND);
+                throw new RouteNotFoundException("Invalid origin or destination");
+            }
+            return fleet.findTrips(origin, destination, DateUtils.toLocalDate(travelDate));
+        } finally {
+            metrics.stage(ROUTE_LOOKUP).recordSince(start);
         }
-        return route;
     }
 
     /**
-     * Reserves the required number of seats for a route on a specific date.
+     * Orders candidate trips by the allocation policy.
      *
-     * @param route Route information
+     * @param trips Candidate trips in fleet order
      * @param travelDate Date of travel
-     * @param passengers Number of passengers
-     * @return List of allocated seat numbers
-     * @throws NotEnoughSeatException if not enough seats are available
+     * @return Trips in the order they should be tried
      */
-    private synchronized List<String> reserveSeats(Route route, LocalDate travelDate, int passengers) {
+    private List<BusRoute> allocationOrder(List<BusRoute> trips, LocalDate travelDate) {
+        if (allocationPolicy == AllocationPolicy.FILL_FIRST || trips.size() < 2) {
+            return trips;
+        }
+        Map<BusRoute, Integer> freeSeats = new IdentityHashMap<>();
+        for (BusRoute trip : trips) {
+            freeSeats.put(trip, inventoryOf(trip.bus()).countAvailableSeats(trip.route(), travelDate));
+        }
+        List<BusRoute> ordered = new ArrayList<>(trips);
+        ordered.sort(Comparator.comparing(freeSeats::get, Comparator.reverseOrder()));
+        return ordered;
+    }
 
-        List<String> reservedSeats = getAvailableSeats(route, travelDate, passengers);
-        ConcurrentHashMap<String, AtomicBoolean> seatMap = getSeatMap(route, travelDate);
+    private SeatInventory inventoryOf(Bus bus) {
+        return seatInventories.get(bus.getBusId());
+    }
 
-        if (reservedSeats.size() < passengers) {
-            throw new NotEnoughSeatException("Not enough seats available for " + travelDate);
+    private int stripeOf(Reservation reservation) {
+        return stripeOf(reservation.getBus(), reservation.getRoute(), reservation.getTravelDate());
+    }
+
+    private int stripeOf(Bus bus, Route route, LocalDate travelDate) {
+        return tripLocks.stripeOf(bus.getBusId(), travelDate, route.isReturnRoute());
+    }
+
+    /**
+     * Takes back a reservation that could not be confirmed, unless it was cancelled meanwhile.
+     */
+    private void withdraw(Reservation reservation) {
+        int stripe = stripeOf(reservation);
+        tripLocks.lock(stripe);
+        try {
+            if (reservations.remove(reservation.getReservationId()) != null) {
+                releaseSeats(reservation);
+            }
+        } finally {
+            tripLocks.unlock(stripe);
         }
+    }
 
-        // Mark seats as reserved
-        reservedSeats.forEach(seat -> seatMap.computeIfPresent(seat, (key, value) -> { value.set(true); return value; }));
+    private void releaseSeats(Reservation reservation) {
+        releaseSeats(reservation.getReservationId(), reservation.getBus(), reservation.getRoute(), reservation.getTravelDate(),
+                reservation.getReservedSeats());
+    }
 
-        return reservedSeats;
+    private void releaseSeats(String bookingId, Bus bus, Route route, LocalDate travelDate, List<String> seatNumbers) {
+        inventoryOf(bus).releaseSeats(route, travelDate, seatNumbers);
+        seatChangeListener.seatsChanged(bus.getBusId(), travelDate, route.isReturnRoute());
+        publishEvent(SEATS_RELEASED, bookingId, bus, route, travelDate, seatNumbers);
     }
 
+    private void publishEvent(SeatEvent.Type type, Reservation reservation) {
+        publishEvent(type, reservation.getReservationId(), reservation.getBus(), reservation.getRoute(), reservation.getTravelDate(),
+                reservation.getReservedSeats());
+    }
 
     /**
-     * Retrieves available seats for a given route and date.
+     * Publishes a seat event, if the service has an event ring. Seat claims and releases are published under
+     * the trip lock stripe, in the order the trip's seats change; reservation events once the change is durable.
+     */
+    private void publishEvent(SeatEvent.Type type, String bookingId, Bus bus, Route route, LocalDate travelDate,
+                              List<String> seatNumbers) {
+        if (seatEvents == null) {
+            return;
+        }
+        long timestampMillis = clock.millis();
+        seatEvents.publish(sequence -> new SeatEvent(sequence, type, bookingId, bus.getBusId(), travelDate,
+                route.isReturnRoute(), route.getOrigin(), route.getDestination(), seatNumbers, timestampMillis));
+    }
+
+    /**
+     * Appends a reservation to the log. Appends happen under the trip lock stripe,
+     * so a trip's records are logged in the order its seats were claimed.
+     * The claimed seats are released again if the log rejects the record.
      *
-     * @param route Route information
-     * @param travelDate Date of travel
-     * @param passengers Number of passengers
-     * @return List of available seat numbers
+     * @param reservation The new reservation
+     * @return Log position to wait on before confirming the reservation
      */
-    private List<String> getAvailableSeats(Route route, LocalDate travelDate, int passengers) {
-        ConcurrentHashMap<String, AtomicBoolean> seatMap = getSeatMap(route, travelDate);
-        List<String> availableSeats = new ArrayList<>();
+    private long appendToLog(Reservation reservation) {
+        try {
+            return reservationLog.append(toRecord(reservation));
+        } catch (RuntimeException e) {
+            releaseSeats(reservation);
+            throw e;
+        }
+    }
 
-        for (Seat seat : bus.getSeats()) {
-            if (availableSeats.size() >= passengers) {
-                break;
+    /**
+     * Moves the reservations of departed travel dates to the archive and drops their seat state,
+     * so memory only holds the bookable window. A date stays in memory until it has been archived.
+     * Dates are departed by the service's clock, and each trip's seat state is dropped under its lock stripe.
+     *
+     * @return Number of reservations archived
+     */
+    public synchronized int evictDepartedTrips() {
+        LocalDate today = LocalDate.now(clock);
+        int evicted = 0;
+        for (LocalDate travelDate : reservations.getTravelDates().headSet(today)) {
+            List<ReservationRecord> records = reservations.findByTravelDate(travelDate).stream().map(this::toRecord).toList();
+            try {
+                reservationArchive.archive(travelDate, records);
+            } catch (IOException e) {
+                throw new PersistenceException("Reservations of " + travelDate + " could not be archived", e);
+            }
+            evicted += reservations.evictTravelDate(travelDate).size();
+        }
+        for (Bus bus : fleet.getBuses()) {
+            SeatInventory seatInventory = inventoryOf(bus);
+            for (boolean returnTrip : new boolean[]{false, true}) {
+                for (LocalDate travelDate : seatInventory.getTravelDates(returnTrip)) {
+                    if (travelDate.isBefore(today)) {
+                        int stripe = tripLocks.stripeOf(bus.getBusId(), travelDate, returnTrip);
+                        tripLocks.lock(stripe);
+                        try {
+                            seatInventory.evictTrip(travelDate, returnTrip);
+                        } finally {
+                            tripLocks.unlock(stripe);
+                        }
+                    }
+                }
+            }
+        }
+        if (evicted > 0) {
+            logger.info("Archived {} reservations of departed trips", evicted);
+        }
+        return evicted;
+    }
+
+    /**
+     * Writes a snapshot of the seat inventory and reservations without stopping bookings.
+     * Each trip's seats and reservations are copied together under its lock stripe; seats that are only held
+     * are saved as free. The snapshot records the log position taken before copying; every record before it is
+     * fully reflected, and records after it are replayed on restore, skipping changes the snapshot already holds.
+     * Once the snapshot is written, the log may discard the records before that position.
+     */
+    public synchronized void writeSnapshot() {
+        if (snapshotFile == null) {
+            throw new IllegalStateException("No snapshot file configured");
+        }
+        long logPosition = reservationLog.position();
+        List<TripSnapshot> trips = new ArrayList<>();
+        List<ReservationRecord> records = new ArrayList<>();
+        for (Bus bus : fleet.getBuses()) {
+            SeatInventory seatInventory = inventoryOf(bus);
+            for (boolean returnTrip : new boolean[]{false, true}) {
+                for (LocalDate travelDate : seatInventory.getTravelDates(returnTrip)) {
+                    int stripe = tripLocks.stripeOf(bus.getBusId(), travelDate, returnTrip);
+                    tripLocks.lock(stripe);
+                    try {
+                        long[] occupiedLegs = seatInventory.copyOccupiedLegs(travelDate, returnTrip);
+                        // Holds are not persisted, so their seats are saved as free
+                        for (SeatHold hold : holds.findByTrip(bus.getBusId(), travelDate, returnTrip)) {
+                            seatInventory.clearSeats(occupiedLegs, hold.route(), hold.seatNumbers());
+                        }
+                        trips.add(new TripSnapshot(bus.getBusId(), travelDate, returnTrip, occupiedLegs));
+                        for (Reservation reservation : reservations.findByTrip(bus.getBusId(), travelDate, returnTrip)) {
+                            records.add(toRecord(reservation));
+                        }
+                    } finally {
+                        tripLocks.unlock(stripe);
+                    }
+                }
             }
-            seatMap.computeIfAbsent(seat.getSeatNumber(), key -> new AtomicBoolean(false));
-            if (!seatMap.get(seat.getSeatNumber()).get()) {
-                availableSeats.add(seat.getSeatNumber());
+        }
+
+        // Everything copied above must be durable before the snapshot can stand in for the log
+        reservationLog.awaitDurable(reservationLog.position());
+        try {
+            SnapshotFile.write(snapshotFile, new InventorySnapshot(logPosition, trips, records));
+        } catch (IOException e) {
+            throw new PersistenceException("Snapshot " + snapshotFile + " could not be written", e);
+        }
+        logger.info("Wrote snapshot of {} trips and {} reservations", trips.size(), records.size());
+        reservationLog.discardBefore(logPosition);
+    }
+
+    /**
+     * Copies the active reservations as log records, each trip's under its lock stripe, to load a replica from.
+     * Trips are copied one after another while bookings go on; changes logged meanwhile are to be applied after
+     * the copy with {@link #restoreReplica(List, List)}.
+     *
+     * @return Records of the active reservations
+     */
+    public List<ReservationRecord> copyReservations() {
+        List<ReservationRecord> records = new ArrayList<>(reservations.size());
+        for (Bus bus : fleet.getBuses()) {
+            SeatInventory seatInventory = inventoryOf(bus);
+            for (boolean returnTrip : new boolean[]{false, true}) {
+                for (LocalDate travelDate : seatInventory.getTravelDates(returnTrip)) {
+                    int stripe = tripLocks.stripeOf(bus.getBusId(), travelDate, returnTrip);
+                    tripLocks.lock(stripe);
+                    try {
+                        for (Reservation reservation : reservations.findByTrip(bus.getBusId(), travelDate, returnTrip)) {
+                            records.add(toRecord(reservation));
+                        }
+                    } finally {
+                        tripLocks.unlock(stripe);
+                    }
+                }
             }
         }
-        logger.info("Available seats - {}", availableSeats);
-        return availableSeats;
+        return records;
     }
 
     /**
-     * Retrieves the seat map for a given route and date.
+     * Loads a replica, before it serves reads, from the reservations copied on the primary and the changes
+     * the primary logged from just before the copy began. The changes are applied as on recovery from a snapshot.
+     * Every bookable trip is reported to the seat change listener, since the loaded state replaces whatever
+     * the listener saw before.
      *
-     * @param route Route information
-     * @param travelDate Date of travel
-     * @return Seat map with seat numbers and their availability status
+     * @param copied  Reservations copied with {@link #copyReservations()}
+     * @param changes Records logged on the primary from before the copy until after it
+     */
+    public void restoreReplica(List<ReservationRecord> copied, List<LogRecord> changes) {
+        for (ReservationRecord record : copied) {
+            Reservation reservation = toReservation(record);
+            if (reservation != null && reservations.add(reservation)) {
+                inventoryOf(reservation.getBus()).occupySeats(reservation.getRoute(), reservation.getTravelDate(), reservation.getReservedSeats());
+            }
+        }
+        Set<String> cancelled = new HashSet<>();
+        for (LogRecord record : changes) {
+            if (record instanceof CancellationRecord cancellation) {
+                cancelled.add(cancellation.reservationId());
+            }
+        }
+        for (LogRecord record : changes) {
+            apply(record, cancelled);
+        }
+        LocalDate today = LocalDate.now(clock);
+        for (Bus bus : fleet.getBuses()) {
+            for (int day = 0; day <= MAX_RESERVATION_DAYS; day++) {
+                seatChangeListener.seatsChanged(bus.getBusId(), today.plusDays(day), false);
+                seatChangeListener.seatsChanged(bus.getBusId(), today.plusDays(day), true);
+            }
+        }
+    }
+
+    /**
+     * Applies records replicated from the primary's reservation log, in log order, each under its trip's lock stripe.
+     *
+     * @param changes Records in the order the primary logged them
+     */
+    public void replicate(List<LogRecord> changes) {
+        for (LogRecord record : changes) {
+            Reservation reservation = switch (record) {
+                case ReservationRecord reserved -> toReservation(reserved);
+                case CancellationRecord cancellation -> reservations.get(cancellation.reservationId());
+            };
+            if (reservation == null) {
+                continue;
+            }
+            int stripe = stripeOf(reservation);
+            tripLocks.lock(stripe);
+            try {
+                apply(record, Set.of());
+            } finally {
+                tripLocks.unlock(stripe);
+            }
+            seatChangeListener.seatsChanged(reservation.getBus().getBusId(), reservation.getTravelDate(),
+                    reservation.getRoute().isReturnRoute());
+        }
+    }
+
+    /**
+     * Rebuilds reservations and seat state from the snapshot, if any, and the reservation log after it.
+     */
+    private void recover() {
+        long fromPosition = restoreSnapshot();
+        Set<String> cancelled = new HashSet<>();
+        reservationLog.replay(fromPosition, record -> {
+            if (record instanceof CancellationRecord cancellation) {
+                cancelled.add(cancellation.reservationId());
+            }
+        });
+        int[] replayed = {0};
+        reservationLog.replay(fromPosition, record -> {
+            apply(record, cancelled);
+            replayed[0]++;
+        });
+        if (replayed[0] > 0) {
+            logger.info("Recovered {} records from the reservation log", replayed[0]);
+        }
+    }
+
+    /**
+     * Loads the snapshot file into the seat inventory and reservations.
+     *
+     * @return Log position to replay from
+     */
+    private long restoreSnapshot() {
+        if (snapshotFile == null) {
+            return 0;
+        }
+        Optional<InventorySnapshot> snapshot;
+        try {
+            snapshot = SnapshotFile.read(snapshotFile);
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable snapshot {}, replaying the whole reservation log", snapshotFile, e);
+            return 0;
+        }
+        if (snapshot.isEmpty()) {
+            return 0;
+        }
+        for (TripSnapshot trip : snapshot.get().trips()) {
+            Bus bus = fleet.getBus(trip.busId());
+            if (bus == null || bus.getSeats().size() != trip.occupiedLegs().length) {
+                logger.warn("Ignoring snapshot {} taken with a different fleet", snapshotFile);
+                return 0;
+            }
+        }
+        for (TripSnapshot trip : snapshot.get().trips()) {
+            seatInventories.get(trip.busId()).restoreOccupiedLegs(trip.travelDate(), trip.returnTrip(), trip.occupiedLegs());
+        }
+        for (ReservationRecord record : snapshot.get().reservations()) {
+            Reservation reservation = toReservation(record);
+            if (reservation != null) {
+                reservations.add(reservation);
+            }
+        }
+        logger.info("Restored {} trips and {} reservations from snapshot {}",
+                snapshot.get().trips().size(), snapshot.get().reservations().size(), snapshotFile);
+        return snapshot.get().logPosition();
+    }
+
+    /**
+     * Applies a replayed log record. Records already reflected in the snapshot are skipped.
+     * Reservations cancelled later in the log are skipped as well: the snapshot may already hold
+     * a resale of their seats, which replaying the reservation and its cancellation would free.
+     *
+     * @param record    The replayed record
+     * @param cancelled Ids of the reservations cancelled in the replayed part of the log
+     */
+    private void apply(LogRecord record, Set<String> cancelled) {
+        switch (record) {
+            case ReservationRecord reserved -> {
+                if (cancelled.contains(reserved.reservationId()) || reservations.contains(reserved.reservationId())) {
+                    return;
+                }
+                Reservation reservation = toReservation(reserved);
+                if (reservation != null) {
+                    inventoryOf(reservation.getBus()).occupySeats(reservation.getRoute(), reservation.getTravelDate(), reservation.getReservedSeats());
+                    reservations.add(reservation);
+                }
+            }
+            case CancellationRecord cancellation -> {
+                Reservation reservation = reservations.remove(cancellation.reservationId());
+                if (reservation != null) {
+                    inventoryOf(reservation.getBus()).releaseSeats(reservation.getRoute(), reservation.getTravelDate(), reservation.getReservedSeats());
+                    reservation.cancel();
+                }
+            }
+        }
+    }
+
+    private ReservationRecord toRecord(Reservation reservation) {
+        Route route = reservation.getRoute();
+        return new ReservationRecord(reservation.getReservationId(), reservation.getBus().getBusId(), route.getOrigin(),
+                route.getDestination(), reservation.getTravelDate(), reservation.getReservedSeats(), reservation.getTotalPrice());
+    }
+
+    /**
+     * Recreates a reservation from its record.
+     *
+     * @return The reservation, or null if its bus or route no longer exists
+     */
+    private Reservation toReservation(ReservationRecord record) {
+        Bus bus = fleet.getBus(record.busId());
+        Route route = bus == null ? null : bus.getRoute(record.origin(), record.destination());
+        if (route == null) {
+            logger.warn("Skipping reservation {} on unknown trip {} {}-{}", record.reservationId(), record.busId(),
+                    record.origin(), record.destination());
+            return null;
+        }
+        Timetable timetable = bus.getTimetable();
+        LocalDateTime departureTime = TimeDurationCalculator.getEstimatedDepartureTime(bus, timetable, route, record.travelDate());
+        LocalDateTime arrivalTime = TimeDurationCalculator.getEstimatedArrivalTime(bus, timetable, departureTime, route);
+        return new Reservation(record.reservationId(), route, bus, record.travelDate(), record.seatNumbers(),
+                record.totalPrice(), departureTime, arrivalTime);
+    }
+
+    /**
+     * Returns the trip locks, exposing per-stripe lock wait counters.
+     *
+     * @return Trip lock stripes
+     */
+    public TripLocks getTripLocks() {
+        return tripLocks;
+    }
+
+    /**
+     * Returns the number of trips with seat state in memory, over all buses.
+     *
+     * @return Trips held in memory
+     */
+    public int getTripCount() {
+        int trips = 0;
+        for (SeatInventory inventory : seatInventories.values()) {
+            trips += inventory.getTripCount();
+        }
+        return trips;
+    }
+
+    /**
+     * Returns the number of seats with state in memory, over all trips of all buses.
+     *
+     * @return Seats held in memory
+     */
+    public long getSeatCount() {
+        long seats = 0;
+        for (SeatInventory inventory : seatInventories.values()) {
+            seats += inventory.getSeatCount();
+        }
+        return seats;
+    }
+
+    // Getters
+    public int getReservationCount() { return reservations.size(); }
+    public int getHoldCount() { return holds.size(); }
+
+    /**
+     * Builds a reservation service over a fleet of buses.
      */
-    private ConcurrentHashMap<String, AtomicBoolean> getSeatMap(Route route, LocalDate travelDate) {
-        ConcurrentHashMap<LocalDate, ConcurrentHashMap<String, AtomicBoolean>> seatsMap =
-                route.isReturnRoute() ? bookedReturnSeats : bookedSeats;
-        return seatsMap.computeIfAbsent(travelDate, k -> new ConcurrentHashMap<>());
+    public static class Builder {
+        private final Fleet fleet;
+        private int lockStripes = LOCK_STRIPES;
+        private ReservationLog reservationLog = ReservationLog.NONE;
+        private Path snapshotFile;
+        private AllocationPolicy allocationPolicy = AllocationPolicy.FILL_FIRST;
+        private SeatChangeListener seatChangeListener = SeatChangeListener.NONE;
+        private SeatEventRing seatEvents;
+        private ReservationArchive reservationArchive = ReservationArchive.NONE;
+        private Duration holdTtl = Duration.ofSeconds(HOLD_TTL_SECONDS);
+        private Clock clock = Clock.systemDefaultZone();
+        private ReservationMetrics metrics = new ReservationMetrics();
+
+        public Builder(Fleet fleet) {
+            this.fleet = fleet;
+        }
+
+        /**
+         * Sets the number of lock stripes shared by all trips.
+         */
+        public Builder lockStripes(int lockStripes) {
+            this.lockStripes = lockStripes;
+            return this;
+        }
+
+        /**
+         * Sets the log every reservation is written to before it is confirmed.
+         * Reservations already in the log are replayed when the service is built.
+         */
+        public Builder reservationLog(ReservationLog reservationLog) {
+            this.reservationLog = reservationLog;
+            return this;
+        }
+
+        /**
+         * Sets the snapshot file to restore from and write to.
+         * The snapshot is loaded first and only the log written after it is replayed.
+         */
+        public Builder snapshotFile(Path snapshotFile) {
+            this.snapshotFile = snapshotFile;
+            return this;
+        }
+
+        /**
+         * Sets how bookings are spread over buses running the same route.
+         */
+        public Builder allocationPolicy(AllocationPolicy allocationPolicy) {
+            this.allocationPolicy = allocationPolicy;
+            return this;
+        }
+
+        /**
+         * Sets the listener notified whenever seats are claimed or released on a trip.
+         */
+        public Builder seatChangeListener(SeatChangeListener seatChangeListener) {
+            this.seatChangeListener = seatChangeListener;
+            return this;
+        }
+
+        /**
+         * Sets the ring that seat claims, releases and reservations are published on. None by default.
+         */
+        public Builder seatEvents(SeatEventRing seatEvents) {
+            this.seatEvents = seatEvents;
+            return this;
+        }
+
+        /**
+         * Sets the archive that reservations of departed trips are moved to.
+         */
+        public Builder reservationArchive(ReservationArchive reservationArchive) {
+            this.reservationArchive = reservationArchive;
+            return this;
+        }
+
+        /**
+         * Sets how long held seats stay claimed before they are released.
+         */
+        public Builder holdTtl(Duration holdTtl) {
+            this.holdTtl = holdTtl;
+            return this;
+        }
+
+        /**
+         * Sets the clock hold expiry is measured against, whose zone also tells which travel dates have departed.
+         * The system clock in the default zone by default.
+         */
+        public Builder clock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        /**
+         * Sets the metrics that route lookup, seat allocation and pricing are timed into.
+         */
+        public Builder metrics(ReservationMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        public BusReservationService build() {
+            return new BusReservationService(this);
+        }
     }
 }
@@ -1,11 +1,11 @@
 package org.reservation.system.service;
 
+import org.reservation.system.model.Bus;
 import org.reservation.system.model.PricingInfo;
 import org.reservation.system.model.Route;
 
 import java.math.BigDecimal;
 import java.util.Currency;
-import java.util.Map;
 
 public class PriceCalculator {
 
@@ -13,18 +13,14 @@ public class PriceCalculator {
     /**
      * Calculates the total ticket price for a given route and number of passengers.
      *
+     * @param bus        The bus running the route, whose timetable holds the fares.
      * @param route      The bus route for which the price is being calculated.
-     * @param prices     A map containing ticket prices for different routes.
      * @param passengers The number of passengers.
      * @return The total price for all passengers.
      */
-    public static PricingInfo calculatePrice(Route route, Map<String, BigDecimal> prices, int passengers) {
-        String key = route.getOrigin() + "-" + route.getDestination();
-        if (route.isReturnRoute()) {
-            key = route.getDestination() + "-" + route.getOrigin();
-        }
-
-        BigDecimal pricePerPassenger = prices.getOrDefault(key, BigDecimal.ZERO);
+    public static PricingInfo calculatePrice(Bus bus, Route route, int passengers) {
+        BigDecimal pricePerPassenger = bus.getTimetable()
+                .getFare(bus.getStopId(route.getOrigin()), bus.getStopId(route.getDestination()));
 
         // Calculate total price
         BigDecimal totalPrice = pricePerPassenger.multiply(BigDecimal.valueOf(passengers));
@@ -32,4 +28,4 @@ public class PriceCalculator {
         return new PricingInfo(pricePerPassenger, totalPrice, DEFAULT_CURRENCY);
 
     }
-}
\ No newline at end of file
+}
@@ -2,12 +2,25 @@ package org.reservation.system.service;
 
 
 import org.reservation.system.model.request.AvailabilityRequest;
+import org.reservation.system.model.request.ConfirmRequest;
 import org.reservation.system.model.request.ReservationRequest;
+import org.reservation.system.model.response.ApiResponse;
+import org.reservation.system.model.response.AvailabilityCalendarResponse;
 import org.reservation.system.model.response.AvailabilityResponse;
+import org.reservation.system.model.response.HoldResponse;
 import org.reservation.system.model.response.ReservationResponse;
 
+import java.time.LocalDate;
+import java.util.List;
+
 public interface ReservationService {
     AvailabilityResponse checkAvailability(AvailabilityRequest availabilityRequest);
+    AvailabilityCalendarResponse checkAvailabilityCalendar(String origin, String destination, int passengerCount, LocalDate firstDate, int days);
     ReservationResponse reserveTicket(ReservationRequest request);
+    List<ApiResponse<ReservationResponse>> reserveTickets(List<ReservationRequest> requests);
+    ReservationResponse getReservation(String reservationId);
+    ReservationResponse cancelReservation(String reservationId);
+    HoldResponse holdSeats(AvailabilityRequest request);
+    ReservationResponse confirmHold(ConfirmRequest request);
 }
 
@@ -0,0 +1,20 @@
+package org.reservation.system.service;
+
+import java.time.LocalDate;
+
+/**
+ * Notified whenever seats are claimed or released on a trip.
+ */
+@FunctionalInterface
+public interface SeatChangeListener {
+    SeatChangeListener NONE = (busId, travelDate, returnTrip) -> { };
+
+    /**
+     * Called after the seats of a trip changed.
+     *
+     * @param busId      The bus running the trip
+     * @param travelDate Date of travel
+     * @param returnTrip Whether the trip is in the return direction
+     */
+    void seatsChanged(String busId, LocalDate travelDate, boolean returnTrip);
+}
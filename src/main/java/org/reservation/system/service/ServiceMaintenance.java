@@ -0,0 +1,63 @@
+package org.reservation.system.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.reservation.system.Constant.DefaultConfig.EVICTION_INTERVAL_MINUTES;
+import static org.reservation.system.Constant.DefaultConfig.HOLD_TIMER_TICK_MILLIS;
+import static org.reservation.system.Constant.DefaultConfig.SNAPSHOT_INTERVAL_SECONDS;
+import static org.reservation.system.Constant.SystemProperty.SNAPSHOT_INTERVAL;
+
+/**
+ * Background upkeep of a reservation service holding its own inventory, whether behind the servlet or on a shard.
+ */
+public final class ServiceMaintenance {
+    private static final Logger logger = LoggerFactory.getLogger(ServiceMaintenance.class);
+
+    private ServiceMaintenance() {
+    }
+
+    /**
+     * Releases expired seat holds every timer tick, archives departed trips periodically, and writes a snapshot
+     * of the inventory periodically when persisting, so a restart only replays the log written since.
+     * A failed task is logged and runs again at its next turn.
+     *
+     * @param service       The service to maintain
+     * @param snapshots     Whether to write snapshots
+     * @param threadFactory Creates the thread running the tasks
+     * @return The scheduler running the maintenance tasks
+     */
+    public static ScheduledExecutorService schedule(BusReservationService service, boolean snapshots, ThreadFactory threadFactory) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                service.expireHolds();
+            } catch (RuntimeException e) {
+                logger.error("Failed to release expired seat holds", e);
+            }
+        }, HOLD_TIMER_TICK_MILLIS, HOLD_TIMER_TICK_MILLIS, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                service.evictDepartedTrips();
+            } catch (RuntimeException e) {
+                logger.error("Failed to archive departed trips", e);
+            }
+        }, EVICTION_INTERVAL_MINUTES, EVICTION_INTERVAL_MINUTES, TimeUnit.MINUTES);
+        if (snapshots) {
+            long intervalSeconds = Long.getLong(SNAPSHOT_INTERVAL, SNAPSHOT_INTERVAL_SECONDS);
+            scheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    service.writeSnapshot();
+                } catch (RuntimeException e) {
+                    logger.error("Failed to write inventory snapshot", e);
+                }
+            }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        }
+        return scheduler;
+    }
+}
@@ -1,49 +1,461 @@
 package org.reservation.system.servlet;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.AsyncContext;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.apache.commons.lang3.StringUtils;
+import org.reservation.system.Constant;
+import org.reservation.system.cache.AvailabilityCache;
+import org.reservation.system.cache.IdempotencyCache;
+import org.reservation.system.event.SeatEvent;
+import org.reservation.system.event.SeatEventRing;
+import org.reservation.system.exception.HoldNotFoundException;
+import org.reservation.system.exception.IdempotencyKeyReusedException;
 import org.reservation.system.exception.NotEnoughSeatException;
+import org.reservation.system.exception.PersistenceException;
 import org.reservation.system.exception.RequestValidationException;
+import org.reservation.system.exception.ReservationNotFoundException;
 import org.reservation.system.exception.RouteNotFoundException;
+import org.reservation.system.exception.ShardUnavailableException;
+import org.reservation.system.inventory.TripLocks;
+import org.reservation.system.metrics.LatencyHistogram;
+import org.reservation.system.metrics.ReservationMetrics;
 import org.reservation.system.model.Bus;
+import org.reservation.system.model.Fleet;
 import org.reservation.system.model.request.AvailabilityRequest;
+import org.reservation.system.model.request.ConfirmRequest;
 import org.reservation.system.model.request.ReservationRequest;
 import org.reservation.system.model.response.ApiResponse;
+import org.reservation.system.model.response.AvailabilityCalendarResponse;
 import org.reservation.system.model.response.AvailabilityResponse;
+import org.reservation.system.model.response.HoldResponse;
 import org.reservation.system.model.response.ReservationResponse;
+import org.reservation.system.persistence.ArchiveDirectory;
+import org.reservation.system.persistence.ReservationLog;
+import org.reservation.system.persistence.WriteAheadLog;
+import org.reservation.system.replication.ReplicaService;
+import org.reservation.system.replication.ReplicationLog;
+import org.reservation.system.replication.ReplicationPublisher;
 import org.reservation.system.service.BusReservationService;
 import org.reservation.system.service.ReservationService;
+import org.reservation.system.service.ServiceMaintenance;
+import org.reservation.system.shard.ShardClient;
+import org.reservation.system.shard.ShardMember;
+import org.reservation.system.shard.ShardRouter;
+import org.reservation.system.shard.ShardServer;
+import org.reservation.system.util.DateUtils;
+import org.reservation.system.util.LogSampler;
 import org.reservation.system.validator.RequestValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 import static org.reservation.system.Constant.AttributeName.*;
+import static org.reservation.system.Constant.DefaultConfig.AVAILABILITY_CACHE_MAX_AGE_SECONDS;
+import static org.reservation.system.Constant.DefaultConfig.AVAILABILITY_CACHE_SIZE;
+import static org.reservation.system.Constant.DefaultConfig.BATCH_MAX_SIZE;
+import static org.reservation.system.Constant.DefaultConfig.EVENT_STREAM_BATCH_MAX_EVENTS;
+import static org.reservation.system.Constant.DefaultConfig.EVENT_STREAM_HEARTBEAT_SECONDS;
+import static org.reservation.system.Constant.DefaultConfig.EVENT_STREAM_MAX_SUBSCRIBERS;
+import static org.reservation.system.Constant.DefaultConfig.HOLD_TTL_SECONDS;
+import static org.reservation.system.Constant.DefaultConfig.IDEMPOTENCY_CACHE_SIZE;
+import static org.reservation.system.Constant.DefaultConfig.IDEMPOTENCY_KEY_MAX_AGE_SECONDS;
+import static org.reservation.system.Constant.DefaultConfig.IDEMPOTENCY_KEY_MAX_LENGTH;
+import static org.reservation.system.Constant.DefaultConfig.LOCK_STRIPES;
+import static org.reservation.system.Constant.DefaultConfig.LOG_PAYLOAD_SAMPLE_INTERVAL;
+import static org.reservation.system.Constant.DefaultConfig.MAX_IN_FLIGHT_REQUESTS;
+import static org.reservation.system.Constant.DefaultConfig.MAX_RESERVATION_DAYS;
+import static org.reservation.system.Constant.DefaultConfig.MIN_RESERVATION_DAYS;
+import static org.reservation.system.Constant.DefaultConfig.REPLICATION_BACKLOG_RECORDS;
+import static org.reservation.system.Constant.DefaultConfig.REQUEST_BODY_MAX_BYTES;
+import static org.reservation.system.Constant.DefaultConfig.REPLICA_MAX_STALENESS_MILLIS;
+import static org.reservation.system.Constant.DefaultConfig.RETRY_AFTER_SECONDS;
+import static org.reservation.system.Constant.DefaultConfig.SEAT_EVENT_RING_SIZE;
+import static org.reservation.system.Constant.DefaultConfig.SHARD_MAX_CONNECTIONS;
+import static org.reservation.system.Constant.DefaultConfig.SHARD_TIMEOUT_MILLIS;
+import static org.reservation.system.Constant.DefaultConfig.WAL_COMMIT_WINDOW_MILLIS;
+import static org.reservation.system.Constant.HeaderName.IDEMPOTENCY_KEY;
+import static org.reservation.system.Constant.HeaderName.LAST_EVENT_ID;
+import static org.reservation.system.Constant.LoggerName.ACCESS_LOGGER;
+import static org.reservation.system.Constant.HeaderName.RETRY_AFTER;
+import static org.reservation.system.Constant.SystemProperty.DATA_DIR;
+import static org.reservation.system.Constant.SystemProperty.HOLD_TTL;
+import static org.reservation.system.Constant.SystemProperty.LOG_PAYLOAD_SAMPLE;
+import static org.reservation.system.Constant.SystemProperty.MAX_IN_FLIGHT;
+import static org.reservation.system.Constant.SystemProperty.PRIMARY;
+import static org.reservation.system.Constant.SystemProperty.REPLICATION_HOST;
+import static org.reservation.system.Constant.SystemProperty.REPLICATION_PORT;
+import static org.reservation.system.Constant.SystemProperty.REPLICA_MAX_STALENESS;
+import static org.reservation.system.Constant.SystemProperty.SHARDS;
+import static org.reservation.system.Constant.SystemProperty.WAL_COMMIT_WINDOW;
+import static org.reservation.system.Constant.api.AVAILABILITY_CALENDAR;
+import static org.reservation.system.Constant.api.CANCEL;
 import static org.reservation.system.Constant.api.CHECK_AVAILABILITY;
+import static org.reservation.system.Constant.api.CONFIRM;
+import static org.reservation.system.Constant.api.EVENTS;
+import static org.reservation.system.Constant.api.HOLD;
+import static org.reservation.system.Constant.api.METRICS;
+import static org.reservation.system.Constant.api.RESERVATION;
 import static org.reservation.system.Constant.api.RESERVE;
+import static org.reservation.system.Constant.api.RESERVE_BATCH;
+import static org.reservation.system.metrics.ReservationMetrics.Rejection.VALIDATION;
+import static org.reservation.system.metrics.ReservationMetrics.Stage.SERIALIZE;
+import static org.reservation.system.metrics.ReservationMetrics.Stage.VALIDATE;
 
 /**
  * Servlet handling reservation requests for bus ticket booking.
+ * Requests are processed asynchronously on virtual threads, so a request waiting for a trip lock or for its
+ * reservation to become durable does not hold a container thread. At most {@code reservation.maxInFlightRequests}
+ * requests are processed at once; further requests are turned away with 503 Service Unavailable.
+ * With {@code reservation.shards} set, the inventory is kept on shard nodes instead, and requests are forwarded to
+ * them by a {@link ShardRouter}. With {@code reservation.replication.port} set, changes are published on that port for
+ * read replicas, on the interface of {@code reservation.replication.host} or else on the loopback interface; with
+ * {@code reservation.replica.primary} set, the servlet is such a replica, see {@link ReplicaService}.
  */
 public class ReservationServlet extends HttpServlet {
     private static final Logger logger = LoggerFactory.getLogger(ReservationServlet.class);
-    private static final Bus bus;
+    private static final Logger accessLogger = LoggerFactory.getLogger(ACCESS_LOGGER);
+    private static final LogSampler payloadSampler =
+            new LogSampler(Integer.getInteger(LOG_PAYLOAD_SAMPLE, LOG_PAYLOAD_SAMPLE_INTERVAL));
+    private static final int SC_UNPROCESSABLE_ENTITY = 422;
+    private static final int SC_CONTENT_TOO_LARGE = 413;
+    // One clock for the service or router, the availability cache and the calendar, so they agree on which date is today
+    private static final Clock clock = Clock.systemDefaultZone();
+    private static final Fleet fleet;
+    private static final AvailabilityCache availabilityCache;
+    private static final IdempotencyCache idempotencyCache =
+            new IdempotencyCache(IDEMPOTENCY_CACHE_SIZE, Duration.ofSeconds(IDEMPOTENCY_KEY_MAX_AGE_SECONDS));
+    private static final ReservationLog reservationLog;
     private static final ReservationService reservationService;
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ScheduledExecutorService maintenanceScheduler;
+    private static final ShardServer replicationServer;
+    // Seat events of the local service; there are none to stream in router or replica mode
+    private static final SeatEventRing seatEvents;
+    private static final Semaphore eventSubscribers = new Semaphore(EVENT_STREAM_MAX_SUBSCRIBERS);
+    // Virtual threads do not live long enough for Jackson's thread-local buffer recycling, so buffers are pooled instead
+    private static final ObjectMapper objectMapper = new ObjectMapper(JsonFactory.builder()
+            .recyclerPool(JsonRecyclerPools.newConcurrentDequePool())
+            .build());
+    private static final ObjectReader reservationRequestReader = objectMapper.readerFor(ReservationRequest.class);
+    private static final ObjectReader availabilityRequestReader = objectMapper.readerFor(AvailabilityRequest.class);
+    private static final ObjectReader confirmRequestReader = objectMapper.readerFor(ConfirmRequest.class);
+    private static final ObjectWriter reservationResponseWriter =
+            objectMapper.writerFor(new TypeReference<ApiResponse<ReservationResponse>>() {});
+    private static final ObjectWriter holdResponseWriter =
+            objectMapper.writerFor(new TypeReference<ApiResponse<HoldResponse>>() {});
+    // Error and fixed responses, encoded once
+    private static final ResponseTemplate notFoundResponse = ResponseTemplate.constant(objectMapper, Map.of("error", "Not Found"));
+    private static final ResponseTemplate internalErrorResponse =
+            ResponseTemplate.constant(objectMapper, ApiResponse.error("Internal Server Error", null));
+    private static final ResponseTemplate busyResponse =
+            ResponseTemplate.constant(objectMapper, ApiResponse.error("Server is busy, please retry later.", null));
+    private static final ResponseTemplate invalidIdempotencyKeyResponse = ResponseTemplate.constant(objectMapper,
+            ApiResponse.error("Idempotency-Key must be 1 to " + IDEMPOTENCY_KEY_MAX_LENGTH + " characters.", null));
+    private static final ResponseTemplate bodyTooLargeResponse = ResponseTemplate.constant(objectMapper,
+            ApiResponse.error("Request body must be at most " + REQUEST_BODY_MAX_BYTES + " bytes.", null));
+    private static final ResponseTemplate invalidBatchResponse = ResponseTemplate.constant(objectMapper,
+            ApiResponse.error("Request body must be a JSON array of reservation requests.", null));
+    private static final ResponseTemplate errorResponse = ResponseTemplate.of(objectMapper, error -> ApiResponse.error(error, null));
+    private static final ResponseTemplate messageResponse = ResponseTemplate.of(objectMapper, message -> ApiResponse.error(null, message));
+    private static final ExecutorService requestExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("reservation-request-", 0).factory());
+    private static final int maxInFlightRequests = Integer.getInteger(MAX_IN_FLIGHT, MAX_IN_FLIGHT_REQUESTS);
+    private static final Semaphore inFlightRequests = new Semaphore(maxInFlightRequests);
+    private static final ReservationMetrics metrics = new ReservationMetrics(List.of(CHECK_AVAILABILITY, AVAILABILITY_CALENDAR,
+            RESERVATION, RESERVE, RESERVE_BATCH, CANCEL, HOLD, CONFIRM, METRICS));
 
     static {
-        bus = new Bus();
-        reservationService = new BusReservationService(bus);
+        fleet = Fleet.of(new Bus());
+        String shards = System.getProperty(SHARDS);
+        if (!StringUtils.isEmpty(shards)) {
+            // Seats change on the shards, out of sight of a cache here, so availability is always asked for
+            availabilityCache = null;
+            reservationLog = ReservationLog.NONE;
+            reservationService = openShardRouter(shards);
+            maintenanceScheduler = null;
+            replicationServer = null;
+            seatEvents = null;
+        } else if (!StringUtils.isEmpty(System.getProperty(PRIMARY))) {
+            // The replica is loaded from the primary on start and expires nothing itself; the primary's changes do
+            availabilityCache = new AvailabilityCache(fleet, AVAILABILITY_CACHE_SIZE,
+                    Duration.ofSeconds(AVAILABILITY_CACHE_MAX_AGE_SECONDS), clock);
+            reservationLog = ReservationLog.NONE;
+            ReplicaService replicaService = openReplica(System.getProperty(PRIMARY));
+            reservationService = replicaService;
+            registerReplicaMetrics(replicaService);
+            maintenanceScheduler = null;
+            replicationServer = null;
+            seatEvents = null;
+        } else {
+            availabilityCache = new AvailabilityCache(fleet, AVAILABILITY_CACHE_SIZE,
+                    Duration.ofSeconds(AVAILABILITY_CACHE_MAX_AGE_SECONDS), clock);
+            String replicationPort = System.getProperty(REPLICATION_PORT);
+            ReplicationLog replicationLog = StringUtils.isEmpty(replicationPort)
+                    ? null : new ReplicationLog(openReservationLog(), REPLICATION_BACKLOG_RECORDS);
+            reservationLog = replicationLog == null ? openReservationLog() : replicationLog;
+            String dataDir = System.getProperty(DATA_DIR);
+            seatEvents = new SeatEventRing(SEAT_EVENT_RING_SIZE);
+            BusReservationService.Builder builder = new BusReservationService.Builder(fleet)
+                    .lockStripes(LOCK_STRIPES)
+                    .clock(clock)
+                    .reservationLog(reservationLog)
+                    .seatChangeListener(availabilityCache)
+                    .seatEvents(seatEvents)
+                    .metrics(metrics)
+                    .holdTtl(Duration.ofSeconds(Long.getLong(HOLD_TTL, HOLD_TTL_SECONDS)));
+            if (!StringUtils.isEmpty(dataDir)) {
+                builder.snapshotFile(Path.of(dataDir, "inventory.snapshot"))
+                        .reservationArchive(new ArchiveDirectory(Path.of(dataDir, "archive")));
+            }
+            BusReservationService busReservationService = builder.build();
+            reservationService = busReservationService;
+            registerMetrics(busReservationService);
+            metrics.counter("reservation_seat_events_total", "Seat events published.", seatEvents::getSequence);
+            metrics.gauge("reservation_event_subscribers", "Subscribers streamed seat events.",
+                    () -> EVENT_STREAM_MAX_SUBSCRIBERS - eventSubscribers.availablePermits());
+            maintenanceScheduler = ServiceMaintenance.schedule(busReservationService, !StringUtils.isEmpty(dataDir),
+                    Thread.ofPlatform().name("reservation-maintenance").daemon().factory());
+            replicationServer = replicationLog == null
+                    ? null : publishChanges(busReservationService, replicationLog, Integer.parseInt(replicationPort));
+        }
+        registerRequestMetrics();
+    }
+
+    /**
+     * Opens a router over the shards holding the inventory, each reached by a shard client. With a data directory
+     * the router keeps the shards' placements there, and refuses a configuration that moves booked dates.
+     *
+     * @param shards The shards, as comma-separated name=host:port entries, each optionally dated @joinsFrom..leavesFrom
+     * @return The shard router
+     */
+    private static ShardRouter openShardRouter(String shards) {
+        String dataDir = System.getProperty(DATA_DIR);
+        return ShardRouter.open(fleet, ShardMember.parseAll(shards),
+                address -> new ShardClient(address, SHARD_MAX_CONNECTIONS, SHARD_TIMEOUT_MILLIS),
+                StringUtils.isEmpty(dataDir) ? null : Path.of(dataDir, "shard.placements"), clock);
+    }
+
+    /**
+     * Starts a read replica of a primary, which keeps its copy of the inventory behind the availability cache.
+     *
+     * @param primary The primary, as host:port of its replication port
+     * @return The replica
+     */
+    private static ReplicaService openReplica(String primary) {
+        int colon = primary.lastIndexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Invalid primary " + primary + " in " + PRIMARY + ", expected host:port");
+        }
+        InetSocketAddress address = new InetSocketAddress(primary.substring(0, colon), Integer.parseInt(primary.substring(colon + 1)));
+        logger.info("Following primary {}", address);
+        return ReplicaService.start(() -> new BusReservationService.Builder(fleet)
+                        .lockStripes(LOCK_STRIPES)
+                        .clock(clock)
+                        .seatChangeListener(availabilityCache)
+                        .build(),
+                new ShardClient(address, SHARD_MAX_CONNECTIONS, SHARD_TIMEOUT_MILLIS),
+                Duration.ofMillis(Long.getLong(REPLICA_MAX_STALENESS, REPLICA_MAX_STALENESS_MILLIS)));
+    }
+
+    /**
+     * Publishes the changes of the service to read replicas. The port also serves the service to them, so the
+     * replicas can forward the requests they do not answer themselves. It checks no credentials, so it listens on
+     * the loopback interface unless {@code reservation.replication.host} names another.
+     *
+     * @param service        The primary service
+     * @param replicationLog Log numbering the service's changes
+     * @param port           Port to publish on
+     * @return The server publishing the changes
+     */
+    private static ShardServer publishChanges(BusReservationService service, ReplicationLog replicationLog, int port) {
+        ReplicationPublisher publisher = new ReplicationPublisher(replicationLog, service);
+        metrics.counter("reservation_replication_records_total", "Records logged for replicas.", replicationLog::getSequence);
+        metrics.gauge("reservation_replication_subscribers", "Replicas streamed to.", publisher::getSubscriberCount);
+        try {
+            String host = System.getProperty(REPLICATION_HOST);
+            InetSocketAddress address = StringUtils.isEmpty(host)
+                    ? new InetSocketAddress(InetAddress.getLoopbackAddress(), port) : new InetSocketAddress(host, port);
+            ShardServer server = ShardServer.start(service, publisher, address);
+            logger.info("Publishing changes to replicas on {}:{}", address.getHostString(), server.getPort());
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Replication port " + port + " could not be opened", e);
+        }
+    }
+
+    /**
+     * Opens the reservation log in the configured data directory.
+     * Without a data directory reservations are kept in memory only.
+     *
+     * @return The reservation log
+     */
+    private static ReservationLog openReservationLog() {
+        String dataDir = System.getProperty(DATA_DIR);
+        if (StringUtils.isEmpty(dataDir)) {
+            logger.warn("System property {} is not set, reservations will not survive a restart", DATA_DIR);
+            return ReservationLog.NONE;
+        }
+        long commitWindowMillis = Long.getLong(WAL_COMMIT_WINDOW, WAL_COMMIT_WINDOW_MILLIS);
+        Path logFile = Path.of(dataDir, "reservations.wal");
+        try {
+            logger.info("Opening reservation log {} with a {} ms commit window", logFile, commitWindowMillis);
+            return WriteAheadLog.open(logFile, Duration.ofMillis(commitWindowMillis));
+        } catch (IOException e) {
+            throw new PersistenceException("Reservation log " + logFile + " could not be opened", e);
+        }
+    }
+
+    /**
+     * Registers the counters and gauges kept outside the metrics for a local service: memory held by the service,
+     * trip lock contention and availability cache effectiveness.
+     *
+     * @param service The service to report on
+     */
+    private static void registerMetrics(BusReservationService service) {
+        metrics.gauge("reservation_trips", "Trips with seat state held in memory.", service::getTripCount);
+        metrics.gauge("reservation_seats", "Seats with state held in memory, over all trips.", service::getSeatCount);
+        metrics.gauge("reservation_reservations", "Active reservations held in memory.", service::getReservationCount);
+        metrics.gauge("reservation_holds", "Seat holds awaiting confirmation.", service::getHoldCount);
+
+        TripLocks tripLocks = service.getTripLocks();
+        // Per stripe, so a hot trip shows as one stripe standing out
+        int stripes = tripLocks.getStripeCount();
+        metrics.counter("reservation_lock_acquisitions_total", "Trip lock acquisitions, by lock stripe.",
+                "stripe", stripes, tripLocks::getAcquisitions);
+        metrics.counter("reservation_lock_contended_acquisitions_total", "Trip lock acquisitions that had to wait, by lock stripe.",
+                "stripe", stripes, tripLocks::getContendedAcquisitions);
+        metrics.counter("reservation_lock_wait_seconds_total", "Time spent waiting for trip locks, by lock stripe.",
+                "stripe", stripes, stripe -> tripLocks.getWaitNanos(stripe) / 1e9);
+        registerCacheMetrics();
+    }
+
+    /**
+     * Registers the counters and gauges of a replica: how far it is behind the primary, and how often availability
+     * is asked of the primary instead, besides availability cache effectiveness.
+     *
+     * @param replica The replica to report on
+     */
+    private static void registerReplicaMetrics(ReplicaService replica) {
+        metrics.gauge("reservation_replica_lag_records", "Records logged on the primary not yet applied by the replica.",
+                replica::getLagRecords);
+        metrics.gauge("reservation_replica_staleness_seconds", "Time since the replica last held every change of the primary.",
+                () -> replica.getStalenessMillis() / 1e3);
+        metrics.counter("reservation_replica_reads_forwarded_total", "Availability requests forwarded to the primary.",
+                replica::getForwardedReads);
+        registerCacheMetrics();
+    }
+
+    private static void registerCacheMetrics() {
+        metrics.gauge("reservation_availability_cache_entries", "Answers in the availability cache.", availabilityCache::size);
+        metrics.counter("reservation_availability_cache_hits_total", "Availability answers served from the cache.", availabilityCache::getHits);
+        metrics.counter("reservation_availability_cache_misses_total", "Availability answers computed.", availabilityCache::getMisses);
+        metrics.counter("reservation_availability_cache_evictions_total", "Availability answers evicted.", availabilityCache::getEvictions);
+        metrics.counter("reservation_availability_cache_invalidations_total", "Availability answers dropped as seats changed.",
+                availabilityCache::getInvalidations);
     }
 
+    /**
+     * Registers the counters and gauges of the servlet itself: requests in flight and idempotency cache effectiveness.
+     */
+    private static void registerRequestMetrics() {
+        metrics.gauge("reservation_requests_in_flight", "Requests being processed.",
+                () -> maxInFlightRequests - inFlightRequests.availablePermits());
+        metrics.gauge("reservation_idempotency_cache_entries", "Responses kept by idempotency key.", idempotencyCache::size);
+        metrics.counter("reservation_idempotency_cache_hits_total", "Retried requests answered with the original response.",
+                idempotencyCache::getHits);
+        metrics.counter("reservation_idempotency_cache_misses_total", "Requests executed under a new idempotency key.",
+                idempotencyCache::getMisses);
+        metrics.counter("reservation_idempotency_cache_evictions_total", "Responses evicted from the idempotency cache.",
+                idempotencyCache::getEvictions);
+    }
 
     /**
-     * Handles HTTP GET requests.
-     * This method processes availability check requests based on the servlet path.
+     * Stops taking requests and waits for those in flight, stops maintenance tasks, then flushes and closes
+     * the reservation log when the servlet is taken out of service.
+     */
+    @Override
+    public void destroy() {
+        requestExecutor.shutdown();
+        if (seatEvents != null) {
+            // Ends the event streams, which would otherwise keep their requests open
+            seatEvents.close();
+        }
+        if (replicationServer != null) {
+            try {
+                replicationServer.close();
+            } catch (IOException e) {
+                logger.error("Failed to close the replication port", e);
+            }
+        }
+        if (maintenanceScheduler != null) {
+            maintenanceScheduler.shutdown();
+        }
+        try {
+            requestExecutor.awaitTermination(1, TimeUnit.MINUTES);
+            if (maintenanceScheduler != null) {
+                maintenanceScheduler.awaitTermination(1, TimeUnit.MINUTES);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (reservationService instanceof Closeable closeable) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                logger.error("Failed to close the connections to the shards or primary", e);
+            }
+        }
+        if (reservationLog instanceof Closeable closeable) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                logger.error("Failed to close the reservation log", e);
+            }
+        }
+    }
+
+    /**
+     * Handles a request on the servlet, processed by the servlet's own request executor.
+     */
+    @FunctionalInterface
+    private interface RequestHandler {
+        void handle(HttpServletRequest req, HttpServletResponse resp) throws IOException;
+    }
+
+    /**
+     * Handles HTTP GET requests asynchronously.
      *
      * @param req  The HTTP request object.
      * @param resp The HTTP response object.
@@ -51,40 +463,264 @@ public class ReservationServlet extends HttpServlet {
      */
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
-        logger.info("Get request received");
+        if (EVENTS.equals(req.getServletPath())) {
+            streamEvents(req, resp);
+            return;
+        }
+        dispatch(req, resp, this::handleGet);
+    }
+
+    /**
+     * Handles HTTP POST requests asynchronously.
+     *
+     * @param req  The HTTP request object.
+     * @param resp The HTTP response object.
+     * @throws IOException If an input/output error occurs.
+     */
+    @Override
+    protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        dispatch(req, resp, this::handlePost);
+    }
+
+    /**
+     * Puts a request in async mode and hands it to a virtual thread, releasing the container thread at once.
+     * When the in-flight limit is reached the request is answered with 503 and a Retry-After header on the
+     * container thread instead, so a spike is shed in constant time rather than queued.
+     * The latency of each request is recorded from the container's call until the response is complete,
+     * and one access log line is written per request.
+     *
+     * @param req     The HTTP request object.
+     * @param resp    The HTTP response object.
+     * @param handler Processes the request.
+     * @throws IOException If an input/output error occurs.
+     */
+    private void dispatch(HttpServletRequest req, HttpServletResponse resp, RequestHandler handler) throws IOException {
+        long start = System.nanoTime();
+        // The request may be recycled by the container once complete, so what is recorded about it is read now
+        String method = req.getMethod();
+        String path = req.getServletPath();
+        LatencyHistogram latency = metrics.endpoint(path);
+        if (!inFlightRequests.tryAcquire()) {
+            logger.debug("Shedding {} {}, too many requests in flight", method, path);
+            metrics.countShedRequest();
+            sendServiceUnavailable(resp);
+            logAccess(method, path, HttpServletResponse.SC_SERVICE_UNAVAILABLE, System.nanoTime() - start);
+            return;
+        }
+        AsyncContext asyncContext;
+        try {
+            asyncContext = req.startAsync();
+        } catch (RuntimeException e) {
+            inFlightRequests.release();
+            throw e;
+        }
+        // The handler always completes the request, and the in-flight limit bounds how many can be pending
+        asyncContext.setTimeout(0);
+        try {
+            requestExecutor.execute(() -> {
+                try {
+                    handler.handle(req, resp);
+                } catch (IOException | RuntimeException e) {
+                    logger.error("Failed to handle {} {}", req.getMethod(), req.getServletPath(), e);
+                } finally {
+                    int status = resp.getStatus();
+                    try {
+                        asyncContext.complete();
+                    } finally {
+                        inFlightRequests.release();
+                        long nanos = System.nanoTime() - start;
+                        latency.record(nanos);
+                        logAccess(method, path, status, nanos);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // The servlet is being taken out of service
+            inFlightRequests.release();
+            sendServiceUnavailable(resp);
+            asyncContext.complete();
+            logAccess(method, path, HttpServletResponse.SC_SERVICE_UNAVAILABLE, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Streams seat events to a subscriber on a virtual thread of its own, until the subscriber goes away or the
+     * servlet is taken out of service. Streams are long-lived, so they are bounded by a subscriber limit of their
+     * own instead of the in-flight limit, and their latency is not recorded.
+     *
+     * @param req  The HTTP request object.
+     * @param resp The HTTP response object.
+     * @throws IOException If an input/output error occurs.
+     */
+    private void streamEvents(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        long start = System.nanoTime();
+        String method = req.getMethod();
+        String path = req.getServletPath();
+        if (seatEvents == null) {
+            sendJsonResponse(resp, HttpServletResponse.SC_NOT_FOUND, notFoundResponse);
+            logAccess(method, path, HttpServletResponse.SC_NOT_FOUND, System.nanoTime() - start);
+            return;
+        }
+        if (!eventSubscribers.tryAcquire()) {
+            logger.debug("Turning an event subscriber away, {} are subscribed", EVENT_STREAM_MAX_SUBSCRIBERS);
+            sendServiceUnavailable(resp);
+            logAccess(method, path, HttpServletResponse.SC_SERVICE_UNAVAILABLE, System.nanoTime() - start);
+            return;
+        }
+        // Browsers resend the last event id in a header; other clients may pass it as a parameter
+        String lastEventId = req.getHeader(LAST_EVENT_ID);
+        if (lastEventId == null) {
+            lastEventId = req.getParameter(Constant.AttributeName.LAST_EVENT_ID);
+        }
+        AsyncContext asyncContext;
+        try {
+            asyncContext = req.startAsync();
+        } catch (RuntimeException e) {
+            eventSubscribers.release();
+            throw e;
+        }
+        asyncContext.setTimeout(0);
+        String resumeId = lastEventId;
+        try {
+            requestExecutor.execute(() -> {
+                try {
+                    writeEventStream(resp, resumeId);
+                } catch (IOException e) {
+                    logger.debug("Event subscriber went away: {}", e.toString());
+                } catch (RuntimeException e) {
+                    logger.error("Failed to stream seat events", e);
+                } finally {
+                    try {
+                        asyncContext.complete();
+                    } finally {
+                        eventSubscribers.release();
+                        logAccess(method, path, HttpServletResponse.SC_OK, System.nanoTime() - start);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // The servlet is being taken out of service
+            eventSubscribers.release();
+            sendServiceUnavailable(resp);
+            asyncContext.complete();
+            logAccess(method, path, HttpServletResponse.SC_SERVICE_UNAVAILABLE, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Writes seat events as they are published, from the one after the subscriber's last event if it is still on
+     * the ring, and from the next one published otherwise. A batch of events is sent at once; while none are
+     * published a heartbeat is sent every {@code EVENT_STREAM_HEARTBEAT_SECONDS}.
+     *
+     * @param resp        The HTTP response object.
+     * @param lastEventId Id of the last event the subscriber received, or null for a new subscriber.
+     * @throws IOException If the subscriber went away.
+     */
+    private void writeEventStream(HttpServletResponse resp, String lastEventId) throws IOException {
+        resp.setStatus(HttpServletResponse.SC_OK);
+        resp.setContentType("text/event-stream; charset=utf-8");
+        resp.setHeader("Cache-Control", "no-cache");
+        SeatEventStream stream = new SeatEventStream(resp.getOutputStream(), objectMapper.getFactory(), seatEvents.getEpoch());
+        long next = SeatEventStream.resumeFrom(lastEventId, seatEvents.getEpoch());
+        if (next == SeatEventStream.CANNOT_RESUME || next > seatEvents.getSequence()) {
+            next = seatEvents.getSequence();
+            if (!StringUtils.isEmpty(lastEventId)) {
+                stream.writeReset(next);
+            }
+        }
+        stream.flush();
+        try {
+            while (!seatEvents.isClosed()) {
+                List<SeatEvent> events = seatEvents.await(next, EVENT_STREAM_BATCH_MAX_EVENTS, EVENT_STREAM_HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+                if (events == null) {
+                    next = seatEvents.getSequence();
+                    stream.writeReset(next);
+                } else if (events.isEmpty()) {
+                    stream.writeHeartbeat();
+                } else {
+                    for (SeatEvent event : events) {
+                        stream.writeEvent(event);
+                    }
+                    next += events.size();
+                }
+                stream.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes the access log line of a request, as space-separated key=value pairs.
+     * The line is handed to the logging thread rather than written by the caller.
+     *
+     * @param method HTTP method of the request.
+     * @param path   Servlet path of the request.
+     * @param status HTTP status of the response.
+     * @param nanos  Time taken to answer the request.
+     */
+    private static void logAccess(String method, String path, int status, long nanos) {
+        if (accessLogger.isInfoEnabled()) {
+            accessLogger.info("method={} path={} status={} micros={}", method, path, status, nanos / 1000);
+        }
+    }
+
+    /**
+     * Routes GET requests.
+     * This method processes availability check, reservation lookup and metrics requests based on the servlet path.
+     *
+     * @param req  The HTTP request object.
+     * @param resp The HTTP response object.
+     * @throws IOException If an input/output error occurs.
+     */
+    private void handleGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        logger.debug("Get request received");
         String servletPath = req.getServletPath();
 
         if (CHECK_AVAILABILITY.equals(servletPath)) {
             handleAvailabilityRequest(req, resp);
+        } else if (AVAILABILITY_CALENDAR.equals(servletPath)) {
+            handleAvailabilityCalendarRequest(req, resp);
+        } else if (RESERVATION.equals(servletPath)) {
+            handleGetReservationRequest(req, resp);
+        } else if (METRICS.equals(servletPath)) {
+            handleMetricsRequest(resp);
         } else {
-            sendJsonResponse(resp, HttpServletResponse.SC_NOT_FOUND, "{\"error\": \"Not Found\"}");
+            sendJsonResponse(resp, HttpServletResponse.SC_NOT_FOUND, notFoundResponse);
         }
     }
 
     /**
-     * Handles HTTP POST requests.
-     * This method processes reservation requests based on the servlet path.
+     * Routes POST requests.
+     * This method processes reservation, hold and cancellation requests based on the servlet path.
      *
      * @param req  The HTTP request object.
      * @param resp The HTTP response object.
      * @throws IOException If an input/output error occurs.
      */
-    @Override
-    protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
-        logger.info("Post request received");
+    private void handlePost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
         String path = req.getServletPath();
-        logger.info("Path: {}", path);
+        logger.debug("Post request received: {}", path);
 
         if (RESERVE.equals(path)) {
             handleReservationRequest(req, resp);
+        } else if (RESERVE_BATCH.equals(path)) {
+            handleBatchReservationRequest(req, resp);
+        } else if (CANCEL.equals(path)) {
+            handleCancelRequest(req, resp);
+        } else if (HOLD.equals(path)) {
+            handleHoldRequest(req, resp);
+        } else if (CONFIRM.equals(path)) {
+            handleConfirmRequest(req, resp);
         } else {
-            sendJsonResponse(resp, HttpServletResponse.SC_NOT_FOUND, "{\"error\": \"Not Found\"}");
+            sendJsonResponse(resp, HttpServletResponse.SC_NOT_FOUND, notFoundResponse);
         }
     }
 
     /**
      * Handles availability check requests.
      * Extracts request parameters, validates them, and checks bus availability.
+     * Successful answers are served from the availability cache until seats change on the route.
      *
      * @param req  The HTTP request object.
      * @param resp The HTTP response object.
@@ -92,7 +728,8 @@ public class ReservationServlet extends HttpServlet {
      */
     private void handleAvailabilityRequest(HttpServletRequest req, HttpServletResponse resp) throws IOException {
         try {
-            logger.info("Starting to proceed availability request");
+            logger.debug("Starting to proceed availability request");
+            long validateStart = System.nanoTime();
             RequestValidator.validatePassengerCount(req);
 
             AvailabilityRequest availabilityRequest = new AvailabilityRequest.Builder()
@@ -103,78 +740,439 @@ public class ReservationServlet extends HttpServlet {
                     .build();
 
             RequestValidator.validateAvailabilityRequest(availabilityRequest);
-            AvailabilityResponse availabilityResponse = reservationService.checkAvailability(availabilityRequest);
-            ApiResponse<AvailabilityResponse> response = ApiResponse.success(availabilityResponse);
-            String stringResponse = objectMapper.writeValueAsString(response);
-            logger.info("Received availability response: {}", stringResponse);
+            metrics.stage(VALIDATE).recordSince(validateStart);
+            AvailabilityCache.Key cacheKey = new AvailabilityCache.Key(availabilityRequest.getOrigin(), availabilityRequest.getDestination(),
+                    DateUtils.toLocalDate(availabilityRequest.getTravelDate()), availabilityRequest.getPassengerCount());
+            String stringResponse = availabilityCache == null ? null : availabilityCache.get(cacheKey);
+            if (stringResponse == null) {
+                long stamp = availabilityCache == null ? 0 : availabilityCache.stamp();
+                AvailabilityResponse availabilityResponse = reservationService.checkAvailability(availabilityRequest);
+                ApiResponse<AvailabilityResponse> response = ApiResponse.success(availabilityResponse);
+                long serializeStart = System.nanoTime();
+                stringResponse = objectMapper.writeValueAsString(response);
+                metrics.stage(SERIALIZE).recordSince(serializeStart);
+                if (availabilityCache != null) {
+                    availabilityCache.put(cacheKey, stringResponse, stamp);
+                }
+            }
+            if (logger.isDebugEnabled() && payloadSampler.sample()) {
+                logger.debug("Received availability response: {}", stringResponse);
+            }
             sendJsonResponse(resp, HttpServletResponse.SC_OK, stringResponse);
         } catch (RouteNotFoundException | RequestValidationException e) {
-            logger.error("Error handling availability request: {}", e.getMessage());
-            ApiResponse<AvailabilityResponse> response = ApiResponse.error(e.getMessage(), null);
-            String errorResponse = objectMapper.writeValueAsString(response);
-            logger.info("Error response: {}", errorResponse);
-            sendJsonResponse(resp, HttpServletResponse.SC_BAD_REQUEST, errorResponse);
+            countValidationFailure(e);
+            logger.debug("Error handling availability request: {}", e.getMessage());
+            sendJsonResponse(resp, HttpServletResponse.SC_BAD_REQUEST, errorResponse, e.getMessage());
+        } catch (ShardUnavailableException e) {
+            sendServiceUnavailable(resp, e);
         } catch (Exception e) {
             logger.error("Unexpected error handling availability request", e);
-            ApiResponse<AvailabilityResponse> response = ApiResponse.error("Internal Server Error", null);
-            String errorResponse = objectMapper.writeValueAsString(response);
-            sendJsonResponse(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, errorResponse);
+            sendJsonResponse(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, internalErrorResponse);
+        }
+    }
+
+    /**
+     * Handles availability calendar requests, answering for every bookable date of a route at once.
+     * The passenger count is optional and defaults to one. Answers are served from the availability cache
+     * until seats change on the route on any of the dates.
+     *
+     * @param req  The HTTP request object.
+     * @param resp The HTTP response object.
+     * @throws IOException If an input/output error occurs.
+     */
+    private void handleAvailabilityCalendarRequest(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        try {
+            long validateStart = System.nanoTime();
+            String origin = req.getParameter(ORIGIN);
+            String destination = req.getParameter(DESTINATION);
+            String passengers = req.getParameter(PASSENGER_COUNT);
+            int passengerCount = StringUtils.isEmpty(passengers) ? 1 : Integer.parseInt(passengers);
+            RequestValidator.validateCalendarRequest(origin, destination, passengerCount);
+            metrics.stage(VALIDATE).recordSince(validateStart);
+
+            LocalDate firstDate = LocalDate.now(clock).plusDays(MIN_RESERVATION_DAYS);
+            int days = MAX_RESERVATION_DAYS - MIN_RESERVATION_DAYS + 1;
+            AvailabilityCache.Key cacheKey = new AvailabilityCache.Key(origin, destination, firstDate, passengerCount, days);
+            String stringResponse = availabilityCache == null ? null : availabilityCache.get(cacheKey);
+            if (stringResponse == null) {
+                long stamp = availabilityCache == null ? 0 : availabilityCache.stamp();
+                AvailabilityCalendarResponse calendar = reservationService.checkAvailabilityCalendar(origin, destination, passengerCount, firstDate, days);
+                long serializeStart = System.nanoTime();
+                stringResponse = objectMapper.writeValueAsString(ApiResponse.success(calendar));
+                metrics.stage(SERIALIZE).recordSince(serializeStart);
+                if (availabilityCache != null) {
+                    availabilityCache.put(cacheKey, stringResponse, stamp);
+                }
+            }
+            sendJsonResponse(resp, HttpServletResponse.SC_OK, stringResponse);
+        } catch (RouteNotFoundException | RequestValidationException | NumberFormatException e) {
+            countValidationFailure(e);
+            logger.debug("Error handling availability calendar request: {}", e.getMessage());
+            sendJsonResponse(resp, HttpServletResponse.SC_BAD_REQUEST, errorResponse, e.getMessage());
+        } catch (ShardUnavailableException e) {
+            sendServiceUnavailable(resp, e);
+        } catch (Exception e) {
+            logger.error("Unexpected error handling availability calendar request", e);
+            sendJsonResponse(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, internalErrorResponse);
+        }
+    }
+
+    /**
+     * Handles reservation lookups by reservation id.
+     *
+     * @param req  The HTTP request object.
+     * @param resp The HTTP response object.
+     * @throws IOException If an input/output error occurs.
+     */
+    private void handleGetReservationRequest(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        try {
+            String reservationId = req.getParameter(RESERVATION_ID);
+            if (StringUtils.isEmpty(reservationId)) {
+                throw new RequestValidationException("Mandatory parameter reservationId is not specified.");
+            }
+            ReservationResponse resResponse = reservationService.getReservation(reservationId);
+            String stringResponse = objectMapper.writeValueAsString(ApiResponse.success(resResponse));
+            sendJsonResponse(resp, HttpServletResponse.SC_OK, stringResponse);
+        } catch (RequestValidationException e) {
+            countValidationFailure(e);
+            sendJsonResponse(resp, HttpServletResponse.SC_BAD_REQUEST, errorResponse, e.getMessage());
+        } catch (ReservationNotFoundException e) {
+            sendJsonResponse(resp, HttpServletResponse.SC_NOT_FOUND, errorResponse, e.getMessage());
+        } catch (ShardUnavailableException e) {
+            sendServiceUnavailable(resp, e);
+        } catch (Exception e) {
+            logger.error("Unexpected error handling reservation lookup", e);
+            sendJsonResponse(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, internalErrorResponse);
+        }
+    }
+
+    /**
+     * Handles seat hold requests. Held seats are released unless the hold is confirmed in time.
+     *
+     * @param req  The HTTP request object.
+     * @param resp The HTTP response object.
+     * @throws IOException If an input/output error occurs.
+     */
+    private void handleHoldRequest(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        try {
+            AvailabilityRequest request = availabilityRequestReader.readValue(req.getInputStream());
+
+            long validateStart = System.nanoTime();
+            RequestValidator.validateAvailabilityRequest(request);
+            metrics.stage(VALIDATE).recordSince(validateStart);
+            HoldResponse holdResponse = reservationService.holdSeats(request);
+            logger.debug("Seats held: {}", holdResponse.getHoldId());
+            sendJsonResponse(resp, HttpServletResponse.SC_OK, holdResponseWriter, ApiResponse.success(holdResponse));
+        } catch (NotEnoughSeatException e) {
+            sendJsonResponse(resp, HttpServletResponse.SC_OK, messageResponse, e.getMessage());
+        } catch (RouteNotFoundException | RequestValidationException e) {
+            countValidationFailure(e);
+            logger.debug("Error handling hold request: {}", e.getMessage());
+            sendJsonResponse(resp, HttpServletResponse.SC_BAD_REQUEST, errorResponse, e.getMessage());
+        } catch (ShardUnavailableException e) {
+            sendServiceUnavailable(resp, e);
+        } catch (Exception e) {
+            logger.error("Unexpected error handling hold request", e);
+            sendJsonResponse(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, internalErrorResponse);
+        }
+    }
+
+    /**
+     * Handles hold confirmations, turning held seats into a reservation.
+     *
+     * @param req  The HTTP request object.
+     * @param resp The HTTP response object.
+     * @throws IOException If an input/output error occurs.
+     */
+    private void handleConfirmRequest(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        try {
+            ConfirmRequest request = confirmRequestReader.readValue(req.getInputStream());
+
+            long validateStart = System.nanoTime();
+            RequestValidator.validateConfirmRequest(request);
+            metrics.stage(VALIDATE).recordSince(validateStart);
+            ReservationResponse resResponse = reservationService.confirmHold(request);
+            logger.debug("Hold confirmed: {}", resResponse.getReservationId());
+            sendJsonResponse(resp, HttpServletResponse.SC_OK, reservationResponseWriter, ApiResponse.success(resResponse));
+        } catch (RequestValidationException e) {
+            countValidationFailure(e);
+            sendJsonResponse(resp, HttpServletResponse.SC_BAD_REQUEST, errorResponse, e.getMessage());
+        } catch (HoldNotFoundException e) {
+            sendJsonResponse(resp, HttpServletResponse.SC_NOT_FOUND, errorResponse, e.getMessage());
+        } catch (ShardUnavailableException e) {
+            sendServiceUnavailable(resp, e);
+        } catch (Exception e) {
+            logger.error("Unexpected error handling hold confirmation", e);
+            sendJsonResponse(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, internalErrorResponse);
+        }
+    }
+
+    /**
+     * Handles reservation cancellations by reservation id.
+     *
+     * @param req  The HTTP request object.
+     * @param resp The HTTP response object.
+     * @throws IOException If an input/output error occurs.
+     */
+    private void handleCancelRequest(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        try {
+            String reservationId = req.getParameter(RESERVATION_ID);
+            if (StringUtils.isEmpty(reservationId)) {
+                throw new RequestValidationException("Mandatory parameter reservationId is not specified.");
+            }
+            ReservationResponse resResponse = reservationService.cancelReservation(reservationId);
+            String stringResponse = objectMapper.writeValueAsString(ApiResponse.success(resResponse));
+            if (logger.isDebugEnabled() && payloadSampler.sample()) {
+                logger.debug("Received cancellation response: {}", stringResponse);
+            }
+            sendJsonResponse(resp, HttpServletResponse.SC_OK, stringResponse);
+        } catch (RequestValidationException e) {
+            countValidationFailure(e);
+            sendJsonResponse(resp, HttpServletResponse.SC_BAD_REQUEST, errorResponse, e.getMessage());
+        } catch (ReservationNotFoundException e) {
+            sendJsonResponse(resp, HttpServletResponse.SC_NOT_FOUND, errorResponse, e.getMessage());
+        } catch (ShardUnavailableException e) {
+            sendServiceUnavailable(resp, e);
+        } catch (Exception e) {
+            logger.error("Unexpected error handling reservation cancellation", e);
+            sendJsonResponse(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, internalErrorResponse);
+        }
+    }
+
+    /**
+     * Reads a request body.
+     *
+     * @param <T> Type of the request
+     */
+    @FunctionalInterface
+    private interface RequestBody<T> {
+        T read() throws IOException;
+    }
+
+    /**
+     * A response to send with its HTTP status, either a response object to serialise or a body already encoded.
+     */
+    private record Reply(int status, ApiResponse<ReservationResponse> response, byte[] body) {
+        Reply(ApiResponse<ReservationResponse> response) {
+            this(HttpServletResponse.SC_OK, response, null);
+        }
+
+        Reply(int status, byte[] body) {
+            this(status, null, body);
+        }
+
+        String toJson() {
+            return body != null ? new String(body, StandardCharsets.UTF_8) : ReservationServlet.toJson(response);
         }
     }
 
     /**
      * Handles ticket reservation requests.
-     * Reads the request body, processes the reservation, and sends a response.
+     * The request is parsed straight from the request stream and the response serialised straight into the
+     * response stream. With an Idempotency-Key header, a retried request is answered with the original response
+     * and concurrent duplicates result in a single booking; the body is then read into memory once, to be kept
+     * with the key and parsed from the same bytes.
      *
      * @param req  The HTTP request object.
      * @param resp The HTTP response object.
      * @throws IOException If an input/output error occurs.
      */
     private void handleReservationRequest(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        logger.debug("Starting to proceed reservation request");
+        String idempotencyKey = req.getHeader(IDEMPOTENCY_KEY);
+        if (idempotencyKey == null) {
+            Reply reply = reserve(() -> reservationRequestReader.readValue(req.getInputStream()));
+            if (reply.body() != null) {
+                sendJsonResponse(resp, reply.status(), reply.body());
+            } else {
+                sendJsonResponse(resp, reply.status(), reservationResponseWriter, reply.response());
+            }
+            return;
+        }
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > IDEMPOTENCY_KEY_MAX_LENGTH) {
+            sendJsonResponse(resp, HttpServletResponse.SC_BAD_REQUEST, invalidIdempotencyKeyResponse);
+            return;
+        }
+        // The body is buffered to be replayed, so it is read no further than the limit
+        byte[] body = req.getContentLengthLong() > REQUEST_BODY_MAX_BYTES
+                ? null : req.getInputStream().readNBytes(REQUEST_BODY_MAX_BYTES + 1);
+        if (body == null || body.length > REQUEST_BODY_MAX_BYTES) {
+            metrics.countRejection(VALIDATION);
+            sendJsonResponse(resp, SC_CONTENT_TOO_LARGE, bodyTooLargeResponse);
+            return;
+        }
+        IdempotencyCache.Response response;
         try {
-            logger.info("Starting to proceed reservation request - {}", req);
-            ReservationRequest request = objectMapper.readValue(readRequestBody(req), ReservationRequest.class);
+            response = idempotencyCache.execute(idempotencyKey, body, () -> {
+                Reply reply = reserve(() -> reservationRequestReader.readValue(body));
+                return new IdempotencyCache.Response(reply.status(), reply.toJson());
+            });
+        } catch (IdempotencyKeyReusedException e) {
+            sendJsonResponse(resp, SC_UNPROCESSABLE_ENTITY, errorResponse, e.getMessage());
+            return;
+        }
+        sendJsonResponse(resp, response.status(), response.body());
+    }
 
+    /**
+     * Handles batch reservation requests, a JSON array of reservation requests.
+     * Requests are read one at a time, validated individually and reserved together; the response is a JSON array
+     * with one result per request, in request order, written as it is serialised.
+     *
+     * @param req  The HTTP request object.
+     * @param resp The HTTP response object.
+     * @throws IOException If an input/output error occurs.
+     */
+    private void handleBatchReservationRequest(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        List<ApiResponse<ReservationResponse>> results;
+        try {
+            List<ReservationRequest> requests = new ArrayList<>();
+            try (MappingIterator<ReservationRequest> items = reservationRequestReader.readValues(req.getInputStream())) {
+                while (items.hasNextValue()) {
+                    if (requests.size() == BATCH_MAX_SIZE) {
+                        throw new RequestValidationException("A batch can hold at most " + BATCH_MAX_SIZE + " reservation requests.");
+                    }
+                    requests.add(items.nextValue());
+                }
+            }
+            logger.debug("Starting to proceed batch of {} reservation requests", requests.size());
+
+            results = new ArrayList<>(Collections.nCopies(requests.size(), null));
+            List<ReservationRequest> valid = new ArrayList<>();
+            List<Integer> validIndexes = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                try {
+                    RequestValidator.validateReservationRequest(requests.get(i));
+                    valid.add(requests.get(i));
+                    validIndexes.add(i);
+                } catch (RequestValidationException e) {
+                    countValidationFailure(e);
+                    results.set(i, ApiResponse.error(e.getMessage(), null));
+                }
+            }
+            List<ApiResponse<ReservationResponse>> reserved = reservationService.reserveTickets(valid);
+            for (int i = 0; i < reserved.size(); i++) {
+                results.set(validIndexes.get(i), reserved.get(i));
+            }
+        } catch (RequestValidationException e) {
+            countValidationFailure(e);
+            logger.debug("Error handling batch reservation request: {}", e.getMessage());
+            sendJsonResponse(resp, HttpServletResponse.SC_BAD_REQUEST, errorResponse, e.getMessage());
+            return;
+        } catch (JsonProcessingException e) {
+            metrics.countRejection(VALIDATION);
+            logger.debug("Error parsing batch reservation request: {}", e.getMessage());
+            sendJsonResponse(resp, HttpServletResponse.SC_BAD_REQUEST, invalidBatchResponse);
+            return;
+        } catch (Exception e) {
+            logger.error("Unexpected error handling batch reservation request", e);
+            sendJsonResponse(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, internalErrorResponse);
+            return;
+        }
+
+        resp.setContentType("application/json");
+        resp.setStatus(HttpServletResponse.SC_OK);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(resp.getOutputStream())) {
+            generator.writeStartArray();
+            for (ApiResponse<ReservationResponse> result : results) {
+                generator.writeObject(result);
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    /**
+     * Processes a reservation request into the response to send.
+     *
+     * @param body Reads the request body.
+     * @return The HTTP status and response.
+     */
+    private Reply reserve(RequestBody<ReservationRequest> body) {
+        try {
+            ReservationRequest request = body.read();
+
+            long validateStart = System.nanoTime();
             RequestValidator.validateReservationRequest(request);
+            metrics.stage(VALIDATE).recordSince(validateStart);
             ReservationResponse resResponse = reservationService.reserveTicket(request);
-            ApiResponse<ReservationResponse> response = ApiResponse.success(resResponse);
-            String stringResponse = objectMapper.writeValueAsString(response);
-            logger.info("Received reservation response: {}", stringResponse);
-            sendJsonResponse(resp, HttpServletResponse.SC_OK, stringResponse);
+            logger.debug("Seats reserved: {}", resResponse.getReservationId());
+            return new Reply(ApiResponse.success(resResponse));
         } catch (NotEnoughSeatException e) {
-            ApiResponse<AvailabilityResponse> response = ApiResponse.error(null, e.getMessage());
-            String stringResponse = objectMapper.writeValueAsString(response);
-            logger.info(" Response : {}", stringResponse);
-            sendJsonResponse(resp, HttpServletResponse.SC_OK, stringResponse);
+            logger.debug("Not enough seats: {}", e.getMessage());
+            return new Reply(HttpServletResponse.SC_OK, messageResponse.toBytes(e.getMessage()));
         } catch (RouteNotFoundException | RequestValidationException e) {
-            logger.error("Error handling reservation request: {}", e.getMessage());
-            ApiResponse<AvailabilityResponse> response = ApiResponse.error(e.getMessage(), null);
-            String errorResponse = objectMapper.writeValueAsString(response);
-            sendJsonResponse(resp, HttpServletResponse.SC_BAD_REQUEST, errorResponse);
+            countValidationFailure(e);
+            logger.debug("Error handling reservation request: {}", e.getMessage());
+            return new Reply(HttpServletResponse.SC_BAD_REQUEST, errorResponse.toBytes(e.getMessage()));
+        } catch (ShardUnavailableException e) {
+            logger.warn("Shard unavailable: {}", e.getMessage());
+            return new Reply(HttpServletResponse.SC_SERVICE_UNAVAILABLE, busyResponse.toBytes(null));
         } catch (Exception e) {
             logger.error("Unexpected error handling reservation request", e);
-            ApiResponse<AvailabilityResponse> response = ApiResponse.error("Internal Server Error", null);
-            String errorResponse = objectMapper.writeValueAsString(response);
-            sendJsonResponse(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, errorResponse);
+            return new Reply(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, internalErrorResponse.toBytes(null));
+        }
+    }
+
+    /**
+     * Counts a request rejected by validation. Route and seat rejections are counted by the service.
+     *
+     * @param e Why the request was rejected.
+     */
+    private static void countValidationFailure(RuntimeException e) {
+        if (!(e instanceof RouteNotFoundException)) {
+            metrics.countRejection(VALIDATION);
         }
     }
 
     /**
-     * Reads the request body and returns it as a string.
+     * Writes all metrics in the Prometheus text format.
      *
-     * @param req The HTTP request object.
-     * @return The request body as a string.
+     * @param resp The HTTP response object.
      * @throws IOException If an input/output error occurs.
      */
-    private String readRequestBody(HttpServletRequest req) throws IOException {
-        StringBuilder sb = new StringBuilder();
-        try (BufferedReader reader = req.getReader()) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                sb.append(line);
-            }
+    private void handleMetricsRequest(HttpServletResponse resp) throws IOException {
+        resp.setContentType("text/plain; version=0.0.4; charset=utf-8");
+        resp.setStatus(HttpServletResponse.SC_OK);
+        Writer writer = new OutputStreamWriter(resp.getOutputStream(), StandardCharsets.UTF_8);
+        metrics.writeTo(writer);
+        writer.flush();
+    }
+
+    /**
+     * Serialises a response object to JSON.
+     *
+     * @param value The response object.
+     * @return The JSON string.
+     */
+    private static String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
         }
-        return sb.toString();
+    }
+
+    /**
+     * Turns a request away because the servlet is at its in-flight limit.
+     *
+     * @param resp The HTTP response object.
+     * @throws IOException If an input/output error occurs.
+     */
+    private void sendServiceUnavailable(HttpServletResponse resp) throws IOException {
+        resp.setHeader(RETRY_AFTER, String.valueOf(RETRY_AFTER_SECONDS));
+        sendJsonResponse(resp, HttpServletResponse.SC_SERVICE_UNAVAILABLE, busyResponse);
+    }
+
+    /**
+     * Turns a request away because a shard it needs could not be reached.
+     *
+     * @param resp The HTTP response object.
+     * @param e    Why the shard could not be reached.
+     * @throws IOException If an input/output error occurs.
+     */
+    private void sendServiceUnavailable(HttpServletResponse resp, ShardUnavailableException e) throws IOException {
+        logger.warn("Shard unavailable: {}", e.getMessage());
+        sendServiceUnavailable(resp);
     }
 
     /**
@@ -186,8 +1184,67 @@ public class ReservationServlet extends HttpServlet {
      * @throws IOException If an input/output error occurs.
      */
     private void sendJsonResponse(HttpServletResponse resp, int statusCode, String json) throws IOException {
+        sendJsonResponse(resp, statusCode, json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sends a UTF-8 encoded JSON response to the client.
+     *
+     * @param resp       The HTTP response object.
+     * @param statusCode The HTTP status code.
+     * @param json       The encoded JSON response.
+     * @throws IOException If an input/output error occurs.
+     */
+    private void sendJsonResponse(HttpServletResponse resp, int statusCode, byte[] json) throws IOException {
+        resp.setContentType("application/json");
+        resp.setStatus(statusCode);
+        resp.getOutputStream().write(json);
+    }
+
+    /**
+     * Sends a pre-encoded JSON response to the client.
+     *
+     * @param resp       The HTTP response object.
+     * @param statusCode The HTTP status code.
+     * @param template   The response, without variable fields.
+     * @throws IOException If an input/output error occurs.
+     */
+    private void sendJsonResponse(HttpServletResponse resp, int statusCode, ResponseTemplate template) throws IOException {
+        resp.setContentType("application/json");
+        resp.setStatus(statusCode);
+        template.write(resp.getOutputStream());
+    }
+
+    /**
+     * Sends a pre-encoded JSON response to the client, with a value spliced into its variable field.
+     *
+     * @param resp       The HTTP response object.
+     * @param statusCode The HTTP status code.
+     * @param template   The response.
+     * @param value      The value of the variable field.
+     * @throws IOException If an input/output error occurs.
+     */
+    private void sendJsonResponse(HttpServletResponse resp, int statusCode, ResponseTemplate template, String value) throws IOException {
+        resp.setContentType("application/json");
+        resp.setStatus(statusCode);
+        template.write(resp.getOutputStream(), value);
+    }
+
+    /**
+     * Sends a JSON response to the client, serialised straight into the response stream as UTF-8.
+     *
+     * @param resp       The HTTP response object.
+     * @param statusCode The HTTP status code.
+     * @param writer     Writer bound to the type of the response.
+     * @param response   The response.
+     * @param <T>        Type of the response data.
+     * @throws IOException If an input/output error occurs.
+     */
+    private <T> void sendJsonResponse(HttpServletResponse resp, int statusCode, ObjectWriter writer, ApiResponse<T> response) throws IOException {
         resp.setContentType("application/json");
         resp.setStatus(statusCode);
-        resp.getWriter().write(json);
+        long serializeStart = System.nanoTime();
+        writer.writeValue(resp.getOutputStream(), response);
+        metrics.stage(SERIALIZE).recordSince(serializeStart);
     }
 }
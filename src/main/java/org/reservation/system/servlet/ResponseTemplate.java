@@ -0,0 +1,126 @@
+package org.reservation.system.servlet;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * A JSON response body serialised and encoded to UTF-8 once, at startup. A template has at most one string field
+ * that varies per response; the field's value is escaped and spliced in between the fixed bytes around it, so
+ * sending the response neither builds a response object nor runs the serialiser.
+ */
+final class ResponseTemplate {
+    private static final String PLACEHOLDER = "\u0001";
+
+    private final byte[] prefix;
+    private final byte[] suffix;
+    private final byte[] withoutValue;
+
+    private ResponseTemplate(byte[] prefix, byte[] suffix, byte[] withoutValue) {
+        this.prefix = prefix;
+        this.suffix = suffix;
+        this.withoutValue = withoutValue;
+    }
+
+    /**
+     * Pre-serialises a response without variable fields.
+     *
+     * @param objectMapper Serialises the response
+     * @param response     The response
+     * @return The template
+     */
+    static ResponseTemplate constant(ObjectMapper objectMapper, Object response) {
+        byte[] body = serialise(objectMapper, response);
+        return new ResponseTemplate(body, new byte[0], body);
+    }
+
+    /**
+     * Pre-serialises a response with one variable string field.
+     *
+     * @param objectMapper Serialises the response
+     * @param response     Builds the response for a value of the variable field; called with a placeholder, and
+     *                     with null for responses whose value is missing
+     * @return The template
+     * @throws IllegalArgumentException if the value does not appear exactly once in the response as a string
+     */
+    static ResponseTemplate of(ObjectMapper objectMapper, Function<String, ?> response) {
+        byte[] body = serialise(objectMapper, response.apply(PLACEHOLDER));
+        byte[] placeholder = ("\"" + new String(JsonStringEncoder.getInstance().quoteAsString(PLACEHOLDER)) + "\"")
+                .getBytes(StandardCharsets.UTF_8);
+        int at = indexOf(body, placeholder, 0);
+        if (at < 0 || indexOf(body, placeholder, at + 1) >= 0) {
+            throw new IllegalArgumentException("The response must contain the variable field once: " + new String(body, StandardCharsets.UTF_8));
+        }
+        // Keep the quotes around the value in the fixed parts
+        byte[] prefix = Arrays.copyOfRange(body, 0, at + 1);
+        byte[] suffix = Arrays.copyOfRange(body, at + placeholder.length - 1, body.length);
+        return new ResponseTemplate(prefix, suffix, serialise(objectMapper, response.apply(null)));
+    }
+
+    /**
+     * Writes the response of a template without variable fields.
+     *
+     * @param out The response stream
+     * @throws IOException If an input/output error occurs.
+     */
+    void write(OutputStream out) throws IOException {
+        out.write(withoutValue);
+    }
+
+    /**
+     * Writes the response with a value in its variable field.
+     *
+     * @param out   The response stream
+     * @param value The value, or null to leave the field out as the serialiser would
+     * @throws IOException If an input/output error occurs.
+     */
+    void write(OutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.write(withoutValue);
+            return;
+        }
+        out.write(prefix);
+        out.write(JsonStringEncoder.getInstance().quoteAsUTF8(value));
+        out.write(suffix);
+    }
+
+    /**
+     * Returns the response with a value in its variable field.
+     *
+     * @param value The value, or null to leave the field out as the serialiser would
+     * @return The UTF-8 encoded response
+     */
+    byte[] toBytes(String value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(prefix.length + suffix.length + (value == null ? 0 : value.length() + 16));
+        try {
+            write(out, value);
+        } catch (IOException e) {
+            throw new IllegalStateException("In-memory write failed", e);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] serialise(ObjectMapper objectMapper, Object response) {
+        try {
+            return objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Response template could not be serialised", e);
+        }
+    }
+
+    private static int indexOf(byte[] bytes, byte[] part, int from) {
+        for (int i = from; i <= bytes.length - part.length; i++) {
+            if (Arrays.equals(bytes, i, i + part.length, part, 0, part.length)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,112 @@
+package org.reservation.system.servlet;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.reservation.system.event.SeatEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes seat events to a subscriber in the Server-Sent Events format. Each event carries an id of the form
+ * {@code <epoch>-<sequence>}, so a subscriber that reconnects with the id of the last event it received, as an
+ * {@code EventSource} does, resumes right after it on the same ring. A {@code reset} event tells the subscriber
+ * that events were lost, because it fell too far behind or the server restarted since, and that it should read the
+ * current availability again; events follow from the current sequence on.
+ * <p>
+ * Frames are collected in a buffer and sent together on {@link #flush()}.
+ */
+final class SeatEventStream {
+    /** Sequence returned by {@link #resumeFrom(String, long)} when the subscriber cannot resume. */
+    static final long CANNOT_RESUME = -1;
+
+    private static final byte[] HEARTBEAT = ": keep-alive\n\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] RESET = "event: reset\ndata: ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FRAME_END = "\n\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final OutputStream out;
+    private final long epoch;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final JsonGenerator generator;
+
+    /**
+     * @param out         Output of the response
+     * @param jsonFactory Creates the generator writing event data
+     * @param epoch       Epoch of the ring the events are read from
+     */
+    SeatEventStream(OutputStream out, JsonFactory jsonFactory, long epoch) throws IOException {
+        this.out = out;
+        this.epoch = epoch;
+        this.generator = jsonFactory.createGenerator(buffer);
+        generator.setRootValueSeparator(null);
+    }
+
+    /**
+     * Returns the sequence to resume from after the event a subscriber last received.
+     *
+     * @param lastEventId Id of the last event received
+     * @param epoch       Epoch of the ring
+     * @return Sequence of the next event, or {@link #CANNOT_RESUME} if the id is not of an event of the ring
+     */
+    static long resumeFrom(String lastEventId, long epoch) {
+        int dash = lastEventId == null ? -1 : lastEventId.indexOf('-');
+        if (dash < 0) {
+            return CANNOT_RESUME;
+        }
+        try {
+            long sequence = Long.parseLong(lastEventId, dash + 1, lastEventId.length(), 10);
+            return Long.parseLong(lastEventId, 0, dash, 10) == epoch && sequence >= 0 ? sequence + 1 : CANNOT_RESUME;
+        } catch (NumberFormatException e) {
+            return CANNOT_RESUME;
+        }
+    }
+
+    void writeEvent(SeatEvent event) throws IOException {
+        buffer.write(("id: " + epoch + "-" + event.sequence() + "\nevent: " + event.type() + "\ndata: ")
+                .getBytes(StandardCharsets.US_ASCII));
+        generator.writeStartObject();
+        generator.writeNumberField("sequence", event.sequence());
+        generator.writeStringField("type", event.type().name());
+        generator.writeStringField("bookingId", event.bookingId());
+        generator.writeStringField("busId", event.busId());
+        generator.writeStringField("travelDate", event.travelDate().toString());
+        generator.writeBooleanField("returnTrip", event.returnTrip());
+        generator.writeStringField("origin", event.origin());
+        generator.writeStringField("destination", event.destination());
+        generator.writeArrayFieldStart("seatNumbers");
+        for (String seatNumber : event.seatNumbers()) {
+            generator.writeString(seatNumber);
+        }
+        generator.writeEndArray();
+        generator.writeNumberField("timestampMillis", event.timestampMillis());
+        generator.writeEndObject();
+        generator.flush();
+        buffer.write(FRAME_END);
+    }
+
+    /**
+     * Writes a reset event.
+     *
+     * @param nextSequence Sequence of the next event sent
+     */
+    void writeReset(long nextSequence) throws IOException {
+        buffer.write(RESET);
+        buffer.write(("{\"sequence\":" + nextSequence + "}").getBytes(StandardCharsets.US_ASCII));
+        buffer.write(FRAME_END);
+    }
+
+    /**
+     * Writes a comment, which keeps the connection open through proxies and reveals a subscriber that went away.
+     */
+    void writeHeartbeat() throws IOException {
+        buffer.write(HEARTBEAT);
+    }
+
+    void flush() throws IOException {
+        buffer.writeTo(out);
+        buffer.reset();
+        out.flush();
+    }
+}
@@ -0,0 +1,124 @@
+package org.reservation.system.shard;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Consistent-hash ring assigning keys to nodes.
+ * Every node is placed on the ring at many points, and a key belongs to the node at the first point at or after
+ * the key's hash. Adding or removing a node therefore moves only the keys next to its points, about one in
+ * {@code nodes} of them, and leaves every other key where it was. A ring is immutable; adding or removing a node
+ * builds a new ring. Looking up a key is a binary search over sorted arrays and allocates nothing.
+ */
+public final class HashRing {
+    private static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    private final Set<String> nodes;
+    private final int virtualNodes;
+    private final long[] points;
+    private final String[] owners;
+
+    /**
+     * @param nodes Names of the nodes
+     */
+    public HashRing(Collection<String> nodes) {
+        this(nodes, DEFAULT_VIRTUAL_NODES);
+    }
+
+    /**
+     * @param nodes        Names of the nodes
+     * @param virtualNodes Number of points each node is placed at; more points spread keys more evenly
+     */
+    public HashRing(Collection<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("A hash ring needs at least one node");
+        }
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("Virtual node count must be greater than zero. Provided: " + virtualNodes);
+        }
+        this.nodes = Collections.unmodifiableSet(new TreeSet<>(nodes));
+        this.virtualNodes = virtualNodes;
+        record Point(long hash, String node) {
+        }
+        Point[] ring = new Point[this.nodes.size() * virtualNodes];
+        int i = 0;
+        for (String node : this.nodes) {
+            for (int v = 0; v < virtualNodes; v++) {
+                ring[i++] = new Point(hash(node + "#" + v), node);
+            }
+        }
+        // Ties are broken by node name, so every process builds the same ring from the same nodes
+        Arrays.sort(ring, (a, b) -> a.hash() != b.hash() ? Long.compare(a.hash(), b.hash()) : a.node().compareTo(b.node()));
+        this.points = new long[ring.length];
+        this.owners = new String[ring.length];
+        for (int p = 0; p < ring.length; p++) {
+            points[p] = ring[p].hash();
+            owners[p] = ring[p].node();
+        }
+    }
+
+    /**
+     * Returns the node a key belongs to.
+     *
+     * @param key The key
+     * @return Name of the owning node
+     */
+    public String nodeFor(String key) {
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    /**
+     * Returns a ring with one more node.
+     *
+     * @param node Name of the node to add
+     * @return The new ring
+     */
+    public HashRing withNode(String node) {
+        Set<String> grown = new TreeSet<>(nodes);
+        if (!grown.add(node)) {
+            throw new IllegalArgumentException("Node " + node + " is already on the ring");
+        }
+        return new HashRing(grown, virtualNodes);
+    }
+
+    /**
+     * Returns a ring without a node.
+     *
+     * @param node Name of the node to remove
+     * @return The new ring
+     */
+    public HashRing withoutNode(String node) {
+        Set<String> shrunk = new TreeSet<>(nodes);
+        if (!shrunk.remove(node)) {
+            throw new IllegalArgumentException("Node " + node + " is not on the ring");
+        }
+        return new HashRing(shrunk, virtualNodes);
+    }
+
+    public Set<String> getNodes() { return nodes; }
+
+    /**
+     * 64-bit FNV-1a over the characters of a string, finished with the MurmurHash3 mix so that keys differing
+     * only in their last characters still land far apart on the ring.
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,80 @@
+package org.reservation.system.shard;
+
+import org.reservation.system.model.Bus;
+import org.reservation.system.model.Fleet;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Partitions the buses of a fleet into route groups, the unit the inventory is sharded by together with the date.
+ * Two buses that serve a common pair of stops compete for the same bookings, so they are in the same group, and so
+ * are buses linked through a chain of such buses. All the trips a booking could be placed on are then in one group,
+ * and one shard owns them all.
+ * <p>
+ * A group is named after the first of its buses in fleet order.
+ */
+final class RouteGroups {
+    // [origin][destination] -> group
+    private final Map<String, Map<String, String>> groups;
+
+    RouteGroups(Fleet fleet) {
+        List<Bus> buses = fleet.getBuses();
+        int[] parent = new int[buses.size()];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+        for (int i = 0; i < buses.size(); i++) {
+            for (int j = i + 1; j < buses.size(); j++) {
+                if (sharedStops(buses.get(i), buses.get(j)) >= 2) {
+                    int rootI = find(parent, i);
+                    int rootJ = find(parent, j);
+                    parent[Math.max(rootI, rootJ)] = Math.min(rootI, rootJ);
+                }
+            }
+        }
+        Map<String, Map<String, String>> byStops = new HashMap<>();
+        for (int i = 0; i < buses.size(); i++) {
+            String group = buses.get(find(parent, i)).getBusId();
+            String[] stops = buses.get(i).getBusStops();
+            for (String origin : stops) {
+                for (String destination : stops) {
+                    if (!origin.equals(destination)) {
+                        byStops.computeIfAbsent(origin, k -> new HashMap<>()).put(destination, group);
+                    }
+                }
+            }
+        }
+        this.groups = byStops;
+    }
+
+    /**
+     * Returns the route group serving a pair of stops.
+     *
+     * @param origin      Origin location
+     * @param destination Destination location
+     * @return Name of the group, or null if no bus serves the stops
+     */
+    String groupOf(String origin, String destination) {
+        Map<String, String> fromOrigin = origin == null ? null : groups.get(origin);
+        return fromOrigin == null || destination == null ? null : fromOrigin.get(destination);
+    }
+
+    private static int sharedStops(Bus a, Bus b) {
+        int shared = 0;
+        for (String stop : a.getBusStops()) {
+            if (b.getStopId(stop) >= 0) {
+                shared++;
+            }
+        }
+        return shared;
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            i = parent[i];
+        }
+        return i;
+    }
+}
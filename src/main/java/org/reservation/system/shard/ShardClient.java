@@ -0,0 +1,212 @@
+package org.reservation.system.shard;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import org.reservation.system.exception.ShardUnavailableException;
+import org.reservation.system.model.request.AvailabilityRequest;
+import org.reservation.system.model.request.ConfirmRequest;
+import org.reservation.system.model.request.ReservationRequest;
+import org.reservation.system.model.response.ApiResponse;
+import org.reservation.system.model.response.AvailabilityCalendarResponse;
+import org.reservation.system.model.response.AvailabilityResponse;
+import org.reservation.system.model.response.HoldResponse;
+import org.reservation.system.model.response.ReservationResponse;
+import org.reservation.system.service.ReservationService;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+
+import static org.reservation.system.shard.ShardProtocol.objectMapper;
+
+/**
+ * A reservation service running on another node, reached over TCP in the {@link ShardProtocol} format.
+ * Connections are opened as needed up to a limit and kept for reuse; a call waits for a free connection once
+ * the limit is reached. Exceptions of the remote service are rethrown as the same type. A call that fails on
+ * the connection throws {@link ShardUnavailableException} and is not retried, since it may have taken effect.
+ */
+public class ShardClient implements ReservationService, Closeable {
+    private static final JavaType reservationResults =
+            objectMapper.getTypeFactory().constructType(new TypeReference<List<ApiResponse<ReservationResponse>>>() {});
+
+    private final InetSocketAddress address;
+    private final int timeoutMillis;
+    private final Semaphore connectionPermits;
+    private final ConcurrentLinkedQueue<Connection> idleConnections = new ConcurrentLinkedQueue<>();
+    private volatile boolean closed;
+
+    private record Connection(Socket socket, DataInputStream in, DataOutputStream out) {
+    }
+
+    /**
+     * @param address        Address of the shard server
+     * @param maxConnections Most connections open at once
+     * @param timeoutMillis  How long to wait for a response
+     */
+    public ShardClient(InetSocketAddress address, int maxConnections, int timeoutMillis) {
+        this.address = address;
+        this.timeoutMillis = timeoutMillis;
+        this.connectionPermits = new Semaphore(maxConnections);
+    }
+
+    @Override
+    public AvailabilityResponse checkAvailability(AvailabilityRequest request) {
+        return call(ShardProtocol.Operation.CHECK_AVAILABILITY, json(request), type(AvailabilityResponse.class));
+    }
+
+    @Override
+    public AvailabilityCalendarResponse checkAvailabilityCalendar(String origin, String destination, int passengerCount,
+                                                                  LocalDate firstDate, int days) {
+        ShardProtocol.CalendarQuery query =
+                new ShardProtocol.CalendarQuery(origin, destination, passengerCount, firstDate.toString(), days);
+        return call(ShardProtocol.Operation.AVAILABILITY_CALENDAR, json(query), type(AvailabilityCalendarResponse.class));
+    }
+
+    @Override
+    public ReservationResponse reserveTicket(ReservationRequest request) {
+        return call(ShardProtocol.Operation.RESERVE, json(request), type(ReservationResponse.class));
+    }
+
+    @Override
+    public List<ApiResponse<ReservationResponse>> reserveTickets(List<ReservationRequest> requests) {
+        return call(ShardProtocol.Operation.RESERVE_BATCH, json(requests), reservationResults);
+    }
+
+    @Override
+    public ReservationResponse getReservation(String reservationId) {
+        return call(ShardProtocol.Operation.GET_RESERVATION, reservationId.getBytes(StandardCharsets.UTF_8),
+                type(ReservationResponse.class));
+    }
+
+    @Override
+    public ReservationResponse cancelReservation(String reservationId) {
+        return call(ShardProtocol.Operation.CANCEL, reservationId.getBytes(StandardCharsets.UTF_8),
+                type(ReservationResponse.class));
+    }
+
+    @Override
+    public HoldResponse holdSeats(AvailabilityRequest request) {
+        return call(ShardProtocol.Operation.HOLD, json(request), type(HoldResponse.class));
+    }
+
+    @Override
+    public ReservationResponse confirmHold(ConfirmRequest request) {
+        return call(ShardProtocol.Operation.CONFIRM, json(request), type(ReservationResponse.class));
+    }
+
+    /**
+     * Opens a connection of its own, outside the limit, and subscribes it to the stream the shard publishes.
+     * Reading the stream times out like a call does if the shard writes nothing for that long.
+     *
+     * @param request Payload of the subscription request
+     * @return Input of the stream; closing it closes the connection
+     * @throws IOException If the connection could not be opened
+     */
+    public DataInputStream subscribe(byte[] request) throws IOException {
+        Connection connection = connect();
+        try {
+            ShardProtocol.writeFrame(connection.out(), ShardProtocol.Operation.SUBSCRIBE.ordinal(), request);
+        } catch (IOException e) {
+            closeQuietly(connection);
+            throw e;
+        }
+        return connection.in();
+    }
+
+    /**
+     * Closes the idle connections; connections in use are closed as their calls return.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Connection connection; (connection = idleConnections.poll()) != null; ) {
+            closeQuietly(connection);
+        }
+    }
+
+    private <T> T call(ShardProtocol.Operation operation, byte[] request, JavaType resultType) {
+        try {
+            connectionPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ShardUnavailableException("Interrupted waiting for a connection to shard " + address, e);
+        }
+        Connection connection = null;
+        try {
+            connection = idleConnections.poll();
+            if (connection == null) {
+                connection = connect();
+            }
+            ShardProtocol.writeFrame(connection.out(), operation.ordinal(), request);
+            ShardProtocol.Frame response = ShardProtocol.readFrame(connection.in());
+            release(connection);
+            connection = null;
+            if (response.tag() == ShardProtocol.OK) {
+                return objectMapper.readValue(response.payload(), resultType);
+            }
+            String message = objectMapper.readValue(response.payload(), String.class);
+            ShardProtocol.Failure[] failures = ShardProtocol.Failure.values();
+            int failure = response.tag() - 1;
+            throw (failure < failures.length ? failures[failure] : ShardProtocol.Failure.INTERNAL).toException(message);
+        } catch (IOException e) {
+            throw new ShardUnavailableException("Call to shard " + address + " failed", e);
+        } finally {
+            if (connection != null) {
+                closeQuietly(connection);
+            }
+            connectionPermits.release();
+        }
+    }
+
+    private Connection connect() throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(address, timeoutMillis);
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(timeoutMillis);
+            return new Connection(socket,
+                    new DataInputStream(new BufferedInputStream(socket.getInputStream())),
+                    new DataOutputStream(new BufferedOutputStream(socket.getOutputStream())));
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    private void release(Connection connection) {
+        idleConnections.add(connection);
+        if (closed && idleConnections.remove(connection)) {
+            closeQuietly(connection);
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.socket().close();
+        } catch (IOException e) {
+            // Nothing left to release
+        }
+    }
+
+    private static byte[] json(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Request could not be serialised", e);
+        }
+    }
+
+    private static JavaType type(Class<?> type) {
+        return objectMapper.getTypeFactory().constructType(type);
+    }
+}
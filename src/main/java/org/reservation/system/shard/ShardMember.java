@@ -0,0 +1,81 @@
+package org.reservation.system.shard;
+
+import java.net.InetSocketAddress;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A shard as configured for a router: its name, its address, and the travel dates it owns partitions of.
+ * A shard that was a member from the start has no join date; a shard that left has a leave date.
+ *
+ * @param name       Name of the shard
+ * @param address    Address the shard is served on
+ * @param joinsFrom  First travel date placed on the shard, or null if it was a member from the start
+ * @param leavesFrom First travel date no longer placed on the shard, or null if it stays
+ */
+public record ShardMember(String name, InetSocketAddress address, LocalDate joinsFrom, LocalDate leavesFrom) {
+
+    /**
+     * Parses comma-separated shards, each as {@code name=host:port}, optionally followed by the dates it joined and
+     * left the ring: {@code @joinsFrom}, {@code @..leavesFrom} or {@code @joinsFrom..leavesFrom}, as ISO dates.
+     *
+     * @param shards The shards
+     * @return The shards in the order given
+     * @throws IllegalArgumentException if a shard is malformed or named twice
+     */
+    public static List<ShardMember> parseAll(String shards) {
+        List<ShardMember> members = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (String shard : shards.split(",")) {
+            ShardMember member = parse(shard.trim());
+            if (!names.add(member.name())) {
+                throw new IllegalArgumentException("Shard " + member.name() + " is configured twice");
+            }
+            members.add(member);
+        }
+        return members;
+    }
+
+    private static ShardMember parse(String shard) {
+        String[] nameAndAddress = shard.split("=", 2);
+        String address = nameAndAddress.length == 2 ? nameAndAddress[1] : "";
+        LocalDate joinsFrom = null;
+        LocalDate leavesFrom = null;
+        int at = address.indexOf('@');
+        if (at >= 0) {
+            String[] dates = address.substring(at + 1).split("\\.\\.", -1);
+            try {
+                joinsFrom = dates[0].isEmpty() ? null : LocalDate.parse(dates[0]);
+                leavesFrom = dates.length == 2 && !dates[1].isEmpty() ? LocalDate.parse(dates[1]) : null;
+            } catch (DateTimeParseException e) {
+                throw invalid(shard);
+            }
+            if (dates.length > 2 || joinsFrom == null && leavesFrom == null) {
+                throw invalid(shard);
+            }
+            if (joinsFrom != null && leavesFrom != null && !leavesFrom.isAfter(joinsFrom)) {
+                throw new IllegalArgumentException("Shard " + shard + " must leave after it joins");
+            }
+            address = address.substring(0, at);
+        }
+        int colon = address.lastIndexOf(':');
+        if (nameAndAddress[0].isEmpty() || colon < 0) {
+            throw invalid(shard);
+        }
+        int port;
+        try {
+            port = Integer.parseInt(address.substring(colon + 1));
+        } catch (NumberFormatException e) {
+            throw invalid(shard);
+        }
+        return new ShardMember(nameAndAddress[0], new InetSocketAddress(address.substring(0, colon), port), joinsFrom, leavesFrom);
+    }
+
+    private static IllegalArgumentException invalid(String shard) {
+        return new IllegalArgumentException("Invalid shard " + shard + ", expected name=host:port[@joinsFrom][..leavesFrom]");
+    }
+}
@@ -0,0 +1,94 @@
+package org.reservation.system.shard;
+
+import org.reservation.system.model.Bus;
+import org.reservation.system.model.Fleet;
+import org.reservation.system.persistence.ArchiveDirectory;
+import org.reservation.system.persistence.ReservationLog;
+import org.reservation.system.persistence.WriteAheadLog;
+import org.reservation.system.replication.ReplicationLog;
+import org.reservation.system.replication.ReplicationPublisher;
+import org.reservation.system.service.BusReservationService;
+import org.reservation.system.service.ServiceMaintenance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.reservation.system.Constant.DefaultConfig.HOLD_TTL_SECONDS;
+import static org.reservation.system.Constant.DefaultConfig.LOCK_STRIPES;
+import static org.reservation.system.Constant.DefaultConfig.REPLICATION_BACKLOG_RECORDS;
+import static org.reservation.system.Constant.DefaultConfig.WAL_COMMIT_WINDOW_MILLIS;
+import static org.reservation.system.Constant.SystemProperty.HOLD_TTL;
+import static org.reservation.system.Constant.SystemProperty.WAL_COMMIT_WINDOW;
+
+/**
+ * Runs a shard: a reservation service of its own, served to shard routers over TCP.
+ * <p>
+ * Usage: {@code ShardNode <[host:]port> [dataDir]}. The shard listens on the interface of the given host, which the
+ * routers must be able to reach, or on the loopback interface only when just a port is given. With a data directory
+ * the shard keeps a reservation log, snapshots and an archive there, like a standalone servlet does; without one its
+ * reservations are kept in memory only.
+ * The shard publishes its changes on the same port, so read replicas can follow it. It publishes no seat events, so
+ * a sharded deployment has no event stream.
+ */
+public final class ShardNode {
+    private static final Logger logger = LoggerFactory.getLogger(ShardNode.class);
+
+    private ShardNode() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: ShardNode <[host:]port> [dataDir]");
+            System.exit(2);
+        }
+        InetSocketAddress address = listenAddress(args[0]);
+        Path dataDir = args.length == 2 ? Path.of(args[1]) : null;
+
+        BusReservationService.Builder builder = new BusReservationService.Builder(Fleet.of(new Bus()))
+                .lockStripes(LOCK_STRIPES)
+                .holdTtl(Duration.ofSeconds(Long.getLong(HOLD_TTL, HOLD_TTL_SECONDS)));
+        ReservationLog reservationLog = ReservationLog.NONE;
+        if (dataDir != null) {
+            reservationLog = WriteAheadLog.open(dataDir.resolve("reservations.wal"),
+                    Duration.ofMillis(Long.getLong(WAL_COMMIT_WINDOW, WAL_COMMIT_WINDOW_MILLIS)));
+            builder.snapshotFile(dataDir.resolve("inventory.snapshot"))
+                    .reservationArchive(new ArchiveDirectory(dataDir.resolve("archive")));
+        }
+        ReplicationLog replicationLog = new ReplicationLog(reservationLog, REPLICATION_BACKLOG_RECORDS);
+        BusReservationService service = builder.reservationLog(replicationLog).build();
+        // Not a daemon thread, so the shard keeps running after main returns
+        ScheduledExecutorService scheduler = ServiceMaintenance.schedule(service, dataDir != null,
+                Thread.ofPlatform().name("shard-maintenance").factory());
+        ShardServer server = ShardServer.start(service, new ReplicationPublisher(replicationLog, service), address);
+
+        ReservationLog log = reservationLog;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+                scheduler.shutdown();
+                if (log instanceof WriteAheadLog wal) {
+                    wal.close();
+                }
+            } catch (IOException e) {
+                logger.error("Failed to shut the shard down cleanly", e);
+            }
+        }, "shard-shutdown"));
+    }
+
+    /**
+     * Parses the address to listen on, given as host:port, or as a port alone for the loopback interface.
+     */
+    private static InetSocketAddress listenAddress(String hostAndPort) {
+        int colon = hostAndPort.lastIndexOf(':');
+        if (colon < 0) {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(hostAndPort));
+        }
+        return new InetSocketAddress(hostAndPort.substring(0, colon), Integer.parseInt(hostAndPort.substring(colon + 1)));
+    }
+}
@@ -0,0 +1,112 @@
+package org.reservation.system.shard;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.reservation.system.exception.HoldNotFoundException;
+import org.reservation.system.exception.NotEnoughSeatException;
+import org.reservation.system.exception.PersistenceException;
+import org.reservation.system.exception.RequestValidationException;
+import org.reservation.system.exception.ReservationNotFoundException;
+import org.reservation.system.exception.RouteNotFoundException;
+import org.reservation.system.exception.ShardUnavailableException;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.function.Function;
+
+/**
+ * Wire format between a shard router and its shards.
+ * A request is a frame tagged with its {@link Operation}, a response a frame tagged with 0 for a result or with
+ * 1 + the ordinal of its {@link Failure}. A frame is the payload length as a four byte integer, the one byte tag
+ * and the payload: the request or result object as JSON, the UTF-8 id for lookups by id, or the failure message
+ * as a JSON string.
+ * Requests on one connection are answered in order, one at a time.
+ * A {@link Operation#SUBSCRIBE} request instead turns its connection into a stream the shard writes to until
+ * either side closes it, in a format of the stream's own.
+ */
+final class ShardProtocol {
+    static final int OK = 0;
+    static final int MAX_PAYLOAD_BYTES = 16 << 20;
+    static final ObjectMapper objectMapper = new ObjectMapper();
+
+    enum Operation {
+        CHECK_AVAILABILITY,
+        AVAILABILITY_CALENDAR,
+        RESERVE,
+        RESERVE_BATCH,
+        GET_RESERVATION,
+        CANCEL,
+        HOLD,
+        CONFIRM,
+        SUBSCRIBE
+    }
+
+    /**
+     * Exceptions a shard reports to the router, which rethrows them as the same type.
+     */
+    enum Failure {
+        NOT_ENOUGH_SEATS(NotEnoughSeatException.class, NotEnoughSeatException::new),
+        ROUTE_NOT_FOUND(RouteNotFoundException.class, RouteNotFoundException::new),
+        RESERVATION_NOT_FOUND(ReservationNotFoundException.class, ReservationNotFoundException::new),
+        HOLD_NOT_FOUND(HoldNotFoundException.class, HoldNotFoundException::new),
+        VALIDATION(RequestValidationException.class, RequestValidationException::new),
+        PERSISTENCE(PersistenceException.class, PersistenceException::new),
+        INTERNAL(RuntimeException.class, message -> new ShardUnavailableException("Shard failed: " + message));
+
+        private final Class<? extends RuntimeException> type;
+        private final Function<String, RuntimeException> factory;
+
+        Failure(Class<? extends RuntimeException> type, Function<String, RuntimeException> factory) {
+            this.type = type;
+            this.factory = factory;
+        }
+
+        static Failure of(RuntimeException e) {
+            for (Failure failure : values()) {
+                if (failure.type.isInstance(e)) {
+                    return failure;
+                }
+            }
+            return INTERNAL;
+        }
+
+        RuntimeException toException(String message) {
+            return factory.apply(message);
+        }
+    }
+
+    /**
+     * Query of an availability calendar.
+     */
+    record CalendarQuery(String origin, String destination, int passengerCount, String firstDate, int days) {
+    }
+
+    record Frame(int tag, byte[] payload) {
+    }
+
+    private ShardProtocol() {
+    }
+
+    static void writeFrame(DataOutputStream out, int tag, byte[] payload) throws IOException {
+        out.writeInt(payload.length);
+        out.writeByte(tag);
+        out.write(payload);
+        out.flush();
+    }
+
+    /**
+     * Reads a frame.
+     *
+     * @throws java.io.EOFException if the connection was closed before the frame
+     */
+    static Frame readFrame(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_PAYLOAD_BYTES) {
+            throw new IOException("Invalid frame length " + length);
+        }
+        int tag = in.readUnsignedByte();
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        return new Frame(tag, payload);
+    }
+}
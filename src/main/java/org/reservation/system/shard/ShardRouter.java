@@ -0,0 +1,478 @@
+package org.reservation.system.shard;
+
+import org.reservation.system.exception.HoldNotFoundException;
+import org.reservation.system.exception.RequestValidationException;
+import org.reservation.system.exception.ReservationNotFoundException;
+import org.reservation.system.exception.RouteNotFoundException;
+import org.reservation.system.model.Fleet;
+import org.reservation.system.model.request.AvailabilityRequest;
+import org.reservation.system.model.request.ConfirmRequest;
+import org.reservation.system.model.request.ReservationRequest;
+import org.reservation.system.model.response.ApiResponse;
+import org.reservation.system.model.response.AvailabilityCalendarResponse;
+import org.reservation.system.model.response.AvailabilityResponse;
+import org.reservation.system.model.response.CalendarDay;
+import org.reservation.system.model.response.HoldResponse;
+import org.reservation.system.model.response.ReservationResponse;
+import org.reservation.system.service.ReservationService;
+import org.reservation.system.util.DateUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static org.reservation.system.Constant.DefaultConfig.MAX_RESERVATION_DAYS;
+
+/**
+ * Reservation service that spreads the seat inventory over shards, each a reservation service of its own,
+ * usually on another node. The inventory is partitioned by route group and travel date, and a consistent-hash
+ * ring over the shard names assigns each partition to a shard. A request for a route and date is forwarded to
+ * the shard owning its partition. Reservation and hold ids handed out by the router are the shard's own id
+ * prefixed with the shard name and a colon, so a request by id goes straight to the shard that issued it.
+ * <p>
+ * Shards join and leave from a date on: partitions of earlier dates stay where they are, and partitions from
+ * that date on are placed on the new ring. Since no booking can be made for a date beyond the booking window,
+ * a change that takes effect after the window moves no booked seats, and no state has to be handed over.
+ * A shard that leaves keeps serving the dates it owned until they depart.
+ * <p>
+ * A router opened with a placement file keeps the placements there, and refuses to start on a configuration that
+ * places a date of the booking window on other shards than before. The booking window is measured from the date of
+ * the router's clock.
+ */
+public class ShardRouter implements ReservationService, Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(ShardRouter.class);
+    private static final char ID_SEPARATOR = ':';
+
+    /**
+     * Placement of partitions for travel dates from a date on.
+     */
+    private record Placement(LocalDate effectiveFrom, HashRing ring) {
+    }
+
+    private final RouteGroups routeGroups;
+    private final Map<String, ReservationService> shards = new ConcurrentHashMap<>();
+    private final Path placementFile;
+    private final Clock clock;
+    // Newest first
+    private volatile List<Placement> placements;
+
+    /**
+     * @param fleet  Fleet whose inventory is sharded, the same on every shard
+     * @param shards Shards by name
+     */
+    public ShardRouter(Fleet fleet, Map<String, ? extends ReservationService> shards) {
+        this(fleet, shards, Clock.systemDefaultZone());
+    }
+
+    /**
+     * @param fleet  Fleet whose inventory is sharded, the same on every shard
+     * @param shards Shards by name
+     * @param clock  Clock whose date the booking window starts from
+     */
+    public ShardRouter(Fleet fleet, Map<String, ? extends ReservationService> shards, Clock clock) {
+        this(fleet, shards, clock, null);
+    }
+
+    private ShardRouter(Fleet fleet, Map<String, ? extends ReservationService> shards, Clock clock, Path placementFile) {
+        this.routeGroups = new RouteGroups(fleet);
+        this.shards.putAll(shards);
+        this.clock = clock;
+        this.placementFile = placementFile;
+        this.placements = List.of(new Placement(LocalDate.MIN, new HashRing(shards.keySet())));
+    }
+
+    /**
+     * Opens a router over shards that joined and left over time. The placements are rebuilt from the members'
+     * dates in date order, as if each shard had been added and removed on the way. With a placement file, the
+     * rebuilt placements are checked against the ones kept there, and then kept in their place.
+     *
+     * @param fleet         Fleet whose inventory is sharded, the same on every shard
+     * @param members       The shards, at least one of them a member from the start
+     * @param connect       Connects to a shard at its address
+     * @param placementFile File the placements are kept in, or null to trust the members' dates as given
+     * @param clock         Clock whose date the booking window starts from
+     * @return The router
+     * @throws IllegalArgumentException if the members place a date of the booking window on other shards than the
+     *                                  placement file does
+     */
+    public static ShardRouter open(Fleet fleet, List<ShardMember> members,
+                                   Function<InetSocketAddress, ? extends ReservationService> connect, Path placementFile,
+                                   Clock clock) {
+        record Change(LocalDate effectiveFrom, ShardMember member, boolean joins) {
+        }
+        Map<String, ReservationService> initial = new LinkedHashMap<>();
+        List<Change> changes = new ArrayList<>();
+        for (ShardMember member : members) {
+            if (member.joinsFrom() == null) {
+                initial.put(member.name(), connect.apply(member.address()));
+            } else {
+                changes.add(new Change(member.joinsFrom(), member, true));
+            }
+            if (member.leavesFrom() != null) {
+                changes.add(new Change(member.leavesFrom(), member, false));
+            }
+        }
+        if (initial.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard must be a member from the start");
+        }
+        ShardRouter router = new ShardRouter(fleet, initial, clock, placementFile);
+        // Joins before leaves on the same date, so the ring never runs empty
+        changes.sort(Comparator.comparing(Change::effectiveFrom).thenComparing(Change::joins, Comparator.reverseOrder()));
+        for (Change change : changes) {
+            if (change.joins()) {
+                router.join(change.member().name(), connect.apply(change.member().address()), change.effectiveFrom());
+            } else {
+                router.leave(change.member().name(), change.effectiveFrom());
+            }
+        }
+        if (placementFile != null) {
+            router.checkKeptPlacements();
+            router.keepPlacements();
+        }
+        logger.info("Routing reservations to shards {}", router.placements.getFirst().ring().getNodes());
+        return router;
+    }
+
+    /**
+     * Adds a shard, which takes over part of the partitions of travel dates from a date on.
+     *
+     * @param name          Name of the shard
+     * @param shard         The shard
+     * @param effectiveFrom First travel date placed on the shard, after the booking window
+     * @throws IllegalArgumentException if the date is within the booking window or before an earlier change
+     */
+    public synchronized void addShard(String name, ReservationService shard, LocalDate effectiveFrom) {
+        checkBookingWindow(effectiveFrom);
+        join(name, shard, effectiveFrom);
+        keepPlacements();
+        logger.info("Shard {} joins from {}", name, effectiveFrom);
+    }
+
+    /**
+     * Removes a shard for travel dates from a date on. The shard keeps serving earlier dates.
+     *
+     * @param name          Name of the shard
+     * @param effectiveFrom First travel date not placed on the shard, after the booking window
+     * @throws IllegalArgumentException if the date is within the booking window or before an earlier change
+     */
+    public synchronized void removeShard(String name, LocalDate effectiveFrom) {
+        checkBookingWindow(effectiveFrom);
+        leave(name, effectiveFrom);
+        keepPlacements();
+        logger.info("Shard {} leaves from {}", name, effectiveFrom);
+    }
+
+    @Override
+    public AvailabilityResponse checkAvailability(AvailabilityRequest request) {
+        return shardFor(request.getOrigin(), request.getDestination(), DateUtils.toLocalDate(request.getTravelDate()))
+                .checkAvailability(request);
+    }
+
+    /**
+     * Checks availability on every date of a range, asking each shard for the run of consecutive dates it owns.
+     */
+    @Override
+    public AvailabilityCalendarResponse checkAvailabilityCalendar(String origin, String destination, int passengerCount,
+                                                                  LocalDate firstDate, int days) {
+        List<CalendarDay> calendar = new ArrayList<>(days);
+        int day = 0;
+        while (day < days) {
+            ReservationService shard = shardFor(origin, destination, firstDate.plusDays(day));
+            int run = 1;
+            while (day + run < days && shardFor(origin, destination, firstDate.plusDays(day + run)) == shard) {
+                run++;
+            }
+            calendar.addAll(shard.checkAvailabilityCalendar(origin, destination, passengerCount, firstDate.plusDays(day), run).getDays());
+            day += run;
+        }
+        return new AvailabilityCalendarResponse.Builder()
+                .origin(origin)
+                .destination(destination)
+                .passengerCount(passengerCount)
+                .days(calendar)
+                .build();
+    }
+
+    @Override
+    public ReservationResponse reserveTicket(ReservationRequest request) {
+        String shard = shardNameFor(request.getOrigin(), request.getDestination(), DateUtils.toLocalDate(request.getTravelDate()));
+        return withShardId(shard, shards.get(shard).reserveTicket(request));
+    }
+
+    /**
+     * Reserves a batch, sending each shard the requests it owns as one batch. Shards are asked one after another,
+     * and each commits its part on its own: if a shard fails, its requests report the error and the
+     * reservations made on other shards are kept.
+     */
+    @Override
+    public List<ApiResponse<ReservationResponse>> reserveTickets(List<ReservationRequest> requests) {
+        List<ApiResponse<ReservationResponse>> results = new ArrayList<>(Collections.nCopies(requests.size(), null));
+        Map<String, List<Integer>> byShard = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            ReservationRequest request = requests.get(i);
+            try {
+                String shard = shardNameFor(request.getOrigin(), request.getDestination(),
+                        DateUtils.toLocalDate(request.getTravelDate()));
+                byShard.computeIfAbsent(shard, k -> new ArrayList<>()).add(i);
+            } catch (RouteNotFoundException | RequestValidationException e) {
+                results.set(i, ApiResponse.error(e.getMessage(), null));
+            }
+        }
+        for (Map.Entry<String, List<Integer>> part : byShard.entrySet()) {
+            List<Integer> indexes = part.getValue();
+            List<ReservationRequest> partRequests = new ArrayList<>(indexes.size());
+            for (int i : indexes) {
+                partRequests.add(requests.get(i));
+            }
+            try {
+                List<ApiResponse<ReservationResponse>> partResults = shards.get(part.getKey()).reserveTickets(partRequests);
+                for (int j = 0; j < indexes.size(); j++) {
+                    ApiResponse<ReservationResponse> result = partResults.get(j);
+                    results.set(indexes.get(j), result.isSuccess()
+                            ? ApiResponse.success(withShardId(part.getKey(), result.getData()))
+                            : result);
+                }
+            } catch (RuntimeException e) {
+                logger.error("Shard {} failed to reserve a batch of {} requests", part.getKey(), indexes.size(), e);
+                for (int i : indexes) {
+                    results.set(i, ApiResponse.error(e.getMessage(), null));
+                }
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public ReservationResponse getReservation(String reservationId) {
+        return byReservationId(reservationId, ReservationService::getReservation);
+    }
+
+    @Override
+    public ReservationResponse cancelReservation(String reservationId) {
+        return byReservationId(reservationId, ReservationService::cancelReservation);
+    }
+
+    @Override
+    public HoldResponse holdSeats(AvailabilityRequest request) {
+        String shard = shardNameFor(request.getOrigin(), request.getDestination(), DateUtils.toLocalDate(request.getTravelDate()));
+        HoldResponse hold = shards.get(shard).holdSeats(request);
+        return new HoldResponse.Builder()
+                .holdId(shard + ID_SEPARATOR + hold.getHoldId())
+                .origin(hold.getOrigin())
+                .destination(hold.getDestination())
+                .allocatedSeatNumbers(hold.getAllocatedSeatNumbers())
+                .totalPrice(hold.getTotalPrice())
+                .expiresAt(hold.getExpiresAt())
+                .build();
+    }
+
+    @Override
+    public ReservationResponse confirmHold(ConfirmRequest request) {
+        String holdId = request.getHoldId();
+        int separator = holdId.lastIndexOf(ID_SEPARATOR);
+        ReservationService shard = separator < 0 ? null : shards.get(holdId.substring(0, separator));
+        if (shard == null) {
+            throw new HoldNotFoundException("Hold " + holdId + " not found or expired");
+        }
+        ConfirmRequest shardRequest = new ConfirmRequest.Builder()
+                .holdId(holdId.substring(separator + 1))
+                .paymentAmount(request.getPaymentAmount())
+                .build();
+        try {
+            return withShardId(holdId.substring(0, separator), shard.confirmHold(shardRequest));
+        } catch (HoldNotFoundException e) {
+            throw new HoldNotFoundException("Hold " + holdId + " not found or expired");
+        }
+    }
+
+    /**
+     * Closes the shards that are {@link Closeable}, such as shard clients.
+     */
+    @Override
+    public void close() throws IOException {
+        for (ReservationService shard : shards.values()) {
+            if (shard instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    /**
+     * Returns the name of the shard owning a route on a date.
+     *
+     * @throws RouteNotFoundException if no bus of the fleet serves the route
+     */
+    String shardNameFor(String origin, String destination, LocalDate travelDate) {
+        String group = routeGroups.groupOf(origin, destination);
+        if (group == null) {
+            throw new RouteNotFoundException("Invalid origin or destination");
+        }
+        return placementOn(placements, travelDate).ring().nodeFor(group + '/' + travelDate);
+    }
+
+    private static Placement placementOn(List<Placement> placements, LocalDate travelDate) {
+        for (Placement placement : placements) {
+            if (!travelDate.isBefore(placement.effectiveFrom())) {
+                return placement;
+            }
+        }
+        throw new IllegalStateException("No placement for " + travelDate);
+    }
+
+    private ReservationService shardFor(String origin, String destination, LocalDate travelDate) {
+        return shards.get(shardNameFor(origin, destination, travelDate));
+    }
+
+    /**
+     * Runs a call by reservation id on the shard that issued the id.
+     *
+     * @param reservationId Reservation id handed out by the router
+     * @param call          The call, given the shard and its own id
+     * @return The result, with the id handed out by the router
+     * @throws ReservationNotFoundException if the id is not known
+     */
+    private ReservationResponse byReservationId(String reservationId,
+                                                BiFunction<ReservationService, String, ReservationResponse> call) {
+        int separator = reservationId.lastIndexOf(ID_SEPARATOR);
+        ReservationService shard = separator < 0 ? null : shards.get(reservationId.substring(0, separator));
+        if (shard == null) {
+            throw new ReservationNotFoundException("Reservation " + reservationId + " not found");
+        }
+        try {
+            return withShardId(reservationId.substring(0, separator), call.apply(shard, reservationId.substring(separator + 1)));
+        } catch (ReservationNotFoundException e) {
+            throw new ReservationNotFoundException("Reservation " + reservationId + " not found");
+        }
+    }
+
+    private static ReservationResponse withShardId(String shard, ReservationResponse reservation) {
+        return new ReservationResponse.Builder()
+                .reservationId(shard + ID_SEPARATOR + reservation.getReservationId())
+                .origin(reservation.getOrigin())
+                .destination(reservation.getDestination())
+                .allocatedSeatNumbers(reservation.getAllocatedSeatNumbers())
+                .totalPrice(reservation.getTotalPrice())
+                .departureTime(reservation.getDepartureTime())
+                .arrivalTime(reservation.getArrivalTime())
+                .status(reservation.getStatus())
+                .build();
+    }
+
+    private void join(String name, ReservationService shard, LocalDate effectiveFrom) {
+        checkOrder(effectiveFrom);
+        HashRing ring = placements.getFirst().ring().withNode(name);
+        if (shards.putIfAbsent(name, shard) != null) {
+            throw new IllegalArgumentException("Shard " + name + " already exists");
+        }
+        place(new Placement(effectiveFrom, ring));
+    }
+
+    private void leave(String name, LocalDate effectiveFrom) {
+        checkOrder(effectiveFrom);
+        place(new Placement(effectiveFrom, placements.getFirst().ring().withoutNode(name)));
+    }
+
+    private void checkBookingWindow(LocalDate effectiveFrom) {
+        LocalDate lastBookable = LocalDate.now(clock).plusDays(MAX_RESERVATION_DAYS);
+        if (!effectiveFrom.isAfter(lastBookable)) {
+            throw new IllegalArgumentException("Shard changes must take effect after the booking window, after " + lastBookable);
+        }
+    }
+
+    private void checkOrder(LocalDate effectiveFrom) {
+        if (effectiveFrom.isBefore(placements.getFirst().effectiveFrom())) {
+            throw new IllegalArgumentException("Shard changes must take effect in order, from "
+                    + placements.getFirst().effectiveFrom() + " on");
+        }
+    }
+
+    /**
+     * Checks that every date from today to the end of the booking window is placed on the same shards as in the
+     * placement file, since seats of those dates may already be booked on their shards.
+     */
+    private void checkKeptPlacements() {
+        if (!Files.exists(placementFile)) {
+            return;
+        }
+        List<Placement> kept = readPlacements(placementFile);
+        LocalDate today = LocalDate.now(clock);
+        for (LocalDate date = today; !date.isAfter(today.plusDays(MAX_RESERVATION_DAYS)); date = date.plusDays(1)) {
+            Set<String> before = placementOn(kept, date).ring().getNodes();
+            Set<String> after = placementOn(placements, date).ring().getNodes();
+            if (!before.equals(after)) {
+                throw new IllegalArgumentException("Shard configuration moves " + date + " from shards " + before
+                        + " to " + after + "; changes must take effect after the booking window");
+            }
+        }
+    }
+
+    /**
+     * Writes the placements to the placement file, one line per placement, newest first: the date it takes effect
+     * and the shards, comma-separated.
+     */
+    private void keepPlacements() {
+        if (placementFile == null) {
+            return;
+        }
+        StringBuilder lines = new StringBuilder();
+        for (Placement placement : placements) {
+            lines.append(placement.effectiveFrom()).append(' ')
+                    .append(String.join(",", placement.ring().getNodes())).append('\n');
+        }
+        try {
+            Path temp = placementFile.resolveSibling(placementFile.getFileName() + ".tmp");
+            Files.writeString(temp, lines, StandardCharsets.UTF_8);
+            Files.move(temp, placementFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write shard placements to " + placementFile, e);
+        }
+    }
+
+    private static List<Placement> readPlacements(Path placementFile) {
+        try {
+            List<Placement> placements = new ArrayList<>();
+            for (String line : Files.readAllLines(placementFile, StandardCharsets.UTF_8)) {
+                if (!line.isBlank()) {
+                    String[] dateAndShards = line.split(" ", 2);
+                    placements.add(new Placement(LocalDate.parse(dateAndShards[0]),
+                            new HashRing(Arrays.asList(dateAndShards[1].split(",")))));
+                }
+            }
+            return placements;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read shard placements from " + placementFile, e);
+        }
+    }
+
+    private void place(Placement placement) {
+        List<Placement> updated = new ArrayList<>(placements.size() + 1);
+        updated.add(placement);
+        for (Placement earlier : placements) {
+            // A placement from the same date replaces the earlier one
+            if (earlier.effectiveFrom().isBefore(placement.effectiveFrom())) {
+                updated.add(earlier);
+            }
+        }
+        placements = List.copyOf(updated);
+    }
+}
@@ -0,0 +1,240 @@
+package org.reservation.system.shard;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.reservation.system.exception.RequestValidationException;
+import org.reservation.system.model.request.AvailabilityRequest;
+import org.reservation.system.model.request.ConfirmRequest;
+import org.reservation.system.model.request.ReservationRequest;
+import org.reservation.system.model.response.ApiResponse;
+import org.reservation.system.model.response.ReservationResponse;
+import org.reservation.system.service.ReservationService;
+import org.reservation.system.util.DateUtils;
+import org.reservation.system.validator.RequestValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.reservation.system.shard.ShardProtocol.objectMapper;
+
+/**
+ * Serves a reservation service to shard routers over TCP, in the {@link ShardProtocol} format.
+ * Each connection is served on a virtual thread of its own, so a request waiting for a trip lock or for
+ * the reservation log blocks only its connection. Requests are validated as the servlet validates them, since the
+ * port can be reached without going through a servlet. A server started with a {@link StreamHandler} also hands
+ * connections that subscribe to it, such as those of replicas following the shard.
+ */
+public class ShardServer implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(ShardServer.class);
+    private static final TypeReference<List<ReservationRequest>> reservationRequests = new TypeReference<>() {};
+
+    private final ReservationService service;
+    private final StreamHandler streamHandler;
+    private final ServerSocket serverSocket;
+    private final ExecutorService connectionExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("shard-connection-", 0).factory());
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Writes a stream to a connection that subscribed to it.
+     */
+    @FunctionalInterface
+    public interface StreamHandler {
+        /**
+         * Writes the stream until the connection fails or the stream ends.
+         *
+         * @param request Payload of the subscription request
+         * @param out     Output of the connection
+         * @throws IOException If the connection failed
+         */
+        void stream(byte[] request, DataOutputStream out) throws IOException;
+    }
+
+    private ShardServer(ReservationService service, StreamHandler streamHandler, ServerSocket serverSocket) {
+        this.service = service;
+        this.streamHandler = streamHandler;
+        this.serverSocket = serverSocket;
+    }
+
+    /**
+     * Starts serving a reservation service.
+     *
+     * @param service The service to serve
+     * @param address Address to listen on; port 0 picks a free port
+     * @return The running server
+     * @throws IOException If the address could not be bound
+     */
+    public static ShardServer start(ReservationService service, InetSocketAddress address) throws IOException {
+        return start(service, null, address);
+    }
+
+    /**
+     * Starts serving a reservation service and a stream to subscribers.
+     *
+     * @param service       The service to serve
+     * @param streamHandler Writes the stream to each subscriber, or null to turn subscribers away
+     * @param address       Address to listen on; port 0 picks a free port
+     * @return The running server
+     * @throws IOException If the address could not be bound
+     */
+    public static ShardServer start(ReservationService service, StreamHandler streamHandler, InetSocketAddress address)
+            throws IOException {
+        ServerSocket serverSocket = new ServerSocket();
+        serverSocket.bind(address);
+        ShardServer server = new ShardServer(service, streamHandler, serverSocket);
+        Thread.ofPlatform().name("shard-acceptor").daemon().start(server::acceptConnections);
+        logger.info("Serving reservations on {}", serverSocket.getLocalSocketAddress());
+        return server;
+    }
+
+    public int getPort() { return serverSocket.getLocalPort(); }
+
+    /**
+     * Stops accepting connections and closes those open. Requests being processed are abandoned.
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket connection : connections) {
+            connection.close();
+        }
+        connectionExecutor.shutdown();
+    }
+
+    private void acceptConnections() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket connection = serverSocket.accept();
+                connection.setTcpNoDelay(true);
+                connections.add(connection);
+                connectionExecutor.execute(() -> serve(connection));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    logger.error("Failed to accept a shard connection", e);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket connection) {
+        try (connection) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+            while (true) {
+                ShardProtocol.Frame request = ShardProtocol.readFrame(in);
+                if (request.tag() == ShardProtocol.Operation.SUBSCRIBE.ordinal() && streamHandler != null) {
+                    streamHandler.stream(request.payload(), out);
+                    return;
+                }
+                byte[] response;
+                int tag;
+                try {
+                    response = objectMapper.writeValueAsBytes(handle(request));
+                    tag = ShardProtocol.OK;
+                } catch (JsonProcessingException e) {
+                    response = objectMapper.writeValueAsBytes("Malformed shard request: " + e.getOriginalMessage());
+                    tag = 1 + ShardProtocol.Failure.VALIDATION.ordinal();
+                } catch (RuntimeException e) {
+                    ShardProtocol.Failure failure = ShardProtocol.Failure.of(e);
+                    if (failure == ShardProtocol.Failure.INTERNAL) {
+                        logger.error("Unexpected error handling a shard request", e);
+                    }
+                    response = objectMapper.writeValueAsBytes(String.valueOf(e.getMessage()));
+                    tag = 1 + failure.ordinal();
+                }
+                ShardProtocol.writeFrame(out, tag, response);
+            }
+        } catch (EOFException | SocketException e) {
+            // The router or subscriber closed the connection, or the server is closing
+        } catch (IOException e) {
+            logger.error("Shard connection {} failed", connection.getRemoteSocketAddress(), e);
+        } finally {
+            connections.remove(connection);
+        }
+    }
+
+    private Object handle(ShardProtocol.Frame request) throws IOException {
+        ShardProtocol.Operation[] operations = ShardProtocol.Operation.values();
+        if (request.tag() >= operations.length) {
+            throw new IOException("Unknown shard operation " + request.tag());
+        }
+        byte[] body = request.payload();
+        return switch (operations[request.tag()]) {
+            case CHECK_AVAILABILITY -> {
+                AvailabilityRequest availabilityRequest = objectMapper.readValue(body, AvailabilityRequest.class);
+                RequestValidator.validateAvailabilityRequest(availabilityRequest);
+                yield service.checkAvailability(availabilityRequest);
+            }
+            case AVAILABILITY_CALENDAR -> {
+                ShardProtocol.CalendarQuery query = objectMapper.readValue(body, ShardProtocol.CalendarQuery.class);
+                LocalDate firstDate = query.firstDate() == null ? null : DateUtils.toLocalDate(query.firstDate());
+                RequestValidator.validateCalendarRequest(query.origin(), query.destination(), query.passengerCount(),
+                        firstDate, query.days());
+                yield service.checkAvailabilityCalendar(query.origin(), query.destination(), query.passengerCount(),
+                        firstDate, query.days());
+            }
+            case RESERVE -> {
+                ReservationRequest reservationRequest = objectMapper.readValue(body, ReservationRequest.class);
+                RequestValidator.validateReservationRequest(reservationRequest);
+                yield service.reserveTicket(reservationRequest);
+            }
+            case RESERVE_BATCH -> reserveValidTickets(objectMapper.readValue(body, reservationRequests));
+            case GET_RESERVATION -> service.getReservation(new String(body, StandardCharsets.UTF_8));
+            case CANCEL -> service.cancelReservation(new String(body, StandardCharsets.UTF_8));
+            case HOLD -> {
+                AvailabilityRequest holdRequest = objectMapper.readValue(body, AvailabilityRequest.class);
+                RequestValidator.validateAvailabilityRequest(holdRequest);
+                yield service.holdSeats(holdRequest);
+            }
+            case CONFIRM -> {
+                ConfirmRequest confirmRequest = objectMapper.readValue(body, ConfirmRequest.class);
+                RequestValidator.validateConfirmRequest(confirmRequest);
+                yield service.confirmHold(confirmRequest);
+            }
+            case SUBSCRIBE -> throw new RequestValidationException("Shard does not publish a stream");
+        };
+    }
+
+    /**
+     * Reserves the valid requests of a batch; each invalid one is answered with its validation error instead.
+     */
+    private List<ApiResponse<ReservationResponse>> reserveValidTickets(List<ReservationRequest> requests) {
+        List<ApiResponse<ReservationResponse>> results = new ArrayList<>(Collections.nCopies(requests.size(), null));
+        List<ReservationRequest> valid = new ArrayList<>();
+        List<Integer> validIndexes = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                RequestValidator.validateReservationRequest(requests.get(i));
+                valid.add(requests.get(i));
+                validIndexes.add(i);
+            } catch (RequestValidationException e) {
+                results.set(i, ApiResponse.error(e.getMessage(), null));
+            }
+        }
+        List<ApiResponse<ReservationResponse>> reserved = service.reserveTickets(valid);
+        for (int i = 0; i < reserved.size(); i++) {
+            results.set(validIndexes.get(i), reserved.get(i));
+        }
+        return results;
+    }
+}
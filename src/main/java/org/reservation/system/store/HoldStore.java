@@ -0,0 +1,109 @@
+package org.reservation.system.store;
+
+import org.reservation.system.model.SeatHold;
+import org.reservation.system.util.TimerWheel;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Concurrent store of active seat holds, indexed by hold id and trip, with a timer wheel of their expiry times.
+ * Removing a hold does not touch the wheel; its entry is dropped when it fires, so confirming a hold costs
+ * a single hash removal.
+ */
+public class HoldStore {
+
+    private record TripKey(String busId, LocalDate travelDate, boolean returnTrip) {
+    }
+
+    private final ConcurrentHashMap<String, SeatHold> byId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<TripKey, Set<SeatHold>> byTrip = new ConcurrentHashMap<>();
+    private final TimerWheel<SeatHold> expiries;
+
+    /**
+     * Creates an empty store.
+     *
+     * @param tickMillis Resolution of hold expiry in milliseconds
+     * @param now        Current time, where the timer wheel starts
+     */
+    public HoldStore(long tickMillis, Instant now) {
+        this.expiries = new TimerWheel<>(tickMillis, now.toEpochMilli());
+    }
+
+    /**
+     * Adds a hold and schedules its expiry.
+     *
+     * @param hold The hold
+     */
+    public void add(SeatHold hold) {
+        byId.put(hold.holdId(), hold);
+        byTrip.compute(tripOf(hold), (k, holds) -> {
+            Set<SeatHold> set = holds == null ? ConcurrentHashMap.newKeySet() : holds;
+            set.add(hold);
+            return set;
+        });
+        synchronized (expiries) {
+            expiries.schedule(hold, hold.expiresAt().toEpochMilli());
+        }
+    }
+
+    /**
+     * Removes a hold, unless it was removed already.
+     *
+     * @param hold The hold
+     * @return True if this call removed it
+     */
+    public boolean remove(SeatHold hold) {
+        if (!byId.remove(hold.holdId(), hold)) {
+            return false;
+        }
+        byTrip.computeIfPresent(tripOf(hold), (k, holds) -> {
+            holds.remove(hold);
+            return holds.isEmpty() ? null : holds;
+        });
+        return true;
+    }
+
+    public SeatHold get(String holdId) {
+        return byId.get(holdId);
+    }
+
+    /**
+     * Returns the holds on one trip of a bus.
+     */
+    public List<SeatHold> findByTrip(String busId, LocalDate travelDate, boolean returnTrip) {
+        Set<SeatHold> holds = byTrip.get(new TripKey(busId, travelDate, returnTrip));
+        return holds == null ? List.of() : List.copyOf(holds);
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * Advances the timer wheel and returns the holds that have expired by now and are still stored.
+     * The holds stay in the store; the caller removes each one as it releases its seats.
+     *
+     * @param now Current time
+     * @return Expired holds
+     */
+    public List<SeatHold> findExpired(Instant now) {
+        List<SeatHold> expired = new ArrayList<>();
+        synchronized (expiries) {
+            expiries.advance(now.toEpochMilli(), hold -> {
+                if (byId.get(hold.holdId()) == hold) {
+                    expired.add(hold);
+                }
+            });
+        }
+        return expired;
+    }
+
+    private static TripKey tripOf(SeatHold hold) {
+        return new TripKey(hold.bus().getBusId(), hold.travelDate(), hold.route().isReturnRoute());
+    }
+}
@@ -0,0 +1,129 @@
+package org.reservation.system.store;
+
+import org.reservation.system.model.Reservation;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Concurrent store of active reservations, indexed by reservation id, travel date and trip.
+ * Lookups by id are a single hash probe. Reservations of departed trips are evicted
+ * in bulk, so the store only holds the bookable window.
+ * <p>
+ * A reservation is added to the id index first and removed from it last, so a reservation
+ * found through a secondary index can always be found by id as well.
+ */
+public class ReservationStore {
+
+    private record TripKey(String busId, LocalDate travelDate, boolean returnTrip) {
+    }
+
+    private final ConcurrentHashMap<String, Reservation> byId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<LocalDate, Set<Reservation>> byDate = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<TripKey, Set<Reservation>> byTrip = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a reservation.
+     *
+     * @param reservation The reservation
+     * @return True if it was added, false if a reservation with the same id is already stored
+     */
+    public boolean add(Reservation reservation) {
+        if (byId.putIfAbsent(reservation.getReservationId(), reservation) != null) {
+            return false;
+        }
+        addToIndex(byDate, reservation.getTravelDate(), reservation);
+        addToIndex(byTrip, tripOf(reservation), reservation);
+        return true;
+    }
+
+    /**
+     * Removes a reservation.
+     *
+     * @param reservationId The reservation id
+     * @return The removed reservation, or null if none was stored
+     */
+    public Reservation remove(String reservationId) {
+        Reservation reservation = byId.get(reservationId);
+        if (reservation == null) {
+            return null;
+        }
+        removeFromIndex(byDate, reservation.getTravelDate(), reservation);
+        removeFromIndex(byTrip, tripOf(reservation), reservation);
+        return byId.remove(reservationId, reservation) ? reservation : null;
+    }
+
+    public Reservation get(String reservationId) {
+        return byId.get(reservationId);
+    }
+
+    public boolean contains(String reservationId) {
+        return byId.containsKey(reservationId);
+    }
+
+    /**
+     * Returns the reservations travelling on a date.
+     */
+    public List<Reservation> findByTravelDate(LocalDate travelDate) {
+        Set<Reservation> reservations = byDate.get(travelDate);
+        return reservations == null ? List.of() : List.copyOf(reservations);
+    }
+
+    /**
+     * Returns the reservations on one trip of a bus.
+     */
+    public List<Reservation> findByTrip(String busId, LocalDate travelDate, boolean returnTrip) {
+        Set<Reservation> reservations = byTrip.get(new TripKey(busId, travelDate, returnTrip));
+        return reservations == null ? List.of() : List.copyOf(reservations);
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * Returns the travel dates that have reservations, in date order.
+     */
+    public SortedSet<LocalDate> getTravelDates() {
+        return new TreeSet<>(byDate.keySet());
+    }
+
+    /**
+     * Removes every reservation travelling on a date, e.g. once its trips have departed.
+     *
+     * @param travelDate The travel date
+     * @return The removed reservations
+     */
+    public List<Reservation> evictTravelDate(LocalDate travelDate) {
+        Set<Reservation> reservations = byDate.remove(travelDate);
+        byTrip.keySet().removeIf(trip -> trip.travelDate().equals(travelDate));
+        if (reservations == null) {
+            return List.of();
+        }
+        for (Reservation reservation : reservations) {
+            byId.remove(reservation.getReservationId(), reservation);
+        }
+        return List.copyOf(reservations);
+    }
+
+    // Index sets are created and dropped inside compute, so an add never lands in a set that was just dropped
+    private static <K> void addToIndex(ConcurrentHashMap<K, Set<Reservation>> index, K key, Reservation reservation) {
+        index.compute(key, (k, reservations) -> {
+            Set<Reservation> set = reservations == null ? ConcurrentHashMap.newKeySet() : reservations;
+            set.add(reservation);
+            return set;
+        });
+    }
+
+    private static <K> void removeFromIndex(ConcurrentHashMap<K, Set<Reservation>> index, K key, Reservation reservation) {
+        index.computeIfPresent(key, (k, reservations) -> {
+            reservations.remove(reservation);
+            return reservations.isEmpty() ? null : reservations;
+        });
+    }
+
+    private static TripKey tripOf(Reservation reservation) {
+        return new TripKey(reservation.getBus().getBusId(), reservation.getTravelDate(), reservation.getRoute().isReturnRoute());
+    }
+}
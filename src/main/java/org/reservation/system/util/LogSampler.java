@@ -0,0 +1,29 @@
+package org.reservation.system.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Picks one in every {@code interval} events, so verbose logs such as whole request and response bodies
+ * are written for a sample of requests only. Callers check that the log level is enabled first, so the
+ * shared counter is only touched when the log would be written.
+ */
+public class LogSampler {
+    private final int interval;
+    private final AtomicLong events = new AtomicLong();
+
+    /**
+     * @param interval Sample one in this many events; zero or less samples none
+     */
+    public LogSampler(int interval) {
+        this.interval = interval;
+    }
+
+    /**
+     * Returns whether this event is in the sample.
+     *
+     * @return True for one in every {@code interval} calls
+     */
+    public boolean sample() {
+        return interval > 0 && events.getAndIncrement() % interval == 0;
+    }
+}
@@ -0,0 +1,119 @@
+package org.reservation.system.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel. Scheduling and expiring an entry cost O(1) regardless of how many
+ * entries are pending, so tens of thousands of deadlines need neither a thread nor a sorted queue.
+ * <p>
+ * Time is counted in ticks. Level 0 has one slot per tick, and each higher level has one slot per
+ * full turn of the level below. An entry sits in the lowest level that reaches its deadline and
+ * moves down a level whenever the wheel below comes round to its slot. Entries fire on the first
+ * {@link #advance} at or after their deadline tick, so expiry is late by less than one tick.
+ * <p>
+ * Not thread-safe; callers serialise access.
+ *
+ * @param <T> Type of the scheduled entries
+ */
+public class TimerWheel<T> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELAY_TICKS = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private record Entry<T>(T item, long deadlineTick) {
+    }
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final List<Entry<T>>[][] wheels;
+    private long currentTick;
+    private int size;
+
+    /**
+     * Creates an empty wheel.
+     *
+     * @param tickMillis  Length of a tick in milliseconds
+     * @param startMillis Time of tick zero, in epoch milliseconds
+     */
+    @SuppressWarnings("unchecked")
+    public TimerWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.wheels = new List[LEVELS][SLOTS];
+        for (List<Entry<T>>[] wheel : wheels) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                wheel[slot] = new ArrayList<>();
+            }
+        }
+    }
+
+    /**
+     * Schedules an entry. Deadlines already passed fire on the next tick.
+     *
+     * @param item           The entry
+     * @param deadlineMillis Deadline in epoch milliseconds
+     */
+    public void schedule(T item, long deadlineMillis) {
+        long deadlineTick = Math.floorDiv(deadlineMillis - startMillis + tickMillis - 1, tickMillis);
+        insert(new Entry<>(item, Math.max(deadlineTick, currentTick + 1)));
+        size++;
+    }
+
+    /**
+     * Moves the wheel forward to the given time, handing every entry whose deadline has passed to the consumer.
+     *
+     * @param nowMillis Current time in epoch milliseconds
+     * @param expired   Receives the expired entries, in deadline order
+     */
+    public void advance(long nowMillis, Consumer<T> expired) {
+        long targetTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Cascade from the highest level down, so entries can fall through several levels in one tick
+            int level = 1;
+            while (level < LEVELS && (currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                level++;
+            }
+            for (int cascade = level - 1; cascade >= 1; cascade--) {
+                List<Entry<T>> slot = wheels[cascade][slotOf(currentTick, cascade)];
+                List<Entry<T>> entries = new ArrayList<>(slot);
+                slot.clear();
+                entries.forEach(this::insert);
+            }
+            List<Entry<T>> due = wheels[0][slotOf(currentTick, 0)];
+            for (Entry<T> entry : due) {
+                size--;
+                expired.accept(entry.item());
+            }
+            due.clear();
+        }
+    }
+
+    /**
+     * Returns the number of scheduled entries that have not fired yet.
+     */
+    public int size() {
+        return size;
+    }
+
+    private void insert(Entry<T> entry) {
+        long delay = Math.min(entry.deadlineTick() - currentTick, MAX_DELAY_TICKS);
+        long tick = currentTick + delay;
+        int level = 0;
+        while (delay >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        wheels[level][slotOf(tick, level)].add(entry);
+    }
+
+    private static int slotOf(long tick, int level) {
+        return (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import org.apache.commons.lang3.StringUtils;
 import org.reservation.system.exception.RequestValidationException;
 import org.reservation.system.model.request.AvailabilityRequest;
+import org.reservation.system.model.request.ConfirmRequest;
 import org.reservation.system.model.request.ReservationRequest;
 import org.reservation.system.util.DateUtils;
 
@@ -24,11 +25,41 @@ public class RequestValidator {
         }
     }
 
+    public static void validateConfirmRequest(ConfirmRequest request) {
+        if (StringUtils.isEmpty(request.getHoldId())) {
+            throw new RequestValidationException("Mandatory parameter holdId is not specified.");
+        }
+        if (request.getPaymentAmount() == null || request.getPaymentAmount().compareTo(BigDecimal.ZERO) < 0) {
+            throw new RequestValidationException("Paid amount must be a non-negative value.");
+        }
+    }
+
     public static void validateAvailabilityRequest(AvailabilityRequest request) {
         validateCommonFields(request.getOrigin(), request.getDestination(), request.getPassengerCount(), request.getTravelDate());
     }
 
+    public static void validateCalendarRequest(String origin, String destination, int passengerCount) {
+        validateRouteAndPassengers(origin, destination, passengerCount);
+    }
+
+    public static void validateCalendarRequest(String origin, String destination, int passengerCount, LocalDate firstDate, int days) {
+        validateRouteAndPassengers(origin, destination, passengerCount);
+        if (firstDate == null) {
+            throw new RequestValidationException("Mandatory parameter firstDate is not specified.");
+        }
+        if (days <= 0) {
+            throw new RequestValidationException("Day count must be greater than zero. Provided: " + days);
+        }
+        validateTravelDate(firstDate);
+        validateTravelDate(firstDate.plusDays(days - 1));
+    }
+
     private static void validateCommonFields(String origin, String destination, int passengerCount, String travelDate) {
+        validateRouteAndPassengers(origin, destination, passengerCount);
+        validateTravelDate(travelDate);
+    }
+
+    private static void validateRouteAndPassengers(String origin, String destination, int passengerCount) {
         if (StringUtils.isEmpty(origin)) {
             throw new RequestValidationException("Mandatory parameter origin is not specified.");
         }
@@ -38,8 +69,6 @@ public class RequestValidator {
         if (passengerCount <= 0) {
             throw new RequestValidationException("Passenger count must be greater than zero. Provided: " + passengerCount);
         }
-
-        validateTravelDate(travelDate);
     }
 
     private static void validateTravelDate(String travelDate) {
@@ -47,8 +76,10 @@ public class RequestValidator {
             throw new RequestValidationException("Mandatory parameter travelDate is not specified.");
         }
 
+        validateTravelDate(DateUtils.toLocalDate(travelDate));
+    }
 
-        LocalDate localDate = DateUtils.toLocalDate(travelDate);
+    private static void validateTravelDate(LocalDate localDate) {
         LocalDate today = LocalDate.now();
         LocalDate reservationStartDate = today.plusDays(MIN_RESERVATION_DAYS);
         LocalDate reservationEndDate = today.plusDays(MAX_RESERVATION_DAYS);
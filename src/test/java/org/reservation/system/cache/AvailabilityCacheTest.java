@@ -0,0 +1,107 @@
+package org.reservation.system.cache;
+
+import org.junit.jupiter.api.Test;
+import org.reservation.system.model.Bus;
+import org.reservation.system.model.Fleet;
+import org.reservation.system.model.request.ReservationRequest;
+import org.reservation.system.service.BusReservationService;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AvailabilityCacheTest {
+
+    private static final LocalDate TRAVEL_DATE = LocalDate.now().plusDays(1);
+    private static final Duration MAX_AGE = Duration.ofMinutes(1);
+
+    private final Fleet fleet = Fleet.of(new Bus());
+
+    @Test
+    void get_returnsCachedAnswerUntilTripChanges() {
+        AvailabilityCache cache = new AvailabilityCache(fleet, 10, MAX_AGE);
+        AvailabilityCache.Key outbound = new AvailabilityCache.Key("A", "C", TRAVEL_DATE, 2);
+        AvailabilityCache.Key inbound = new AvailabilityCache.Key("C", "A", TRAVEL_DATE, 2);
+        cache.put(outbound, "outbound", cache.stamp());
+        cache.put(inbound, "inbound", cache.stamp());
+
+        assertEquals("outbound", cache.get(outbound));
+        cache.seatsChanged("BUS-1", TRAVEL_DATE.plusDays(1), false);
+        cache.seatsChanged("BUS-1", TRAVEL_DATE, true);
+
+        assertEquals("outbound", cache.get(outbound));
+        assertNull(cache.get(inbound));
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getInvalidations());
+    }
+
+    @Test
+    void put_isDroppedWhenTripChangedWhileComputing() {
+        AvailabilityCache cache = new AvailabilityCache(fleet, 10, MAX_AGE);
+        AvailabilityCache.Key key = new AvailabilityCache.Key("A", "C", TRAVEL_DATE, 2);
+
+        long stamp = cache.stamp();
+        cache.seatsChanged("BUS-1", TRAVEL_DATE, false);
+        cache.put(key, "stale", stamp);
+
+        assertNull(cache.get(key));
+    }
+
+    @Test
+    void put_evictsOldestWhenFull() {
+        AvailabilityCache cache = new AvailabilityCache(fleet, 2, MAX_AGE);
+        for (int passengers = 1; passengers <= 3; passengers++) {
+            cache.put(new AvailabilityCache.Key("A", "C", TRAVEL_DATE, passengers), "answer" + passengers, cache.stamp());
+        }
+
+        assertEquals(2, cache.size());
+        assertNull(cache.get(new AvailabilityCache.Key("A", "C", TRAVEL_DATE, 1)));
+        assertEquals("answer3", cache.get(new AvailabilityCache.Key("A", "C", TRAVEL_DATE, 3)));
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    void get_expiresOldAnswers() throws InterruptedException {
+        AvailabilityCache cache = new AvailabilityCache(fleet, 10, Duration.ofMillis(1));
+        AvailabilityCache.Key key = new AvailabilityCache.Key("A", "C", TRAVEL_DATE, 2);
+        cache.put(key, "answer", cache.stamp());
+
+        Thread.sleep(5);
+
+        assertNull(cache.get(key));
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    void get_calendarAnswerDependsOnEveryDate() {
+        AvailabilityCache cache = new AvailabilityCache(fleet, 10, MAX_AGE);
+        AvailabilityCache.Key calendar = new AvailabilityCache.Key("A", "C", TRAVEL_DATE, 1, 7);
+        cache.put(calendar, "calendar", cache.stamp());
+
+        cache.seatsChanged("BUS-1", TRAVEL_DATE.plusDays(7), false);
+        assertEquals("calendar", cache.get(calendar));
+        cache.seatsChanged("BUS-1", TRAVEL_DATE.plusDays(6), false);
+        assertNull(cache.get(calendar));
+    }
+
+    @Test
+    void reservation_invalidatesAnswersOnItsTrip() {
+        AvailabilityCache cache = new AvailabilityCache(fleet, 10, MAX_AGE);
+        BusReservationService service = new BusReservationService.Builder(fleet).seatChangeListener(cache).build();
+        AvailabilityCache.Key key = new AvailabilityCache.Key("B", "D", TRAVEL_DATE, 2);
+        cache.put(key, "answer", cache.stamp());
+
+        service.reserveTicket(new ReservationRequest.Builder()
+                .origin("A")
+                .destination("B")
+                .passengerCount(1)
+                .paymentAmount(BigDecimal.valueOf(50))
+                .travelDate(TRAVEL_DATE.toString())
+                .build());
+
+        assertNull(cache.get(key));
+    }
+}
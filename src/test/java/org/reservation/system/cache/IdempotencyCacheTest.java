@@ -0,0 +1,100 @@
+package org.reservation.system.cache;
+
+import org.junit.jupiter.api.Test;
+import org.reservation.system.exception.IdempotencyKeyReusedException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyCacheTest {
+
+    private static final Duration MAX_AGE = Duration.ofMinutes(1);
+    private static final byte[] EMPTY = "{}".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void execute_replaysOriginalResponseForRepeatedKey() {
+        IdempotencyCache cache = new IdempotencyCache(10, MAX_AGE);
+        AtomicInteger executions = new AtomicInteger();
+
+        IdempotencyCache.Response first = cache.execute("key-1", EMPTY, () -> response(200, executions));
+        IdempotencyCache.Response retry = cache.execute("key-1", "{}".getBytes(StandardCharsets.UTF_8), () -> response(200, executions));
+
+        assertEquals(1, executions.get());
+        assertSame(first, retry);
+        assertEquals(1, cache.getHits());
+        byte[] other = "{\"passengerCount\":2}".getBytes(StandardCharsets.UTF_8);
+        assertThrows(IdempotencyKeyReusedException.class, () -> cache.execute("key-1", other, () -> response(200, executions)));
+    }
+
+    @Test
+    void execute_doesNotCacheServerErrors() {
+        IdempotencyCache cache = new IdempotencyCache(10, MAX_AGE);
+        AtomicInteger executions = new AtomicInteger();
+
+        assertEquals(500, cache.execute("key-1", EMPTY, () -> response(500, executions)).status());
+        assertThrows(IllegalStateException.class, () -> cache.execute("key-2", EMPTY, () -> {
+            throw new IllegalStateException("failed");
+        }));
+
+        assertEquals(200, cache.execute("key-1", EMPTY, () -> response(200, executions)).status());
+        assertEquals(200, cache.execute("key-2", EMPTY, () -> response(200, executions)).status());
+        assertEquals(3, executions.get());
+    }
+
+    @Test
+    void execute_evictsOldestWhenFull() {
+        IdempotencyCache cache = new IdempotencyCache(2, MAX_AGE);
+        AtomicInteger executions = new AtomicInteger();
+        for (int key = 1; key <= 3; key++) {
+            cache.execute("key-" + key, EMPTY, () -> response(200, executions));
+        }
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        cache.execute("key-1", EMPTY, () -> response(200, executions));
+        assertEquals(4, executions.get());
+    }
+
+    @Test
+    void execute_concurrentDuplicatesExecuteOnce() throws Exception {
+        IdempotencyCache cache = new IdempotencyCache(10, MAX_AGE);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch executing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<IdempotencyCache.Response>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> cache.execute("key-1", EMPTY, () -> {
+                    executing.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return response(200, executions);
+                })));
+            }
+            assertTrue(executing.await(5, TimeUnit.SECONDS));
+            release.countDown();
+            IdempotencyCache.Response first = futures.getFirst().get();
+            for (Future<IdempotencyCache.Response> future : futures) {
+                assertSame(first, future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, executions.get());
+    }
+
+    private static IdempotencyCache.Response response(int status, AtomicInteger executions) {
+        return new IdempotencyCache.Response(status, "{\"booking\":" + executions.incrementAndGet() + "}");
+    }
+}
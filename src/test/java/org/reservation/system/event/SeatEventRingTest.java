@@ -0,0 +1,112 @@
+package org.reservation.system.event;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatEventRingTest {
+
+    private final SeatEventRing ring = new SeatEventRing(8);
+
+    @Test
+    void publish_numbersEventsInOrder() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i, publish("r" + i));
+        }
+
+        List<SeatEvent> events = ring.await(1, 10, 0, TimeUnit.MILLISECONDS);
+
+        assertEquals(3, ring.getSequence());
+        assertEquals(List.of("r1", "r2"), events.stream().map(SeatEvent::bookingId).toList());
+        assertEquals(1, ring.await(0, 1, 0, TimeUnit.MILLISECONDS).size());
+    }
+
+    @Test
+    void await_returnsNoEventsAfterTheTimeout() throws InterruptedException {
+        publish("r0");
+
+        assertTrue(ring.await(1, 10, 20, TimeUnit.MILLISECONDS).isEmpty());
+    }
+
+    @Test
+    void await_wakesOnPublishAndOnClose() throws InterruptedException {
+        Thread.ofVirtual().start(() -> {
+            sleep(20);
+            publish("r0");
+        });
+        assertEquals(1, ring.await(0, 10, 10, TimeUnit.SECONDS).size());
+
+        Thread.ofVirtual().start(() -> {
+            sleep(20);
+            ring.close();
+        });
+        long start = System.nanoTime();
+        assertTrue(ring.await(1, 10, 10, TimeUnit.SECONDS).isEmpty());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertTrue(ring.isClosed());
+    }
+
+    @Test
+    void overwrittenEvents_returnNull() throws InterruptedException {
+        for (int i = 0; i < 10; i++) {
+            publish("r" + i);
+        }
+
+        assertNull(ring.await(1, 10, 0, TimeUnit.MILLISECONDS));
+        List<SeatEvent> retained = ring.await(2, 10, 0, TimeUnit.MILLISECONDS);
+        assertEquals(8, retained.size());
+        assertEquals("r9", retained.get(7).bookingId());
+        assertThrows(IllegalArgumentException.class, () -> new SeatEventRing(6));
+    }
+
+    @Test
+    void concurrentPublishers_neverLoseOrRepeatASequence() throws InterruptedException {
+        SeatEventRing large = new SeatEventRing(1 << 14);
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            for (int thread = 0; thread < 4; thread++) {
+                executor.execute(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        large.publish(sequence -> event(sequence, "r"));
+                    }
+                });
+            }
+        }
+
+        List<SeatEvent> events = new ArrayList<>();
+        while (events.size() < 8000) {
+            events.addAll(large.await(events.size(), 1000, 0, TimeUnit.MILLISECONDS));
+        }
+        Set<Long> sequences = new HashSet<>();
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(i, events.get(i).sequence());
+            sequences.add(events.get(i).sequence());
+        }
+        assertEquals(8000, sequences.size());
+    }
+
+    private long publish(String bookingId) {
+        return ring.publish(sequence -> event(sequence, bookingId));
+    }
+
+    private static SeatEvent event(long sequence, String bookingId) {
+        return new SeatEvent(sequence, SeatEvent.Type.SEATS_CLAIMED, bookingId, "BUS-1", LocalDate.of(2025, 3, 1), false,
+                "A", "B", List.of("1A"), 0);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package org.reservation.system.inventory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reservation.system.exception.RouteNotFoundException;
+import org.reservation.system.model.Bus;
+import org.reservation.system.model.Route;
+import org.reservation.system.model.Seat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatInventoryTest {
+
+    private static final int TOTAL_SEATS = 40;
+
+    private Bus bus;
+    private SeatInventory seatInventory;
+    private LocalDate travelDate;
+
+    @BeforeEach
+    void setUp() {
+        bus = new Bus();
+        seatInventory = new SeatInventory(bus);
+        travelDate = LocalDate.now().plusDays(1);
+    }
+
+    @Test
+    void legMask_coversLegsBetweenStops() {
+        assertEquals(0b001L, seatInventory.legMask(bus.getRoute("A", "B")));
+        assertEquals(0b110L, seatInventory.legMask(bus.getRoute("B", "D")));
+        assertEquals(0b111L, seatInventory.legMask(bus.getRoute("A", "D")));
+        assertEquals(0b110L, seatInventory.legMask(bus.getRoute("D", "B")));
+    }
+
+    @Test
+    void legMask_whenStopUnknown() {
+        Route route = new Route("AX", "A", "X", false);
+
+        assertThrows(RouteNotFoundException.class, () -> seatInventory.legMask(route));
+    }
+
+    @Test
+    void claimSeats_seatSoldOnFirstLegIsFreeOnLaterLegs() {
+        List<String> claimed = seatInventory.claimSeats(bus.getRoute("A", "B"), travelDate, TOTAL_SEATS);
+
+        assertEquals(TOTAL_SEATS, claimed.size());
+        assertEquals(0, seatInventory.countAvailableSeats(bus.getRoute("A", "C"), travelDate));
+        assertEquals(TOTAL_SEATS, seatInventory.countAvailableSeats(bus.getRoute("B", "D"), travelDate));
+        assertEquals(claimed, seatInventory.claimSeats(bus.getRoute("B", "D"), travelDate, TOTAL_SEATS));
+    }
+
+    @Test
+    void claimSeats_directionsAndDatesAreIndependent() {
+        seatInventory.claimSeats(bus.getRoute("A", "D"), travelDate, TOTAL_SEATS);
+
+        assertEquals(TOTAL_SEATS, seatInventory.countAvailableSeats(bus.getRoute("D", "A"), travelDate));
+        assertEquals(TOTAL_SEATS, seatInventory.countAvailableSeats(bus.getRoute("A", "D"), travelDate.plusDays(1)));
+    }
+
+    @Test
+    void claimSeats_whenNotEnoughSeatsClaimsNothing() {
+        seatInventory.claimSeats(bus.getRoute("B", "C"), travelDate, TOTAL_SEATS - 1);
+
+        assertTrue(seatInventory.claimSeats(bus.getRoute("A", "D"), travelDate, 2).isEmpty());
+        assertEquals(1, seatInventory.countAvailableSeats(bus.getRoute("A", "D"), travelDate));
+    }
+
+    @Test
+    void countAvailableSeats_followsReleaseAndRestore() {
+        List<String> claimed = seatInventory.claimSeats(bus.getRoute("A", "C"), travelDate, 3);
+        seatInventory.releaseSeats(bus.getRoute("A", "C"), travelDate, claimed.subList(0, 1));
+
+        assertEquals(TOTAL_SEATS - 2, seatInventory.countAvailableSeats(bus.getRoute("B", "D"), travelDate));
+        assertEquals(TOTAL_SEATS, seatInventory.countAvailableSeats(bus.getRoute("C", "D"), travelDate));
+
+        long[] legs = new long[TOTAL_SEATS];
+        legs[0] = 0b100;
+        legs[1] = 0b111;
+        seatInventory.restoreOccupiedLegs(travelDate, false, legs);
+
+        assertEquals(TOTAL_SEATS - 1, seatInventory.countAvailableSeats(bus.getRoute("A", "B"), travelDate));
+        assertEquals(TOTAL_SEATS - 2, seatInventory.countAvailableSeats(bus.getRoute("C", "D"), travelDate));
+    }
+
+    @Test
+    void claimSeats_concurrentClaimsNeverDoubleBook() throws Exception {
+        int threads = 16;
+        List<Route> routes = List.of(bus.getRoute("A", "B"), bus.getRoute("B", "D"), bus.getRoute("A", "C"), bus.getRoute("C", "D"));
+        ConcurrentLinkedQueue<String> claims = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 200; i++) {
+                        Route route = routes.get((thread + i) % routes.size());
+                        for (String seat : seatInventory.claimSeats(route, travelDate, 1 + (i % 3))) {
+                            claims.add(route.getRouteId() + ":" + seat);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Set<String> legsSold = new HashSet<>();
+        for (String claim : claims) {
+            String routeId = claim.substring(0, claim.indexOf(':'));
+            String seat = claim.substring(claim.indexOf(':') + 1);
+            Route route = bus.getRoute(routeId.substring(0, 1), routeId.substring(1));
+            long mask = seatInventory.legMask(route);
+            for (int leg = 0; leg < Long.SIZE; leg++) {
+                if ((mask & (1L << leg)) != 0) {
+                    assertTrue(legsSold.add(seat + "@" + leg), "Seat " + seat + " double booked on leg " + leg);
+                }
+            }
+        }
+        for (Route route : routes) {
+            long mask = seatInventory.legMask(route);
+            int expectedFree = 0;
+            for (String seat : bus.getSeats().stream().map(Seat::getSeatNumber).toList()) {
+                boolean free = true;
+                for (int leg = 0; leg < Long.SIZE; leg++) {
+                    if ((mask & (1L << leg)) != 0 && legsSold.contains(seat + "@" + leg)) {
+                        free = false;
+                    }
+                }
+                expectedFree += free ? 1 : 0;
+            }
+            assertEquals(expectedFree, seatInventory.countAvailableSeats(route, travelDate));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.reservation.system.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.reservation.system.Constant.DefaultConfig.MAX_RESERVATION_DAYS;
+
+class TripLocksTest {
+
+    @Test
+    void stripeOf_bookableTripsGetDistinctStripes() {
+        TripLocks tripLocks = new TripLocks(2 * MAX_RESERVATION_DAYS);
+        LocalDate today = LocalDate.now();
+        Set<Integer> stripes = new HashSet<>();
+
+        for (int day = 1; day <= MAX_RESERVATION_DAYS; day++) {
+            stripes.add(tripLocks.stripeOf("BUS-1", today.plusDays(day), false));
+            stripes.add(tripLocks.stripeOf("BUS-1", today.plusDays(day), true));
+        }
+
+        assertEquals(2 * MAX_RESERVATION_DAYS, stripes.size());
+    }
+
+    @Test
+    void lock_recordsWaitTimeWhenContended() throws InterruptedException {
+        TripLocks tripLocks = new TripLocks(4);
+        int stripe = tripLocks.stripeOf("BUS-1", LocalDate.now(), false);
+        CountDownLatch acquired = new CountDownLatch(1);
+
+        tripLocks.lock(stripe);
+        Thread waiter = new Thread(() -> {
+            tripLocks.lock(stripe);
+            tripLocks.unlock(stripe);
+            acquired.countDown();
+        });
+        waiter.start();
+        while (waiter.getState() != Thread.State.WAITING) {
+            Thread.onSpinWait();
+        }
+        tripLocks.unlock(stripe);
+        acquired.await();
+
+        assertEquals(2, tripLocks.getAcquisitions(stripe));
+        assertEquals(1, tripLocks.getContendedAcquisitions(stripe));
+        assertTrue(tripLocks.getWaitNanos(stripe) > 0);
+    }
+
+    @Test
+    void constructor_rejectsNonPositiveStripeCount() {
+        assertThrows(IllegalArgumentException.class, () -> new TripLocks(0));
+    }
+}
@@ -0,0 +1,48 @@
+package org.reservation.system.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketOf_coversEveryValueWithBucketsInOrder() {
+        long previousHighest = -1;
+        for (int bucket = 0; bucket < LatencyHistogram.bucketOf(Long.MAX_VALUE); bucket++) {
+            long highest = LatencyHistogram.highestValueOf(bucket);
+            assertEquals(bucket, LatencyHistogram.bucketOf(previousHighest + 1));
+            assertEquals(bucket, LatencyHistogram.bucketOf(highest));
+            previousHighest = highest;
+        }
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValueOf(LatencyHistogram.bucketOf(Long.MAX_VALUE)));
+    }
+
+    @Test
+    void valuesAtQuantiles_areWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 1000; micros++) {
+            histogram.record(micros * 1000);
+        }
+
+        long[] values = histogram.valuesAtQuantiles(0.5, 0.99, 1.0);
+
+        assertEquals(500_000, values[0], 500_000 / 16.0);
+        assertEquals(990_000, values[1], 990_000 / 16.0);
+        assertEquals(1_000_000, values[2]);
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500_500_000L, histogram.getSum());
+        assertEquals(1_000_000, histogram.getMax());
+    }
+
+    @Test
+    void valueAtQuantile_isZeroWhenEmptyAndClampsNegativeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.valueAtQuantile(0.99));
+
+        histogram.record(-5);
+
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.valueAtQuantile(0.99));
+    }
+}
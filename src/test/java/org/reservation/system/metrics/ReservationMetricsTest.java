@@ -0,0 +1,49 @@
+package org.reservation.system.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReservationMetricsTest {
+
+    @Test
+    void endpoint_sharesOneHistogramForUnknownPaths() {
+        ReservationMetrics metrics = new ReservationMetrics(List.of("/reserve"));
+
+        assertSame(metrics.endpoint("/reserve"), metrics.endpoint("/reserve"));
+        assertNotSame(metrics.endpoint("/reserve"), metrics.endpoint("/unknown"));
+        assertSame(metrics.endpoint("/unknown"), metrics.endpoint(null));
+    }
+
+    @Test
+    void writeTo_exportsPrometheusText() throws IOException {
+        ReservationMetrics metrics = new ReservationMetrics(List.of("/reserve"));
+        metrics.endpoint("/reserve").record(2_000_000);
+        metrics.stage(ReservationMetrics.Stage.ALLOCATE).record(1_000);
+        metrics.countRejection(ReservationMetrics.Rejection.NOT_ENOUGH_SEATS);
+        metrics.countShedRequest();
+        metrics.gauge("reservation_trips", "Trips held in memory.", () -> 14);
+        metrics.counter("reservation_lock_wait_seconds_total", "Lock wait.", "stripe", 2, stripe -> stripe * 0.5);
+
+        StringWriter out = new StringWriter();
+        metrics.writeTo(out);
+        String text = out.toString();
+
+        assertTrue(text.contains("# TYPE reservation_request_duration_seconds summary\n"));
+        assertTrue(text.contains("reservation_request_duration_seconds{endpoint=\"/reserve\",quantile=\"0.99\"} 0.002\n"));
+        assertTrue(text.contains("reservation_request_duration_seconds_count{endpoint=\"/reserve\"} 1\n"));
+        assertTrue(text.contains("reservation_request_duration_seconds_count{endpoint=\"other\"} 0\n"));
+        assertTrue(text.contains("reservation_stage_duration_seconds_sum{stage=\"allocate\"} 1.0E-6\n"));
+        assertTrue(text.contains("reservation_rejections_total{reason=\"not_enough_seats\"} 1\n"));
+        assertTrue(text.contains("reservation_rejections_total{reason=\"validation\"} 0\n"));
+        assertTrue(text.contains("reservation_requests_shed_total 1\n"));
+        assertTrue(text.contains("# TYPE reservation_trips gauge\nreservation_trips 14\n"));
+        assertTrue(text.contains("# TYPE reservation_lock_wait_seconds_total counter\n"
+                + "reservation_lock_wait_seconds_total{stripe=\"0\"} 0\n"
+                + "reservation_lock_wait_seconds_total{stripe=\"1\"} 0.5\n"));
+    }
+}
@@ -0,0 +1,61 @@
+package org.reservation.system.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FleetTest {
+
+    private static final LocalDate MONDAY = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+
+    @Test
+    void findTrips_keepsFleetOrderAndOperatingDays() {
+        Bus daily = new Bus();
+        Bus weekdays = shuttle("SHUTTLE-1", EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY));
+        Fleet fleet = Fleet.of(daily, weekdays);
+
+        List<BusRoute> monday = fleet.findTrips("A", "C", MONDAY);
+        assertEquals(List.of(daily, weekdays), monday.stream().map(BusRoute::bus).toList());
+        assertEquals("A", monday.get(1).route().getOrigin());
+        assertEquals("C", monday.get(1).route().getDestination());
+
+        List<BusRoute> sunday = fleet.findTrips("A", "C", MONDAY.minusDays(1));
+        assertEquals(List.of(daily), sunday.stream().map(BusRoute::bus).toList());
+    }
+
+    @Test
+    void findTrips_whenStopsNotServed() {
+        Fleet fleet = Fleet.of(new Bus(), shuttle("SHUTTLE-1", EnumSet.of(DayOfWeek.MONDAY)));
+
+        assertTrue(fleet.serves("C", "A"));
+        assertFalse(fleet.serves("A", "X"));
+        assertFalse(fleet.serves("A", "A"));
+        assertTrue(fleet.findTrips("A", "X", MONDAY).isEmpty());
+        assertTrue(fleet.findTrips("B", "D", MONDAY).stream().allMatch(trip -> trip.bus().getBusId().equals("BUS-1")));
+    }
+
+    @Test
+    void fleet_rejectsDuplicateBusIds() {
+        assertThrows(IllegalArgumentException.class, () -> Fleet.of(new Bus(), new Bus()));
+    }
+
+    private static Bus shuttle(String busId, EnumSet<DayOfWeek> operatingDays) {
+        return new Bus.Builder()
+                .busId(busId)
+                .stops("A", "C")
+                .seatLayout(2, 'A', 'B')
+                .ticketPrice("A", "C", BigDecimal.valueOf(80))
+                .travelDuration("A", "C", 150)
+                .baseDepartureTime(7)
+                .baseReturnDepartureTime(17)
+                .operatingDays(operatingDays)
+                .build();
+    }
+}
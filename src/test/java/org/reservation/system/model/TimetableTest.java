@@ -0,0 +1,75 @@
+package org.reservation.system.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimetableTest {
+
+    private static final LocalDate TRAVEL_DATE = LocalDate.of(2025, 3, 10);
+
+    @Test
+    void defaultBus_hasExactFaresAndTimesInBothDirections() {
+        Bus bus = new Bus();
+        Timetable timetable = bus.getTimetable();
+        int a = bus.getStopId("A");
+        int b = bus.getStopId("B");
+        int c = bus.getStopId("C");
+        int d = bus.getStopId("D");
+
+        assertEquals(BigDecimal.valueOf(100), timetable.getFare(b, d));
+        assertEquals(BigDecimal.valueOf(100), timetable.getFare(d, b));
+        assertEquals(180, timetable.getDuration(a, c));
+        assertEquals(180, timetable.getDuration(c, a));
+        assertEquals(LocalDateTime.of(2025, 3, 10, 9, 0), timetable.getDepartureTime(a, false, TRAVEL_DATE));
+        assertEquals(LocalDateTime.of(2025, 3, 10, 10, 30), timetable.getDepartureTime(b, false, TRAVEL_DATE));
+        assertEquals(LocalDateTime.of(2025, 3, 10, 14, 0), timetable.getDepartureTime(d, true, TRAVEL_DATE));
+        assertEquals(LocalDateTime.of(2025, 3, 10, 15, 30), timetable.getDepartureTime(c, true, TRAVEL_DATE));
+    }
+
+    @Test
+    void build_sumsLegsForPairsNotGiven() {
+        Timetable timetable = legs().ticketPrice("A", "C", BigDecimal.valueOf(70)).build("A", "B", "C", "D");
+
+        assertEquals(BigDecimal.valueOf(70), timetable.getFare(0, 2));
+        assertEquals(BigDecimal.valueOf(120), timetable.getFare(0, 3));
+        assertEquals(BigDecimal.valueOf(90), timetable.getFare(1, 3));
+        assertEquals(300, timetable.getDuration(3, 0));
+    }
+
+    @Test
+    void build_whenLegMissing() {
+        Timetable.Builder builder = new Timetable.Builder()
+                .ticketPrice("A", "B", BigDecimal.TEN)
+                .travelDuration("A", "B", 60)
+                .ticketPrice("A", "C", BigDecimal.TEN)
+                .travelDuration("A", "C", 120);
+
+        assertThrows(IllegalArgumentException.class, () -> builder.build("A", "B", "C"));
+    }
+
+    @Test
+    void setTimetable_replacesWholeTimetable() {
+        Bus bus = new Bus();
+        Timetable replacement = legs().baseDepartureTime(6).baseReturnDepartureTime(18).build("A", "B", "C", "D");
+
+        bus.setTimetable(replacement);
+
+        assertSame(replacement, bus.getTimetable());
+        assertThrows(IllegalArgumentException.class, () -> bus.setTimetable(legs().build("A", "B")));
+    }
+
+    private static Timetable.Builder legs() {
+        return new Timetable.Builder()
+                .ticketPrice("A", "B", BigDecimal.valueOf(40))
+                .ticketPrice("B", "C", BigDecimal.valueOf(40))
+                .ticketPrice("C", "D", BigDecimal.valueOf(50))
+                .travelDuration("A", "B", 100)
+                .travelDuration("B", "C", 100)
+                .travelDuration("C", "D", 100);
+    }
+}
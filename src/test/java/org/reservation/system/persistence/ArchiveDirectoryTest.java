@@ -0,0 +1,66 @@
+package org.reservation.system.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.reservation.system.exception.ReservationNotFoundException;
+import org.reservation.system.model.Bus;
+import org.reservation.system.model.Fleet;
+import org.reservation.system.service.BusReservationService;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchiveDirectoryTest {
+
+    private static final LocalDate YESTERDAY = LocalDate.now().minusDays(1);
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void archive_mergesByReservationId() throws IOException {
+        ArchiveDirectory archive = new ArchiveDirectory(dataDir.resolve("archive"));
+        ReservationRecord first = record("r1", YESTERDAY);
+        ReservationRecord second = record("r2", YESTERDAY);
+
+        archive.archive(YESTERDAY, List.of(first));
+        archive.archive(YESTERDAY, List.of(first, second));
+
+        assertEquals(List.of(first, second), archive.read(YESTERDAY));
+        assertTrue(archive.read(YESTERDAY.minusDays(1)).isEmpty());
+    }
+
+    @Test
+    void reservationService_archivesDepartedReservationsOnStartup() throws IOException {
+        Path logFile = dataDir.resolve("reservations.wal");
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        try (WriteAheadLog log = WriteAheadLog.open(logFile, Duration.ofMillis(1))) {
+            log.replay(0, record -> { });
+            log.awaitDurable(log.append(record("departed", YESTERDAY)));
+            log.awaitDurable(log.append(record("upcoming", tomorrow)));
+        }
+
+        ArchiveDirectory archive = new ArchiveDirectory(dataDir.resolve("archive"));
+        try (WriteAheadLog log = WriteAheadLog.open(logFile, Duration.ofMillis(1))) {
+            BusReservationService service = new BusReservationService.Builder(Fleet.of(new Bus()))
+                    .reservationLog(log)
+                    .reservationArchive(archive)
+                    .build();
+
+            assertThrows(ReservationNotFoundException.class, () -> service.getReservation("departed"));
+            assertEquals("upcoming", service.getReservation("upcoming").getReservationId());
+            assertEquals(0, service.evictDepartedTrips());
+        }
+        assertEquals(List.of("departed"), archive.read(YESTERDAY).stream().map(ReservationRecord::reservationId).toList());
+    }
+
+    private static ReservationRecord record(String reservationId, LocalDate travelDate) {
+        return new ReservationRecord(reservationId, "BUS-1", "A", "C", travelDate, List.of("1A"), BigDecimal.valueOf(100));
+    }
+}
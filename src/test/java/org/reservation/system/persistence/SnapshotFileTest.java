@@ -0,0 +1,158 @@
+package org.reservation.system.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.reservation.system.exception.NotEnoughSeatException;
+import org.reservation.system.exception.ReservationNotFoundException;
+import org.reservation.system.model.Bus;
+import org.reservation.system.model.Fleet;
+import org.reservation.system.model.request.AvailabilityRequest;
+import org.reservation.system.model.request.ReservationRequest;
+import org.reservation.system.service.BusReservationService;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.reservation.system.Constant.DefaultConfig.LOCK_STRIPES;
+
+class SnapshotFileTest {
+
+    private static final Duration COMMIT_WINDOW = Duration.ofMillis(1);
+    private static final LocalDate TRAVEL_DATE = LocalDate.now().plusDays(1);
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void read_returnsWrittenSnapshot() throws IOException {
+        Path file = dataDir.resolve("inventory.snapshot");
+        ReservationRecord reservation = new ReservationRecord("r1", "BUS-1", "A", "C", TRAVEL_DATE, List.of("1A", "1B"), BigDecimal.TEN);
+        InventorySnapshot snapshot = new InventorySnapshot(42,
+                List.of(new TripSnapshot("BUS-1", TRAVEL_DATE, false, new long[]{0b011, 0b011, 0}),
+                        new TripSnapshot("BUS-1", TRAVEL_DATE, true, new long[]{0, 0, 0b100})),
+                List.of(reservation));
+
+        SnapshotFile.write(file, snapshot);
+        InventorySnapshot read = SnapshotFile.read(file).orElseThrow();
+
+        assertEquals(42, read.logPosition());
+        assertEquals("BUS-1", read.trips().get(0).busId());
+        assertEquals(2, read.trips().size());
+        assertArrayEquals(new long[]{0b011, 0b011, 0}, read.trips().get(0).occupiedLegs());
+        assertTrue(read.trips().get(1).returnTrip());
+        assertArrayEquals(new long[]{0, 0, 0b100}, read.trips().get(1).occupiedLegs());
+        assertEquals(List.of(reservation), read.reservations());
+    }
+
+    @Test
+    void read_whenFileMissing() throws IOException {
+        assertTrue(SnapshotFile.read(dataDir.resolve("inventory.snapshot")).isEmpty());
+    }
+
+    @Test
+    void read_whenFileIsNotSnapshot() throws IOException {
+        Path file = Files.write(dataDir.resolve("inventory.snapshot"), new byte[]{1, 2, 3});
+
+        assertThrows(IOException.class, () -> SnapshotFile.read(file));
+    }
+
+    @Test
+    void reservationService_restoresSnapshotAndReplaysLogTail() throws IOException {
+        Bus bus = new Bus();
+        Path logFile = dataDir.resolve("reservations.wal");
+        Path snapshotFile = dataDir.resolve("inventory.snapshot");
+        try (WriteAheadLog log = WriteAheadLog.open(logFile, COMMIT_WINDOW)) {
+            BusReservationService service = service(bus, log, snapshotFile);
+            service.reserveTicket(request(10));
+            service.writeSnapshot();
+            service.reserveTicket(request(5));
+        }
+
+        try (WriteAheadLog log = WriteAheadLog.open(logFile, COMMIT_WINDOW)) {
+            BusReservationService restored = service(bus, log, snapshotFile);
+
+            assertThrows(NotEnoughSeatException.class, () -> restored.reserveTicket(request(26)));
+            assertEquals(25, restored.reserveTicket(request(25)).getAllocatedSeatNumbers().size());
+        }
+        assertTrue(SnapshotFile.read(snapshotFile).orElseThrow().logPosition() > 0);
+    }
+
+    @Test
+    void reservationService_replaysCancellationAndResaleAfterSnapshot() throws IOException {
+        Bus bus = new Bus();
+        Path logFile = dataDir.resolve("reservations.wal");
+        Path snapshotFile = dataDir.resolve("inventory.snapshot");
+        String cancelledId;
+        try (WriteAheadLog log = WriteAheadLog.open(logFile, COMMIT_WINDOW)) {
+            BusReservationService service = service(bus, log, snapshotFile);
+            cancelledId = service.reserveTicket(request(10)).getReservationId();
+            service.writeSnapshot();
+            service.cancelReservation(cancelledId);
+            service.reserveTicket(request(40));
+        }
+
+        try (WriteAheadLog log = WriteAheadLog.open(logFile, COMMIT_WINDOW)) {
+            BusReservationService restored = service(bus, log, snapshotFile);
+
+            assertThrows(ReservationNotFoundException.class, () -> restored.getReservation(cancelledId));
+            assertThrows(NotEnoughSeatException.class, () -> restored.reserveTicket(request(1)));
+        }
+
+        // Without the snapshot the whole log is replayed, and the cancelled reservation is never applied
+        Files.delete(snapshotFile);
+        try (WriteAheadLog log = WriteAheadLog.open(logFile, COMMIT_WINDOW)) {
+            BusReservationService restored = service(bus, log, snapshotFile);
+
+            assertThrows(ReservationNotFoundException.class, () -> restored.getReservation(cancelledId));
+            assertThrows(NotEnoughSeatException.class, () -> restored.reserveTicket(request(1)));
+        }
+    }
+
+    @Test
+    void reservationService_snapshotSavesHeldSeatsAsFree() throws IOException {
+        Bus bus = new Bus();
+        Path logFile = dataDir.resolve("reservations.wal");
+        Path snapshotFile = dataDir.resolve("inventory.snapshot");
+        try (WriteAheadLog log = WriteAheadLog.open(logFile, COMMIT_WINDOW)) {
+            BusReservationService service = service(bus, log, snapshotFile);
+            service.reserveTicket(request(10));
+            service.holdSeats(new AvailabilityRequest.Builder()
+                    .origin("A")
+                    .destination("D")
+                    .passengerCount(30)
+                    .travelDate(TRAVEL_DATE.toString())
+                    .build());
+            service.writeSnapshot();
+        }
+
+        try (WriteAheadLog log = WriteAheadLog.open(logFile, COMMIT_WINDOW)) {
+            BusReservationService restored = service(bus, log, snapshotFile);
+
+            assertEquals(30, restored.reserveTicket(request(30)).getAllocatedSeatNumbers().size());
+        }
+    }
+
+    private static BusReservationService service(Bus bus, WriteAheadLog log, Path snapshotFile) {
+        return new BusReservationService.Builder(Fleet.of(bus))
+                .lockStripes(LOCK_STRIPES)
+                .reservationLog(log)
+                .snapshotFile(snapshotFile)
+                .build();
+    }
+
+    private static ReservationRequest request(int passengers) {
+        return new ReservationRequest.Builder()
+                .origin("A")
+                .destination("D")
+                .passengerCount(passengers)
+                .paymentAmount(BigDecimal.valueOf(150L * passengers))
+                .travelDate(TRAVEL_DATE.toString())
+                .build();
+    }
+}
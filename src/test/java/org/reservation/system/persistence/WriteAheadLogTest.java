@@ -0,0 +1,168 @@
+package org.reservation.system.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.reservation.system.exception.NotEnoughSeatException;
+import org.reservation.system.exception.PersistenceException;
+import org.reservation.system.model.Bus;
+import org.reservation.system.model.Fleet;
+import org.reservation.system.model.request.ReservationRequest;
+import org.reservation.system.model.response.ReservationResponse;
+import org.reservation.system.service.BusReservationService;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.reservation.system.Constant.DefaultConfig.LOCK_STRIPES;
+
+class WriteAheadLogTest {
+
+    private static final Duration COMMIT_WINDOW = Duration.ofMillis(1);
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void replay_returnsDurableRecordsInOrder() throws IOException {
+        Path file = dataDir.resolve("reservations.wal");
+        ReservationRecord first = record("r1", List.of("1A", "1B"), new BigDecimal("100.50"));
+        ReservationRecord second = record("r2", List.of("2A"), null);
+
+        try (WriteAheadLog log = WriteAheadLog.open(file, COMMIT_WINDOW)) {
+            log.replay(0, record -> fail("Unexpected record " + record));
+            log.append(first);
+            log.awaitDurable(log.append(second));
+        }
+
+        assertEquals(List.of(first, second), replay(file));
+    }
+
+    @Test
+    void open_dropsTornRecordAtEndOfFile() throws IOException {
+        Path file = dataDir.resolve("reservations.wal");
+        ReservationRecord record = record("r1", List.of("1A"), BigDecimal.TEN);
+        try (WriteAheadLog log = WriteAheadLog.open(file, COMMIT_WINDOW)) {
+            log.replay(0, ignored -> { });
+            log.awaitDurable(log.append(record));
+        }
+        long validLength = Files.size(file);
+        Files.write(file, new byte[]{0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+
+        assertEquals(List.of(record), replay(file));
+        assertEquals(validLength, Files.size(file));
+    }
+
+    @Test
+    void replay_startsFromGivenPosition() throws IOException {
+        Path file = dataDir.resolve("reservations.wal");
+        ReservationRecord first = record("r1", List.of("1A"), BigDecimal.ONE);
+        ReservationRecord second = record("r2", List.of("1B"), BigDecimal.TWO);
+        long firstEnd;
+        try (WriteAheadLog log = WriteAheadLog.open(file, COMMIT_WINDOW)) {
+            log.replay(0, ignored -> { });
+            firstEnd = log.append(first);
+            log.awaitDurable(log.append(second));
+        }
+
+        List<LogRecord> records = new ArrayList<>();
+        try (WriteAheadLog log = WriteAheadLog.open(file, COMMIT_WINDOW)) {
+            log.replay(firstEnd, records::add);
+        }
+
+        assertEquals(List.of(second), records);
+    }
+
+    @Test
+    void discardBefore_deletesSegmentsBeforeTheSnapshotPosition() throws IOException {
+        Path file = dataDir.resolve("reservations.wal");
+        ReservationRecord first = record("r1", List.of("1A"), BigDecimal.ONE);
+        ReservationRecord second = record("r2", List.of("1B"), BigDecimal.TWO);
+        ReservationRecord third = record("r3", List.of("1C"), BigDecimal.TEN);
+        long firstEnd;
+        long secondEnd;
+        try (WriteAheadLog log = WriteAheadLog.open(file, COMMIT_WINDOW)) {
+            log.replay(0, ignored -> { });
+            firstEnd = log.append(first);
+            log.awaitDurable(firstEnd);
+            log.discardBefore(firstEnd);
+            secondEnd = log.append(second);
+            log.awaitDurable(secondEnd);
+            log.discardBefore(secondEnd);
+            log.awaitDurable(log.append(third));
+        }
+
+        assertFalse(Files.exists(file));
+        assertTrue(Files.exists(dataDir.resolve("reservations.wal." + firstEnd)));
+        assertTrue(Files.exists(dataDir.resolve("reservations.wal." + secondEnd)));
+        List<LogRecord> records = new ArrayList<>();
+        try (WriteAheadLog log = WriteAheadLog.open(file, COMMIT_WINDOW)) {
+            log.replay(firstEnd, records::add);
+            log.awaitDurable(log.append(first));
+        }
+        assertEquals(List.of(second, third), records);
+        records.clear();
+        try (WriteAheadLog log = WriteAheadLog.open(file, COMMIT_WINDOW)) {
+            log.replay(secondEnd, records::add);
+        }
+        assertEquals(List.of(third, first), records);
+        assertThrows(PersistenceException.class, () -> replay(file));
+    }
+
+    @Test
+    void append_beforeReplayIsRejected() throws IOException {
+        try (WriteAheadLog log = WriteAheadLog.open(dataDir.resolve("reservations.wal"), COMMIT_WINDOW)) {
+            assertThrows(IllegalStateException.class, () -> log.append(record("r1", List.of("1A"), BigDecimal.ONE)));
+        }
+    }
+
+    @Test
+    void reservationService_recoversSeatsFromLog() throws IOException {
+        Path file = dataDir.resolve("reservations.wal");
+        Bus bus = new Bus();
+        ReservationResponse reserved;
+        try (WriteAheadLog log = WriteAheadLog.open(file, COMMIT_WINDOW)) {
+            reserved = service(bus, log).reserveTicket(request(bus.getSeats().size()));
+        }
+
+        try (WriteAheadLog log = WriteAheadLog.open(file, COMMIT_WINDOW)) {
+            BusReservationService recovered = service(bus, log);
+
+            assertThrows(NotEnoughSeatException.class, () -> recovered.reserveTicket(request(1)));
+        }
+        assertEquals(reserved.getReservationId(), ((ReservationRecord) replay(file).getFirst()).reservationId());
+    }
+
+    private static List<LogRecord> replay(Path file) throws IOException {
+        List<LogRecord> records = new ArrayList<>();
+        try (WriteAheadLog log = WriteAheadLog.open(file, COMMIT_WINDOW)) {
+            log.replay(0, records::add);
+        }
+        return records;
+    }
+
+    private static ReservationRecord record(String reservationId, List<String> seats, BigDecimal price) {
+        return new ReservationRecord(reservationId, "BUS-1", "A", "C", LocalDate.now().plusDays(1), seats, price);
+    }
+
+    private static BusReservationService service(Bus bus, WriteAheadLog log) {
+        return new BusReservationService.Builder(Fleet.of(bus)).lockStripes(LOCK_STRIPES).reservationLog(log).build();
+    }
+
+    private static ReservationRequest request(int passengers) {
+        return new ReservationRequest.Builder()
+                .origin("A")
+                .destination("D")
+                .passengerCount(passengers)
+                .paymentAmount(BigDecimal.valueOf(150L * passengers))
+                .travelDate(LocalDate.now().plusDays(1).toString())
+                .build();
+    }
+}
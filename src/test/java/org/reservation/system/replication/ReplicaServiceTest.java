@@ -0,0 +1,204 @@
+package org.reservation.system.replication;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reservation.system.exception.ReservationNotFoundException;
+import org.reservation.system.model.Bus;
+import org.reservation.system.model.Fleet;
+import org.reservation.system.model.request.AvailabilityRequest;
+import org.reservation.system.model.request.ReservationRequest;
+import org.reservation.system.model.response.ReservationResponse;
+import org.reservation.system.persistence.ReservationLog;
+import org.reservation.system.service.BusReservationService;
+import org.reservation.system.shard.ShardClient;
+import org.reservation.system.shard.ShardServer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.BindException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaServiceTest {
+
+    private final List<ReplicaService> replicas = new ArrayList<>();
+    private ReplicationLog log;
+    private BusReservationService primary;
+    private ShardServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        startPrimary(1024);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (ReplicaService replica : replicas) {
+            replica.close();
+        }
+        server.close();
+    }
+
+    @Test
+    void replica_loadsThePrimaryAndFollowsItsChanges() {
+        LocalDate date = LocalDate.now().plusDays(2);
+        primary.reserveTicket(reservation(date, 30));
+        ReplicaService replica = startReplica(Duration.ofSeconds(30));
+        awaitCaughtUp(replica);
+
+        ReservationResponse reserved = primary.reserveTicket(reservation(date, 9));
+        awaitCaughtUp(replica);
+
+        assertTrue(replica.checkAvailability(availability(date, 1)).isSeatAvailability());
+        assertFalse(replica.checkAvailability(availability(date, 2)).isSeatAvailability());
+        primary.cancelReservation(reserved.getReservationId());
+        awaitCaughtUp(replica);
+        assertTrue(replica.checkAvailability(availability(date, 10)).isSeatAvailability());
+        assertEquals(0, replica.getForwardedReads());
+        assertEquals(0, replica.getLagRecords());
+        assertTrue(replica.getStalenessMillis() < 30_000);
+    }
+
+    @Test
+    void writesAndLookups_areForwardedToThePrimary() {
+        LocalDate date = LocalDate.now().plusDays(3);
+        ReplicaService replica = startReplica(Duration.ofSeconds(30));
+
+        ReservationResponse reserved = replica.reserveTicket(reservation(date, 40));
+
+        assertEquals(reserved.getReservationId(), primary.getReservation(reserved.getReservationId()).getReservationId());
+        assertEquals(reserved.getReservationId(), replica.getReservation(reserved.getReservationId()).getReservationId());
+        awaitCaughtUp(replica);
+        assertFalse(replica.checkAvailability(availability(date, 1)).isSeatAvailability());
+        replica.cancelReservation(reserved.getReservationId());
+        assertThrows(ReservationNotFoundException.class, () -> primary.getReservation(reserved.getReservationId()));
+    }
+
+    @Test
+    void reads_areForwardedUntilTheReplicaIsLoaded() throws IOException {
+        // A primary that does not publish its changes never loads the replica
+        ShardServer unpublished = ShardServer.start(primary, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        try {
+            LocalDate date = LocalDate.now().plusDays(4);
+            primary.reserveTicket(reservation(date, 40));
+            ReplicaService replica = ReplicaService.start(() -> new BusReservationService(new Bus()),
+                    new ShardClient(new InetSocketAddress(InetAddress.getLoopbackAddress(), unpublished.getPort()), 2, 5000),
+                    Duration.ofSeconds(30));
+            replicas.add(replica);
+
+            assertFalse(replica.checkAvailability(availability(date, 1)).isSeatAvailability());
+            assertEquals(new BigDecimal("100"), replica.checkAvailability(availability(date.plusDays(1), 2)).getPricingInfo().totalPrice());
+            assertEquals(1, replica.checkAvailabilityCalendar("A", "B", 1, date, 1).getDays().size());
+            assertEquals(3, replica.getForwardedReads());
+            assertEquals(Long.MAX_VALUE, replica.getStalenessMillis());
+        } finally {
+            unpublished.close();
+        }
+    }
+
+    @Test
+    void replicaBehindTheBacklog_isLoadedAfresh() throws IOException {
+        server.close();
+        startPrimary(4);
+        LocalDate date = LocalDate.now().plusDays(5);
+        ReplicaService replica = startReplica(Duration.ofSeconds(30));
+        awaitCaughtUp(replica);
+        int port = server.getPort();
+
+        // Book more than the backlog holds while the replica is disconnected
+        server.close();
+        for (int i = 0; i < 10; i++) {
+            primary.reserveTicket(reservation(date, 4));
+        }
+        restartPrimary(port);
+        awaitCaughtUp(replica);
+
+        assertEquals(10, log.getSequence());
+        assertFalse(replica.checkAvailability(availability(date, 1)).isSeatAvailability());
+        assertTrue(replica.checkAvailability(availability(LocalDate.now().plusDays(6), 40)).isSeatAvailability());
+        assertEquals(0, replica.getForwardedReads());
+    }
+
+    private void startPrimary(int backlogSize) throws IOException {
+        log = new ReplicationLog(ReservationLog.NONE, backlogSize);
+        primary = new BusReservationService.Builder(Fleet.of(new Bus())).reservationLog(log).build();
+        server = ShardServer.start(primary, new ReplicationPublisher(log, primary),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    }
+
+    /**
+     * Serves the primary on its port again, once the connections closed with the old server have released it.
+     */
+    private void restartPrimary(int port) throws IOException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (true) {
+            try {
+                server = ShardServer.start(primary, new ReplicationPublisher(log, primary),
+                        new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+                return;
+            } catch (BindException e) {
+                if (System.nanoTime() > deadline) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private ReplicaService startReplica(Duration maxStaleness) {
+        ReplicaService replica = ReplicaService.start(() -> new BusReservationService(new Bus()),
+                new ShardClient(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()), 2, 5000),
+                maxStaleness);
+        replicas.add(replica);
+        return replica;
+    }
+
+    private void awaitCaughtUp(ReplicaService replica) {
+        await(() -> replica.getStalenessMillis() != Long.MAX_VALUE && replica.getNextSequence() == log.getSequence());
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Replica did not catch up with the primary");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+            }
+        }
+    }
+
+    private static AvailabilityRequest availability(LocalDate date, int passengers) {
+        return new AvailabilityRequest.Builder()
+                .origin("A")
+                .destination("B")
+                .travelDate(date.toString())
+                .passengerCount(passengers)
+                .build();
+    }
+
+    private static ReservationRequest reservation(LocalDate date, int passengers) {
+        return new ReservationRequest.Builder()
+                .origin("A")
+                .destination("B")
+                .travelDate(date.toString())
+                .passengerCount(passengers)
+                .paymentAmount(new BigDecimal("50").multiply(BigDecimal.valueOf(passengers)))
+                .build();
+    }
+}
@@ -0,0 +1,72 @@
+package org.reservation.system.replication;
+
+import org.junit.jupiter.api.Test;
+import org.reservation.system.persistence.CancellationRecord;
+import org.reservation.system.persistence.LogRecord;
+import org.reservation.system.persistence.ReservationLog;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicationLogTest {
+
+    private final ReplicationLog log = new ReplicationLog(ReservationLog.NONE, 4);
+
+    @Test
+    void append_numbersRecordsInLogOrder() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            log.append(new CancellationRecord("r" + i));
+        }
+
+        ReplicationLog.Changes changes = log.await(1, 10, 0, TimeUnit.MILLISECONDS);
+
+        assertEquals(3, log.getSequence());
+        assertEquals(1, changes.firstSequence());
+        assertEquals(List.<LogRecord>of(new CancellationRecord("r1"), new CancellationRecord("r2")), changes.records());
+        assertEquals(3, changes.headSequence());
+        assertEquals(1, log.await(0, 1, 0, TimeUnit.MILLISECONDS).records().size());
+    }
+
+    @Test
+    void await_returnsNoRecordsAfterTheTimeout() throws InterruptedException {
+        log.append(new CancellationRecord("r0"));
+
+        ReplicationLog.Changes changes = log.await(1, 10, 20, TimeUnit.MILLISECONDS);
+
+        assertTrue(changes.records().isEmpty());
+        assertEquals(1, changes.headSequence());
+    }
+
+    @Test
+    void await_wakesOnAppend() throws InterruptedException {
+        Thread.ofVirtual().start(() -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            log.append(new CancellationRecord("r0"));
+        });
+
+        ReplicationLog.Changes changes = log.await(0, 10, 10, TimeUnit.SECONDS);
+
+        assertEquals(List.<LogRecord>of(new CancellationRecord("r0")), changes.records());
+    }
+
+    @Test
+    void overrunBacklog_returnsNull() throws InterruptedException {
+        for (int i = 0; i < 6; i++) {
+            log.append(new CancellationRecord("r" + i));
+        }
+
+        assertFalse(log.retains(1));
+        assertTrue(log.retains(2));
+        assertTrue(log.retains(6));
+        assertNull(log.await(1, 10, 0, TimeUnit.MILLISECONDS));
+        assertNull(log.since(7));
+        assertEquals(4, log.since(2).records().size());
+        assertThrows(IllegalArgumentException.class, () -> new ReplicationLog(ReservationLog.NONE, 0));
+    }
+}
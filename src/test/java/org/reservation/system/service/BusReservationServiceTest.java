@@ -2,20 +2,38 @@ package org.reservation.system.service;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.reservation.system.event.SeatEvent;
+import org.reservation.system.event.SeatEventRing;
+import org.reservation.system.exception.HoldNotFoundException;
 import org.reservation.system.exception.RouteNotFoundException;
 import org.reservation.system.exception.NotEnoughSeatException;
+import org.reservation.system.exception.RequestValidationException;
+import org.reservation.system.exception.ReservationNotFoundException;
+import org.reservation.system.inventory.SeatInventory;
 import org.reservation.system.model.Bus;
+import org.reservation.system.model.Fleet;
 import org.reservation.system.model.Route;
 import org.reservation.system.model.Seat;
 import org.reservation.system.model.request.AvailabilityRequest;
+import org.reservation.system.model.request.ConfirmRequest;
 import org.reservation.system.model.request.ReservationRequest;
+import org.reservation.system.model.response.ApiResponse;
+import org.reservation.system.model.response.AvailabilityCalendarResponse;
 import org.reservation.system.model.response.AvailabilityResponse;
+import org.reservation.system.model.response.CalendarDay;
+import org.reservation.system.model.response.HoldResponse;
 import org.reservation.system.model.response.ReservationResponse;
 import org.reservation.system.util.DateUtils;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
+import java.time.*;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -29,9 +47,11 @@ class BusReservationServiceTest {
 
     @BeforeEach
     void setUp() {
-        bus = mock(Bus.class);
+        bus = spy(new Bus());
         route = mock(Route.class);
         when(bus.getRoute("A", "B")).thenReturn(route);
+        when(route.getOrigin()).thenReturn("A");
+        when(route.getDestination()).thenReturn("B");
         busReservationService = new BusReservationService(bus);
         travelDate = DateUtils.formatDate(LocalDate.now().plusDays(1), "yyyy-MM-dd") ;
     }
@@ -179,4 +199,371 @@ class BusReservationServiceTest {
         busReservationService.reserveTicket(request1);
         assertThrows(NotEnoughSeatException.class, () -> busReservationService.reserveTicket(request2));
     }
+
+    @Test
+    void getReservation_returnsReservedTicket() {
+        when(bus.getSeats()).thenReturn(List.of(new Seat("1A"), new Seat("1B")));
+        ReservationResponse reserved = busReservationService.reserveTicket(reservation("A", "B", 2));
+
+        ReservationResponse found = busReservationService.getReservation(reserved.getReservationId());
+
+        assertEquals(reserved.getAllocatedSeatNumbers(), found.getAllocatedSeatNumbers());
+        assertEquals(reserved.getDepartureTime(), found.getDepartureTime());
+        assertEquals("A", found.getOrigin());
+        assertThrows(ReservationNotFoundException.class, () -> busReservationService.getReservation("unknown"));
+    }
+
+    @Test
+    void cancelReservation_freesSeatsForResale() {
+        when(bus.getSeats()).thenReturn(List.of(new Seat("1A"), new Seat("1B")));
+        ReservationResponse reserved = busReservationService.reserveTicket(reservation("A", "B", 2));
+
+        ReservationResponse cancelled = busReservationService.cancelReservation(reserved.getReservationId());
+
+        assertEquals("CANCELLED", cancelled.getStatus());
+        assertEquals(reserved.getAllocatedSeatNumbers(), cancelled.getAllocatedSeatNumbers());
+        assertThrows(ReservationNotFoundException.class, () -> busReservationService.getReservation(reserved.getReservationId()));
+        assertThrows(ReservationNotFoundException.class, () -> busReservationService.cancelReservation(reserved.getReservationId()));
+        assertEquals(reserved.getAllocatedSeatNumbers(), busReservationService.reserveTicket(reservation("A", "B", 2)).getAllocatedSeatNumbers());
+    }
+
+    @Test
+    void cancelReservation_concurrentBookAndCancelNeverLosesSeats() throws Exception {
+        Bus coach = new Bus();
+        BusReservationService service = new BusReservationService.Builder(Fleet.of(coach)).lockStripes(4).build();
+        List<String[]> routes = List.of(new String[]{"A", "B"}, new String[]{"B", "D"}, new String[]{"A", "C"},
+                new String[]{"C", "D"}, new String[]{"A", "D"}, new String[]{"D", "A"});
+        Map<String, ReservationResponse> active = new ConcurrentHashMap<>();
+        ConcurrentLinkedQueue<String> cancellable = new ConcurrentLinkedQueue<>();
+        int threads = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 300; i++) {
+                        String[] stops = routes.get((thread + i) % routes.size());
+                        if (i % 3 == 2) {
+                            // Cancel someone's booking; two threads may race for the same one
+                            String reservationId = cancellable.peek();
+                            if (reservationId != null) {
+                                try {
+                                    service.cancelReservation(reservationId);
+                                    assertNotNull(active.remove(reservationId), "Reservation cancelled twice");
+                                } catch (ReservationNotFoundException e) {
+                                    // Lost the race to another thread
+                                }
+                                cancellable.remove(reservationId);
+                            }
+                            continue;
+                        }
+                        try {
+                            ReservationResponse response = service.reserveTicket(reservation(stops[0], stops[1], 1 + (i % 2)));
+                            active.put(response.getReservationId(), response);
+                            cancellable.add(response.getReservationId());
+                        } catch (NotEnoughSeatException e) {
+                            // Trip full for now
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        SeatInventory seatInventory = new SeatInventory(coach);
+        Set<String> legsSold = new HashSet<>();
+        for (ReservationResponse response : active.values()) {
+            Route booked = coach.getRoute(response.getOrigin(), response.getDestination());
+            long mask = seatInventory.legMask(booked);
+            for (String seat : response.getAllocatedSeatNumbers()) {
+                for (int leg = 0; leg < Long.SIZE; leg++) {
+                    if ((mask & (1L << leg)) != 0) {
+                        String key = seat + "@" + leg + (booked.isReturnRoute() ? "R" : "");
+                        assertTrue(legsSold.add(key), "Seat " + seat + " double booked on leg " + leg);
+                    }
+                }
+            }
+            seatInventory.occupySeats(booked, LocalDate.parse(travelDate), response.getAllocatedSeatNumbers());
+        }
+        // Every trip must have exactly the free seats left over by the active reservations
+        for (String[] stops : routes) {
+            int expectedFree = seatInventory.countAvailableSeats(coach.getRoute(stops[0], stops[1]), LocalDate.parse(travelDate));
+            AvailabilityResponse all = service.checkAvailability(availability(stops[0], stops[1], expectedFree));
+            AvailabilityResponse oneMore = service.checkAvailability(availability(stops[0], stops[1], expectedFree + 1));
+            assertTrue(expectedFree == 0 || all.isSeatAvailability(), "Seats lost on " + stops[0] + stops[1]);
+            assertFalse(oneMore.isSeatAvailability(), "Seats freed twice on " + stops[0] + stops[1]);
+        }
+    }
+
+    @Test
+    void confirmHold_turnsHeldSeatsIntoReservation() {
+        BusReservationService service = new BusReservationService.Builder(Fleet.of(shuttle("SHUTTLE-1"))).build();
+
+        HoldResponse hold = service.holdSeats(availability("A", "C", 3));
+        assertThrows(NotEnoughSeatException.class, () -> service.reserveTicket(reservation("A", "C", 2)));
+        assertThrows(RequestValidationException.class, () -> service.confirmHold(confirmation(hold, BigDecimal.ZERO)));
+        assertThrows(RequestValidationException.class, () -> service.confirmHold(confirmation(hold, null)));
+        ReservationResponse confirmed = service.confirmHold(confirmation(hold, new BigDecimal("240.00")));
+
+        assertEquals(new BigDecimal("240"), hold.getTotalPrice());
+        assertEquals(0, hold.getTotalPrice().compareTo(confirmed.getTotalPrice()));
+        assertEquals(hold.getAllocatedSeatNumbers(), confirmed.getAllocatedSeatNumbers());
+        assertEquals(confirmed.getReservationId(), service.getReservation(confirmed.getReservationId()).getReservationId());
+        assertThrows(HoldNotFoundException.class, () -> service.confirmHold(confirmation(hold)));
+        assertEquals(0, service.expireHolds());
+        assertThrows(NotEnoughSeatException.class, () -> service.reserveTicket(reservation("A", "C", 2)));
+    }
+
+    @Test
+    void expireHolds_releasesSeatsOfUnconfirmedHolds() {
+        MutableClock clock = new MutableClock();
+        BusReservationService service = new BusReservationService.Builder(Fleet.of(shuttle("SHUTTLE-1")))
+                .holdTtl(Duration.ofSeconds(30))
+                .clock(clock)
+                .build();
+        HoldResponse expiring = service.holdSeats(availability("A", "C", 2));
+        clock.advance(Duration.ofSeconds(20));
+        HoldResponse kept = service.holdSeats(availability("A", "C", 2));
+
+        clock.advance(Duration.ofSeconds(11));
+        assertEquals(1, service.expireHolds());
+
+        assertThrows(HoldNotFoundException.class, () -> service.confirmHold(confirmation(expiring)));
+        assertEquals(expiring.getAllocatedSeatNumbers(), service.reserveTicket(reservation("A", "C", 2)).getAllocatedSeatNumbers());
+        // Past its expiry but before the timer fires, a hold can no longer be confirmed
+        clock.advance(Duration.ofSeconds(20));
+        assertThrows(HoldNotFoundException.class, () -> service.confirmHold(confirmation(kept)));
+        assertEquals(0, service.expireHolds());
+        assertEquals(kept.getAllocatedSeatNumbers(), service.reserveTicket(reservation("A", "C", 2)).getAllocatedSeatNumbers());
+    }
+
+    @Test
+    void evictDepartedTrips_departsTripsByTheServiceClock() {
+        MutableClock clock = new MutableClock();
+        BusReservationService service = new BusReservationService.Builder(Fleet.of(shuttle("SHUTTLE-1")))
+                .clock(clock)
+                .build();
+        service.reserveTicket(reservation("A", "C", 2));
+
+        assertEquals(0, service.evictDepartedTrips());
+        assertEquals(1, service.getTripCount());
+        Instant dayAfterTravel = LocalDate.parse(travelDate).plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        clock.advance(Duration.between(clock.instant(), dayAfterTravel));
+
+        assertEquals(1, service.evictDepartedTrips());
+        assertEquals(0, service.getTripCount());
+        assertEquals(0, service.getReservationCount());
+    }
+
+    @Test
+    void seatEvents_arePublishedInTheOrderSeatsChange() throws InterruptedException {
+        MutableClock clock = new MutableClock();
+        SeatEventRing seatEvents = new SeatEventRing(64);
+        BusReservationService service = new BusReservationService.Builder(Fleet.of(shuttle("SHUTTLE-1")))
+                .holdTtl(Duration.ofSeconds(30))
+                .clock(clock)
+                .seatEvents(seatEvents)
+                .build();
+
+        ReservationResponse reserved = service.reserveTicket(reservation("A", "C", 2));
+        service.cancelReservation(reserved.getReservationId());
+        HoldResponse confirmed = service.holdSeats(availability("A", "C", 1));
+        ReservationResponse fromHold = service.confirmHold(confirmation(confirmed));
+        HoldResponse expired = service.holdSeats(availability("A", "C", 1));
+        clock.advance(Duration.ofSeconds(31));
+        service.expireHolds();
+
+        List<SeatEvent> events = seatEvents.await(0, 64, 0, TimeUnit.MILLISECONDS);
+        assertEquals(List.of(SeatEvent.Type.SEATS_CLAIMED, SeatEvent.Type.RESERVATION_CREATED,
+                SeatEvent.Type.SEATS_RELEASED, SeatEvent.Type.RESERVATION_CANCELLED,
+                SeatEvent.Type.SEATS_CLAIMED, SeatEvent.Type.RESERVATION_CREATED,
+                SeatEvent.Type.SEATS_CLAIMED, SeatEvent.Type.SEATS_RELEASED), events.stream().map(SeatEvent::type).toList());
+        List<String> bookingIds = List.of(reserved.getReservationId(), reserved.getReservationId(), reserved.getReservationId(),
+                reserved.getReservationId(), confirmed.getHoldId(), fromHold.getReservationId(), expired.getHoldId(), expired.getHoldId());
+        assertEquals(bookingIds, events.stream().map(SeatEvent::bookingId).toList());
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(i, events.get(i).sequence());
+        }
+        SeatEvent claim = events.get(0);
+        assertEquals("SHUTTLE-1", claim.busId());
+        assertEquals(LocalDate.parse(travelDate), claim.travelDate());
+        assertEquals("A", claim.origin());
+        assertEquals("C", claim.destination());
+        assertEquals(reserved.getAllocatedSeatNumbers(), claim.seatNumbers());
+    }
+
+    @Test
+    void reserveTickets_groupsRequestsByTripAndKeepsRequestOrder() {
+        BusReservationService service = new BusReservationService.Builder(Fleet.of(shuttle("SHUTTLE-1"), shuttle("SHUTTLE-2"))).build();
+
+        List<ApiResponse<ReservationResponse>> results = service.reserveTickets(List.of(
+                reservation("A", "C", 3),
+                reservation("A", "X", 1),
+                reservation("C", "A", 4),
+                reservation("A", "C", 3),
+                reservation("A", "C", 3)));
+
+        assertEquals(5, results.size());
+        assertEquals(3, results.get(0).getData().getAllocatedSeatNumbers().size());
+        assertEquals("Invalid origin or destination", results.get(1).getError());
+        assertEquals(4, results.get(2).getData().getAllocatedSeatNumbers().size());
+        // The second request no longer fits the first bus and moves on to the second one
+        assertEquals(List.of("1A", "1B", "2A"), results.get(3).getData().getAllocatedSeatNumbers());
+        assertFalse(results.get(4).isSuccess());
+        assertEquals("Not enough seats available for " + travelDate, results.get(4).getMessage());
+        assertEquals(results.get(0).getData().getReservationId(),
+                service.getReservation(results.get(0).getData().getReservationId()).getReservationId());
+    }
+
+    @Test
+    void checkAvailabilityCalendar_reportsEveryDateInOnePass() {
+        Bus weekdays = new Bus.Builder()
+                .busId("WEEKDAYS")
+                .stops("A", "C")
+                .seatLayout(2, 'A', 'B')
+                .ticketPrice("A", "C", BigDecimal.valueOf(70))
+                .travelDuration("A", "C", 150)
+                .operatingDays(EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY))
+                .build();
+        BusReservationService service = new BusReservationService.Builder(Fleet.of(weekdays, shuttle("SHUTTLE-1"))).build();
+        LocalDate firstDate = LocalDate.parse(travelDate);
+        service.reserveTicket(reservation("A", "C", 3));
+
+        AvailabilityCalendarResponse calendar = service.checkAvailabilityCalendar("A", "C", 2, firstDate, 7);
+
+        assertEquals(7, calendar.getDays().size());
+        for (int day = 0; day < 7; day++) {
+            CalendarDay calendarDay = calendar.getDays().get(day);
+            LocalDate date = firstDate.plusDays(day);
+            boolean weekday = date.getDayOfWeek().getValue() <= 5;
+            assertEquals(date.toString(), calendarDay.travelDate());
+            if (day == 0 && !weekday) {
+                // Only the shuttle runs, and the booking left it one seat
+                assertEquals(1, calendarDay.freeSeats());
+                assertFalse(calendarDay.seatAvailability());
+                assertNull(calendarDay.pricingInfo());
+                continue;
+            }
+            assertEquals(4, calendarDay.freeSeats());
+            assertTrue(calendarDay.seatAvailability());
+            // Fill-first books the cheaper weekday bus whenever it runs with room
+            BigDecimal expectedPrice = weekday && day > 0 ? new BigDecimal("140") : new BigDecimal("160");
+            assertEquals(expectedPrice, calendarDay.pricingInfo().totalPrice());
+        }
+        assertThrows(RouteNotFoundException.class, () -> service.checkAvailabilityCalendar("A", "X", 1, firstDate, 7));
+    }
+
+    @Test
+    void reserveTicket_fillFirstMovesToNextBusWhenFull() {
+        Bus first = new Bus();
+        Bus second = shuttle("SHUTTLE-1");
+        BusReservationService service = new BusReservationService.Builder(Fleet.of(first, second)).build();
+
+        service.reserveTicket(reservation("A", "C", 40));
+        AvailabilityResponse availability = service.checkAvailability(new AvailabilityRequest.Builder()
+                .origin("A")
+                .destination("C")
+                .travelDate(travelDate)
+                .passengerCount(2)
+                .build());
+        ReservationResponse response = service.reserveTicket(reservation("A", "C", 2));
+
+        assertTrue(availability.isSeatAvailability());
+        assertEquals(new BigDecimal("160"), availability.getPricingInfo().totalPrice());
+        assertEquals(2, response.getAllocatedSeatNumbers().size());
+        assertThrows(NotEnoughSeatException.class, () -> service.reserveTicket(reservation("A", "C", 3)));
+        assertThrows(NotEnoughSeatException.class, () -> service.reserveTicket(reservation("A", "B", 1)));
+    }
+
+    @Test
+    void reserveTicket_balanceSpreadsBookingsOverBuses() {
+        Bus first = shuttle("SHUTTLE-1");
+        Bus second = shuttle("SHUTTLE-2");
+        BusReservationService service = new BusReservationService.Builder(Fleet.of(first, second))
+                .allocationPolicy(AllocationPolicy.BALANCE)
+                .build();
+
+        ReservationResponse firstBooking = service.reserveTicket(reservation("A", "C", 1));
+        ReservationResponse secondBooking = service.reserveTicket(reservation("A", "C", 1));
+
+        // Each booking lands on the emptier bus, so both take the first seat of their bus
+        assertEquals(List.of("1A"), firstBooking.getAllocatedSeatNumbers());
+        assertEquals(List.of("1A"), secondBooking.getAllocatedSeatNumbers());
+        assertThrows(NotEnoughSeatException.class, () -> service.reserveTicket(reservation("A", "C", 4)));
+        assertEquals(3, service.reserveTicket(reservation("A", "C", 3)).getAllocatedSeatNumbers().size());
+    }
+
+    private ReservationRequest reservation(String origin, String destination, int passengers) {
+        return new ReservationRequest.Builder()
+                .origin(origin)
+                .destination(destination)
+                .travelDate(travelDate)
+                .passengerCount(passengers)
+                .paymentAmount(BigDecimal.valueOf(80L * passengers))
+                .build();
+    }
+
+    private AvailabilityRequest availability(String origin, String destination, int passengers) {
+        return new AvailabilityRequest.Builder()
+                .origin(origin)
+                .destination(destination)
+                .travelDate(travelDate)
+                .passengerCount(passengers)
+                .build();
+    }
+
+    private static ConfirmRequest confirmation(HoldResponse hold) {
+        return confirmation(hold, hold.getTotalPrice());
+    }
+
+    private static ConfirmRequest confirmation(HoldResponse hold, BigDecimal paymentAmount) {
+        return new ConfirmRequest.Builder()
+                .holdId(hold.getHoldId())
+                .paymentAmount(paymentAmount)
+                .build();
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private static Bus shuttle(String busId) {
+        return new Bus.Builder()
+                .busId(busId)
+                .stops("A", "C")
+                .seatLayout(2, 'A', 'B')
+                .ticketPrice("A", "C", BigDecimal.valueOf(80))
+                .travelDuration("A", "C", 150)
+                .baseDepartureTime(7)
+                .baseReturnDepartureTime(17)
+                .build();
+    }
 }
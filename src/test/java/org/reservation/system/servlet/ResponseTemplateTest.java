@@ -0,0 +1,47 @@
+package org.reservation.system.servlet;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.reservation.system.model.response.ApiResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseTemplateTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void write_matchesSerialiserForAnyValue() throws IOException {
+        ResponseTemplate template = ResponseTemplate.of(objectMapper, error -> ApiResponse.error(error, null));
+
+        for (String value : new String[]{"Invalid origin or destination", "", "quote \" backslash \\ tab \t", "Zürich → Genève", "\u0001", null}) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            template.write(out, value);
+
+            String expected = objectMapper.writeValueAsString(ApiResponse.error(value, null));
+            assertEquals(expected, out.toString(StandardCharsets.UTF_8));
+            assertEquals(expected, new String(template.toBytes(value), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void constant_writesSerialisedResponse() throws IOException {
+        ApiResponse<Void> response = ApiResponse.error("Internal Server Error", null);
+        ResponseTemplate template = ResponseTemplate.constant(objectMapper, response);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        template.write(out);
+
+        assertEquals(objectMapper.writeValueAsString(response), out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void of_rejectsResponseWithoutVariableField() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ResponseTemplate.of(objectMapper, error -> ApiResponse.error("Internal Server Error", null)));
+    }
+}
@@ -0,0 +1,71 @@
+package org.reservation.system.servlet;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.reservation.system.event.SeatEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatEventStreamTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void writeEvent_writesIdTypeAndJsonData() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SeatEventStream stream = new SeatEventStream(out, objectMapper.getFactory(), 1700);
+
+        stream.writeEvent(new SeatEvent(41, SeatEvent.Type.SEATS_RELEASED, "res-1", "BUS-1", LocalDate.of(2025, 3, 1), true,
+                "C", "A", List.of("1A", "1B"), 123));
+        stream.writeEvent(new SeatEvent(42, SeatEvent.Type.RESERVATION_CANCELLED, "res-\"2\"", "BUS-1", LocalDate.of(2025, 3, 1), true,
+                "C", "A", List.of("1A"), 124));
+        assertEquals(0, out.size());
+        stream.flush();
+
+        String[] frames = out.toString(StandardCharsets.UTF_8).split("\n\n");
+        assertEquals(2, frames.length);
+        String[] lines = frames[0].split("\n");
+        assertEquals("id: 1700-41", lines[0]);
+        assertEquals("event: SEATS_RELEASED", lines[1]);
+        JsonNode data = objectMapper.readTree(lines[2].substring("data: ".length()));
+        assertEquals(41, data.get("sequence").asLong());
+        assertEquals("res-1", data.get("bookingId").asText());
+        assertEquals("2025-03-01", data.get("travelDate").asText());
+        assertTrue(data.get("returnTrip").asBoolean());
+        assertEquals(2, data.get("seatNumbers").size());
+        assertEquals(123, data.get("timestampMillis").asLong());
+        assertEquals("res-\"2\"", objectMapper.readTree(frames[1].split("\n")[2].substring("data: ".length())).get("bookingId").asText());
+    }
+
+    @Test
+    void resetAndHeartbeat_areFramesOfTheirOwn() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SeatEventStream stream = new SeatEventStream(out, objectMapper.getFactory(), 1700);
+
+        stream.writeReset(7);
+        stream.writeHeartbeat();
+        stream.flush();
+
+        assertEquals("event: reset\ndata: {\"sequence\":7}\n\n: keep-alive\n\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void resumeFrom_acceptsOnlyIdsOfTheSameRing() {
+        assertEquals(42, SeatEventStream.resumeFrom("1700-41", 1700));
+        assertEquals(1, SeatEventStream.resumeFrom("1700-0", 1700));
+        assertEquals(SeatEventStream.CANNOT_RESUME, SeatEventStream.resumeFrom("1700--1", 1700));
+        assertEquals(SeatEventStream.CANNOT_RESUME, SeatEventStream.resumeFrom("1699-41", 1700));
+        assertEquals(SeatEventStream.CANNOT_RESUME, SeatEventStream.resumeFrom(null, 1700));
+        assertEquals(SeatEventStream.CANNOT_RESUME, SeatEventStream.resumeFrom("", 1700));
+        assertEquals(SeatEventStream.CANNOT_RESUME, SeatEventStream.resumeFrom("41", 1700));
+        assertEquals(SeatEventStream.CANNOT_RESUME, SeatEventStream.resumeFrom("1700-x", 1700));
+        assertEquals(SeatEventStream.CANNOT_RESUME, SeatEventStream.resumeFrom("-41", 1700));
+    }
+}
@@ -0,0 +1,72 @@
+package org.reservation.system.shard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashRingTest {
+
+    private static final int KEYS = 100_000;
+
+    @Test
+    void nodeFor_spreadsKeysEvenly() {
+        HashRing ring = new HashRing(List.of("node-1", "node-2", "node-3", "node-4"));
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(ring.nodeFor("key-" + i), 1, Integer::sum);
+        }
+
+        assertEquals(4, counts.size());
+        for (int count : counts.values()) {
+            assertEquals(KEYS / 4.0, count, KEYS / 4.0 * 0.25);
+        }
+    }
+
+    @Test
+    void withNode_movesOnlyKeysToTheNewNode() {
+        HashRing ring = new HashRing(List.of("node-1", "node-2", "node-3"));
+        HashRing grown = ring.withNode("node-4");
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String before = ring.nodeFor("key-" + i);
+            String after = grown.nodeFor("key-" + i);
+            if (!before.equals(after)) {
+                assertEquals("node-4", after);
+                moved++;
+            }
+        }
+
+        assertEquals(KEYS / 4.0, moved, KEYS / 4.0 * 0.25);
+    }
+
+    @Test
+    void withoutNode_movesOnlyTheRemovedNodesKeys() {
+        HashRing ring = new HashRing(List.of("node-1", "node-2", "node-3"));
+        HashRing shrunk = ring.withoutNode("node-2");
+
+        for (int i = 0; i < KEYS; i++) {
+            String before = ring.nodeFor("key-" + i);
+            if (!before.equals("node-2")) {
+                assertEquals(before, shrunk.nodeFor("key-" + i));
+            }
+        }
+        assertEquals(2, shrunk.getNodes().size());
+        assertThrows(IllegalArgumentException.class, () -> new HashRing(List.of("node-1")).withoutNode("node-1"));
+    }
+
+    @Test
+    void nodeFor_isTheSameForEqualRings() {
+        HashRing ring = new HashRing(List.of("node-1", "node-2"));
+        HashRing other = new HashRing(List.of("node-2", "node-1"));
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(ring.nodeFor("key-" + i), other.nodeFor("key-" + i));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.reservation.system.shard;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardMemberTest {
+
+    @Test
+    void parseAll_readsAddressesAndDates() {
+        List<ShardMember> members = ShardMember.parseAll("a=127.0.0.1:9101, b=127.0.0.1:9102@2030-01-01,"
+                + "c=127.0.0.1:9103@..2030-02-01,d=127.0.0.1:9104@2030-01-01..2030-02-01");
+
+        assertEquals(List.of("a", "b", "c", "d"), members.stream().map(ShardMember::name).toList());
+        assertEquals(9102, members.get(1).address().getPort());
+        assertNull(members.get(0).joinsFrom());
+        assertEquals(LocalDate.of(2030, 1, 1), members.get(1).joinsFrom());
+        assertNull(members.get(1).leavesFrom());
+        assertNull(members.get(2).joinsFrom());
+        assertEquals(LocalDate.of(2030, 2, 1), members.get(2).leavesFrom());
+        assertEquals(LocalDate.of(2030, 1, 1), members.get(3).joinsFrom());
+        assertEquals(LocalDate.of(2030, 2, 1), members.get(3).leavesFrom());
+    }
+
+    @Test
+    void parseAll_rejectsMalformedShards() {
+        for (String shards : List.of("a", "a=127.0.0.1", "=127.0.0.1:1", "a=127.0.0.1:x", "a=127.0.0.1:1@",
+                "a=127.0.0.1:1@2030-13-01", "a=127.0.0.1:1@2030-02-01..2030-01-01", "a=127.0.0.1:1,a=127.0.0.1:2")) {
+            assertThrows(IllegalArgumentException.class, () -> ShardMember.parseAll(shards), shards);
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package org.reservation.system.shard;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.reservation.system.exception.HoldNotFoundException;
+import org.reservation.system.exception.NotEnoughSeatException;
+import org.reservation.system.exception.RequestValidationException;
+import org.reservation.system.exception.ReservationNotFoundException;
+import org.reservation.system.exception.RouteNotFoundException;
+import org.reservation.system.exception.ShardUnavailableException;
+import org.reservation.system.model.Bus;
+import org.reservation.system.model.Fleet;
+import org.reservation.system.model.request.AvailabilityRequest;
+import org.reservation.system.model.request.ConfirmRequest;
+import org.reservation.system.model.request.ReservationRequest;
+import org.reservation.system.model.response.ApiResponse;
+import org.reservation.system.model.response.AvailabilityCalendarResponse;
+import org.reservation.system.model.response.CalendarDay;
+import org.reservation.system.model.response.HoldResponse;
+import org.reservation.system.model.response.ReservationResponse;
+import org.reservation.system.service.BusReservationService;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.reservation.system.Constant.DefaultConfig.MAX_RESERVATION_DAYS;
+
+class ShardRouterTest {
+
+    private final Map<String, BusReservationService> services = new LinkedHashMap<>();
+    private final Map<String, ShardServer> servers = new LinkedHashMap<>();
+    private ShardRouter router;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Map<String, ShardClient> clients = new LinkedHashMap<>();
+        for (String name : List.of("shard-1", "shard-2")) {
+            BusReservationService service = new BusReservationService(new Bus());
+            ShardServer server = ShardServer.start(service, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            services.put(name, service);
+            servers.put(name, server);
+            clients.put(name, new ShardClient(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()), 4, 5000));
+        }
+        router = new ShardRouter(Fleet.of(new Bus()), clients);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        router.close();
+        for (ShardServer server : servers.values()) {
+            server.close();
+        }
+    }
+
+    @Test
+    void reserveTicket_isBookedOnTheShardOwningTheDate() {
+        for (int day = 1; day <= MAX_RESERVATION_DAYS; day++) {
+            LocalDate date = LocalDate.now().plusDays(day);
+            ReservationResponse response = router.reserveTicket(reservation("A", "B", date, 1));
+
+            String owner = router.shardNameFor("A", "B", date);
+            assertTrue(response.getReservationId().startsWith(owner + ":"));
+            String shardId = response.getReservationId().substring(owner.length() + 1);
+            for (Map.Entry<String, BusReservationService> shard : services.entrySet()) {
+                if (shard.getKey().equals(owner)) {
+                    assertEquals(shardId, shard.getValue().getReservation(shardId).getReservationId());
+                } else {
+                    assertThrows(ReservationNotFoundException.class, () -> shard.getValue().getReservation(shardId));
+                }
+            }
+        }
+        assertEquals(MAX_RESERVATION_DAYS, services.values().stream().mapToInt(BusReservationService::getReservationCount).sum());
+    }
+
+    @Test
+    void shardNameFor_spreadsDatesOverShards() {
+        long owners = LocalDate.now().plusDays(1).datesUntil(LocalDate.now().plusDays(MAX_RESERVATION_DAYS + 1))
+                .map(date -> router.shardNameFor("A", "D", date))
+                .distinct()
+                .count();
+
+        assertEquals(2, owners);
+        assertEquals(router.shardNameFor("A", "B", LocalDate.now()), router.shardNameFor("C", "D", LocalDate.now()));
+        assertThrows(RouteNotFoundException.class, () -> router.shardNameFor("A", "Z", LocalDate.now()));
+    }
+
+    @Test
+    void getAndCancelReservation_findTheOwningShard() {
+        ReservationResponse reserved = router.reserveTicket(reservation("A", "C", LocalDate.now().plusDays(3), 2));
+
+        assertEquals(reserved.getAllocatedSeatNumbers(), router.getReservation(reserved.getReservationId()).getAllocatedSeatNumbers());
+        router.cancelReservation(reserved.getReservationId());
+
+        ReservationNotFoundException notFound =
+                assertThrows(ReservationNotFoundException.class, () -> router.getReservation(reserved.getReservationId()));
+        assertEquals("Reservation " + reserved.getReservationId() + " not found", notFound.getMessage());
+        assertThrows(ReservationNotFoundException.class, () -> router.getReservation("unknown"));
+        assertThrows(ReservationNotFoundException.class, () -> router.getReservation("shard-9:unknown"));
+    }
+
+    @Test
+    void shardExceptions_areRethrownAsTheSameType() {
+        LocalDate date = LocalDate.now().plusDays(2);
+        router.reserveTicket(reservation("A", "D", date, 40));
+
+        assertThrows(NotEnoughSeatException.class, () -> router.reserveTicket(reservation("A", "B", date, 1)));
+        assertThrows(HoldNotFoundException.class, () -> router.confirmHold(new ConfirmRequest.Builder()
+                .holdId("unknown")
+                .paymentAmount(BigDecimal.TEN)
+                .build()));
+    }
+
+    @Test
+    void shardServer_rejectsRequestsTheServletWouldReject() {
+        LocalDate pastWindow = LocalDate.now().plusDays(MAX_RESERVATION_DAYS + 1);
+        LocalDate date = LocalDate.now().plusDays(2);
+        ShardClient client = new ShardClient(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), servers.get("shard-1").getPort()), 1, 5000);
+        try (client) {
+            assertThrows(RequestValidationException.class, () -> client.reserveTicket(reservation("A", "B", pastWindow, 1)));
+            assertThrows(RequestValidationException.class, () -> client.reserveTicket(reservation("A", "B", date, 0)));
+            assertThrows(RequestValidationException.class, () -> client.holdSeats(new AvailabilityRequest.Builder()
+                    .origin("A")
+                    .destination("B")
+                    .passengerCount(-1)
+                    .travelDate(date.toString())
+                    .build()));
+            assertThrows(RequestValidationException.class, () -> client.checkAvailabilityCalendar("A", "B", 1, date, 100));
+
+            List<ApiResponse<ReservationResponse>> results =
+                    client.reserveTickets(List.of(reservation("A", "B", pastWindow, 1), reservation("A", "B", date, 1)));
+            assertFalse(results.get(0).isSuccess());
+            assertTrue(results.get(1).isSuccess());
+        }
+        assertEquals(1, services.get("shard-1").getReservationCount());
+        assertEquals(1, services.get("shard-1").getTripCount());
+    }
+
+    @Test
+    void holdAndConfirm_goThroughTheOwningShard() {
+        HoldResponse hold = router.holdSeats(new AvailabilityRequest.Builder()
+                .origin("B")
+                .destination("D")
+                .passengerCount(2)
+                .travelDate(LocalDate.now().plusDays(4).toString())
+                .build());
+
+        ReservationResponse confirmed = router.confirmHold(new ConfirmRequest.Builder()
+                .holdId(hold.getHoldId())
+                .paymentAmount(hold.getTotalPrice())
+                .build());
+
+        assertEquals(2, confirmed.getAllocatedSeatNumbers().size());
+        assertEquals(confirmed.getReservationId(), router.getReservation(confirmed.getReservationId()).getReservationId());
+    }
+
+    @Test
+    void checkAvailabilityCalendar_mergesTheShardsInDateOrder() {
+        LocalDate firstDate = LocalDate.now().plusDays(1);
+        router.reserveTicket(reservation("A", "B", firstDate.plusDays(1), 40));
+
+        AvailabilityCalendarResponse calendar = router.checkAvailabilityCalendar("A", "B", 1, firstDate, MAX_RESERVATION_DAYS);
+
+        List<CalendarDay> days = calendar.getDays();
+        assertEquals(MAX_RESERVATION_DAYS, days.size());
+        for (int day = 0; day < days.size(); day++) {
+            assertEquals(firstDate.plusDays(day).toString(), days.get(day).travelDate());
+        }
+        assertFalse(days.get(1).seatAvailability());
+        assertTrue(days.get(0).seatAvailability());
+    }
+
+    @Test
+    void reserveTickets_splitsTheBatchByShardInRequestOrder() {
+        List<ReservationRequest> requests = List.of(
+                reservation("A", "B", LocalDate.now().plusDays(1), 1),
+                reservation("A", "Z", LocalDate.now().plusDays(1), 1),
+                reservation("A", "B", LocalDate.now().plusDays(2), 1),
+                reservation("A", "B", LocalDate.now().plusDays(3), 1),
+                reservation("A", "B", LocalDate.now().plusDays(4), 1));
+
+        List<ApiResponse<ReservationResponse>> results = router.reserveTickets(requests);
+
+        assertEquals(5, results.size());
+        assertEquals("Invalid origin or destination", results.get(1).getError());
+        for (int i : new int[]{0, 2, 3, 4}) {
+            assertTrue(results.get(i).isSuccess());
+            assertEquals(requests.get(i).getTravelDate(),
+                    router.getReservation(results.get(i).getData().getReservationId()).getDepartureTime().substring(0, 10));
+        }
+    }
+
+    @Test
+    void unavailableShard_failsOnlyItsOwnRequests() throws IOException {
+        LocalDate up = null;
+        LocalDate down = null;
+        for (int day = 1; day <= MAX_RESERVATION_DAYS; day++) {
+            LocalDate date = LocalDate.now().plusDays(day);
+            if (router.shardNameFor("A", "B", date).equals("shard-1")) {
+                up = date;
+            } else {
+                down = date;
+            }
+        }
+        ReservationResponse kept = router.reserveTicket(reservation("A", "B", up, 1));
+        ReservationResponse lost = router.reserveTicket(reservation("A", "B", down, 1));
+        servers.get("shard-2").close();
+
+        LocalDate unavailableDate = down;
+        assertThrows(ShardUnavailableException.class, () -> router.reserveTicket(reservation("A", "B", unavailableDate, 1)));
+        assertEquals(kept.getReservationId(), router.getReservation(kept.getReservationId()).getReservationId());
+        assertThrows(ShardUnavailableException.class, () -> router.getReservation(lost.getReservationId()));
+        List<ApiResponse<ReservationResponse>> results = router.reserveTickets(List.of(
+                reservation("A", "B", up, 1),
+                reservation("A", "B", down, 1)));
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+    }
+
+    @Test
+    void addShard_takesEffectFromItsDateOnly() {
+        LocalDate effectiveFrom = LocalDate.now().plusDays(MAX_RESERVATION_DAYS + 1);
+        assertThrows(IllegalArgumentException.class,
+                () -> router.addShard("shard-3", new BusReservationService(new Bus()), LocalDate.now().plusDays(MAX_RESERVATION_DAYS)));
+
+        Map<LocalDate, String> before = new LinkedHashMap<>();
+        effectiveFrom.minusDays(30).datesUntil(effectiveFrom.plusDays(300)).forEach(date -> before.put(date, router.shardNameFor("A", "B", date)));
+        router.addShard("shard-3", new BusReservationService(new Bus()), effectiveFrom);
+
+        int moved = 0;
+        for (Map.Entry<LocalDate, String> owner : before.entrySet()) {
+            String after = router.shardNameFor("A", "B", owner.getKey());
+            if (owner.getKey().isBefore(effectiveFrom)) {
+                assertEquals(owner.getValue(), after);
+            } else if (!owner.getValue().equals(after)) {
+                assertEquals("shard-3", after);
+                moved++;
+            }
+        }
+        assertTrue(moved > 0);
+    }
+
+    @Test
+    void open_rebuildsPlacementsFromTheMembersDates(@TempDir Path dir) {
+        LocalDate joins = LocalDate.now().plusDays(MAX_RESERVATION_DAYS + 10);
+        LocalDate leaves = joins.plusDays(100);
+        String config = "a=127.0.0.1:1,b=127.0.0.1:2@.." + leaves + ",c=127.0.0.1:3@" + joins;
+        ShardRouter opened = ShardRouter.open(Fleet.of(new Bus()), ShardMember.parseAll(config), ShardRouterTest::shardAt,
+                dir.resolve("shard.placements"), Clock.systemDefaultZone());
+
+        ShardRouter expected = new ShardRouter(Fleet.of(new Bus()), Map.of("a", shardAt(null), "b", shardAt(null)));
+        expected.addShard("c", shardAt(null), joins);
+        expected.removeShard("b", leaves);
+        LocalDate.now().datesUntil(leaves.plusDays(60)).forEach(date ->
+                assertEquals(expected.shardNameFor("A", "B", date), opened.shardNameFor("A", "B", date)));
+        assertTrue(LocalDate.now().datesUntil(joins).noneMatch(date -> opened.shardNameFor("A", "B", date).equals("c")));
+        assertTrue(leaves.datesUntil(leaves.plusDays(60)).noneMatch(date -> opened.shardNameFor("A", "B", date).equals("b")));
+    }
+
+    @Test
+    void open_rejectsConfigurationsMovingDatesOfTheBookingWindow(@TempDir Path dir) {
+        Path placements = dir.resolve("shard.placements");
+        ShardRouter.open(Fleet.of(new Bus()), ShardMember.parseAll("a=127.0.0.1:1,b=127.0.0.1:2"), ShardRouterTest::shardAt, placements, Clock.systemDefaultZone());
+
+        assertThrows(IllegalArgumentException.class, () -> ShardRouter.open(Fleet.of(new Bus()),
+                ShardMember.parseAll("a=127.0.0.1:1,b=127.0.0.1:2,c=127.0.0.1:3"), ShardRouterTest::shardAt, placements, Clock.systemDefaultZone()));
+        assertThrows(IllegalArgumentException.class, () -> ShardRouter.open(Fleet.of(new Bus()),
+                ShardMember.parseAll("a=127.0.0.1:1,b=127.0.0.1:2,c=127.0.0.1:3@" + LocalDate.now().plusDays(1)),
+                ShardRouterTest::shardAt, placements, Clock.systemDefaultZone()));
+
+        LocalDate afterWindow = LocalDate.now().plusDays(MAX_RESERVATION_DAYS + 1);
+        ShardRouter.open(Fleet.of(new Bus()), ShardMember.parseAll("a=127.0.0.1:1,b=127.0.0.1:2,c=127.0.0.1:3@" + afterWindow),
+                ShardRouterTest::shardAt, placements, Clock.systemDefaultZone());
+        assertThrows(IllegalArgumentException.class, () -> ShardRouter.open(Fleet.of(new Bus()),
+                ShardMember.parseAll("c=127.0.0.1:3@" + afterWindow), ShardRouterTest::shardAt, placements, Clock.systemDefaultZone()));
+    }
+
+    @Test
+    void addShard_measuresTheBookingWindowByTheRoutersClock() {
+        LocalDate today = LocalDate.of(2030, 3, 10);
+        LocalDate effectiveFrom = today.plusDays(MAX_RESERVATION_DAYS + 1);
+
+        ShardRouter nextDay = new ShardRouter(Fleet.of(new Bus()), Map.of("a", shardAt(null)), clockOn(today.plusDays(1)));
+        assertThrows(IllegalArgumentException.class, () -> nextDay.addShard("b", shardAt(null), effectiveFrom));
+
+        ShardRouter sameDay = new ShardRouter(Fleet.of(new Bus()), Map.of("a", shardAt(null)), clockOn(today));
+        sameDay.addShard("b", shardAt(null), effectiveFrom);
+        assertEquals(Set.of("a"), effectiveFrom.minusDays(30).datesUntil(effectiveFrom)
+                .map(date -> sameDay.shardNameFor("A", "B", date))
+                .collect(Collectors.toSet()));
+    }
+
+    @Test
+    void open_checksKeptPlacementsFromTheRoutersDate(@TempDir Path dir) {
+        Path placements = dir.resolve("shard.placements");
+        LocalDate today = LocalDate.of(2030, 3, 10);
+        LocalDate joins = today.plusDays(MAX_RESERVATION_DAYS + 1);
+        String config = "a=127.0.0.1:1,b=127.0.0.1:2,c=127.0.0.1:3@" + joins;
+        ShardRouter.open(Fleet.of(new Bus()), ShardMember.parseAll("a=127.0.0.1:1,b=127.0.0.1:2"), ShardRouterTest::shardAt,
+                placements, clockOn(today));
+
+        assertThrows(IllegalArgumentException.class, () -> ShardRouter.open(Fleet.of(new Bus()), ShardMember.parseAll(config),
+                ShardRouterTest::shardAt, placements, clockOn(today.plusDays(1))));
+        ShardRouter.open(Fleet.of(new Bus()), ShardMember.parseAll(config), ShardRouterTest::shardAt, placements, clockOn(today));
+        ShardRouter.open(Fleet.of(new Bus()), ShardMember.parseAll(config), ShardRouterTest::shardAt, placements,
+                clockOn(today.plusDays(1)));
+    }
+
+    private static Clock clockOn(LocalDate date) {
+        return Clock.fixed(date.atStartOfDay(ZoneOffset.UTC).toInstant(), ZoneOffset.UTC);
+    }
+
+    private static BusReservationService shardAt(InetSocketAddress address) {
+        return new BusReservationService(new Bus());
+    }
+
+    private static ReservationRequest reservation(String origin, String destination, LocalDate date, int passengers) {
+        return new ReservationRequest.Builder()
+                .origin(origin)
+                .destination(destination)
+                .travelDate(date.toString())
+                .passengerCount(passengers)
+                .paymentAmount(new BigDecimal("50").multiply(BigDecimal.valueOf(passengers)))
+                .build();
+    }
+}
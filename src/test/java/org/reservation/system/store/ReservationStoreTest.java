@@ -0,0 +1,70 @@
+package org.reservation.system.store;
+
+import org.junit.jupiter.api.Test;
+import org.reservation.system.model.Bus;
+import org.reservation.system.model.Reservation;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReservationStoreTest {
+
+    private static final LocalDate TRAVEL_DATE = LocalDate.now().plusDays(1);
+
+    private final Bus bus = new Bus();
+    private final ReservationStore store = new ReservationStore();
+
+    @Test
+    void add_indexesByIdDateAndTrip() {
+        Reservation outbound = reservation("A", "C", TRAVEL_DATE);
+        Reservation inbound = reservation("D", "B", TRAVEL_DATE);
+        Reservation later = reservation("A", "B", TRAVEL_DATE.plusDays(1));
+        store.add(outbound);
+        store.add(inbound);
+        store.add(later);
+
+        assertSame(inbound, store.get(inbound.getReservationId()));
+        assertEquals(2, store.findByTravelDate(TRAVEL_DATE).size());
+        assertEquals(List.of(outbound), store.findByTrip("BUS-1", TRAVEL_DATE, false));
+        assertEquals(List.of(inbound), store.findByTrip("BUS-1", TRAVEL_DATE, true));
+        assertFalse(store.add(outbound));
+        assertEquals(3, store.size());
+    }
+
+    @Test
+    void remove_dropsReservationFromEveryIndex() {
+        Reservation reservation = reservation("A", "C", TRAVEL_DATE);
+        store.add(reservation);
+
+        assertSame(reservation, store.remove(reservation.getReservationId()));
+
+        assertNull(store.get(reservation.getReservationId()));
+        assertTrue(store.findByTravelDate(TRAVEL_DATE).isEmpty());
+        assertTrue(store.findByTrip("BUS-1", TRAVEL_DATE, false).isEmpty());
+        assertTrue(store.getTravelDates().isEmpty());
+        assertNull(store.remove(reservation.getReservationId()));
+    }
+
+    @Test
+    void evictTravelDate_removesOnlyThatDate() {
+        Reservation departed = reservation("A", "C", TRAVEL_DATE);
+        Reservation kept = reservation("A", "C", TRAVEL_DATE.plusDays(1));
+        store.add(departed);
+        store.add(kept);
+
+        assertEquals(List.of(departed), store.evictTravelDate(TRAVEL_DATE));
+
+        assertNull(store.get(departed.getReservationId()));
+        assertTrue(store.findByTrip("BUS-1", TRAVEL_DATE, false).isEmpty());
+        assertSame(kept, store.get(kept.getReservationId()));
+        assertEquals(List.of(TRAVEL_DATE.plusDays(1)), List.copyOf(store.getTravelDates()));
+    }
+
+    private Reservation reservation(String origin, String destination, LocalDate travelDate) {
+        return new Reservation(bus.getRoute(origin, destination), bus, travelDate, List.of("1A"), BigDecimal.TEN,
+                travelDate.atTime(9, 0), travelDate.atTime(12, 0));
+    }
+}
@@ -0,0 +1,29 @@
+package org.reservation.system.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogSamplerTest {
+
+    @Test
+    void sample_picksOneInEveryInterval() {
+        LogSampler sampler = new LogSampler(10);
+        int sampled = 0;
+        for (int i = 0; i < 100; i++) {
+            if (sampler.sample()) {
+                sampled++;
+            }
+        }
+
+        assertEquals(10, sampled);
+    }
+
+    @Test
+    void sample_picksNoneWhenDisabled() {
+        LogSampler sampler = new LogSampler(0);
+
+        assertFalse(sampler.sample());
+        assertFalse(sampler.sample());
+    }
+}
@@ -0,0 +1,76 @@
+package org.reservation.system.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimerWheelTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void advance_firesEntriesOnceTheirDeadlinePassed() {
+        TimerWheel<String> wheel = new TimerWheel<>(1000, START);
+        wheel.schedule("late", START + 2500);
+        wheel.schedule("early", START + 1000);
+        List<String> fired = new ArrayList<>();
+
+        wheel.advance(START + 999, fired::add);
+        assertEquals(List.of(), fired);
+        wheel.advance(START + 1000, fired::add);
+        assertEquals(List.of("early"), fired);
+        wheel.advance(START + 2999, fired::add);
+        assertEquals(List.of("early"), fired);
+        wheel.advance(START + 3000, fired::add);
+        assertEquals(List.of("early", "late"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advance_cascadesEntriesFromHigherLevels() {
+        TimerWheel<Long> wheel = new TimerWheel<>(1, START);
+        long[] delays = {0, 1, 63, 64, 65, 4095, 4096, 4097, 262_143, 262_144, 300_000};
+        for (long delay : delays) {
+            wheel.schedule(delay, START + delay);
+        }
+        List<Long> fired = new ArrayList<>();
+
+        for (long now = START; now <= START + 300_000; now += 7) {
+            wheel.advance(now, fired::add);
+        }
+        wheel.advance(START + 300_000, fired::add);
+
+        assertEquals(delays.length, fired.size());
+        for (int i = 1; i < fired.size(); i++) {
+            assertTrue(fired.get(i - 1) <= fired.get(i), "Fired out of order: " + fired);
+        }
+    }
+
+    @Test
+    void advance_neverFiresBeforeDeadline() {
+        TimerWheel<Long> wheel = new TimerWheel<>(10, START);
+        Random random = new Random(42);
+        int entries = 50_000;
+        for (int i = 0; i < entries; i++) {
+            long deadline = START + random.nextInt(600_000);
+            wheel.schedule(deadline, deadline);
+        }
+        int[] fired = {0};
+
+        for (long now = START; now <= START + 600_010; now += 1000) {
+            long time = now;
+            wheel.advance(now, deadline -> {
+                assertTrue(deadline <= time, "Fired at " + time + " before deadline " + deadline);
+                assertTrue(deadline > time - 1010, "Fired late at " + time + " for deadline " + deadline);
+                fired[0]++;
+            });
+        }
+
+        assertEquals(entries, fired[0]);
+        assertEquals(0, wheel.size());
+    }
+}
@@ -123,6 +123,21 @@ class RequestValidatorTest {
         assertEquals("Passenger count must be greater than zero. Provided: 0", exception.getMessage());
     }
 
+    @Test
+    void validateCalendarRequest_ShouldThrowExceptionForDaysPastTheWindow() {
+        LocalDate firstDate = LocalDate.now().plusDays(MIN_RESERVATION_DAYS);
+        int days = MAX_RESERVATION_DAYS - MIN_RESERVATION_DAYS + 1;
+
+        assertDoesNotThrow(() -> RequestValidator.validateCalendarRequest(VALID_ORIGIN, VALID_DESTINATION,
+                VALID_PASSENGER_COUNT, firstDate, days));
+        assertThrows(RequestValidationException.class, () -> RequestValidator.validateCalendarRequest(VALID_ORIGIN,
+                VALID_DESTINATION, VALID_PASSENGER_COUNT, firstDate, days + 1));
+        Exception exception = assertThrows(RequestValidationException.class, () ->
+                RequestValidator.validateCalendarRequest(VALID_ORIGIN, VALID_DESTINATION, VALID_PASSENGER_COUNT, firstDate, 0));
+
+        assertEquals("Day count must be greater than zero. Provided: 0", exception.getMessage());
+    }
+
     @Test
     void validateTravelDate_ShouldThrowExceptionForNullDate() {
         Exception exception = assertThrows(RequestValidationException.class, () ->